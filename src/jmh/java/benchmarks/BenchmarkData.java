@@ -0,0 +1,46 @@
+package benchmarks;
+
+import models.Book;
+import models.BookList;
+import models.LoanList;
+import storage.DatasetGenerator;
+
+import java.util.List;
+
+/**
+ * Deterministic test data for the benchmarks, so every run and every commit measures the same catalog.
+ */
+final class BenchmarkData {
+    static final long SEED = 2103L;
+    private static final int HISTORY_DAYS = 365;
+
+    private BenchmarkData() {
+        // Utility class
+    }
+
+    /**
+     * Builds a synthetic catalog with Zipf-distributed authors and title words
+     * @param size number of books
+     * @return the books
+     */
+    static List<Book> books(int size) {
+        return new DatasetGenerator(SEED).generateCatalog(size);
+    }
+
+    static BookList bookList(int size) {
+        BookList bookList = new BookList();
+        bookList.addBooks(books(size));
+        return bookList;
+    }
+
+    /**
+     * Builds a year of loan history over a catalog, ending today so that loans still out are
+     * overdue by the same clock LoanList uses
+     * @param books the catalog
+     * @param size number of loans
+     * @return the loans
+     */
+    static LoanList loanList(List<Book> books, int size) {
+        return new DatasetGenerator(SEED).generateLoanList(books, size, HISTORY_DAYS);
+    }
+}
@@ -0,0 +1,91 @@
+package benchmarks;
+
+import models.Book;
+import models.BookList;
+import models.SearchCriteria;
+import models.SortCriteria;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog search and listing cost by catalog size and query shape.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BookListBenchmark {
+
+    /**
+     * Query shapes: a word in most titles, a word in few titles, an exact ISBN, and no match at all
+     */
+    public enum QueryShape {
+        COMMON("the", SearchCriteria.TITLE),
+        RARE("glass stone", SearchCriteria.TITLE),
+        ISBN("9780000000422", SearchCriteria.ISBN),
+        MISS("zzzz", SearchCriteria.ALL);
+
+        final String query;
+        final SearchCriteria criteria;
+
+        QueryShape(String query, SearchCriteria criteria) {
+            this.query = query;
+            this.criteria = criteria;
+        }
+    }
+
+    @Param({"1000", "100000", "1000000", "5000000"})
+    public int catalogSize;
+
+    @Param({"COMMON", "RARE", "ISBN", "MISS"})
+    public QueryShape queryShape;
+
+    @Param({"TITLE", "STATUS"})
+    public SortCriteria sortCriteria;
+
+    private BookList bookList;
+
+    @Setup
+    public void setUp() {
+        bookList = BenchmarkData.bookList(catalogSize);
+    }
+
+    @Benchmark
+    public List<Book> searchBooks() {
+        return bookList.searchBooks(queryShape.query, queryShape.criteria);
+    }
+
+    @Benchmark
+    public List<Book> searchTopTenByRelevance() {
+        return bookList.searchBooksByRelevance(queryShape.query, queryShape.criteria, 10);
+    }
+
+    @Benchmark
+    public List<Book> searchAndSortBooks() {
+        return bookList.searchAndSortBooks(queryShape.query, queryShape.criteria, sortCriteria, true);
+    }
+
+    @Benchmark
+    public List<Book> getSortedBooks() {
+        return bookList.getSortedBooks(sortCriteria, true);
+    }
+
+    @Benchmark
+    public Book getBook() {
+        return bookList.getBook("9780000000422");
+    }
+}
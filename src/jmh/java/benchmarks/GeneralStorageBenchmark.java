@@ -0,0 +1,65 @@
+package benchmarks;
+
+import models.BookList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import storage.GeneralStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of loading and saving the catalog file by catalog size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class GeneralStorageBenchmark {
+
+    @Param({"1000", "100000", "1000000", "5000000"})
+    public int catalogSize;
+
+    private BookList bookList;
+    private Path catalogFile;
+    private Path saveFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        bookList = BenchmarkData.bookList(catalogSize);
+        catalogFile = Files.createTempFile("bench-catalog", ".txt");
+        saveFile = Files.createTempFile("bench-save", ".txt");
+        GeneralStorage.saveBookList(catalogFile.toString(), bookList);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(catalogFile);
+        Files.deleteIfExists(saveFile);
+    }
+
+    @Benchmark
+    public BookList loadBookList() {
+        return GeneralStorage.loadBookList(catalogFile.toString());
+    }
+
+    @Benchmark
+    public void saveBookList() {
+        GeneralStorage.saveBookList(saveFile.toString(), bookList);
+    }
+}
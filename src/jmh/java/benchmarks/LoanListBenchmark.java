@@ -0,0 +1,67 @@
+package benchmarks;
+
+import models.Book;
+import models.Loan;
+import models.LoanList;
+import models.LoanSortCriteria;
+import models.LoanStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loan listing and statistics cost by number of loan records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class LoanListBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int loanCount;
+
+    @Param({"DUE_DATE", "BOOK_TITLE", "STATUS"})
+    public LoanSortCriteria sortCriteria;
+
+    private LoanList loanList;
+
+    @Setup
+    public void setUp() {
+        List<Book> books = BenchmarkData.books(Math.max(1000, loanCount / 5));
+        loanList = BenchmarkData.loanList(books, loanCount);
+    }
+
+    @Benchmark
+    public List<Loan> getSortedLoans() {
+        return loanList.getSortedLoans(sortCriteria, true);
+    }
+
+    @Benchmark
+    public List<Loan> getCurrentLoans() {
+        return loanList.getCurrentLoans();
+    }
+
+    @Benchmark
+    public List<Loan> getLoansByBorrower() {
+        return loanList.getLoansByBorrower("user7");
+    }
+
+    @Benchmark
+    public LoanStatistics getStatistics() {
+        return loanList.getStatistics();
+    }
+}
@@ -0,0 +1,102 @@
+package loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Relative weights of the operations in a load test, e.g. mostly searches with some loans
+ * and returns.
+ */
+public class LoadMix {
+    public static final LoadMix DEFAULT = parse("search=60,loan=15,return=15,my-loans=10");
+
+    private final Map<LoadOperation, Integer> weights;
+    private final LoadOperation[] operations;
+    private final int[] cumulative;
+
+    /**
+     * Creates a mix
+     * @param weights weight of each operation; operations left out are never picked
+     * @throws IllegalArgumentException if a weight is negative or all weights are zero
+     */
+    public LoadMix(Map<LoadOperation, Integer> weights) {
+        this.weights = new EnumMap<>(LoadOperation.class);
+        for (Map.Entry<LoadOperation, Integer> entry : weights.entrySet()) {
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("Weight of " + entry.getKey().getLabel() + " cannot be negative.");
+            }
+            if (entry.getValue() > 0) {
+                this.weights.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (this.weights.isEmpty()) {
+            throw new IllegalArgumentException("At least one operation needs a positive weight.");
+        }
+        this.operations = this.weights.keySet().toArray(new LoadOperation[0]);
+        this.cumulative = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total = Math.addExact(total, this.weights.get(operations[i]));
+            cumulative[i] = total;
+        }
+    }
+
+    /**
+     * Parses a mix such as "search=60,loan=15,return=15,my-loans=10"
+     * @param spec comma-separated operation=weight pairs
+     * @return the mix
+     * @throws IllegalArgumentException if the spec is malformed
+     */
+    public static LoadMix parse(String spec) {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (String pair : spec.split(",")) {
+            String[] parts = pair.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight but got: " + pair.trim());
+            }
+            try {
+                weights.put(LoadOperation.fromLabel(parts[0]), Integer.parseInt(parts[1].trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid weight: " + parts[1].trim());
+            }
+        }
+        return new LoadMix(weights);
+    }
+
+    /**
+     * Picks an operation with probability proportional to its weight
+     * @param random source of randomness
+     * @return the operation
+     */
+    public LoadOperation pick(Random random) {
+        int draw = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (draw < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    /**
+     * Gets the weight of an operation
+     * @param operation the operation
+     * @return its weight, 0 if it is never picked
+     */
+    public int getWeight(LoadOperation operation) {
+        return weights.getOrDefault(operation, 0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder spec = new StringBuilder();
+        weights.forEach((operation, weight) -> {
+            if (spec.length() > 0) {
+                spec.append(',');
+            }
+            spec.append(operation.getLabel()).append('=').append(weight);
+        });
+        return spec.toString();
+    }
+}
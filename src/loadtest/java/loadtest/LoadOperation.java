@@ -0,0 +1,37 @@
+package loadtest;
+
+/**
+ * Operations a simulated user performs against the library.
+ */
+public enum LoadOperation {
+    SEARCH("search"),
+    LOAN("loan"),
+    RETURN("return"),
+    MY_LOANS("my-loans");
+
+    private final String label;
+
+    LoadOperation(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Finds an operation by label, ignoring case and '-' or '_' separators
+     * @param label e.g. "my-loans" or "MY_LOANS"
+     * @return the operation
+     * @throws IllegalArgumentException if no operation has the label
+     */
+    public static LoadOperation fromLabel(String label) {
+        String normalized = label.trim().replace("-", "").replace("_", "");
+        for (LoadOperation operation : values()) {
+            if (operation.label.replace("-", "").equalsIgnoreCase(normalized)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + label);
+    }
+}
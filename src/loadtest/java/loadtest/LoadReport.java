@@ -0,0 +1,159 @@
+package loadtest;
+
+import utils.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of a load test: throughput, outcome counts and latency percentiles per operation,
+ * and any invariant violations found.
+ */
+public class LoadReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final int users;
+    private final Duration duration;
+    private final Map<LoadOperation, Stats> stats;
+    private final List<String> violations;
+    private final long violationCount;
+
+    LoadReport(int users, Duration duration, Map<LoadOperation, Stats> stats, List<String> violations,
+               long violationCount) {
+        this.users = users;
+        this.duration = duration;
+        this.stats = new EnumMap<>(stats);
+        this.violations = List.copyOf(violations);
+        this.violationCount = violationCount;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    /**
+     * Gets the length of the measured part of the run, after the warmup
+     * @return the measured duration
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the number of completed operations of a kind, whatever their outcome
+     * @param operation the operation
+     * @return the count
+     */
+    public long getCount(LoadOperation operation) {
+        return stats.get(operation).latency.getCount();
+    }
+
+    /**
+     * Gets the number of operations the service refused as the rules require,
+     * e.g. loaning a book that is already out
+     * @param operation the operation
+     * @return the count
+     */
+    public long getRejected(LoadOperation operation) {
+        return stats.get(operation).rejected.sum();
+    }
+
+    /**
+     * Gets the number of operations that failed unexpectedly
+     * @param operation the operation
+     * @return the count
+     */
+    public long getFailed(LoadOperation operation) {
+        return stats.get(operation).failed.sum();
+    }
+
+    /**
+     * Gets the completion rate of an operation
+     * @param operation the operation
+     * @return operations per second
+     */
+    public double getThroughput(LoadOperation operation) {
+        double seconds = duration.toNanos() / 1e9;
+        return seconds == 0 ? 0 : getCount(operation) / seconds;
+    }
+
+    /**
+     * Gets the latencies of an operation, in nanoseconds
+     * @param operation the operation
+     * @return the latency histogram
+     */
+    public LatencyHistogram getLatency(LoadOperation operation) {
+        return stats.get(operation).latency;
+    }
+
+    /**
+     * Gets the first invariant violations found; see {@link #getViolationCount()} for the total
+     * @return descriptions of the violations
+     */
+    public List<String> getViolations() {
+        return violations;
+    }
+
+    public long getViolationCount() {
+        return violationCount;
+    }
+
+    public boolean hasViolations() {
+        return violationCount > 0;
+    }
+
+    /**
+     * Formats the report as a table, latencies in milliseconds
+     * @return the report text
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Load test: %d users, %.1f s measured%n", users, duration.toMillis() / 1000.0));
+        text.append(String.format("%-10s %10s %10s %9s %7s", "operation", "count", "ops/s", "rejected", "failed"));
+        for (double percentile : PERCENTILES) {
+            text.append(String.format(" %9s", "p" + formatPercentile(percentile)));
+        }
+        text.append(String.format(" %9s%n", "max"));
+        long total = 0;
+        for (LoadOperation operation : stats.keySet()) {
+            LatencyHistogram latency = getLatency(operation);
+            if (latency.getCount() == 0) {
+                continue;
+            }
+            total += latency.getCount();
+            text.append(String.format("%-10s %10d %10.1f %9d %7d", operation.getLabel(), latency.getCount(),
+                    getThroughput(operation), getRejected(operation), getFailed(operation)));
+            for (double percentile : PERCENTILES) {
+                text.append(String.format(" %9.3f", latency.getValueAtPercentile(percentile) / NANOS_PER_MILLI));
+            }
+            text.append(String.format(" %9.3f%n", latency.getMax() / NANOS_PER_MILLI));
+        }
+        double seconds = duration.toNanos() / 1e9;
+        text.append(String.format("%-10s %10d %10.1f%n", "total", total, seconds == 0 ? 0 : total / seconds));
+        text.append("Latencies in ms. ");
+        if (violationCount == 0) {
+            text.append("Invariant violations: none").append(System.lineSeparator());
+        } else {
+            text.append("Invariant violations: ").append(violationCount).append(System.lineSeparator());
+            violations.forEach(violation -> text.append("  ").append(violation).append(System.lineSeparator()));
+        }
+        return text.toString();
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    /**
+     * Outcome counts and latencies of one operation, shared by all simulated users
+     */
+    static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder failed = new LongAdder();
+    }
+}
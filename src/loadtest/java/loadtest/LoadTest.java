@@ -0,0 +1,320 @@
+package loadtest;
+
+import models.Book;
+import models.BookStatus;
+import models.Loan;
+import models.SearchCriteria;
+import models.SortCriteria;
+import models.User;
+import service.LibraryService;
+import storage.DatasetGenerator;
+import utils.LogLevel;
+import utils.Logger;
+import utils.VirtualThreads;
+import utils.ZipfDistribution;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulates many patrons using one LibraryService at once, each on its own virtual thread,
+ * and checks that the service keeps its invariants under the load.
+ *
+ * Each simulated user repeatedly picks an operation from the mix: a title search, a loan of a
+ * book chosen by Zipf popularity (so popular books are contended), a return of one of the
+ * user's own books, or a look at the user's loans. A return with nothing on loan becomes a
+ * loan, and a loan at the loan limit becomes a return, so users keep circulating books.
+ *
+ * Invariants checked while running:
+ * <ul>
+ *     <li>a book is never loaned while another user holds it</li>
+ *     <li>a user can always return a book the user holds</li>
+ *     <li>a user's loans as reported by the service are exactly the books the user holds</li>
+ *     <li>searching for a word of a title finds at least that book</li>
+ * </ul>
+ * and once all users stop, that every book has at most one active loan and a status matching it.
+ */
+public class LoadTest {
+    private static final Logger LOGGER = Logger.getLogger(LoadTest.class);
+    private static final int MAX_REPORTED_VIOLATIONS = 100;
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final LibraryService libraryService;
+    private final List<Book> catalog;
+    private final LoadMix mix;
+    private final int users;
+    private final long seed;
+    private final Duration thinkTime;
+    private final ZipfDistribution popularity;
+
+    // ISBN of every book loaned by a simulated user, to its holder's id
+    private final Map<String, String> holders = new ConcurrentHashMap<>();
+    private final Map<LoadOperation, LoadReport.Stats> stats = new EnumMap<>(LoadOperation.class);
+    private final List<String> violations = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong violationCount = new AtomicLong();
+    private volatile boolean running;
+    private volatile boolean measuring;
+
+    /**
+     * Creates a load test
+     * @param libraryService the service under test
+     * @param catalog books held by the service, all on the shelf, that users search for, loan and return
+     * @param mix weights of the operations
+     * @param users number of simulated users
+     * @param seed seed of the users' random choices
+     * @param thinkTime pause between a user's operations; zero for back-to-back operations
+     */
+    public LoadTest(LibraryService libraryService, List<Book> catalog, LoadMix mix, int users, long seed,
+                    Duration thinkTime) {
+        if (catalog.isEmpty()) {
+            throw new IllegalArgumentException("Catalog cannot be empty.");
+        }
+        if (users <= 0) {
+            throw new IllegalArgumentException("Number of users must be positive.");
+        }
+        this.libraryService = libraryService;
+        this.catalog = List.copyOf(catalog);
+        this.mix = mix;
+        this.users = users;
+        this.seed = seed;
+        this.thinkTime = thinkTime;
+        this.popularity = new ZipfDistribution(catalog.size(), 0.9);
+        for (LoadOperation operation : LoadOperation.values()) {
+            stats.put(operation, new LoadReport.Stats());
+        }
+    }
+
+    /**
+     * Runs the users, measuring only after the warmup, then checks the service's final state
+     * @param warmup time to run before measuring, letting the JIT compiler settle
+     * @param duration time to measure
+     * @return the report
+     * @throws InterruptedException if interrupted while waiting for the run to finish
+     */
+    public LoadReport run(Duration warmup, Duration duration) throws InterruptedException {
+        running = true;
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor("load-user");
+        for (int i = 0; i < users; i++) {
+            int user = i;
+            executor.execute(() -> simulateUser(user));
+        }
+        Thread.sleep(warmup.toMillis());
+        measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        running = false;
+        Duration measured = Duration.ofNanos(System.nanoTime() - start);
+        executor.shutdown();
+        if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            violation("Users still running " + STOP_TIMEOUT_SECONDS + " s after the end of the run; "
+                    + "an operation may be deadlocked.");
+            executor.shutdownNow();
+        } else {
+            checkFinalState();
+        }
+        return new LoadReport(users, measured, stats, violations, violationCount.get());
+    }
+
+    private void simulateUser(int index) {
+        User user = new User("load-user-" + index, false);
+        Random random = new Random(seed + index);
+        int loanLimit = libraryService.getLoanLimitPolicy().getMaxActiveLoans();
+        List<String> held = new ArrayList<>();
+        while (running) {
+            LoadOperation operation = mix.pick(random);
+            if (operation == LoadOperation.RETURN && held.isEmpty()) {
+                operation = LoadOperation.LOAN;
+            } else if (operation == LoadOperation.LOAN && held.size() >= loanLimit) {
+                operation = LoadOperation.RETURN;
+            }
+
+            LoadReport.Stats operationStats = stats.get(operation);
+            long start = System.nanoTime();
+            boolean rejected = false;
+            boolean failed = false;
+            try {
+                rejected = !perform(operation, user, held, random);
+            } catch (RuntimeException e) {
+                failed = true;
+                LOGGER.error("Unexpected failure of " + operation.getLabel() + " by " + user.getId(), e);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (measuring) {
+                operationStats.latency.record(elapsed);
+                if (rejected) {
+                    operationStats.rejected.increment();
+                }
+                if (failed) {
+                    operationStats.failed.increment();
+                }
+            }
+            if (!thinkTime.isZero()) {
+                try {
+                    Thread.sleep(thinkTime.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs one operation
+     * @return false if the service refused it as its rules require, e.g. the book was out
+     */
+    private boolean perform(LoadOperation operation, User user, List<String> held, Random random) {
+        switch (operation) {
+            case SEARCH -> search(random);
+            case LOAN -> {
+                return loan(user, held, random);
+            }
+            case RETURN -> returnBook(user, held, random);
+            case MY_LOANS -> checkMyLoans(user, held);
+            default -> throw new IllegalStateException("Unknown operation: " + operation);
+        }
+        return true;
+    }
+
+    private void search(Random random) {
+        Book book = catalog.get(random.nextInt(catalog.size()));
+        String[] words = book.getTitle().split(" ");
+        String word = words[random.nextInt(words.length)];
+        List<Book> results = libraryService.searchAndSortBooks(word, SearchCriteria.TITLE, SortCriteria.TITLE, true);
+        if (results.isEmpty()) {
+            violation("Search for \"" + word + "\" found nothing, though " + book.getIsbn() + " has it in its title.");
+        }
+    }
+
+    private boolean loan(User user, List<String> held, Random random) {
+        String isbn = catalog.get(popularity.sample(random)).getIsbn();
+        try {
+            libraryService.loanBook(isbn, user);
+        } catch (IllegalStateException e) {
+            // The book is out or on hold, or the user is at a limit
+            return false;
+        }
+        String previous = holders.putIfAbsent(isbn, user.getId());
+        if (previous != null) {
+            violation("Book " + isbn + " was loaned to " + user.getId() + " while on loan to " + previous + ".");
+        }
+        held.add(isbn);
+        return true;
+    }
+
+    private void returnBook(User user, List<String> held, Random random) {
+        String isbn = held.remove(random.nextInt(held.size()));
+        // Released before the return, as the book may be loaned again the moment it is back
+        holders.remove(isbn, user.getId());
+        if (!libraryService.returnBook(isbn)) {
+            violation("Book " + isbn + " on loan to " + user.getId() + " could not be returned.");
+        }
+    }
+
+    private void checkMyLoans(User user, List<String> held) {
+        Set<String> onLoan = new HashSet<>();
+        for (Loan loan : libraryService.getLoansByBorrower(user.getId())) {
+            if (loan.getReturnDate() == null) {
+                onLoan.add(loan.getBook().getIsbn());
+            }
+        }
+        // Only this user loans and returns the user's books, so the two must agree exactly
+        if (!onLoan.equals(new HashSet<>(held))) {
+            violation("Loans of " + user.getId() + " are " + onLoan + " but the user holds " + held + ".");
+        }
+    }
+
+    /**
+     * Checks every catalog book against its active loans once all users have stopped
+     */
+    private void checkFinalState() {
+        Map<String, Integer> activeLoans = new HashMap<>();
+        for (Loan loan : libraryService.viewLoans()) {
+            activeLoans.merge(loan.getBook().getIsbn(), 1, Integer::sum);
+        }
+        for (Book catalogBook : catalog) {
+            String isbn = catalogBook.getIsbn();
+            Book book = libraryService.getBook(isbn);
+            int loans = activeLoans.getOrDefault(isbn, 0);
+            if (book == null) {
+                violation("Book " + isbn + " is missing from the catalog.");
+                continue;
+            }
+            boolean out = book.getStatus() == BookStatus.CHECKED_OUT || book.getStatus() == BookStatus.OVERDUE;
+            if (loans > 1) {
+                violation("Book " + isbn + " has " + loans + " active loans.");
+            } else if (out != (loans == 1)) {
+                violation("Book " + isbn + " is " + book.getStatus() + " with " + loans + " active loans.");
+            }
+            if (out != holders.containsKey(isbn)) {
+                violation("Book " + isbn + " is " + book.getStatus() + " but "
+                        + (out ? "no user holds it." : "is held by " + holders.get(isbn) + "."));
+            }
+        }
+    }
+
+    private void violation(String description) {
+        if (violationCount.incrementAndGet() <= MAX_REPORTED_VIOLATIONS) {
+            violations.add(description);
+        }
+    }
+
+    /**
+     * Runs a load test against an in-memory service over a generated catalog. Nothing is loaded
+     * or saved; see {@link LibraryService#inMemory()}.
+     * @param args --users N, --books N, --seconds N, --warmup N, --think-ms N, --seed N and
+     *     --mix search=60,loan=15,return=15,my-loans=10, all optional
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int users = 100;
+        int books = 20_000;
+        int seconds = 30;
+        int warmupSeconds = 10;
+        int thinkMillis = 0;
+        long seed = 2103;
+        LoadMix mix = LoadMix.DEFAULT;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--users" -> users = Integer.parseInt(value);
+                case "--books" -> books = Integer.parseInt(value);
+                case "--seconds" -> seconds = Integer.parseInt(value);
+                case "--warmup" -> warmupSeconds = Integer.parseInt(value);
+                case "--think-ms" -> thinkMillis = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--mix" -> mix = LoadMix.parse(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        // Every added book and every refused loan is logged, which would swamp the console and the timings
+        Logger.setLevel(LogLevel.ERROR);
+        // Never loads or saves the local catalog, reservations or preferences
+        LibraryService libraryService = LibraryService.inMemory();
+        List<Book> catalog = new DatasetGenerator(seed).generateCatalog(books);
+        for (Book book : catalog) {
+            libraryService.addBook(book.getIsbn(), book.getTitle(), book.getAuthor());
+        }
+
+        System.out.println("Running " + users + " users over " + books + " books, mix " + mix
+                + ", " + warmupSeconds + " s warmup...");
+        LoadTest loadTest = new LoadTest(libraryService, catalog, mix, users, seed, Duration.ofMillis(thinkMillis));
+        LoadReport report = loadTest.run(Duration.ofSeconds(warmupSeconds), Duration.ofSeconds(seconds));
+        System.out.print(report.format());
+        if (report.hasViolations()) {
+            System.exit(1);
+        }
+    }
+}
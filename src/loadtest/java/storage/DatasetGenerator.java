@@ -0,0 +1,388 @@
+package storage;
+
+import models.Book;
+import models.BookList;
+import models.BookStatus;
+import models.Loan;
+import models.LoanList;
+import models.User;
+import utils.Logger;
+import utils.ZipfDistribution;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Generates synthetic catalogs and loan histories for scale testing.
+ *
+ * Output is fully determined by the seed and the reference date, so benchmarks and load tests
+ * see the same data on every run. Authors, title words, book popularity and borrower activity
+ * all follow Zipf distributions: a few prolific authors, common words and bestsellers, and a
+ * long tail of rare ones. Loans never overlap on one book; most are returned on time, some late,
+ * and loans still out at the reference date leave their books checked out or overdue.
+ */
+public class DatasetGenerator {
+    private static final Logger LOGGER = Logger.getLogger(DatasetGenerator.class);
+    public static final int LOAN_DAYS = 14;
+    private static final int BOOK_DRAW_ATTEMPTS = 16;
+
+    private static final String[] WORDS = {
+        "the", "of", "and", "a", "in", "night", "house", "river", "war", "garden", "shadow", "city", "light",
+        "history", "secret", "winter", "empire", "ocean", "stone", "journey", "silent", "fire", "glass", "king",
+        "daughter", "world", "last", "long", "road", "iron", "summer", "little", "lost", "mountain", "star",
+        "dark", "sea", "song", "storm", "time", "blood", "heart", "island", "forest", "golden", "moon", "black",
+        "white", "red", "north", "queen", "memory", "water", "children", "dream", "book", "brief", "wild",
+        "company", "field", "guide", "station", "machine", "theory", "art", "bridge", "edge", "tale", "year",
+        "hundred", "invisible", "kingdom", "letters", "midnight", "orchard", "paper", "quiet", "salt", "tower",
+        "valley", "voyage", "wind", "wolf", "age", "atlas", "crown", "echo", "harbor", "lantern", "mirror",
+        "people", "portrait", "promise", "return", "science", "signal", "spring", "thread", "unknown", "village"
+    };
+    private static final String[] FIRST_NAMES = {
+        "Ada", "Alan", "Amara", "Anil", "Beatrix", "Carlos", "Chen", "Clara", "Daniel", "Dara", "Elena", "Emeka",
+        "Farah", "George", "Hana", "Hugo", "Ines", "Ivan", "Jia", "John", "Kofi", "Laila", "Lucas", "Maya",
+        "Mei", "Nadia", "Omar", "Priya", "Quentin", "Rosa", "Samuel", "Sofia", "Tariq", "Uma", "Victor", "Wen",
+        "Xavier", "Yara", "Yusuf", "Zoe"
+    };
+    private static final String[] LAST_NAMES = {
+        "Abbott", "Ahmed", "Baker", "Banerjee", "Castillo", "Chandra", "Dubois", "Eriksen", "Fischer", "Garcia",
+        "Haddad", "Hughes", "Ito", "Jensen", "Kaur", "Kim", "Kowalski", "Lee", "Lim", "Lopez", "Mensah",
+        "Moreau", "Murphy", "Nakamura", "Novak", "Okafor", "Olsen", "Patel", "Quinn", "Rahman", "Rossi",
+        "Santos", "Schmidt", "Silva", "Singh", "Tan", "Tanaka", "Umar", "Vargas", "Wang", "Weber", "Wilson",
+        "Xu", "Yamamoto", "Young", "Zhang"
+    };
+
+    private final long seed;
+    private final LocalDate today;
+
+    /**
+     * Creates a generator whose loan histories end today
+     * @param seed seed of all random choices
+     */
+    public DatasetGenerator(long seed) {
+        this(seed, LocalDate.now());
+    }
+
+    /**
+     * Creates a generator
+     * @param seed seed of all random choices
+     * @param today reference date: loan histories end here, and loans still out are judged
+     *     overdue against it
+     */
+    public DatasetGenerator(long seed, LocalDate today) {
+        this.seed = seed;
+        this.today = today;
+    }
+
+    /**
+     * Generates a catalog of available books
+     * @param size number of books
+     * @return the books, with valid ISBN-13s in ascending order
+     */
+    public List<Book> generateCatalog(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Catalog size must be positive.");
+        }
+        Random random = new Random(seed);
+        ZipfDistribution words = new ZipfDistribution(WORDS.length, 1.0);
+        // About ten books per author on average, but a few authors write far more
+        ZipfDistribution authors = new ZipfDistribution(Math.max(1, size / 10), 1.0);
+
+        List<Book> books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Book book = new Book(isbn(i), title(random, words), authorName(authors.sample(random)));
+            book.setStatus(BookStatus.AVAILABLE);
+            books.add(book);
+        }
+        return books;
+    }
+
+    /**
+     * Generates a loan history over a catalog, in loan date order. Books on loan at the reference
+     * date are marked checked out, or overdue if past their due date.
+     * @param catalog the books to loan
+     * @param count number of loans
+     * @param days length of the history, ending at the reference date
+     * @param sink receives each loan
+     * @throws IllegalArgumentException if the catalog has too few free books for the loan rate
+     */
+    public void generateLoans(List<Book> catalog, int count, int days, Consumer<LoanRecord> sink) {
+        if (catalog.isEmpty()) {
+            throw new IllegalArgumentException("Catalog cannot be empty.");
+        }
+        if (count < 0 || days <= 0) {
+            throw new IllegalArgumentException("Loan count cannot be negative and days must be positive.");
+        }
+        // A different stream from the catalog's, so the catalog does not depend on the loans asked for
+        Random random = new Random(seed * 31 + 17);
+
+        // Popularity ranks are shuffled so bestsellers are spread over the catalog
+        int[] byPopularity = shuffledIndexes(catalog.size(), random);
+        ZipfDistribution popularity = new ZipfDistribution(catalog.size(), 0.9);
+        ZipfDistribution activity = new ZipfDistribution(Math.max(1, count / 20), 0.8);
+
+        // Epoch day each book is back on the shelf; loans of one book never overlap
+        long[] busyUntil = new long[catalog.size()];
+        Arrays.fill(busyUntil, Long.MIN_VALUE);
+        long firstDay = today.toEpochDay() - days + 1;
+
+        for (int i = 0; i < count; i++) {
+            long loanDay = firstDay + (long) i * days / Math.max(1, count);
+            int index = pickFreeBook(byPopularity, popularity, busyUntil, loanDay, random);
+            Book book = catalog.get(index);
+
+            LocalDate loanDate = LocalDate.ofEpochDay(loanDay);
+            LocalDate dueDate = loanDate.plusDays(LOAN_DAYS);
+            long returnDay = loanDay + returnDelay(random);
+            LocalDate returnDate = returnDay > today.toEpochDay() ? null : LocalDate.ofEpochDay(returnDay);
+
+            if (returnDate == null) {
+                busyUntil[index] = Long.MAX_VALUE;
+                book.setStatus(dueDate.isBefore(today) ? BookStatus.OVERDUE : BookStatus.CHECKED_OUT);
+            } else {
+                busyUntil[index] = returnDay;
+            }
+            User borrower = new User("user" + activity.sample(random), false);
+            sink.accept(new LoanRecord(borrower, book, loanDate, dueDate, returnDate));
+        }
+    }
+
+    /**
+     * Generates a loan history into a loan list
+     * @param catalog the books to loan
+     * @param count number of loans
+     * @param days length of the history, ending at the reference date
+     * @return the loan list
+     */
+    public LoanList generateLoanList(List<Book> catalog, int count, int days) {
+        LoanList loanList = new LoanList();
+        generateLoans(catalog, count, days, loan -> {
+            if (loan.getReturnDate() == null) {
+                loanList.addLoan(new Loan(loan.getBorrower(), loan.getBook(), loan.getLoanDate(), loan.getDueDate()));
+            } else {
+                loanList.addReturnedLoan(loan.getBorrower(), loan.getBook(), loan.getLoanDate(), loan.getDueDate(),
+                        loan.getReturnDate());
+            }
+        });
+        return loanList;
+    }
+
+    /**
+     * Writes a loan history as CSV: ISBN, borrower id, loan date, due date and return date,
+     * which is empty for loans still out
+     * @param catalog the books to loan
+     * @param count number of loans
+     * @param days length of the history
+     * @param file the file to write
+     */
+    public void writeLoans(List<Book> catalog, int count, int days, Path file) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file.toFile()))) {
+            generateLoans(catalog, count, days, loan -> {
+                try {
+                    writer.write(loan.getBook().getIsbn());
+                    writer.write(',');
+                    writer.write(loan.getBorrower().getId());
+                    writer.write(',');
+                    writer.write(loan.getLoanDate().toString());
+                    writer.write(',');
+                    writer.write(loan.getDueDate().toString());
+                    writer.write(',');
+                    if (loan.getReturnDate() != null) {
+                        writer.write(loan.getReturnDate().toString());
+                    }
+                    writer.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static int[] shuffledIndexes(int size, Random random) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = swap;
+        }
+        return indexes;
+    }
+
+    private static int pickFreeBook(int[] byPopularity, ZipfDistribution popularity, long[] busyUntil,
+                                    long day, Random random) {
+        // Patrons usually get a popular book; when every draw is out, they take the next free one
+        int rank = 0;
+        for (int attempt = 0; attempt < BOOK_DRAW_ATTEMPTS; attempt++) {
+            rank = popularity.sample(random);
+            if (busyUntil[byPopularity[rank]] < day) {
+                return byPopularity[rank];
+            }
+        }
+        for (int step = 1; step < byPopularity.length; step++) {
+            int index = byPopularity[(rank + step) % byPopularity.length];
+            if (busyUntil[index] < day) {
+                return index;
+            }
+        }
+        throw new IllegalArgumentException("Catalog too small: every book is on loan on "
+                + LocalDate.ofEpochDay(day) + ". Use more books, fewer loans or more days.");
+    }
+
+    /**
+     * Days from loan to return: three in four on time, most of the rest a little late, a few very late
+     */
+    private static long returnDelay(Random random) {
+        double pattern = random.nextDouble();
+        if (pattern < 0.75) {
+            return 1 + random.nextInt(LOAN_DAYS);
+        } else if (pattern < 0.95) {
+            return LOAN_DAYS + 1 + random.nextInt(21);
+        } else {
+            return LOAN_DAYS + 22 + random.nextInt(150);
+        }
+    }
+
+    private static String title(Random random, ZipfDistribution words) {
+        int length = 1 + random.nextInt(4);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            String word = WORDS[words.sample(random)];
+            if (i > 0) {
+                title.append(' ');
+            }
+            title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return title.toString();
+    }
+
+    /**
+     * Gives each author rank a distinct name
+     */
+    static String authorName(int author) {
+        int first = author % FIRST_NAMES.length;
+        int last = (author / FIRST_NAMES.length) % LAST_NAMES.length;
+        int combinations = FIRST_NAMES.length * LAST_NAMES.length;
+        String name = FIRST_NAMES[first] + " " + LAST_NAMES[last];
+        if (author >= combinations) {
+            int middle = author / combinations;
+            name = middle <= 26
+                    ? FIRST_NAMES[first] + " " + (char) ('A' + middle - 1) + ". " + LAST_NAMES[last]
+                    : name + " " + middle;
+        }
+        return name;
+    }
+
+    /**
+     * Builds the n-th ISBN-13 of the 978 prefix, with a valid check digit
+     */
+    static String isbn(int n) {
+        char[] digits = {'9', '7', '8', '0', '0', '0', '0', '0', '0', '0', '0', '0', '0'};
+        for (int i = 11, rest = n; i >= 3 && rest > 0; i--, rest /= 10) {
+            digits[i] = (char) ('0' + rest % 10);
+        }
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (digits[i] - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        digits[12] = (char) ('0' + (10 - sum % 10) % 10);
+        return new String(digits);
+    }
+
+    /**
+     * Writes a dataset: a catalog in the GeneralStorage book format and its loan history
+     * @param args --books N, --loans N, --days N, --seed N, --today yyyy-mm-dd and --out directory,
+     *     all optional
+     */
+    public static void main(String[] args) throws IOException {
+        int books = 100_000;
+        int loans = 1_000_000;
+        int days = 365;
+        long seed = 2103;
+        LocalDate today = LocalDate.now();
+        Path out = Paths.get("dataset");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--books" -> books = Integer.parseInt(value);
+                case "--loans" -> loans = Integer.parseInt(value);
+                case "--days" -> days = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--today" -> today = LocalDate.parse(value);
+                case "--out" -> out = Paths.get(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        Files.createDirectories(out);
+        DatasetGenerator generator = new DatasetGenerator(seed, today);
+        List<Book> catalog = generator.generateCatalog(books);
+        // Loans first: they set the status of books still on loan, which the catalog file records
+        Path loanFile = out.resolve("loans.csv");
+        generator.writeLoans(catalog, loans, days, loanFile);
+        BookList bookList = new BookList();
+        bookList.addBooks(catalog);
+        Path catalogFile = out.resolve("bookDatabase_local.txt");
+        GeneralStorage.saveBookList(catalogFile.toString(), bookList);
+        LOGGER.info("Wrote " + books + " books to " + catalogFile + " and " + loans + " loans to " + loanFile);
+    }
+
+    /**
+     * One generated loan. Returned loans cannot be built as Loan objects outside the models
+     * package, so the generator hands out plain records.
+     */
+    public static final class LoanRecord {
+        private final User borrower;
+        private final Book book;
+        private final LocalDate loanDate;
+        private final LocalDate dueDate;
+        private final LocalDate returnDate;
+
+        LoanRecord(User borrower, Book book, LocalDate loanDate, LocalDate dueDate, LocalDate returnDate) {
+            this.borrower = borrower;
+            this.book = book;
+            this.loanDate = loanDate;
+            this.dueDate = dueDate;
+            this.returnDate = returnDate;
+        }
+
+        public User getBorrower() {
+            return borrower;
+        }
+
+        public Book getBook() {
+            return book;
+        }
+
+        public LocalDate getLoanDate() {
+            return loanDate;
+        }
+
+        public LocalDate getDueDate() {
+            return dueDate;
+        }
+
+        /**
+         * Gets the return date
+         * @return the return date, or null if the loan is still out at the reference date
+         */
+        public LocalDate getReturnDate() {
+            return returnDate;
+        }
+    }
+}
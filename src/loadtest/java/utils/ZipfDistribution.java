@@ -0,0 +1,60 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf (power-law) distribution over ranks 0 to n-1: rank k is drawn with probability
+ * proportional to 1 / (k + 1)^exponent, so a few ranks are very common and most are rare,
+ * as with popular authors, words and books.
+ */
+public class ZipfDistribution {
+    private final double[] cumulative;
+
+    /**
+     * Creates a distribution
+     * @param size number of ranks
+     * @param exponent skew; 0 is uniform, around 1 is typical of word and popularity counts
+     */
+    public ZipfDistribution(int size, double exponent) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be positive.");
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Exponent cannot be negative.");
+        }
+        this.cumulative = new double[size];
+        double total = 0;
+        for (int k = 0; k < size; k++) {
+            total += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < size; k++) {
+            cumulative[k] /= total;
+        }
+    }
+
+    public int getSize() {
+        return cumulative.length;
+    }
+
+    /**
+     * Draws a rank
+     * @param random source of randomness
+     * @return a rank between 0 and size - 1
+     */
+    public int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index + 1 : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+
+    /**
+     * Gets the probability of drawing a rank
+     * @param rank the rank
+     * @return its probability
+     */
+    public double probability(int rank) {
+        return rank == 0 ? cumulative[0] : cumulative[rank] - cumulative[rank - 1];
+    }
+}
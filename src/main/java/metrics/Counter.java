@@ -0,0 +1,31 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up, e.g. of operations or failures. Safe to increment from many
+ * threads at once without contention.
+ */
+public class Counter {
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Adds to the count
+     * @param amount amount to add
+     * @throws IllegalArgumentException if the amount is negative
+     */
+    public void add(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Counter cannot decrease.");
+        }
+        count.add(amount);
+    }
+
+    public long get() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,90 @@
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Named counters, gauges and timers. Metrics are created on first use and recorded without
+ * locks, so instrumented code never waits on the registry or on whoever reads it.
+ *
+ * Names are dot-separated and lower case, e.g. "library.loan" or "storage.books.save".
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the process-wide registry the library records into
+     * @return the default registry
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets a counter, creating it on first use
+     * @param name the counter's name
+     * @return the counter
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(checkName(name), key -> new Counter());
+    }
+
+    /**
+     * Gets a timer, creating it on first use
+     * @param name the timer's name
+     * @return the timer
+     */
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(checkName(name), key -> new Timer());
+    }
+
+    /**
+     * Registers a gauge, a value read each time a snapshot is taken, e.g. the catalog size.
+     * Replaces any gauge of the same name. The supplier must not block.
+     * @param name the gauge's name
+     * @param value supplies the current value
+     */
+    public void gauge(String name, DoubleSupplier value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Gauge value cannot be null.");
+        }
+        gauges.put(checkName(name), value);
+    }
+
+    /**
+     * Removes a gauge, e.g. when the object it reads is discarded
+     * @param name the gauge's name
+     * @param value the supplier registered; a gauge registered since by someone else is kept
+     */
+    public void removeGauge(String name, DoubleSupplier value) {
+        gauges.remove(name, value);
+    }
+
+    /**
+     * Reads every metric. Counters and timers keep counting while the snapshot is taken, so
+     * metrics updated at that moment may be off by the updates in flight.
+     * @return the current values, sorted by name
+     */
+    public MetricsSnapshot snapshot() {
+        Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, counter) -> counterValues.put(name, counter.get()));
+        Map<String, Double> gaugeValues = new TreeMap<>();
+        gauges.forEach((name, gauge) -> gaugeValues.put(name, gauge.getAsDouble()));
+        Map<String, MetricsSnapshot.TimerValues> timerValues = new TreeMap<>();
+        timers.forEach((name, timer) -> timerValues.put(name, MetricsSnapshot.TimerValues.of(timer.getHistogram())));
+        return new MetricsSnapshot(counterValues, gaugeValues, timerValues);
+    }
+
+    private static String checkName(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Metric name cannot be empty.");
+        }
+        return name;
+    }
+}
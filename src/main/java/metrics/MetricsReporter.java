@@ -0,0 +1,98 @@
+package metrics;
+
+import utils.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a registry's snapshot to a text file at a fixed period, replacing the file each time,
+ * so the latest figures can be read while the application runs.
+ */
+public class MetricsReporter implements AutoCloseable {
+    public static final String FILE_PROPERTY = "library.metrics.file";
+    public static final String PERIOD_PROPERTY = "library.metrics.period";
+    private static final long DEFAULT_PERIOD_SECONDS = 60;
+    private static final Logger LOGGER = Logger.getLogger(MetricsReporter.class);
+
+    private final MetricsRegistry registry;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Starts writing snapshots
+     * @param registry the registry to report
+     * @param file the file to write
+     * @param period time between writes
+     */
+    public MetricsReporter(MetricsRegistry registry, Path file, Duration period) {
+        if (period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Period must be positive.");
+        }
+        this.registry = registry;
+        this.file = file;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a reporter on the default registry if a metrics file is configured with the
+     * library.metrics.file system property; library.metrics.period sets the period in seconds
+     * @return the reporter, or null if no file is configured
+     */
+    public static MetricsReporter startFromSystemProperties() {
+        String file = System.getProperty(FILE_PROPERTY);
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+        long seconds = Long.getLong(PERIOD_PROPERTY, DEFAULT_PERIOD_SECONDS);
+        LOGGER.info("Writing metrics to " + file + " every " + seconds + " s");
+        return new MetricsReporter(MetricsRegistry.getDefault(), Paths.get(file), Duration.ofSeconds(seconds));
+    }
+
+    /**
+     * Writes the current snapshot now. The file is replaced in one step, so readers never see
+     * a half-written report.
+     */
+    public void report() {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                Files.writeString(temporary, registry.snapshot().format(), StandardCharsets.UTF_8);
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException | RuntimeException e) {
+            // A failed report must not stop later ones
+            LOGGER.error("Error writing metrics to " + file, e);
+        }
+    }
+
+    /**
+     * Stops reporting, after writing one last snapshot
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        report();
+    }
+}
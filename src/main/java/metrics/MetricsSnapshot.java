@@ -0,0 +1,142 @@
+package metrics;
+
+import utils.LatencyHistogram;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The values of all metrics at one moment.
+ */
+public class MetricsSnapshot {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Instant takenAt;
+    private final Map<String, Long> counters;
+    private final Map<String, Double> gauges;
+    private final Map<String, TimerValues> timers;
+
+    MetricsSnapshot(Map<String, Long> counters, Map<String, Double> gauges, Map<String, TimerValues> timers) {
+        this.takenAt = Instant.now();
+        this.counters = Collections.unmodifiableMap(counters);
+        this.gauges = Collections.unmodifiableMap(gauges);
+        this.timers = Collections.unmodifiableMap(timers);
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public Map<String, Double> getGauges() {
+        return gauges;
+    }
+
+    public Map<String, TimerValues> getTimers() {
+        return timers;
+    }
+
+    /**
+     * Gets a counter's value
+     * @param name the counter's name
+     * @return its value, 0 if it was never incremented
+     */
+    public long getCounter(String name) {
+        return counters.getOrDefault(name, 0L);
+    }
+
+    /**
+     * Gets a timer's values
+     * @param name the timer's name
+     * @return its values, or null if nothing was ever timed under that name
+     */
+    public TimerValues getTimer(String name) {
+        return timers.get(name);
+    }
+
+    /**
+     * Formats the snapshot as text, one metric per line, latencies in milliseconds
+     * @return the text
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append("# Metrics at ").append(takenAt).append(System.lineSeparator());
+        counters.forEach((name, value) -> text.append(String.format("counter %s %d%n", name, value)));
+        gauges.forEach((name, value) -> text.append(String.format("gauge   %s %s%n", name, formatGauge(value))));
+        timers.forEach((name, values) -> text.append(String.format(
+                "timer   %s count=%d mean=%.3f p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f%n",
+                name, values.getCount(), millis(values.getMean()), millis(values.getP50()), millis(values.getP90()),
+                millis(values.getP99()), millis(values.getP999()), millis(values.getMax()))));
+        return text.toString();
+    }
+
+    private static String formatGauge(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value)
+                ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    private static double millis(double nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Count and latency percentiles of a timer, in nanoseconds
+     */
+    public static final class TimerValues {
+        private final long count;
+        private final double mean;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        private TimerValues(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        static TimerValues of(LatencyHistogram histogram) {
+            return new TimerValues(histogram.getCount(), histogram.getMean(),
+                    histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+                    histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9), histogram.getMax());
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a change made through LibraryService: a loan, return, renewal,
+ * reservation or catalog edit. Fields are only filled in when the event will be committed.
+ */
+@Name("library.Mutation")
+@Label("Library Mutation")
+@Category({"Library", "Circulation"})
+@Description("A change to the catalog, loans or reservations")
+@StackTrace(false)
+public class MutationEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("ISBN")
+    @Description("The book changed, empty for changes to several books")
+    String isbn;
+
+    @Label("User")
+    String user;
+
+    @Label("Books")
+    @Description("Number of books changed")
+    int books;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /**
+     * Starts timing a change
+     * @return the event, to complete when the change is done
+     */
+    public static MutationEvent start() {
+        MutationEvent event = new MutationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the change and commits the event if it is being recorded
+     * @param operation e.g. "loan" or "return"
+     * @param isbn the book changed, or null
+     * @param user the user acting or served, or null
+     * @param books number of books changed
+     * @param succeeded false if the change was refused or failed
+     */
+    public void complete(String operation, String isbn, String user, int books, boolean succeeded) {
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.isbn = isbn;
+            this.user = user;
+            this.books = books;
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
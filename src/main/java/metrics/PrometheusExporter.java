@@ -0,0 +1,194 @@
+package metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import utils.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Serves a registry's metrics in the Prometheus text exposition format at /metrics on a local
+ * port, using the JDK's built-in HTTP server.
+ *
+ * Dots in metric names become underscores. Counters get a _total suffix, gauges are exported
+ * as they are, and timers become summaries in seconds with their 0.5, 0.9, 0.99 and 0.999
+ * quantiles. Every pair of counters named "x.hits" and "x.misses" also yields an x_hit_ratio
+ * gauge, so caches only need to count their hits and misses.
+ *
+ * A scrape reads the same lock-free values as {@link MetricsRegistry#snapshot()}, so it never
+ * holds up the operations being measured.
+ */
+public class PrometheusExporter implements AutoCloseable {
+    public static final String PORT_PROPERTY = "library.metrics.port";
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final String HITS_SUFFIX = ".hits";
+    private static final String MISSES_SUFFIX = ".misses";
+    private static final Logger LOGGER = Logger.getLogger(PrometheusExporter.class);
+
+    private final MetricsRegistry registry;
+    private final HttpServer httpServer;
+
+    /**
+     * Starts serving metrics on the loopback address
+     * @param registry the registry to export
+     * @param port port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public PrometheusExporter(MetricsRegistry registry, int port) throws IOException {
+        this.registry = registry;
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.createContext("/metrics", this::scrape);
+        httpServer.start();
+    }
+
+    /**
+     * Starts an exporter of the default registry if a port is configured with the
+     * library.metrics.port system property
+     * @return the exporter, or null if no port is configured or it cannot be bound
+     */
+    public static PrometheusExporter startFromSystemProperties() {
+        Integer port = Integer.getInteger(PORT_PROPERTY);
+        if (port == null) {
+            return null;
+        }
+        try {
+            PrometheusExporter exporter = new PrometheusExporter(MetricsRegistry.getDefault(), port);
+            LOGGER.info("Serving metrics at http://localhost:" + exporter.getPort() + "/metrics");
+            return exporter;
+        } catch (IOException e) {
+            // Monitoring is not worth refusing to start over
+            LOGGER.error("Cannot serve metrics on port " + port, e);
+            return null;
+        }
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    private void scrape(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = format(registry.snapshot()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Formats a snapshot in the Prometheus text exposition format
+     * @param snapshot the snapshot
+     * @return the text
+     */
+    public static String format(MetricsSnapshot snapshot) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> counter : snapshot.getCounters().entrySet()) {
+            String name = metricName(counter.getKey()) + "_total";
+            type(text, name, "counter");
+            sample(text, name, "", counter.getValue());
+        }
+        for (Map.Entry<String, Double> gauge : snapshot.getGauges().entrySet()) {
+            String name = metricName(gauge.getKey());
+            type(text, name, "gauge");
+            sample(text, name, "", gauge.getValue());
+        }
+        for (Map.Entry<String, Long> counter : snapshot.getCounters().entrySet()) {
+            String hitsName = counter.getKey();
+            if (!hitsName.endsWith(HITS_SUFFIX)) {
+                continue;
+            }
+            String cache = hitsName.substring(0, hitsName.length() - HITS_SUFFIX.length());
+            Long misses = snapshot.getCounters().get(cache + MISSES_SUFFIX);
+            if (misses == null) {
+                continue;
+            }
+            long lookups = counter.getValue() + misses;
+            String name = metricName(cache) + "_hit_ratio";
+            type(text, name, "gauge");
+            sample(text, name, "", lookups == 0 ? Double.NaN : (double) counter.getValue() / lookups);
+        }
+        for (Map.Entry<String, MetricsSnapshot.TimerValues> timer : snapshot.getTimers().entrySet()) {
+            String name = metricName(timer.getKey()) + "_seconds";
+            MetricsSnapshot.TimerValues values = timer.getValue();
+            type(text, name, "summary");
+            sample(text, name, "{quantile=\"0.5\"}", seconds(values.getP50()));
+            sample(text, name, "{quantile=\"0.9\"}", seconds(values.getP90()));
+            sample(text, name, "{quantile=\"0.99\"}", seconds(values.getP99()));
+            sample(text, name, "{quantile=\"0.999\"}", seconds(values.getP999()));
+            sample(text, name + "_sum", "", seconds(values.getMean() * values.getCount()));
+            sample(text, name + "_count", "", values.getCount());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Converts a dotted metric name to a valid Prometheus name, e.g. library.loans.active to
+     * library_loans_active
+     */
+    static String metricName(String name) {
+        StringBuilder converted = new StringBuilder(name.length() + 1);
+        if (!name.isEmpty() && name.charAt(0) >= '0' && name.charAt(0) <= '9') {
+            // Names cannot start with a digit
+            converted.append('_');
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                    || c == '_' || c == ':';
+            converted.append(valid ? c : '_');
+        }
+        return converted.toString();
+    }
+
+    /**
+     * Formats a sample value; Prometheus spells infinities and NaN its own way
+     */
+    static String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    private static void type(StringBuilder text, String name, String type) {
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, String labels, double value) {
+        text.append(name).append(labels).append(' ').append(formatValue(value)).append('\n');
+    }
+
+    private static double seconds(double nanos) {
+        return nanos / NANOS_PER_SECOND;
+    }
+
+    /**
+     * Stops serving metrics
+     */
+    @Override
+    public void close() {
+        httpServer.stop(0);
+    }
+}
@@ -0,0 +1,59 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a catalog search. Costs next to nothing when no recording is running:
+ * fields are only filled in when the event will be committed.
+ */
+@Name("library.Search")
+@Label("Catalog Search")
+@Category({"Library", "Search"})
+@Description("A search of one catalog")
+@StackTrace(false)
+public class SearchEvent extends Event {
+    @Label("Kind")
+    @Description("filter, relevance or top")
+    String kind;
+
+    @Label("Query")
+    String query;
+
+    @Label("Criteria")
+    String criteria;
+
+    @Label("Results")
+    int results;
+
+    /**
+     * Starts timing a search
+     * @return the event, to complete when the search is done
+     */
+    public static SearchEvent start() {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the search and commits the event if it is being recorded
+     * @param kind "filter" for a plain search, "relevance" for a ranked one, "top" for top-k
+     * @param query the query as typed
+     * @param criteria name of the fields searched
+     * @param results number of books found
+     */
+    public void complete(String kind, String query, String criteria, int results) {
+        if (shouldCommit()) {
+            this.kind = kind;
+            this.query = query;
+            this.criteria = criteria;
+            this.results = results;
+            commit();
+        }
+    }
+}
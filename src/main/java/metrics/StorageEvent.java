@@ -0,0 +1,67 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for reading or writing a data file. Fields are only filled in when
+ * the event will be committed.
+ */
+@Name("library.Storage")
+@Label("Library Storage")
+@Category({"Library", "Persistence"})
+@Description("A data file loaded or saved")
+@StackTrace(false)
+public class StorageEvent extends Event {
+    @Label("Operation")
+    @Description("load or save")
+    String operation;
+
+    @Label("Data")
+    @Description("books or reservations")
+    String data;
+
+    @Label("Path")
+    String path;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Records")
+    int records;
+
+    /**
+     * Starts timing a load or save
+     * @return the event, to complete when the file is done
+     */
+    public static StorageEvent start() {
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the load or save and commits the event if it is being recorded
+     * @param operation "load" or "save"
+     * @param data what the file holds, e.g. "books"
+     * @param path the file, or null for a bundled resource
+     * @param bytes size of the data read or written
+     * @param records number of records read or written
+     */
+    public void complete(String operation, String data, String path, long bytes, int records) {
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.data = data;
+            this.path = path;
+            this.bytes = bytes;
+            this.records = records;
+            commit();
+        }
+    }
+}
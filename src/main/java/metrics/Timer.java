@@ -0,0 +1,38 @@
+package metrics;
+
+import utils.LatencyHistogram;
+
+/**
+ * Latencies of an operation, in nanoseconds. Used as
+ * <pre>
+ * long start = System.nanoTime();
+ * try {
+ *     ...
+ * } finally {
+ *     timer.recordSince(start);
+ * }
+ * </pre>
+ */
+public class Timer {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * Records the time elapsed since a start time
+     * @param startNanos the start, from {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records a latency
+     * @param nanos the latency in nanoseconds; negative values, from a clock adjustment, count as 0
+     */
+    public void record(long nanos) {
+        histogram.record(Math.max(0, nanos));
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}
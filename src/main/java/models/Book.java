@@ -1,21 +1,43 @@
 package models;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Represents a book in the library
+ * Represents a book in the library.
+ * Every status change bumps the book's version, so a caller can check a status and later
+ * change it only if nobody else has changed it in between.
  */
 public class Book implements Serializable {
+    // Unchanged from when the status was a plain field, so books serialized then still load
+    private static final long serialVersionUID = 1858811817006952107L;
+    // The serialized form keeps the status as a field of its own; the version is not persisted
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("isbn", String.class),
+        new ObjectStreamField("title", String.class),
+        new ObjectStreamField("author", String.class),
+        new ObjectStreamField("status", BookStatus.class)
+    };
+    private static final int STATUS_BITS = 8;
+    private static final long STATUS_MASK = (1L << STATUS_BITS) - 1;
+    private static final BookStatus[] STATUSES = BookStatus.values();
+
     private String isbn;
     private String title;
     private String author;
-    private BookStatus status;
+    // Version and status packed into one word so both change in a single compare-and-set.
+    // Only assigned by the constructor and readObject.
+    private transient AtomicLong stamp;
 
     public Book(String isbn, String title, String author) {
         this.isbn = isbn;
         this.title = title;
         this.author = author;
-        this.status = BookStatus.AVAILABLE;
+        this.stamp = new AtomicLong(pack(0, BookStatus.AVAILABLE));
     }
 
     // Getters and setters
@@ -44,16 +66,69 @@ public class Book implements Serializable {
     }
 
     public BookStatus getStatus() {
-        return status;
+        return statusOf(stamp.get());
     }
 
+    /**
+     * Sets the status unconditionally, e.g. when loading the catalog
+     * @param status the new status
+     */
     public void setStatus(BookStatus status) {
-        this.status = status;
+        stamp.updateAndGet(current -> pack(versionOf(current) + 1, status));
+    }
+
+    /**
+     * Gets the number of status changes made to this book
+     * @return the current version
+     */
+    public long getVersion() {
+        return versionOf(stamp.get());
+    }
+
+    /**
+     * Changes the status only if the book is still at the expected version and status
+     * @param expectedVersion version the caller last saw
+     * @param expectedStatus status the caller last saw
+     * @param newStatus the new status
+     * @return true if the status was changed, false if the book was changed in the meantime
+     */
+    public boolean compareAndSetStatus(long expectedVersion, BookStatus expectedStatus, BookStatus newStatus) {
+        return stamp.compareAndSet(pack(expectedVersion, expectedStatus), pack(expectedVersion + 1, newStatus));
+    }
+
+    private static long pack(long version, BookStatus status) {
+        return (version << STATUS_BITS) | (status == null ? 0 : status.ordinal() + 1);
+    }
+
+    private static long versionOf(long stamp) {
+        return stamp >>> STATUS_BITS;
+    }
+
+    private static BookStatus statusOf(long stamp) {
+        int code = (int) (stamp & STATUS_MASK);
+        return code == 0 ? null : STATUSES[code - 1];
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("isbn", isbn);
+        fields.put("title", title);
+        fields.put("author", author);
+        fields.put("status", getStatus());
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        isbn = (String) fields.get("isbn", null);
+        title = (String) fields.get("title", null);
+        author = (String) fields.get("author", null);
+        stamp = new AtomicLong(pack(0, (BookStatus) fields.get("status", null)));
     }
 
     @Override
     public String toString() {
         return String.format("ISBN: %s | Title: %s | Author: %s | Status: %s", 
-            isbn, title, author, status);
+            isbn, title, author, getStatus());
     }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package models;
+
+/**
+ * Thrown when a book's status was changed by someone else between reading it and updating it.
+ * The operation did not take effect and can be retried against the book's current state.
+ */
+public class BookConflictException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+    private final String isbn;
+    private final long expectedVersion;
+    private final long actualVersion;
+
+    public BookConflictException(String isbn, long expectedVersion, long actualVersion) {
+        super("Book " + isbn + " was updated concurrently (expected version " + expectedVersion
+                + ", found " + actualVersion + "). Please try again.");
+        this.isbn = isbn;
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public long getActualVersion() {
+        return actualVersion;
+    }
+}
@@ -1,18 +1,58 @@
 package models;
 
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.AbstractMap;
+import metrics.MetricsRegistry;
+import metrics.SearchEvent;
+import metrics.Timer;
+import utils.Cancellation;
+import utils.PagedSource;
 
+/**
+ * Class for managing the book catalog.
+ * The catalog is held as immutable snapshots: adding or removing a book publishes a new
+ * snapshot that shares all but a few small nodes with the previous one, so lookups, listings and
+ * searches read a stable catalog without locking or copying. Status changes are compare-and-set
+ * on the book's version, so concurrent changes to one book fail with a BookConflictException
+ * rather than overwrite each other.
+ * Searches stop with a CancellationException when their thread is interrupted.
+ */
 public class BookList {
-    private Map<String, Book> books;
+    private static final Timer SEARCH_TIMER = MetricsRegistry.getDefault().timer("catalog.search");
+    private static final Timer RELEVANCE_SEARCH_TIMER = MetricsRegistry.getDefault().timer("catalog.search.relevance");
+
+    private final AtomicReference<Snapshot> books;
+    private final LongAdder transitionCount;
+    private final LongAdder conflictCount;
+    private volatile Consumer<LibraryEvent> eventSink;
 
     public BookList() {
-        this.books = new HashMap<>();
+        this.books = new AtomicReference<>(Snapshot.EMPTY);
+        this.transitionCount = new LongAdder();
+        this.conflictCount = new LongAdder();
+        this.eventSink = event -> { };
+    }
+
+    /**
+     * Sets where changes to the catalog are published
+     * @param eventSink Receives an event for every added or removed book and every status change.
+     */
+    public void setEventSink(Consumer<LibraryEvent> eventSink) {
+        this.eventSink = eventSink == null ? event -> { } : eventSink;
     }
 
     /**
@@ -21,7 +61,7 @@ public class BookList {
      * @return The book with the specified ISBN, or null if not found.
      */
     public Book getBook(String isbn) {
-        return books.get(isbn);
+        return isbn == null ? null : books.get().get(isbn);
     }
 
     /**
@@ -31,27 +71,47 @@ public class BookList {
      */
     public void addBook(Book book) throws IllegalArgumentException {
         if (book != null && book.getIsbn() != null && !book.getIsbn().isEmpty()) {
-            books.put(book.getIsbn(), book);
+            books.updateAndGet(snapshot -> snapshot.with(List.of(book)));
             if (book.getStatus() == null) {
                 book.setStatus(BookStatus.AVAILABLE);
             }
+            eventSink.accept(new LibraryEvent.BookAdded(book));
         } else {
             throw new IllegalArgumentException("Book or ISBN cannot be null or empty.");
         }
     }
 
+    /**
+     * Adds many books at once, e.g. when loading the catalog.
+     * Publishes a single new snapshot, so this is much cheaper than adding the books one by one.
+     * @param newBooks The books to be added.
+     * @throws IllegalArgumentException if any book or ISBN is null or empty; no book is added.
+     */
+    public void addBooks(Collection<Book> newBooks) throws IllegalArgumentException {
+        for (Book book : newBooks) {
+            if (book == null || book.getIsbn() == null || book.getIsbn().isEmpty()) {
+                throw new IllegalArgumentException("Book or ISBN cannot be null or empty.");
+            }
+        }
+        books.updateAndGet(snapshot -> snapshot.with(newBooks));
+        for (Book book : newBooks) {
+            if (book.getStatus() == null) {
+                book.setStatus(BookStatus.AVAILABLE);
+            }
+            eventSink.accept(new LibraryEvent.BookAdded(book));
+        }
+    }
+
     /**
      * Removes a book from the list if it is available.
      * @param book The book to be removed.
      * @throws IllegalStateException if the book is not available.
      */
     public void removeBook(Book book) throws IllegalStateException {
-        if (book != null && book.getStatus() == BookStatus.AVAILABLE) {
-            book.setStatus(BookStatus.OUT_OF_CIRCULATION);
-            books.remove(book.getIsbn());
-        } else {
-            throw new IllegalStateException("Cannot remove book that is not available.");
-        }
+        transition(book, versionOf(book), BookStatus.OUT_OF_CIRCULATION,
+                "Cannot remove book that is not available.", BookStatus.AVAILABLE);
+        books.updateAndGet(snapshot -> snapshot.without(book.getIsbn()));
+        eventSink.accept(new LibraryEvent.BookRemoved(book));
     }
 
     /**
@@ -60,11 +120,19 @@ public class BookList {
      * @throws IllegalStateException if the book is not available.
      */
     public void loanBook(Book book) throws IllegalStateException {
-        if (book != null && book.getStatus() == BookStatus.AVAILABLE) {
-            book.setStatus(BookStatus.CHECKED_OUT);
-        } else {
-            throw new IllegalStateException("Cannot loan a book that is not available.");
-        }
+        loanBook(book, versionOf(book));
+    }
+
+    /**
+     * Loans a book to a user if it is available and unchanged since the caller checked it.
+     * @param book The book to be loaned.
+     * @param expectedVersion The version of the book when the caller checked it.
+     * @throws IllegalStateException if the book is not available.
+     * @throws BookConflictException if the book was changed since the caller checked it.
+     */
+    public void loanBook(Book book, long expectedVersion) throws IllegalStateException {
+        transition(book, expectedVersion, BookStatus.CHECKED_OUT,
+                "Cannot loan a book that is not available.", BookStatus.AVAILABLE);
     }
 
     /**
@@ -73,21 +141,105 @@ public class BookList {
      * @throws IllegalStateException if the book is not checked out or overdue.
      */
     public void returnBook(Book book) throws IllegalStateException {
-        if (book != null && (book.getStatus() == BookStatus.CHECKED_OUT ||
-                book.getStatus() == BookStatus.OVERDUE)) {
-            book.setStatus(BookStatus.AVAILABLE);
-        } else {
-            throw new IllegalStateException("Cannot return a book that is not checked out.");
-        }
+        transition(book, versionOf(book), BookStatus.AVAILABLE,
+                "Cannot return a book that is not checked out.", BookStatus.CHECKED_OUT, BookStatus.OVERDUE);
+    }
+
+    /**
+     * Places a returned book on hold for the next patron in its reservation queue.
+     * @param book The book being returned.
+     * @throws IllegalStateException if the book is not checked out or overdue.
+     */
+    public void holdBook(Book book) throws IllegalStateException {
+        transition(book, versionOf(book), BookStatus.ON_HOLD,
+                "Cannot hold a book that is not checked out.", BookStatus.CHECKED_OUT, BookStatus.OVERDUE);
+    }
+
+    /**
+     * Releases a book that is on hold so it is available again.
+     * @param book The book on hold.
+     * @throws IllegalStateException if the book is not on hold.
+     */
+    public void releaseHold(Book book) throws IllegalStateException {
+        transition(book, versionOf(book), BookStatus.AVAILABLE,
+                "Cannot release a book that is not on hold.", BookStatus.ON_HOLD);
+    }
+
+    /**
+     * Marks an overdue book as checked out again, e.g. after its loan is renewed.
+     * @param book The overdue book.
+     * @throws IllegalStateException if the book is not overdue.
+     */
+    public void clearOverdue(Book book) throws IllegalStateException {
+        transition(book, versionOf(book), BookStatus.CHECKED_OUT,
+                "Cannot clear overdue status of a book that is not overdue.", BookStatus.OVERDUE);
     }
 
     public void overdueBook(Book book) {
-        if (book != null && book.getStatus() == BookStatus.CHECKED_OUT) {
-            book.setStatus(BookStatus.OVERDUE);
-        } else {
-            throw new IllegalStateException("Cannot mark a book as overdue " +
-                    "that is not checked out.");
+        transition(book, versionOf(book), BookStatus.OVERDUE,
+                "Cannot mark a book as overdue that is not checked out.", BookStatus.CHECKED_OUT);
+    }
+
+    private static long versionOf(Book book) {
+        return book == null ? 0 : book.getVersion();
+    }
+
+    /**
+     * Moves a book to a new status with a compare-and-set on its version, so a change made by
+     * another caller since the expected version is detected instead of overwritten.
+     * @throws IllegalStateException if the book is not in one of the allowed statuses
+     * @throws BookConflictException if the book is no longer at the expected version
+     */
+    private void transition(Book book, long expectedVersion, BookStatus newStatus, String error,
+                            BookStatus... allowed) {
+        if (book == null) {
+            throw new IllegalStateException(error);
         }
+        transitionCount.increment();
+        // Version first: a status read afterwards is never older than the version checked
+        if (book.getVersion() != expectedVersion) {
+            throw conflict(book, expectedVersion);
+        }
+        BookStatus current = book.getStatus();
+        if (!Arrays.asList(allowed).contains(current)) {
+            throw new IllegalStateException(error);
+        }
+        if (!book.compareAndSetStatus(expectedVersion, current, newStatus)) {
+            throw conflict(book, expectedVersion);
+        }
+        if (newStatus != BookStatus.OUT_OF_CIRCULATION) {
+            eventSink.accept(new LibraryEvent.StatusChanged(book, current, newStatus));
+        }
+    }
+
+    private BookConflictException conflict(Book book, long expectedVersion) {
+        conflictCount.increment();
+        return new BookConflictException(book.getIsbn(), expectedVersion, book.getVersion());
+    }
+
+    /**
+     * Gets the number of status changes attempted through this list
+     * @return number of attempted status changes
+     */
+    public long getTransitionCount() {
+        return transitionCount.sum();
+    }
+
+    /**
+     * Gets the number of status changes rejected because the book was changed concurrently
+     * @return number of conflicts
+     */
+    public long getConflictCount() {
+        return conflictCount.sum();
+    }
+
+    /**
+     * Gets the share of attempted status changes that hit a conflict
+     * @return conflicts per attempted change, between 0 and 1
+     */
+    public double getContentionRate() {
+        long transitions = transitionCount.sum();
+        return transitions == 0 ? 0 : (double) conflictCount.sum() / transitions;
     }
 
     /**
@@ -96,15 +248,16 @@ public class BookList {
      * @return true if the book is in the list, false otherwise.
      */
     public boolean containsBook(String isbn) {
-        return books.containsKey(isbn);
+        return isbn != null && books.get().get(isbn) != null;
     }
 
     /**
      * Gets all books in the list.
-     * @return A map of all books with their ISBN as the key.
+     * @return A read-only map of all books with their ISBN as the key. It is a snapshot:
+     *     books added or removed later do not appear in it.
      */
     public Map<String, Book> getBooks() {
-        return new HashMap<>(books);
+        return books.get();
     }
 
     /**
@@ -114,21 +267,37 @@ public class BookList {
      * @return Sorted list of books
      */
     public List<Book> getSortedBooks(SortCriteria criteria, boolean ascending) {
-        List<Book> bookList = new ArrayList<>(books.values());
+        List<Book> bookList = new ArrayList<>(books.get().values());
         
+        bookList.sort(comparator(criteria, ascending));
+        return bookList;
+    }
+
+    /**
+     * Gets the books sorted by the specified criteria, sorting only as far as the rows fetched
+     * @param criteria Sorting criteria
+     * @param ascending Whether to sort in ascending order
+     * @return The books of the current snapshot, in order, a page at a time
+     */
+    public PagedSource<Book> pageSortedBooks(SortCriteria criteria, boolean ascending) {
+        return PagedSource.sorted(books.get().values(), comparator(criteria, ascending));
+    }
+
+    /**
+     * Gets the order books are sorted in. Books with equal keys are ordered by ISBN, so the
+     * order is total and a sort gives the same result every time.
+     * @param criteria Sorting criteria
+     * @param ascending Whether to sort in ascending order
+     * @return Comparator for the criteria
+     */
+    public static Comparator<Book> comparator(SortCriteria criteria, boolean ascending) {
         Comparator<Book> comparator = switch (criteria) {
             case TITLE -> Comparator.comparing(Book::getTitle);
             case AUTHOR -> Comparator.comparing(Book::getAuthor);
             case ISBN -> Comparator.comparing(Book::getIsbn);
             case STATUS -> Comparator.comparing(book -> book.getStatus().toString());
         };
-        
-        if (!ascending) {
-            comparator = comparator.reversed();
-        }
-        
-        bookList.sort(comparator);
-        return bookList;
+        return (ascending ? comparator : comparator.reversed()).thenComparing(Book::getIsbn);
     }
 
     /**
@@ -153,9 +322,19 @@ public class BookList {
         
         String normalizedQuery = query.toLowerCase().trim();
         
-        return books.values().stream()
-                .filter(book -> matchesSearchCriteria(book, normalizedQuery, criteria))
-                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        SearchEvent event = SearchEvent.start();
+        List<Book> results = new ArrayList<>();
+        int scanned = 0;
+        for (Book book : books.get().values()) {
+            Cancellation.check(++scanned);
+            if (matchesSearchCriteria(book, normalizedQuery, criteria)) {
+                results.add(book);
+            }
+        }
+        SEARCH_TIMER.recordSince(start);
+        event.complete("filter", query, criteria.name(), results.size());
+        return results;
     }
 
     /**
@@ -194,21 +373,23 @@ public class BookList {
             return searchResults;
         }
         
-        Comparator<Book> comparator = switch (sortCriteria) {
-            case TITLE -> Comparator.comparing(Book::getTitle);
-            case AUTHOR -> Comparator.comparing(Book::getAuthor);
-            case ISBN -> Comparator.comparing(Book::getIsbn);
-            case STATUS -> Comparator.comparing(book -> book.getStatus().toString());
-        };
-        
-        if (!ascending) {
-            comparator = comparator.reversed();
-        }
-        
-        searchResults.sort(comparator);
+        searchResults.sort(comparator(sortCriteria, ascending));
         return searchResults;
     }
 
+    /**
+     * Searches for books, sorting the results only as far as the rows fetched
+     * @param query Search query string
+     * @param searchCriteria Search criteria
+     * @param sortCriteria Sorting criteria
+     * @param ascending Whether to sort in ascending order
+     * @return The matching books, in order, a page at a time
+     */
+    public PagedSource<Book> pageSearchResults(String query, SearchCriteria searchCriteria,
+                                               SortCriteria sortCriteria, boolean ascending) {
+        return PagedSource.sorted(searchBooks(query, searchCriteria), comparator(sortCriteria, ascending));
+    }
+
     /**
      * Searches for books and sorts the results in ascending order
      * @param query Search query string
@@ -233,20 +414,88 @@ public class BookList {
         }
         
         String normalizedQuery = query.toLowerCase().trim();
+        long start = System.nanoTime();
+        SearchEvent event = SearchEvent.start();
         
         // Create a list of books with relevance scores
-        List<Map.Entry<Book, Integer>> scoredBooks = books.values().stream()
-                .map(book -> new AbstractMap.SimpleEntry<>(book, calculateRelevanceScore(book, normalizedQuery, criteria)))
-                .filter(entry -> entry.getValue() > 0) // Only keep matching books
-                .collect(Collectors.toList());
+        List<Map.Entry<Book, Integer>> scoredBooks = new ArrayList<>();
+        int scanned = 0;
+        for (Book book : books.get().values()) {
+            Cancellation.check(++scanned);
+            int score = calculateRelevanceScore(book, normalizedQuery, criteria);
+            if (score > 0) { // Only keep matching books
+                scoredBooks.add(new AbstractMap.SimpleEntry<>(book, score));
+            }
+        }
         
         // Sort by relevance score in descending order
         scoredBooks.sort((e1, e2) -> e2.getValue().compareTo(e1.getValue()));
         
         // Extract sorted books
-        return scoredBooks.stream()
+        List<Book> results = scoredBooks.stream()
                 .map(Map.Entry::getKey)
                 .collect(Collectors.toList());
+        RELEVANCE_SEARCH_TIMER.recordSince(start);
+        event.complete("relevance", query, criteria.name(), results.size());
+        return results;
+    }
+
+    /**
+     * Searches for the most relevant books, keeping only the best matches while scanning
+     * @param query Search query string
+     * @param criteria Search criteria
+     * @param limit Maximum number of results
+     * @return Up to limit books, most relevant first; equally relevant books by ISBN
+     */
+    public List<Book> searchBooksByRelevance(String query, SearchCriteria criteria, int limit) {
+        long start = System.nanoTime();
+        SearchEvent event = SearchEvent.start();
+        List<Book> results = topByRelevance(books.get().values(), query, criteria, limit);
+        RELEVANCE_SEARCH_TIMER.recordSince(start);
+        event.complete("top", query, criteria.name(), results.size());
+        return results;
+    }
+
+    /**
+     * Picks the most relevant books from a collection, e.g. to merge the top results of
+     * several catalogs
+     * @param candidates Books to choose from
+     * @param query Search query string
+     * @param criteria Search criteria
+     * @param limit Maximum number of results
+     * @return Up to limit books, most relevant first; equally relevant books by ISBN
+     * @throws IllegalArgumentException if the limit is not positive
+     */
+    public static List<Book> topByRelevance(Collection<Book> candidates, String query,
+                                            SearchCriteria criteria, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+        if (query == null || query.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String normalizedQuery = query.toLowerCase().trim();
+        Comparator<Map.Entry<Book, Integer>> ranking = Map.Entry.<Book, Integer>comparingByValue().reversed()
+                .thenComparing(entry -> entry.getKey().getIsbn());
+
+        // Min-heap of the best matches so far: the worst of them is evicted first
+        PriorityQueue<Map.Entry<Book, Integer>> best = new PriorityQueue<>(ranking.reversed());
+        int scanned = 0;
+        for (Book book : candidates) {
+            Cancellation.check(++scanned);
+            int score = calculateRelevanceScore(book, normalizedQuery, criteria);
+            if (score > 0) {
+                best.add(new AbstractMap.SimpleEntry<>(book, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<Map.Entry<Book, Integer>> ranked = new ArrayList<>(best);
+        ranked.sort(ranking);
+        return ranked.stream().map(Map.Entry::getKey).collect(Collectors.toList());
     }
 
     /**
@@ -256,7 +505,7 @@ public class BookList {
      * @param criteria Search criteria
      * @return Relevance score (higher means more relevant)
      */
-    private int calculateRelevanceScore(Book book, String query, SearchCriteria criteria) {
+    private static int calculateRelevanceScore(Book book, String query, SearchCriteria criteria) {
         int score = 0;
         
         switch (criteria) {
@@ -287,7 +536,7 @@ public class BookList {
      * @param query Query string
      * @return Match score
      */
-    private int calculateFieldScore(String field, String query) {
+    private static int calculateFieldScore(String field, String query) {
         String normalizedField = field.toLowerCase();
         
         // Exact match gets highest score
@@ -313,6 +562,280 @@ public class BookList {
      * Clears all books from the list.
      */
     public void clear() {
-        books.clear();
+        books.set(Snapshot.EMPTY);
+    }
+
+    /**
+     * An immutable version of the catalog, held as a hash array mapped trie keyed by ISBN hash.
+     * A change copies only the nodes on the path to the book it touches, at most seven nodes of
+     * up to 32 slots, however large the catalog; everything else is shared with the previous version.
+     */
+    private static final class Snapshot extends AbstractMap<String, Book> {
+        private static final Snapshot EMPTY = new Snapshot(Node.EMPTY, 0);
+
+        private final Node root;
+        private final int size;
+
+        private Snapshot(Node root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        private static int hashOf(String isbn) {
+            int hash = isbn.hashCode();
+            return hash ^ (hash >>> 16);
+        }
+
+        Snapshot with(Collection<Book> added) {
+            // Nodes created for this change are filled in place until the snapshot is published
+            Object edit = new Object();
+            int[] addedCount = new int[1];
+            Node next = root;
+            for (Book book : added) {
+                next = next.put(edit, hashOf(book.getIsbn()), book, 0, addedCount);
+            }
+            return next == root ? this : new Snapshot(next, size + addedCount[0]);
+        }
+
+        Snapshot without(String isbn) {
+            Node next = root.remove(hashOf(isbn), isbn, 0);
+            if (next == root) {
+                return this;
+            }
+            return new Snapshot(next == null ? Node.EMPTY : next, size - 1);
+        }
+
+        @Override
+        public Book get(Object key) {
+            return key instanceof String isbn ? root.get(hashOf(isbn), isbn) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, Book>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Book>> iterator() {
+                    return new Iterator<>() {
+                        // Nodes being walked, root first, and the next slot to visit in each
+                        private final Node[] nodes = new Node[Node.MAX_DEPTH];
+                        private final int[] positions = new int[Node.MAX_DEPTH];
+                        private int depth = 0;
+                        private Book next;
+
+                        {
+                            nodes[0] = root;
+                            next = advance();
+                        }
+
+                        private Book advance() {
+                            while (depth >= 0) {
+                                Node node = nodes[depth];
+                                if (positions[depth] == node.slots.length) {
+                                    depth--;
+                                    continue;
+                                }
+                                Object slot = node.slots[positions[depth]++];
+                                if (slot instanceof Node child) {
+                                    depth++;
+                                    nodes[depth] = child;
+                                    positions[depth] = 0;
+                                } else {
+                                    return (Book) slot;
+                                }
+                            }
+                            return null;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next != null;
+                        }
+
+                        @Override
+                        public Entry<String, Book> next() {
+                            if (next == null) {
+                                throw new NoSuchElementException();
+                            }
+                            Book book = next;
+                            next = advance();
+                            return new AbstractMap.SimpleImmutableEntry<>(book.getIsbn(), book);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+
+    /**
+     * A trie node: a bitmap of which of the 32 branches at its level are used, and one slot per
+     * used branch holding either a book or a child node. Below the last level, where the whole
+     * hash has been used, a node holds the books whose hashes collide, in any order.
+     */
+    private static final class Node {
+        private static final int BITS = 5;
+        private static final int MASK = (1 << BITS) - 1;
+        private static final int MAX_SHIFT = 30;
+        // Levels of branching plus the level holding colliding books
+        private static final int MAX_DEPTH = MAX_SHIFT / BITS + 2;
+        private static final Node EMPTY = new Node(null, 0, new Object[0]);
+
+        // The change allowed to modify this node in place; other changes copy it
+        private final Object edit;
+        private int bitmap;
+        private Object[] slots;
+
+        private Node(Object edit, int bitmap, Object[] slots) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        Book get(int hash, String isbn) {
+            Node node = this;
+            for (int shift = 0; ; shift += BITS) {
+                if (shift > MAX_SHIFT) {
+                    return node.findCollision(isbn);
+                }
+                int bit = 1 << ((hash >>> shift) & MASK);
+                if ((node.bitmap & bit) == 0) {
+                    return null;
+                }
+                Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+                if (slot instanceof Node child) {
+                    node = child;
+                } else {
+                    Book book = (Book) slot;
+                    return book.getIsbn().equals(isbn) ? book : null;
+                }
+            }
+        }
+
+        private Book findCollision(String isbn) {
+            for (Object slot : slots) {
+                if (((Book) slot).getIsbn().equals(isbn)) {
+                    return (Book) slot;
+                }
+            }
+            return null;
+        }
+
+        Node put(Object edit, int hash, Book book, int shift, int[] addedCount) {
+            String isbn = book.getIsbn();
+            if (shift > MAX_SHIFT) {
+                for (int i = 0; i < slots.length; i++) {
+                    if (((Book) slots[i]).getIsbn().equals(isbn)) {
+                        return slots[i] == book ? this : set(edit, i, book);
+                    }
+                }
+                addedCount[0]++;
+                return insert(edit, 0, slots.length, book);
+            }
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                addedCount[0]++;
+                return insert(edit, bit, index, book);
+            }
+            Object slot = slots[index];
+            if (slot instanceof Node child) {
+                Node updated = child.put(edit, hash, book, shift + BITS, addedCount);
+                return updated == child ? this : set(edit, index, updated);
+            }
+            Book existing = (Book) slot;
+            if (existing.getIsbn().equals(isbn)) {
+                return existing == book ? this : set(edit, index, book);
+            }
+            // Two books share this branch: push both a level down
+            int[] ignored = new int[1];
+            Node split = new Node(edit, 0, new Object[0])
+                    .put(edit, Snapshot.hashOf(existing.getIsbn()), existing, shift + BITS, ignored)
+                    .put(edit, hash, book, shift + BITS, ignored);
+            addedCount[0]++;
+            return set(edit, index, split);
+        }
+
+        /**
+         * Removes a book, copying the nodes on its path
+         * @return this node if the book is not here, or null if the node is left empty
+         */
+        Node remove(int hash, String isbn, int shift) {
+            if (shift > MAX_SHIFT) {
+                for (int i = 0; i < slots.length; i++) {
+                    if (((Book) slots[i]).getIsbn().equals(isbn)) {
+                        return slots.length == 1 ? null : without(0, i);
+                    }
+                }
+                return this;
+            }
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            Object slot = slots[index];
+            if (slot instanceof Node child) {
+                Node updated = child.remove(hash, isbn, shift + BITS);
+                if (updated == child) {
+                    return this;
+                }
+                if (updated == null) {
+                    return slots.length == 1 ? null : without(bit, index);
+                }
+                // A child left holding a single book is replaced by the book
+                if (updated.slots.length == 1 && !(updated.slots[0] instanceof Node)) {
+                    return set(null, index, updated.slots[0]);
+                }
+                return set(null, index, updated);
+            }
+            if (!((Book) slot).getIsbn().equals(isbn)) {
+                return this;
+            }
+            return slots.length == 1 ? null : without(bit, index);
+        }
+
+        private Node set(Object edit, int index, Object value) {
+            if (edit != null && edit == this.edit) {
+                slots[index] = value;
+                return this;
+            }
+            Object[] copy = slots.clone();
+            copy[index] = value;
+            return new Node(edit, bitmap, copy);
+        }
+
+        private Node insert(Object edit, int bit, int index, Object value) {
+            Object[] grown = new Object[slots.length + 1];
+            System.arraycopy(slots, 0, grown, 0, index);
+            grown[index] = value;
+            System.arraycopy(slots, index, grown, index + 1, slots.length - index);
+            if (edit != null && edit == this.edit) {
+                bitmap |= bit;
+                slots = grown;
+                return this;
+            }
+            return new Node(edit, bitmap | bit, grown);
+        }
+
+        private Node without(int bit, int index) {
+            Object[] shrunk = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, shrunk, 0, index);
+            System.arraycopy(slots, index + 1, shrunk, index, slots.length - index - 1);
+            return new Node(null, bitmap & ~bit, shrunk);
+        }
     }
 }
\ No newline at end of file
@@ -4,5 +4,6 @@ public enum BookStatus {
     AVAILABLE,
     CHECKED_OUT,
     OVERDUE,
+    ON_HOLD,
     OUT_OF_CIRCULATION
 }
@@ -0,0 +1,69 @@
+package models;
+
+/**
+ * Defines how overdue fines are charged. Amounts are in cents.
+ */
+public class FinePolicy {
+    public static final FinePolicy DEFAULT = new FinePolicy(25, 1000);
+
+    private final long dailyRate;
+    private final long cap;
+
+    /**
+     * Creates a fine policy.
+     * @param dailyRate Fine charged per day overdue, in cents
+     * @param cap Maximum fine per loan in cents, or 0 for no cap
+     * @throws IllegalArgumentException if either amount is negative
+     */
+    public FinePolicy(long dailyRate, long cap) {
+        if (dailyRate < 0 || cap < 0) {
+            throw new IllegalArgumentException("Fine rate and cap cannot be negative.");
+        }
+        this.dailyRate = dailyRate;
+        this.cap = cap;
+    }
+
+    public long getDailyRate() {
+        return dailyRate;
+    }
+
+    public long getCap() {
+        return cap;
+    }
+
+    public boolean isCapped() {
+        return cap > 0;
+    }
+
+    /**
+     * Gets the number of overdue days after which a loan's fine stops growing.
+     * @return days until the cap is reached, or {@link Long#MAX_VALUE} if fines are uncapped
+     */
+    public long getDaysToCap() {
+        if (!isCapped()) {
+            return Long.MAX_VALUE;
+        }
+        if (dailyRate == 0) {
+            return 0;
+        }
+        return (cap + dailyRate - 1) / dailyRate;
+    }
+
+    /**
+     * Calculates the fine for a loan that is the given number of days overdue.
+     * @param daysOverdue Days past the due date
+     * @return Fine in cents
+     */
+    public long fineFor(long daysOverdue) {
+        if (daysOverdue <= 0) {
+            return 0;
+        }
+        long fine = daysOverdue * dailyRate;
+        return isCapped() ? Math.min(fine, cap) : fine;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Fine: %d per day, cap %s", dailyRate, isCapped() ? String.valueOf(cap) : "none");
+    }
+}
@@ -0,0 +1,169 @@
+package models;
+
+/**
+ * A change to the catalog or the loan records, published so views, caches and storage
+ * can apply the change instead of reloading everything.
+ */
+public abstract class LibraryEvent {
+    /**
+     * Kinds of change
+     */
+    public enum Type {
+        BOOK_ADDED,
+        BOOK_REMOVED,
+        STATUS_CHANGED,
+        LOAN_CREATED,
+        LOAN_RETURNED
+    }
+
+    private final Type type;
+
+    protected LibraryEvent(Type type) {
+        this.type = type;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the ISBN of the book the change concerns
+     * @return the ISBN
+     */
+    public abstract String getIsbn();
+
+    /**
+     * Whether the change concerns the catalog rather than the loan records
+     * @return true for book events
+     */
+    public boolean isBookEvent() {
+        return type == Type.BOOK_ADDED || type == Type.BOOK_REMOVED || type == Type.STATUS_CHANGED;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + getIsbn();
+    }
+
+    /**
+     * A book was added to the catalog
+     */
+    public static final class BookAdded extends LibraryEvent {
+        private final Book book;
+
+        public BookAdded(Book book) {
+            super(Type.BOOK_ADDED);
+            this.book = book;
+        }
+
+        public Book getBook() {
+            return book;
+        }
+
+        @Override
+        public String getIsbn() {
+            return book.getIsbn();
+        }
+    }
+
+    /**
+     * A book was removed from the catalog
+     */
+    public static final class BookRemoved extends LibraryEvent {
+        private final Book book;
+
+        public BookRemoved(Book book) {
+            super(Type.BOOK_REMOVED);
+            this.book = book;
+        }
+
+        public Book getBook() {
+            return book;
+        }
+
+        @Override
+        public String getIsbn() {
+            return book.getIsbn();
+        }
+    }
+
+    /**
+     * A book's status changed
+     */
+    public static final class StatusChanged extends LibraryEvent {
+        private final Book book;
+        private final BookStatus oldStatus;
+        private final BookStatus newStatus;
+
+        public StatusChanged(Book book, BookStatus oldStatus, BookStatus newStatus) {
+            super(Type.STATUS_CHANGED);
+            this.book = book;
+            this.oldStatus = oldStatus;
+            this.newStatus = newStatus;
+        }
+
+        public Book getBook() {
+            return book;
+        }
+
+        public BookStatus getOldStatus() {
+            return oldStatus;
+        }
+
+        public BookStatus getNewStatus() {
+            return newStatus;
+        }
+
+        @Override
+        public String getIsbn() {
+            return book.getIsbn();
+        }
+
+        @Override
+        public String toString() {
+            return super.toString() + " " + oldStatus + " -> " + newStatus;
+        }
+    }
+
+    /**
+     * A book was loaned
+     */
+    public static final class LoanCreated extends LibraryEvent {
+        private final Loan loan;
+
+        public LoanCreated(Loan loan) {
+            super(Type.LOAN_CREATED);
+            this.loan = loan;
+        }
+
+        public Loan getLoan() {
+            return loan;
+        }
+
+        @Override
+        public String getIsbn() {
+            return loan.getBook().getIsbn();
+        }
+    }
+
+    /**
+     * A loaned book was returned
+     */
+    public static final class LoanReturned extends LibraryEvent {
+        private final Loan loan;
+
+        public LoanReturned(Loan loan) {
+            super(Type.LOAN_RETURNED);
+            this.loan = loan;
+        }
+
+        public Loan getLoan() {
+            return loan;
+        }
+
+        @Override
+        public String getIsbn() {
+            return loan.getBook().getIsbn();
+        }
+    }
+}
@@ -2,19 +2,25 @@ package models;
 
 import java.io.Serializable;
 import java.time.LocalDate;
+import utils.Logger;
 
 /**
  * Represents a loan for a book borrowed by a user.
  */
 public class Loan implements Serializable {
+    // Unchanged from before the overdue flag was added, so loans serialized then still load
+    private static final long serialVersionUID = -8515113274741012673L;
+    private static final Logger LOGGER = Logger.getLogger(Loan.class);
     private static final int DEFAULT_RENEWAL_DAYS = 14; // Default number of days for renewal
     private final String loanId;
     private final User borrower;
     private final Book book;
     private final LocalDate loanDate;
-    private LocalDate dueDate;
-    private LocalDate returnDate;
-    private boolean isReturned;
+    private volatile LocalDate dueDate;
+    private volatile LocalDate returnDate;
+    private volatile boolean isReturned;
+    private volatile boolean isOverdue;
+    private transient LoanList owner; // Notified of state changes so it can keep its counters current
 
     /**
      * Create a new loan record
@@ -24,13 +30,25 @@ public class Loan implements Serializable {
      * @param dueDate Due date
      */
     public Loan(User borrower, Book book, LocalDate loanDate, LocalDate dueDate) {
+        this(borrower, book, loanDate, dueDate, null);
+    }
+
+    /**
+     * Create a loan record with a known return date (used when reading rows back from a LoanTable)
+     * @param borrower The borrower
+     * @param book The book being borrowed
+     * @param loanDate Loan date
+     * @param dueDate Due date
+     * @param returnDate Return date, or null if not yet returned
+     */
+    Loan(User borrower, Book book, LocalDate loanDate, LocalDate dueDate, LocalDate returnDate) {
         this.loanId = generateLoanId(borrower, book, loanDate);
         this.borrower = borrower;
         this.book = book;
         this.loanDate = loanDate;
         this.dueDate = dueDate;
-        this.returnDate = null;
-        this.isReturned = false;
+        this.returnDate = returnDate;
+        this.isReturned = returnDate != null;
     }
 
     /**
@@ -69,33 +87,84 @@ public class Loan implements Serializable {
         return returnDate;
     }
 
+    /**
+     * Whether this loan has been marked overdue by {@link #checkOverdue} and not since renewed or returned
+     */
+    public boolean isOverdue() {
+        return isOverdue;
+    }
+
+    void setOwner(LoanList owner) {
+        this.owner = owner;
+    }
+
     private void setDueDate(LocalDate dueDate) {
         this.dueDate = dueDate;
     }
 
-    public void renewLoan(int days) {
+    /**
+     * Extend the due date of a loan that has not been returned
+     * @param days number of days to extend by, or 0 for the default renewal period
+     * @throws IllegalStateException if the loan has been returned
+     */
+    public synchronized void renewLoan(int days) {
+        if (isReturned) {
+            throw new IllegalStateException("Cannot renew a loan that has been returned.");
+        }
+        LocalDate previousDueDate = dueDate;
+        boolean overdueCleared = extendDueDate(days, LocalDate.now());
+        if (owner != null) {
+            owner.loanRenewed(this, previousDueDate, overdueCleared);
+        }
+        LOGGER.debug(() -> "Loan renewed. New due date: " + dueDate);
+    }
+
+    /**
+     * Moves the due date back without notifying the owning list (used by bulk renewals)
+     * @param days number of days to extend by, or 0 for the default renewal period
+     * @param today the current date
+     * @return true if the loan was overdue and no longer is
+     */
+    boolean extendDueDate(int days, LocalDate today) {
         int additionalDays = days == 0 ? DEFAULT_RENEWAL_DAYS : days;
         setDueDate(dueDate.plusDays(additionalDays));
-        System.out.println("Loan renewed. New due date: " + dueDate);
+        boolean overdueCleared = isOverdue && !dueDate.isBefore(today);
+        if (overdueCleared) {
+            isOverdue = false;
+        }
+        return overdueCleared;
     }
 
     /**
      * Return the book (no BookList parameter needed)
      */
-    public void returnBook() {
+    public synchronized void returnBook() {
         if (!isReturned) {
+            boolean wasOverdue = isOverdue;
             isReturned = true;
+            isOverdue = false;
             returnDate = LocalDate.now();
-            System.out.println("Book '" + book.getTitle() + "' returned by " + (borrower.isAdmin() ? "admin" : "user"));
+            if (owner != null) {
+                owner.loanReturned(this, wasOverdue);
+            }
+            LOGGER.debug(() -> "Book '" + book.getTitle() + "' returned by " + (borrower.isAdmin() ? "admin" : "user"));
         } else {
-            System.out.println("Book '" + book.getTitle() + "' already returned.");
+            LOGGER.debug(() -> "Book '" + book.getTitle() + "' already returned.");
         }
     }
 
     public int checkOverdue(LocalDate date, BookList bookList) {
         if (date.isAfter(dueDate) && !isReturned) {
-            System.out.println("Loan " + loanId + " is overdue.");
-            bookList.overdueBook(book);
+            LOGGER.debug(() -> "Loan " + loanId + " is overdue.");
+            if (!isOverdue) {
+                isOverdue = true;
+                if (book.getStatus() != BookStatus.OVERDUE) {
+                    bookList.overdueBook(book);
+                }
+                if (owner != null) {
+                    owner.loanOverdue(this);
+                }
+            }
             return (int) (date.toEpochDay() - dueDate.toEpochDay());
         }
         return 0;
@@ -0,0 +1,106 @@
+package models;
+
+/**
+ * Running loan counters for a single borrower or book.
+ * Instances held by LoanList are updated in place; callers receive copies.
+ */
+public class LoanAggregate {
+    private int totalLoans;
+    private int activeLoans;
+    private int overdueLoans;
+    private int renewals;
+
+    public LoanAggregate() {
+        // All counters start at zero
+    }
+
+    private LoanAggregate(LoanAggregate other) {
+        this.totalLoans = other.totalLoans;
+        this.activeLoans = other.activeLoans;
+        this.overdueLoans = other.overdueLoans;
+        this.renewals = other.renewals;
+    }
+
+    /**
+     * Gets the number of loans ever recorded.
+     * @return total number of loans
+     */
+    public int getTotalLoans() {
+        return totalLoans;
+    }
+
+    /**
+     * Gets the number of loans that have not been returned.
+     * @return number of active loans
+     */
+    public int getActiveLoans() {
+        return activeLoans;
+    }
+
+    /**
+     * Gets the number of active loans that have been marked overdue.
+     * @return number of overdue loans
+     */
+    public int getOverdueLoans() {
+        return overdueLoans;
+    }
+
+    /**
+     * Gets the number of renewals made.
+     * @return number of renewals
+     */
+    public int getRenewals() {
+        return renewals;
+    }
+
+    /**
+     * Adds up counters kept separately, e.g. a borrower's counters at each branch.
+     * @param parts the counters to add up
+     * @return the combined counters
+     */
+    public static LoanAggregate sum(Iterable<LoanAggregate> parts) {
+        LoanAggregate sum = new LoanAggregate();
+        for (LoanAggregate part : parts) {
+            sum.totalLoans += part.totalLoans;
+            sum.activeLoans += part.activeLoans;
+            sum.overdueLoans += part.overdueLoans;
+            sum.renewals += part.renewals;
+        }
+        return sum;
+    }
+
+    LoanAggregate copy() {
+        return new LoanAggregate(this);
+    }
+
+    void loanAdded(boolean active) {
+        totalLoans++;
+        if (active) {
+            activeLoans++;
+        }
+    }
+
+    void loanReturned(boolean wasOverdue) {
+        activeLoans--;
+        if (wasOverdue) {
+            overdueLoans--;
+        }
+    }
+
+    void loanOverdue() {
+        overdueLoans++;
+    }
+
+    void loanRenewed(boolean overdueCleared) {
+        renewals++;
+        if (overdueCleared) {
+            overdueLoans--;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Loans: %d total, %d active, %d overdue, %d renewals",
+                totalLoans, activeLoans, overdueLoans, renewals);
+    }
+}
@@ -0,0 +1,145 @@
+package models;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Single place that defines how loans are ordered for each LoanSortCriteria.
+ *
+ * Date and status orderings map each loan to an int key (epoch day or status rank) computed
+ * once per sort against a single "today", so sorting compares primitives instead of calling
+ * LocalDate.now() and comparing LocalDates on every comparison. Book field orderings read
+ * each field once per loan.
+ */
+public final class LoanComparators {
+    // Status ranks: returned loans first, then loans on time, then overdue loans
+    private static final int RETURNED_RANK = 0;
+    private static final int ON_LOAN_RANK = 1;
+    private static final int OVERDUE_RANK = 2;
+
+    // Loans without a return date sort after every returned loan
+    static final int NOT_RETURNED_KEY = Integer.MAX_VALUE;
+
+    private interface IntSortKey {
+        int of(Loan loan, long today);
+    }
+
+    private static final Map<LoanSortCriteria, IntSortKey> INT_KEYS = new EnumMap<>(LoanSortCriteria.class);
+    private static final Map<LoanSortCriteria, Function<Book, String>> TEXT_KEYS =
+            new EnumMap<>(LoanSortCriteria.class);
+
+    static {
+        INT_KEYS.put(LoanSortCriteria.LOAN_DATE, (loan, today) -> (int) loan.getLoanDate().toEpochDay());
+        INT_KEYS.put(LoanSortCriteria.DUE_DATE, (loan, today) -> (int) loan.getDueDate().toEpochDay());
+        INT_KEYS.put(LoanSortCriteria.RETURN_DATE, (loan, today) -> loan.getReturnDate() == null
+                ? NOT_RETURNED_KEY
+                : (int) loan.getReturnDate().toEpochDay());
+        INT_KEYS.put(LoanSortCriteria.STATUS, LoanComparators::statusRank);
+        TEXT_KEYS.put(LoanSortCriteria.BOOK_TITLE, Book::getTitle);
+        TEXT_KEYS.put(LoanSortCriteria.BOOK_AUTHOR, Book::getAuthor);
+        TEXT_KEYS.put(LoanSortCriteria.BOOK_ISBN, Book::getIsbn);
+    }
+
+    private LoanComparators() {
+        // Utility class
+    }
+
+    private static int statusRank(Loan loan, long today) {
+        return statusRank(loan.getReturnDate() != null, loan.getDueDate().toEpochDay(), today);
+    }
+
+    /**
+     * Gets the status sort key of a loan from its columns, e.g. for LoanTable
+     */
+    static int statusRank(boolean returned, long dueEpochDay, long today) {
+        if (returned) {
+            return RETURNED_RANK;
+        }
+        return dueEpochDay < today ? OVERDUE_RANK : ON_LOAN_RANK;
+    }
+
+    /**
+     * Gets the book field a criteria sorts by
+     * @return the field, or null if the criteria does not sort by a book field
+     */
+    static Function<Book, String> bookKey(LoanSortCriteria criteria) {
+        return TEXT_KEYS.get(criteria);
+    }
+
+    /**
+     * Gets a comparator for the given criteria, for callers that need one (e.g. a table column).
+     * Status comparisons use today's date as of this call.
+     * @param criteria Sorting criteria
+     * @param ascending Whether to sort in ascending order
+     * @return Loan comparator
+     */
+    public static Comparator<Loan> comparator(LoanSortCriteria criteria, boolean ascending) {
+        Comparator<Loan> comparator;
+        IntSortKey intKey = INT_KEYS.get(criteria);
+        if (intKey != null) {
+            long today = LocalDate.now().toEpochDay();
+            comparator = Comparator.comparingInt(loan -> intKey.of(loan, today));
+        } else {
+            Function<Book, String> textKey = TEXT_KEYS.get(criteria);
+            comparator = Comparator.comparing(loan -> textKey.apply(loan.getBook()));
+        }
+        return ascending ? comparator : comparator.reversed();
+    }
+
+    /**
+     * Sorts loans by the given criteria. The sort is stable: loans with equal keys keep their order.
+     * @param loans Loans to sort; the collection is not modified
+     * @param criteria Sorting criteria
+     * @param ascending Whether to sort in ascending order
+     * @return New sorted list
+     */
+    public static List<Loan> sort(Collection<Loan> loans, LoanSortCriteria criteria, boolean ascending) {
+        Loan[] source = loans.toArray(new Loan[0]);
+        IntSortKey intKey = INT_KEYS.get(criteria);
+        if (intKey != null) {
+            return sortByIntKey(source, intKey, ascending);
+        }
+        return sortByTextKey(source, TEXT_KEYS.get(criteria), ascending);
+    }
+
+    private static List<Loan> sortByIntKey(Loan[] source, IntSortKey intKey, boolean ascending) {
+        long today = LocalDate.now().toEpochDay();
+        // Pack (key, original position) into one long so a primitive sort is both ordered and stable
+        long[] packed = new long[source.length];
+        for (int i = 0; i < source.length; i++) {
+            long key = intKey.of(source[i], today);
+            packed[i] = ((ascending ? key : -key) << 32) | i;
+        }
+        Arrays.sort(packed);
+
+        List<Loan> sorted = new ArrayList<>(source.length);
+        for (long entry : packed) {
+            sorted.add(source[(int) entry]);
+        }
+        return sorted;
+    }
+
+    private static List<Loan> sortByTextKey(Loan[] source, Function<Book, String> textKey, boolean ascending) {
+        String[] keys = new String[source.length];
+        Integer[] order = new Integer[source.length];
+        for (int i = 0; i < source.length; i++) {
+            keys[i] = textKey.apply(source[i].getBook());
+            order[i] = i;
+        }
+        Comparator<Integer> byKey = (a, b) -> keys[a].compareTo(keys[b]);
+        Arrays.sort(order, ascending ? byKey : byKey.reversed());
+
+        List<Loan> sorted = new ArrayList<>(source.length);
+        for (int index : order) {
+            sorted.add(source[index]);
+        }
+        return sorted;
+    }
+}
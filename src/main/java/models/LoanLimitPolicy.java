@@ -0,0 +1,67 @@
+package models;
+
+/**
+ * Defines how many loans a borrower may hold at once.
+ */
+public class LoanLimitPolicy {
+    public static final LoanLimitPolicy DEFAULT = new LoanLimitPolicy(10, 0);
+
+    private final int maxActiveLoans;
+    private final int maxOverdueLoans;
+
+    /**
+     * Creates a loan limit policy.
+     * @param maxActiveLoans Maximum number of unreturned loans per borrower
+     * @param maxOverdueLoans Maximum number of overdue loans a borrower may have and still borrow
+     * @throws IllegalArgumentException if maxActiveLoans is not positive or maxOverdueLoans is negative
+     */
+    public LoanLimitPolicy(int maxActiveLoans, int maxOverdueLoans) {
+        if (maxActiveLoans <= 0) {
+            throw new IllegalArgumentException("Maximum active loans must be positive.");
+        }
+        if (maxOverdueLoans < 0) {
+            throw new IllegalArgumentException("Maximum overdue loans cannot be negative.");
+        }
+        this.maxActiveLoans = maxActiveLoans;
+        this.maxOverdueLoans = maxOverdueLoans;
+    }
+
+    public int getMaxActiveLoans() {
+        return maxActiveLoans;
+    }
+
+    public int getMaxOverdueLoans() {
+        return maxOverdueLoans;
+    }
+
+    /**
+     * Checks whether a borrower with the given counters may take out another loan.
+     * @param borrowerStatistics The borrower's loan counters
+     * @throws IllegalStateException if the borrower is at a limit
+     */
+    public void checkCanBorrow(LoanAggregate borrowerStatistics) {
+        checkCanBorrow(borrowerStatistics.getActiveLoans(), borrowerStatistics.getOverdueLoans());
+    }
+
+    /**
+     * Checks whether a borrower with the given loan counts may take out another loan.
+     * @param activeLoans The borrower's unreturned loans
+     * @param overdueLoans The borrower's overdue loans
+     * @throws IllegalStateException if the borrower is at a limit
+     */
+    public void checkCanBorrow(int activeLoans, int overdueLoans) {
+        if (overdueLoans > maxOverdueLoans) {
+            throw new IllegalStateException("Cannot loan while " + overdueLoans
+                    + " loan(s) are overdue.");
+        }
+        if (activeLoans >= maxActiveLoans) {
+            throw new IllegalStateException("Loan limit reached: at most " + maxActiveLoans
+                    + " books can be on loan at once.");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Loan limits: %d active, %d overdue", maxActiveLoans, maxOverdueLoans);
+    }
+}
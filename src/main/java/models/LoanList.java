@@ -2,30 +2,347 @@ package models;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import utils.Logger;
+import utils.PagedSource;
 
 /**
  * Class for managing borrowing records
+ * State-changing and query methods are synchronized; queries return copies, so callers
+ * can iterate them while other threads keep lending and returning books.
+ * Returned loans are moved into a columnar archive once enough of them pile up, so the
+ * Loan objects held stay in proportion to the loans still out.
  */
 public class LoanList {
+    private static final Logger LOGGER = Logger.getLogger(LoanList.class);
+    // Fewest returned loans worth a pass over the list to archive them
+    private static final int ARCHIVE_THRESHOLD = 1024;
     private List<Loan> loans;
+    private final LoanTable archive;
+
+    // Counters maintained as loans are added, returned, renewed and marked overdue
+    private final NavigableMap<LocalDate, Set<Loan>> activeLoansByDueDate;
+    private final Map<String, Loan> activeLoansByIsbn;
+    // Loans not yet archived, by borrower id, in the order they were added
+    private final Map<String, List<Loan>> loansByBorrower;
+    private final Map<String, LoanAggregate> borrowerStatistics;
+    private final Map<String, LoanAggregate> bookStatistics;
+    // Only today's loans are counted; the count starts over when the date moves on
+    private LocalDate countedDay;
+    private int loansOnCountedDay;
+    private int unarchivedReturnCount;
+    // Written under the list's lock; volatile so the counts can be read without it
+    private volatile int activeLoanCount;
+    private volatile int overdueLoanCount;
+    private int renewalCount;
+    private volatile Consumer<LibraryEvent> eventSink;
     
     public LoanList() {
         this.loans = new ArrayList<>();
+        this.archive = new LoanTable();
+        this.activeLoansByDueDate = new TreeMap<>();
+        this.activeLoansByIsbn = new HashMap<>();
+        this.loansByBorrower = new HashMap<>();
+        this.borrowerStatistics = new HashMap<>();
+        this.bookStatistics = new HashMap<>();
+        this.eventSink = event -> { };
+    }
+
+    /**
+     * Sets where changes to the borrowing records are published
+     * @param eventSink receives an event for every loan added and every loan returned
+     */
+    public void setEventSink(Consumer<LibraryEvent> eventSink) {
+        this.eventSink = eventSink == null ? event -> { } : eventSink;
     }
 
     /**
      * Add a loan record
      * @param loan The loan record to be added
      */
-    public void addLoan(Loan loan) {
+    public synchronized void addLoan(Loan loan) {
         if (loan != null) {
             loans.add(loan);
+            loan.setOwner(this);
+            recordLoan(loan);
+            if (loan.getReturnDate() != null) {
+                unarchivedReturnCount++;
+            }
+            if (loan.getBorrower() != null) {
+                loansByBorrower.computeIfAbsent(loan.getBorrower().getId(), id -> new ArrayList<>()).add(loan);
+            }
+            eventSink.accept(new LibraryEvent.LoanCreated(loan));
+            archiveIfDue();
+        }
+    }
+
+    /**
+     * Add the record of a loan that was returned before the list saw it, e.g. from an
+     * imported history. It goes straight into the archive; no event is published.
+     * @param borrower borrower
+     * @param book borrowed book
+     * @param loanDate loan date
+     * @param dueDate due date
+     * @param returnDate return date
+     * @throws IllegalArgumentException if any argument is null
+     */
+    public synchronized void addReturnedLoan(User borrower, Book book, LocalDate loanDate, LocalDate dueDate,
+                                             LocalDate returnDate) {
+        if (borrower == null || book == null || loanDate == null || dueDate == null || returnDate == null) {
+            throw new IllegalArgumentException("Borrower, book and dates cannot be null");
+        }
+        Loan loan = new Loan(borrower, book, loanDate, dueDate, returnDate);
+        archive.addLoan(loan);
+        recordLoan(loan);
+    }
+
+    private void recordLoan(Loan loan) {
+        boolean active = loan.getReturnDate() == null;
+        if (active) {
+            activeLoanCount++;
+            indexByDueDate(loan);
+            if (loan.getBook() != null) {
+                activeLoansByIsbn.put(loan.getBook().getIsbn(), loan);
+            }
+        }
+        countLoanDay(loan.getLoanDate());
+        if (loan.getBorrower() != null) {
+            borrowerStatistics.computeIfAbsent(loan.getBorrower().getId(), id -> new LoanAggregate())
+                    .loanAdded(active);
+        }
+        if (loan.getBook() != null) {
+            bookStatistics.computeIfAbsent(loan.getBook().getIsbn(), isbn -> new LoanAggregate())
+                    .loanAdded(active);
+        }
+    }
+
+    private void countLoanDay(LocalDate loanDate) {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(countedDay)) {
+            countedDay = today;
+            loansOnCountedDay = 0;
+        }
+        if (today.equals(loanDate)) {
+            loansOnCountedDay++;
+        }
+    }
+
+    private void indexByDueDate(Loan loan) {
+        if (loan.getDueDate() != null) {
+            activeLoansByDueDate.computeIfAbsent(loan.getDueDate(), date -> new LinkedHashSet<>()).add(loan);
+        }
+    }
+
+    private void unindexByDueDate(Loan loan, LocalDate dueDate) {
+        if (dueDate == null) {
+            return;
+        }
+        Set<Loan> dueLoans = activeLoansByDueDate.get(dueDate);
+        if (dueLoans != null && dueLoans.remove(loan) && dueLoans.isEmpty()) {
+            activeLoansByDueDate.remove(dueDate);
+        }
+    }
+
+    synchronized void loanReturned(Loan loan, boolean wasOverdue) {
+        activeLoanCount--;
+        if (wasOverdue) {
+            overdueLoanCount--;
+        }
+        unindexByDueDate(loan, loan.getDueDate());
+        if (loan.getBook() != null) {
+            activeLoansByIsbn.remove(loan.getBook().getIsbn(), loan);
+        }
+        aggregatesOf(loan).forEach(aggregate -> aggregate.loanReturned(wasOverdue));
+        unarchivedReturnCount++;
+        eventSink.accept(new LibraryEvent.LoanReturned(loan));
+        archiveIfDue();
+    }
+
+    /**
+     * Archives the returned loans once they make up half the list, so each pass over the
+     * list archives at least as many loans as it keeps
+     */
+    private void archiveIfDue() {
+        if (unarchivedReturnCount >= Math.max(ARCHIVE_THRESHOLD, loans.size() / 2)) {
+            archiveReturnedLoans();
         }
     }
 
+    synchronized void loanRenewed(Loan loan, LocalDate previousDueDate, boolean overdueCleared) {
+        renewalCount++;
+        if (overdueCleared) {
+            overdueLoanCount--;
+        }
+        unindexByDueDate(loan, previousDueDate);
+        indexByDueDate(loan);
+        aggregatesOf(loan).forEach(aggregate -> aggregate.loanRenewed(overdueCleared));
+    }
+
+    /**
+     * Renew every active loan matching a filter in a single pass.
+     * The renewed loans are taken out of the due date index together and re-inserted under
+     * their new due dates, and the counters are adjusted once for the whole batch.
+     * @param filter selects the loans to renew
+     * @param days number of days to extend each loan by, or 0 for the default renewal period
+     * @return the renewed loans
+     */
+    public synchronized List<Loan> renewLoans(Predicate<Loan> filter, int days) {
+        LocalDate today = LocalDate.now();
+        List<Loan> renewed = new ArrayList<>();
+        Iterator<Set<Loan>> buckets = activeLoansByDueDate.values().iterator();
+        while (buckets.hasNext()) {
+            Set<Loan> dueLoans = buckets.next();
+            Iterator<Loan> iterator = dueLoans.iterator();
+            while (iterator.hasNext()) {
+                Loan loan = iterator.next();
+                if (filter.test(loan)) {
+                    iterator.remove();
+                    renewed.add(loan);
+                }
+            }
+            if (dueLoans.isEmpty()) {
+                buckets.remove();
+            }
+        }
+
+        for (Loan loan : renewed) {
+            boolean overdueCleared = loan.extendDueDate(days, today);
+            if (overdueCleared) {
+                overdueLoanCount--;
+            }
+            aggregatesOf(loan).forEach(aggregate -> aggregate.loanRenewed(overdueCleared));
+            indexByDueDate(loan);
+        }
+        renewalCount += renewed.size();
+        return renewed;
+    }
+
+    synchronized void loanOverdue(Loan loan) {
+        overdueLoanCount++;
+        aggregatesOf(loan).forEach(LoanAggregate::loanOverdue);
+    }
+
+    private List<LoanAggregate> aggregatesOf(Loan loan) {
+        List<LoanAggregate> aggregates = new ArrayList<>(2);
+        if (loan.getBorrower() != null) {
+            aggregates.add(borrowerStatistics.get(loan.getBorrower().getId()));
+        }
+        if (loan.getBook() != null) {
+            aggregates.add(bookStatistics.get(loan.getBook().getIsbn()));
+        }
+        return aggregates;
+    }
+
+    /**
+     * Marks every active loan that is past due on the given date as overdue.
+     * Only loans due before the date are visited, using the due date index.
+     * @param date the date to check against
+     * @param bookList the book list holding the loaned books
+     * @return number of loans newly marked overdue
+     */
+    public synchronized int updateOverdueLoans(LocalDate date, BookList bookList) {
+        List<Loan> pastDue = getActiveLoansDueBefore(date).stream()
+                .filter(loan -> !loan.isOverdue())
+                .collect(Collectors.toList());
+        pastDue.forEach(loan -> loan.checkOverdue(date, bookList));
+        return pastDue.size();
+    }
+
+    /**
+     * Get the active loans due before a date, in due date order
+     * @param date the exclusive upper bound on due dates
+     * @return active loans due before the date
+     */
+    public synchronized List<Loan> getActiveLoansDueBefore(LocalDate date) {
+        return flatten(activeLoansByDueDate.headMap(date, false));
+    }
+
+    /**
+     * Get the active loans due in a date range, in due date order
+     * @param from the inclusive lower bound on due dates
+     * @param to the exclusive upper bound on due dates
+     * @return active loans due in the range
+     */
+    public synchronized List<Loan> getActiveLoansDueBetween(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            return new ArrayList<>();
+        }
+        return flatten(activeLoansByDueDate.subMap(from, true, to, false));
+    }
+
+    private List<Loan> flatten(Map<LocalDate, Set<Loan>> loansByDueDate) {
+        List<Loan> result = new ArrayList<>();
+        loansByDueDate.values().forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * Get a snapshot of the library-wide loan counters
+     * @return loan statistics
+     */
+    public synchronized LoanStatistics getStatistics() {
+        LocalDate today = LocalDate.now();
+        int totalLoans = size();
+        int loansToday = today.equals(countedDay) ? loansOnCountedDay : 0;
+        return new LoanStatistics(today, totalLoans, activeLoanCount, totalLoans - activeLoanCount,
+                overdueLoanCount, renewalCount, loansToday, borrowerStatistics.size());
+    }
+
+    /**
+     * Get the number of unreturned loans without taking the list's lock, e.g. for monitoring
+     * @return active loan count
+     */
+    public int getActiveLoanCount() {
+        return activeLoanCount;
+    }
+
+    /**
+     * Get the number of overdue loans without taking the list's lock, e.g. for monitoring
+     * @return overdue loan count
+     */
+    public int getOverdueLoanCount() {
+        return overdueLoanCount;
+    }
+
+    /**
+     * Get the loan counters of one borrower
+     * @param userId the borrower's user id
+     * @return a copy of the borrower's counters, all zero if the borrower has no loans
+     */
+    public synchronized LoanAggregate getBorrowerStatistics(String userId) {
+        LoanAggregate aggregate = borrowerStatistics.get(userId);
+        return aggregate == null ? new LoanAggregate() : aggregate.copy();
+    }
+
+    /**
+     * Get the ids of everyone who has borrowed from this list
+     * @return a copy of the borrower ids
+     */
+    public synchronized Set<String> getBorrowerIds() {
+        return new HashSet<>(borrowerStatistics.keySet());
+    }
+
+    /**
+     * Get the loan counters of one book
+     * @param isbn the book's ISBN
+     * @return a copy of the book's counters, all zero if the book has never been loaned
+     */
+    public synchronized LoanAggregate getBookStatistics(String isbn) {
+        LoanAggregate aggregate = bookStatistics.get(isbn);
+        return aggregate == null ? new LoanAggregate() : aggregate.copy();
+    }
+
     /**
      * Add a new borrowing record
      * @param borrower borrower
@@ -45,41 +362,162 @@ public class LoanList {
         return loan;
     }
 
+    /**
+     * Moves returned borrowing records into the columnar archive. Runs by itself as loans
+     * are returned; callers can also run it, e.g. before saving.
+     * Archived records are still returned by the query methods, but are only
+     * materialized as Loan objects when read.
+     * @return number of records archived
+     */
+    public synchronized int archiveReturnedLoans() {
+        List<Loan> remaining = new ArrayList<>(loans.size());
+        int archived = 0;
+        unarchivedReturnCount = 0;
+        loansByBorrower.clear();
+        for (Loan loan : loans) {
+            if (isArchivable(loan)) {
+                archive.addLoan(loan);
+                archived++;
+            } else {
+                remaining.add(loan);
+                if (loan.getReturnDate() != null) {
+                    unarchivedReturnCount++;
+                }
+                if (loan.getBorrower() != null) {
+                    loansByBorrower.computeIfAbsent(loan.getBorrower().getId(), id -> new ArrayList<>()).add(loan);
+                }
+            }
+        }
+        loans = remaining;
+        return archived;
+    }
+
+    private boolean isArchivable(Loan loan) {
+        return loan.getReturnDate() != null && loan.getBorrower() != null && loan.getBook() != null
+                && loan.getLoanDate() != null && loan.getDueDate() != null;
+    }
+
+    /**
+     * Get the number of borrowing records, including archived ones
+     * @return number of borrowing records
+     */
+    public synchronized int size() {
+        return loans.size() + archive.size();
+    }
+
     /**
      * Get all borrowing records
      * @return borrowing record list
      */
-    public List<Loan> getAllLoans() {
-        return new ArrayList<>(loans);
+    public synchronized List<Loan> getAllLoans() {
+        List<Loan> allLoans = archive.getLoans();
+        allLoans.addAll(loans);
+        return allLoans;
+    }
+
+    /**
+     * Search the borrowing records for views that show only the rows on screen. Archived
+     * records are filtered and sorted on the archive's columns, and only materialized as Loan
+     * objects when their page is fetched.
+     * @param query search query; blank matches every record
+     * @param criteria fields to search
+     * @param sortCriteria order of the records
+     * @param ascending whether to sort in ascending order
+     * @return the matching records, in order, a page at a time
+     */
+    public synchronized PagedSource<Loan> pageLoans(String query, LoanSearchCriteria criteria,
+                                                    LoanSortCriteria sortCriteria, boolean ascending) {
+        String normalized = query == null ? "" : query.trim().toLowerCase();
+        long today = LocalDate.now().toEpochDay();
+        int[] rows = archive.selectRows(normalized, criteria, sortCriteria, ascending, today);
+        List<Loan> recent = loans.stream()
+                .filter(loan -> normalized.isEmpty() || criteria.matches(loan, normalized, today))
+                .collect(Collectors.toList());
+        // Archived records come first among equal keys, as in getAllLoans
+        return PagedSource.merge(
+                List.of(new ArchivedRows(rows), PagedSource.of(LoanComparators.sort(recent, sortCriteria, ascending))),
+                LoanComparators.comparator(sortCriteria, ascending));
+    }
+
+    /**
+     * Selected archive rows, read under the list's lock a page at a time
+     */
+    private class ArchivedRows implements PagedSource<Loan> {
+        private final int[] rows;
+
+        ArchivedRows(int[] rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int size() {
+            return rows.length;
+        }
+
+        @Override
+        public List<Loan> fetch(int offset, int limit) {
+            PagedSource.checkRange(offset, limit);
+            int to = (int) Math.min((long) offset + limit, rows.length);
+            List<Loan> page = new ArrayList<>(Math.max(0, to - offset));
+            synchronized (LoanList.this) {
+                for (int i = offset; i < to; i++) {
+                    page.add(archive.getLoan(rows[i]));
+                }
+            }
+            return page;
+        }
+    }
+
+    /**
+     * Get all borrowing records of one borrower, found through per-borrower indexes rather
+     * than a scan
+     * @param userId the borrower's user id
+     * @return the borrower's borrowing record list
+     */
+    public synchronized List<Loan> getLoansByBorrower(String userId) {
+        List<Loan> borrowerLoans = archive.getLoansByBorrower(userId);
+        borrowerLoans.addAll(loansByBorrower.getOrDefault(userId, List.of()));
+        return borrowerLoans;
     }
 
     /**
      * Get the borrowing record of the currently borrowed book
      * @return the borrowing record list of the currently borrowed book
      */
-    public List<Loan> getCurrentLoans() {
+    public synchronized List<Loan> getCurrentLoans() {
         List<Loan> currLoans = loans.stream()
                 .filter(loan -> loan.getReturnDate() == null)
                 .collect(Collectors.toList());
-        System.out.println("Current loans: " + currLoans.size());
+        LOGGER.debug(() -> "Current loans: " + currLoans.size());
         return currLoans;
     }
 
+    /**
+     * Get the unreturned loan of a book, found through the per-book index rather than a scan
+     * @param isbn the book's ISBN
+     * @return the book's current loan, or null if it is not on loan
+     */
+    public synchronized Loan getCurrentLoan(String isbn) {
+        return activeLoansByIsbn.get(isbn);
+    }
+
     /**
      * Get the borrowing record of returned books
      * @return the borrowing record list of returned books
      */
-    public List<Loan> getReturnedLoans() {
-        return loans.stream()
+    public synchronized List<Loan> getReturnedLoans() {
+        List<Loan> returnedLoans = archive.getLoans();
+        loans.stream()
                 .filter(loan -> loan.getReturnDate() != null)
-                .collect(Collectors.toList());
+                .forEach(returnedLoans::add);
+        return returnedLoans;
     }
 
     /**
      * Get overdue borrowing records
      * @return overdue borrowing record list
      */
-    public List<Loan> getOverdueLoans() {
+    public synchronized List<Loan> getOverdueLoans() {
         LocalDate today = LocalDate.now();
         return loans.stream()
                 .filter(loan -> loan.getReturnDate() == null && loan.getDueDate().isBefore(today))
@@ -93,66 +531,7 @@ public class LoanList {
      * @return sorted borrowing record list
      */
     public List<Loan> getSortedLoans(LoanSortCriteria criteria, boolean ascending) {
-        List<Loan> loanList = new ArrayList<>(loans);
-        
-        Comparator<Loan> comparator;
-        
-        switch (criteria) {
-            case LOAN_DATE:
-                comparator = Comparator.comparing(Loan::getLoanDate);
-                break;
-            case DUE_DATE:
-                comparator = Comparator.comparing(Loan::getDueDate);
-                break;
-            case RETURN_DATE:
-                // For null return dates, we treat it as the "maximum" date
-                comparator = (loan1, loan2) -> {
-                    if (loan1.getReturnDate() == null && loan2.getReturnDate() == null) {
-                        return 0;
-                    } else if (loan1.getReturnDate() == null) {
-                        return 1;
-                    } else if (loan2.getReturnDate() == null) {
-                        return -1;
-                    } else {
-                        return loan1.getReturnDate().compareTo(loan2.getReturnDate());
-                    }
-                };
-                break;
-            case BOOK_TITLE:
-                comparator = Comparator.comparing(loan -> loan.getBook().getTitle());
-                break;
-            case BOOK_AUTHOR:
-                comparator = Comparator.comparing(loan -> loan.getBook().getAuthor());
-                break;
-            case BOOK_ISBN:
-                comparator = Comparator.comparing(loan -> loan.getBook().getIsbn());
-                break;
-            case STATUS:
-                comparator = (loan1, loan2) -> {
-                    boolean isOverdue1 = loan1.getReturnDate() == null && 
-                                         loan1.getDueDate().isBefore(LocalDate.now());
-                    boolean isOverdue2 = loan2.getReturnDate() == null && 
-                                         loan2.getDueDate().isBefore(LocalDate.now());
-                    boolean isReturned1 = loan1.getReturnDate() != null;
-                    boolean isReturned2 = loan2.getReturnDate() != null;
-                    
-                    if (isOverdue1 && !isOverdue2) return 1;
-                    if (!isOverdue1 && isOverdue2) return -1;
-                    if (isReturned1 && !isReturned2) return -1;
-                    if (!isReturned1 && isReturned2) return 1;
-                    return 0;
-                };
-                break;
-            default:
-                comparator = Comparator.comparing(Loan::getLoanDate);
-        }
-        
-        if (!ascending) {
-            comparator = comparator.reversed();
-        }
-        
-        loanList.sort(comparator);
-        return loanList;
+        return LoanComparators.sort(getAllLoans(), criteria, ascending);
     }
 
     /**
@@ -0,0 +1,91 @@
+package models;
+
+/**
+ * Fields a search of the loan history looks at
+ */
+public enum LoanSearchCriteria {
+    ALL("All Fields"),
+    USER_ID("User ID"),
+    BOOK_TITLE("Book Title"),
+    BOOK_ISBN("Book ISBN"),
+    STATUS("Status");
+
+    private final String displayName;
+
+    LoanSearchCriteria(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+
+    /**
+     * Gets the status shown for a loan
+     * @param returned whether the loan has been returned
+     * @param dueEpochDay the due date as an epoch day
+     * @param today today as an epoch day
+     * @return "Returned", "OVERDUE" or "Borrowed"
+     */
+    public static String statusOf(boolean returned, long dueEpochDay, long today) {
+        if (returned) {
+            return "Returned";
+        }
+        return dueEpochDay < today ? "OVERDUE" : "Borrowed";
+    }
+
+    /**
+     * Checks whether a loan matches a search
+     * @param loan the loan
+     * @param query lowercase query
+     * @param today today as an epoch day, for the loan's status
+     * @return true if one of the searched fields contains the query
+     */
+    public boolean matches(Loan loan, String query, long today) {
+        return matchesUser(loan.getBorrower(), query)
+                || matchesBook(loan.getBook(), query)
+                || matchesStatus(statusOf(loan.getReturnDate() != null, loan.getDueDate().toEpochDay(), today), query);
+    }
+
+    /**
+     * Checks whether the borrower fields searched contain the query
+     * @param user the borrower
+     * @param query lowercase query
+     * @return true if they do
+     */
+    public boolean matchesUser(User user, String query) {
+        return (this == ALL || this == USER_ID) && user.getId().toLowerCase().contains(query);
+    }
+
+    /**
+     * Checks whether the book fields searched contain the query
+     * @param book the book
+     * @param query lowercase query
+     * @return true if they do
+     */
+    public boolean matchesBook(Book book, String query) {
+        return switch (this) {
+            case BOOK_TITLE -> book.getTitle().toLowerCase().contains(query);
+            case BOOK_ISBN -> book.getIsbn().toLowerCase().contains(query);
+            case ALL -> book.getTitle().toLowerCase().contains(query)
+                    || book.getIsbn().toLowerCase().contains(query)
+                    || book.getAuthor().toLowerCase().contains(query);
+            default -> false;
+        };
+    }
+
+    /**
+     * Checks whether a status is searched and contains the query
+     * @param status the status, from {@link #statusOf(boolean, long, long)}
+     * @param query lowercase query
+     * @return true if it does
+     */
+    public boolean matchesStatus(String status, String query) {
+        return (this == ALL || this == STATUS) && status.toLowerCase().contains(query);
+    }
+}
@@ -0,0 +1,68 @@
+package models;
+
+import java.time.LocalDate;
+
+/**
+ * Point-in-time snapshot of the library-wide loan counters.
+ */
+public class LoanStatistics {
+    private final LocalDate date;
+    private final int totalLoans;
+    private final int activeLoans;
+    private final int returnedLoans;
+    private final int overdueLoans;
+    private final int renewals;
+    private final int loansToday;
+    private final int borrowerCount;
+
+    public LoanStatistics(LocalDate date, int totalLoans, int activeLoans, int returnedLoans,
+                          int overdueLoans, int renewals, int loansToday, int borrowerCount) {
+        this.date = date;
+        this.totalLoans = totalLoans;
+        this.activeLoans = activeLoans;
+        this.returnedLoans = returnedLoans;
+        this.overdueLoans = overdueLoans;
+        this.renewals = renewals;
+        this.loansToday = loansToday;
+        this.borrowerCount = borrowerCount;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int getTotalLoans() {
+        return totalLoans;
+    }
+
+    public int getActiveLoans() {
+        return activeLoans;
+    }
+
+    public int getReturnedLoans() {
+        return returnedLoans;
+    }
+
+    public int getOverdueLoans() {
+        return overdueLoans;
+    }
+
+    public int getRenewals() {
+        return renewals;
+    }
+
+    public int getLoansToday() {
+        return loansToday;
+    }
+
+    public int getBorrowerCount() {
+        return borrowerCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Statistics (%s): %d loans, %d active, %d returned, %d overdue, "
+                        + "%d renewals, %d loaned today, %d borrowers",
+                date, totalLoans, activeLoans, returnedLoans, overdueLoans, renewals, loansToday, borrowerCount);
+    }
+}
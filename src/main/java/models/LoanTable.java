@@ -0,0 +1,313 @@
+package models;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import utils.Cancellation;
+
+/**
+ * Column-oriented store for loan records.
+ * Dates are kept as epoch days and books/borrowers as ordinals into shared dictionaries,
+ * so a stored loan costs six ints instead of a full Loan object graph.
+ * Loan objects are only created when a row is read. Each row also links to the borrower's
+ * previous row, so one borrower's loans are read without scanning the others.
+ * Rows are only appended until clear(), so a row index stays valid while the table grows.
+ */
+public class LoanTable {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NO_ROW = -1;
+
+    private int[] loanDays;
+    private int[] dueDays;
+    private int[] returnDays;
+    private int[] bookOrdinals;
+    private int[] userOrdinals;
+    // The borrower's previous row, or NO_ROW
+    private int[] previousUserRows;
+    private int size;
+    // Each borrower's last row by user ordinal, or NO_ROW
+    private int[] lastUserRows;
+
+    private final List<Book> books;
+    private final Map<String, Integer> bookOrdinalsByIsbn;
+    private final List<User> users;
+    private final Map<String, Integer> userOrdinalsById;
+
+    public LoanTable() {
+        this.loanDays = new int[INITIAL_CAPACITY];
+        this.dueDays = new int[INITIAL_CAPACITY];
+        this.returnDays = new int[INITIAL_CAPACITY];
+        this.bookOrdinals = new int[INITIAL_CAPACITY];
+        this.userOrdinals = new int[INITIAL_CAPACITY];
+        this.previousUserRows = new int[INITIAL_CAPACITY];
+        this.size = 0;
+        this.lastUserRows = new int[0];
+        this.books = new ArrayList<>();
+        this.bookOrdinalsByIsbn = new HashMap<>();
+        this.users = new ArrayList<>();
+        this.userOrdinalsById = new HashMap<>();
+    }
+
+    /**
+     * Appends a loan record to the table.
+     * @param loan The loan to store
+     * @return The row index of the stored loan
+     * @throws IllegalArgumentException if the loan is missing its borrower, book or dates
+     */
+    public int addLoan(Loan loan) {
+        if (loan == null || loan.getBorrower() == null || loan.getBook() == null
+                || loan.getLoanDate() == null || loan.getDueDate() == null) {
+            throw new IllegalArgumentException("Loan must have a borrower, book, loan date and due date");
+        }
+
+        ensureCapacity(size + 1);
+        loanDays[size] = (int) loan.getLoanDate().toEpochDay();
+        dueDays[size] = (int) loan.getDueDate().toEpochDay();
+        returnDays[size] = loan.getReturnDate() == null ? NO_DATE : (int) loan.getReturnDate().toEpochDay();
+        bookOrdinals[size] = bookOrdinal(loan.getBook());
+        int user = userOrdinal(loan.getBorrower());
+        userOrdinals[size] = user;
+        previousUserRows[size] = lastUserRows[user];
+        lastUserRows[user] = size;
+        return size++;
+    }
+
+    /**
+     * Materializes the loan stored at the given row.
+     * The returned loan shares its Book and User with every other row for the same book or borrower.
+     * @param row Row index
+     * @return A loan holding the row's values
+     */
+    public Loan getLoan(int row) {
+        checkRow(row);
+        return new Loan(
+                users.get(userOrdinals[row]),
+                books.get(bookOrdinals[row]),
+                LocalDate.ofEpochDay(loanDays[row]),
+                LocalDate.ofEpochDay(dueDays[row]),
+                returnDays[row] == NO_DATE ? null : LocalDate.ofEpochDay(returnDays[row]));
+    }
+
+    /**
+     * Materializes every stored loan, in insertion order.
+     * @return list of loans
+     */
+    public List<Loan> getLoans() {
+        List<Loan> result = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            result.add(getLoan(row));
+        }
+        return result;
+    }
+
+    /**
+     * Materializes the loans of one borrower, in insertion order. Only the borrower's own rows
+     * are visited, following the links from the last one back.
+     * @param userId The borrower's user id
+     * @return list of the borrower's loans
+     */
+    public List<Loan> getLoansByBorrower(String userId) {
+        List<Loan> result = new ArrayList<>();
+        Integer ordinal = userOrdinalsById.get(userId);
+        if (ordinal == null) {
+            return result;
+        }
+        for (int row = lastUserRows[ordinal]; row != NO_ROW; row = previousUserRows[row]) {
+            result.add(getLoan(row));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Selects the rows matching a search, in sorted order. Only the columns and the book and
+     * user dictionaries are read; no Loan is created. Rows with equal sort keys keep their
+     * insertion order. A selection stops with a CancellationException if its thread is interrupted.
+     * @param query lowercase query; empty matches every row
+     * @param criteria fields to search
+     * @param sortCriteria order of the rows
+     * @param ascending whether to sort in ascending order
+     * @param today today as an epoch day, for each row's status
+     * @return the matching row indexes, in order
+     */
+    public int[] selectRows(String query, LoanSearchCriteria criteria, LoanSortCriteria sortCriteria,
+                            boolean ascending, long today) {
+        int[] rows = query.isEmpty() ? allRows() : matchingRows(query, criteria, today);
+        int[] bookRanks = bookRanks(sortCriteria);
+
+        // Pack (key, row) into one long so a primitive sort is both ordered and stable
+        long[] packed = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            long key = bookRanks != null ? bookRanks[bookOrdinals[row]] : sortKey(row, sortCriteria, today);
+            packed[i] = ((ascending ? key : -key) << 32) | row;
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = (int) packed[i];
+        }
+        return rows;
+    }
+
+    private int[] allRows() {
+        int[] rows = new int[size];
+        for (int row = 0; row < size; row++) {
+            rows[row] = row;
+        }
+        return rows;
+    }
+
+    private int[] matchingRows(String query, LoanSearchCriteria criteria, long today) {
+        // Each book, borrower and status is matched once, however many rows share it
+        boolean[] userMatches = new boolean[users.size()];
+        for (int ordinal = 0; ordinal < userMatches.length; ordinal++) {
+            userMatches[ordinal] = criteria.matchesUser(users.get(ordinal), query);
+        }
+        boolean[] bookMatches = new boolean[books.size()];
+        for (int ordinal = 0; ordinal < bookMatches.length; ordinal++) {
+            bookMatches[ordinal] = criteria.matchesBook(books.get(ordinal), query);
+        }
+        boolean returnedMatches = criteria.matchesStatus(LoanSearchCriteria.statusOf(true, today, today), query);
+        boolean overdueMatches = criteria.matchesStatus(LoanSearchCriteria.statusOf(false, today - 1, today), query);
+        boolean onLoanMatches = criteria.matchesStatus(LoanSearchCriteria.statusOf(false, today, today), query);
+
+        int[] rows = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            Cancellation.check(row);
+            boolean statusMatches = returnDays[row] != NO_DATE ? returnedMatches
+                    : dueDays[row] < today ? overdueMatches : onLoanMatches;
+            if (statusMatches || userMatches[userOrdinals[row]] || bookMatches[bookOrdinals[row]]) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Ranks the books by the field a criteria sorts by; books with equal fields share a rank
+     * @return ranks by book ordinal, or null if the criteria does not sort by a book field
+     */
+    private int[] bookRanks(LoanSortCriteria sortCriteria) {
+        Function<Book, String> bookKey = LoanComparators.bookKey(sortCriteria);
+        if (bookKey == null) {
+            return null;
+        }
+        String[] keys = new String[books.size()];
+        Integer[] order = new Integer[books.size()];
+        for (int ordinal = 0; ordinal < keys.length; ordinal++) {
+            keys[ordinal] = bookKey.apply(books.get(ordinal));
+            order[ordinal] = ordinal;
+        }
+        Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+
+        int[] ranks = new int[keys.length];
+        for (int i = 1; i < order.length; i++) {
+            boolean tied = keys[order[i]].equals(keys[order[i - 1]]);
+            ranks[order[i]] = tied ? ranks[order[i - 1]] : i;
+        }
+        return ranks;
+    }
+
+    private int sortKey(int row, LoanSortCriteria sortCriteria, long today) {
+        return switch (sortCriteria) {
+            case LOAN_DATE -> loanDays[row];
+            case DUE_DATE -> dueDays[row];
+            case RETURN_DATE -> returnDays[row] == NO_DATE ? LoanComparators.NOT_RETURNED_KEY : returnDays[row];
+            case STATUS -> LoanComparators.statusRank(returnDays[row] != NO_DATE, dueDays[row], today);
+            default -> throw new IllegalArgumentException("Unsupported sort criteria: " + sortCriteria);
+        };
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getLoanEpochDay(int row) {
+        checkRow(row);
+        return loanDays[row];
+    }
+
+    public int getDueEpochDay(int row) {
+        checkRow(row);
+        return dueDays[row];
+    }
+
+    /**
+     * Gets the return date of a row as an epoch day.
+     * @param row Row index
+     * @return The epoch day, or {@link Integer#MIN_VALUE} if the loan has not been returned
+     */
+    public int getReturnEpochDay(int row) {
+        checkRow(row);
+        return returnDays[row];
+    }
+
+    public int getBookOrdinal(int row) {
+        checkRow(row);
+        return bookOrdinals[row];
+    }
+
+    public int getUserOrdinal(int row) {
+        checkRow(row);
+        return userOrdinals[row];
+    }
+
+    /**
+     * Removes all rows. The book and user dictionaries are kept.
+     */
+    public void clear() {
+        size = 0;
+        Arrays.fill(lastUserRows, NO_ROW);
+    }
+
+    private int bookOrdinal(Book book) {
+        Integer ordinal = bookOrdinalsByIsbn.get(book.getIsbn());
+        if (ordinal == null) {
+            ordinal = books.size();
+            books.add(book);
+            bookOrdinalsByIsbn.put(book.getIsbn(), ordinal);
+        }
+        return ordinal;
+    }
+
+    private int userOrdinal(User user) {
+        Integer ordinal = userOrdinalsById.get(user.getId());
+        if (ordinal == null) {
+            ordinal = users.size();
+            users.add(user);
+            userOrdinalsById.put(user.getId(), ordinal);
+            if (ordinal == lastUserRows.length) {
+                lastUserRows = Arrays.copyOf(lastUserRows, Math.max(INITIAL_CAPACITY, ordinal * 2));
+                Arrays.fill(lastUserRows, ordinal, lastUserRows.length, NO_ROW);
+            }
+            lastUserRows[ordinal] = NO_ROW;
+        }
+        return ordinal;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= loanDays.length) {
+            return;
+        }
+        int capacity = Math.max(required, loanDays.length * 2);
+        loanDays = Arrays.copyOf(loanDays, capacity);
+        dueDays = Arrays.copyOf(dueDays, capacity);
+        returnDays = Arrays.copyOf(returnDays, capacity);
+        bookOrdinals = Arrays.copyOf(bookOrdinals, capacity);
+        userOrdinals = Arrays.copyOf(userOrdinals, capacity);
+        previousUserRows = Arrays.copyOf(previousUserRows, capacity);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range for size " + size);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class for managing book reservations.
+ * Each ISBN has a first-come, first-served queue of user ids. When a reserved book is returned
+ * it is handed to the head of its queue and held for that user.
+ * All methods are synchronized, so the list can be shared by concurrent callers.
+ */
+public class ReservationList {
+    private final Map<String, LinkedHashSet<String>> queues;
+    private final Map<String, String> holds;
+
+    public ReservationList() {
+        this.queues = new HashMap<>();
+        this.holds = new HashMap<>();
+    }
+
+    /**
+     * Adds a user to the end of the reservation queue of a book
+     * @param isbn ISBN of the reserved book
+     * @param userId user id of the patron
+     * @return the user's position in the queue, starting at 1
+     * @throws IllegalStateException if the user already has a reservation or hold on the book
+     */
+    public synchronized int reserve(String isbn, String userId) {
+        if (userId.equals(holds.get(isbn))) {
+            throw new IllegalStateException("Book is already on hold for this user.");
+        }
+        LinkedHashSet<String> queue = queues.computeIfAbsent(isbn, key -> new LinkedHashSet<>());
+        if (!queue.add(userId)) {
+            throw new IllegalStateException("User has already reserved this book.");
+        }
+        return queue.size();
+    }
+
+    /**
+     * Removes a user from the reservation queue of a book
+     * @param isbn ISBN of the reserved book
+     * @param userId user id of the patron
+     * @return true if the user was in the queue
+     */
+    public synchronized boolean cancel(String isbn, String userId) {
+        LinkedHashSet<String> queue = queues.get(isbn);
+        if (queue == null || !queue.remove(userId)) {
+            return false;
+        }
+        if (queue.isEmpty()) {
+            queues.remove(isbn);
+        }
+        return true;
+    }
+
+    /**
+     * Takes the head of a book's reservation queue and records the book as held for that user
+     * @param isbn ISBN of the returned book
+     * @return user id the book is now held for, or null if nobody is waiting
+     */
+    public synchronized String handOff(String isbn) {
+        holds.remove(isbn);
+        LinkedHashSet<String> queue = queues.get(isbn);
+        if (queue == null) {
+            return null;
+        }
+        Iterator<String> iterator = queue.iterator();
+        String next = iterator.next();
+        iterator.remove();
+        if (queue.isEmpty()) {
+            queues.remove(isbn);
+        }
+        holds.put(isbn, next);
+        return next;
+    }
+
+    /**
+     * Gets the number of users waiting for a book
+     * @param isbn ISBN of the book
+     * @return length of the reservation queue
+     */
+    public synchronized int getQueueLength(String isbn) {
+        LinkedHashSet<String> queue = queues.get(isbn);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Gets the users waiting for a book, in queue order
+     * @param isbn ISBN of the book
+     * @return a copy of the book's queue, empty if nobody is waiting
+     */
+    public synchronized List<String> getQueue(String isbn) {
+        LinkedHashSet<String> queue = queues.get(isbn);
+        return queue == null ? new ArrayList<>() : new ArrayList<>(queue);
+    }
+
+    public synchronized boolean hasReservations(String isbn) {
+        return queues.containsKey(isbn);
+    }
+
+    /**
+     * Gets the user a book is being held for
+     * @param isbn ISBN of the book
+     * @return user id, or null if the book is not on hold
+     */
+    public synchronized String getHolder(String isbn) {
+        return holds.get(isbn);
+    }
+
+    /**
+     * Clears the hold on a book once the holder collects it
+     * @param isbn ISBN of the book
+     */
+    public synchronized void clearHold(String isbn) {
+        holds.remove(isbn);
+    }
+
+    /**
+     * Restores a hold, used when loading saved reservations
+     * @param isbn ISBN of the book
+     * @param userId user id the book is held for
+     */
+    public synchronized void setHold(String isbn, String userId) {
+        holds.put(isbn, userId);
+    }
+
+    /**
+     * Gets all reservation queues in order
+     * @return a copy of the queues, keyed by ISBN
+     */
+    public synchronized Map<String, List<String>> getQueues() {
+        Map<String, List<String>> copy = new LinkedHashMap<>();
+        queues.forEach((isbn, queue) -> copy.put(isbn, new ArrayList<>(queue)));
+        return copy;
+    }
+
+    /**
+     * Gets all holds
+     * @return a copy of the holds, user id keyed by ISBN
+     */
+    public synchronized Map<String, String> getHolds() {
+        return new HashMap<>(holds);
+    }
+
+    /**
+     * Removes every reservation and hold on a book
+     * @param isbn ISBN of the book
+     */
+    public synchronized void removeBook(String isbn) {
+        queues.remove(isbn);
+        holds.remove(isbn);
+    }
+}
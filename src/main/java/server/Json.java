@@ -0,0 +1,90 @@
+package server;
+
+import models.Book;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Minimal JSON writer for the HTTP API responses.
+ * Builds one object at a time; numbers and booleans are written as literals,
+ * anything else as a string.
+ */
+final class Json {
+    private final StringBuilder out = new StringBuilder("{");
+
+    /**
+     * Adds a field to the object
+     * @param name field name
+     * @param value field value; null is written as null
+     * @return this writer
+     */
+    Json field(String name, Object value) {
+        String json;
+        if (value == null) {
+            json = "null";
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json = value.toString();
+        } else {
+            json = quote(value.toString());
+        }
+        return rawField(name, json);
+    }
+
+    /**
+     * Adds a field whose value is already JSON, e.g. a nested object or array
+     * @param name field name
+     * @param json field value as JSON
+     * @return this writer
+     */
+    Json rawField(String name, String json) {
+        if (out.length() > 1) {
+            out.append(',');
+        }
+        out.append(quote(name)).append(':').append(json);
+        return this;
+    }
+
+    String build() {
+        return out + "}";
+    }
+
+    static String book(Book book) {
+        return new Json()
+                .field("isbn", book.getIsbn())
+                .field("title", book.getTitle())
+                .field("author", book.getAuthor())
+                .field("status", book.getStatus())
+                .build();
+    }
+
+    static String books(List<Book> books) {
+        return books.stream().map(Json::book).collect(Collectors.joining(",", "[", "]"));
+    }
+
+    static String error(String message) {
+        return new Json().field("error", message).build();
+    }
+
+    static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,271 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import metrics.MetricsReporter;
+import metrics.PrometheusExporter;
+import models.Book;
+import models.LoanStatistics;
+import models.SearchCriteria;
+import models.SortCriteria;
+import models.User;
+import service.LibraryService;
+import utils.Logger;
+import utils.VirtualThreads;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Headless HTTP front end to one shared LibraryService, so several terminals can work
+ * against the same catalog. Uses the JDK's built-in HTTP server and answers in JSON.
+ *
+ * <pre>
+ * GET  /books?sort=TITLE&amp;order=asc            list the catalog
+ * GET  /books/search?q=...&amp;by=ALL&amp;sort=TITLE  search the catalog
+ * GET  /books/{isbn}                         look up one book
+ * POST /loans?isbn=...&amp;user=...              loan a book to a user
+ * POST /returns?isbn=...                     return a book
+ * GET  /stats                                loan and catalog statistics
+ * </pre>
+ *
+ * Parameters of POST requests may also be sent form-encoded in the body.
+ */
+public class LibraryServer {
+    private static final Logger LOGGER = Logger.getLogger(LibraryServer.class);
+    public static final int DEFAULT_PORT = 8080;
+    private static final int STOP_DELAY_SECONDS = 1;
+
+    private final LibraryService libraryService;
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server bound to a local port; call {@link #start()} to begin serving
+     * @param libraryService the service shared by all requests
+     * @param port port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public LibraryServer(LibraryService libraryService, int port) throws IOException {
+        this.libraryService = libraryService;
+        this.httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        // Requests blocked on a book's lock or on storage do not hold up others
+        this.executor = VirtualThreads.newPerTaskExecutor("library-http");
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/books", exchange -> handle(exchange, "GET", this::books));
+        httpServer.createContext("/loans", exchange -> handle(exchange, "POST", this::loan));
+        httpServer.createContext("/returns", exchange -> handle(exchange, "POST", this::returnBook));
+        httpServer.createContext("/stats", exchange -> handle(exchange, "GET", this::stats));
+    }
+
+    public void start() {
+        httpServer.start();
+        LOGGER.info("Library server listening on port " + getPort());
+    }
+
+    /**
+     * Stops accepting requests, lets requests in progress finish briefly, then shuts down.
+     * Does not save the service's data; that is left to the service's owner.
+     */
+    public void stop() {
+        httpServer.stop(STOP_DELAY_SECONDS);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * A request handler: returns the JSON body of a successful response
+     */
+    @FunctionalInterface
+    private interface Route {
+        String respond(String path, Map<String, String> params);
+    }
+
+    private void handle(HttpExchange exchange, String method, Route route) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            if (!method.equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", method);
+                status = 405;
+                body = Json.error("Use " + method + " for " + exchange.getHttpContext().getPath() + ".");
+            } else {
+                body = route.respond(exchange.getRequestURI().getPath(), parameters(exchange));
+            }
+        } catch (NotFoundException e) {
+            status = 404;
+            body = Json.error(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = Json.error(e.getMessage());
+        } catch (IllegalStateException e) {
+            // Includes BookConflictException, when another request changed the book first
+            status = 409;
+            body = Json.error(e.getMessage());
+        } catch (RuntimeException e) {
+            LOGGER.error("Error handling " + exchange.getRequestURI(), e);
+            status = 500;
+            body = Json.error("Internal server error.");
+        }
+        send(exchange, status, body);
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String books(String path, Map<String, String> params) {
+        String rest = path.substring("/books".length());
+        if (rest.isEmpty() || rest.equals("/")) {
+            SortCriteria sort = parseEnum(SortCriteria.class, params.get("sort"), SortCriteria.TITLE);
+            return Json.books(libraryService.sortBooks(sort, isAscending(params)));
+        }
+        if (rest.equals("/search")) {
+            SearchCriteria by = parseEnum(SearchCriteria.class, params.get("by"), SearchCriteria.ALL);
+            SortCriteria sort = parseEnum(SortCriteria.class, params.get("sort"), SortCriteria.TITLE);
+            List<Book> results = libraryService.searchAndSortBooks(
+                    required(params, "q"), by, sort, isAscending(params));
+            return Json.books(results);
+        }
+        String isbn = rest.startsWith("/") ? rest.substring(1) : "";
+        Book book = libraryService.getBook(isbn);
+        if (isbn.isEmpty() || book == null) {
+            throw new NotFoundException("Book not found with ISBN: " + isbn);
+        }
+        return Json.book(book);
+    }
+
+    private String loan(String path, Map<String, String> params) {
+        String isbn = required(params, "isbn");
+        User borrower = new User(required(params, "user"), false);
+        if (libraryService.getBook(isbn) == null) {
+            throw new NotFoundException("Book not found with ISBN: " + isbn);
+        }
+        libraryService.loanBook(isbn, borrower);
+        return Json.book(libraryService.getBook(isbn));
+    }
+
+    private String returnBook(String path, Map<String, String> params) {
+        String isbn = required(params, "isbn");
+        if (libraryService.getBook(isbn) == null) {
+            throw new NotFoundException("Book not found with ISBN: " + isbn);
+        }
+        if (!libraryService.returnBook(isbn)) {
+            throw new IllegalStateException("Book " + isbn + " is not on loan.");
+        }
+        return Json.book(libraryService.getBook(isbn));
+    }
+
+    private String stats(String path, Map<String, String> params) {
+        LoanStatistics statistics = libraryService.getStatistics();
+        return new Json()
+                .field("books", libraryService.getAllBooks().size())
+                .field("totalLoans", statistics.getTotalLoans())
+                .field("activeLoans", statistics.getActiveLoans())
+                .field("returnedLoans", statistics.getReturnedLoans())
+                .field("overdueLoans", statistics.getOverdueLoans())
+                .field("renewals", statistics.getRenewals())
+                .field("loansToday", statistics.getLoansToday())
+                .field("borrowers", statistics.getBorrowerCount())
+                .field("bookContentionRate", libraryService.getBookContentionRate())
+                .build();
+    }
+
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseQuery(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream in = exchange.getRequestBody()) {
+            parseQuery(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    static void parseQuery(String query, Map<String, String> params) {
+        if (query == null || query.isBlank()) {
+            return;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8).trim());
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static boolean isAscending(Map<String, String> params) {
+        return !"desc".equalsIgnoreCase(params.get("order"));
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, E defaultValue) {
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + ": " + value);
+        }
+    }
+
+    /**
+     * Thrown by a route when the requested resource does not exist
+     */
+    private static class NotFoundException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        NotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Runs the server until the process is stopped
+     * @param args optional port number, 8080 by default
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        MetricsReporter metricsReporter = MetricsReporter.startFromSystemProperties();
+        PrometheusExporter prometheusExporter = PrometheusExporter.startFromSystemProperties();
+        LibraryService libraryService = new LibraryService();
+        LibraryServer server = new LibraryServer(libraryService, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            libraryService.saveData();
+            if (metricsReporter != null) {
+                metricsReporter.close();
+            }
+            if (prometheusExporter != null) {
+                prometheusExporter.close();
+            }
+            System.out.println("Server stopped. Data saved.");
+        }));
+        server.start();
+        System.out.println("Library server running at http://localhost:" + server.getPort() + "/books");
+    }
+}
@@ -0,0 +1,94 @@
+package service;
+
+import models.BookList;
+import models.LibraryEvent;
+import models.LoanList;
+import utils.StripedLock;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * One library branch hosted by a LibraryService: its own catalog, loan records and lock stripes,
+ * so operations at one branch never wait on another.
+ */
+public final class Branch {
+    private static final int LOCK_STRIPES = 64;
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final String id;
+    private final BookList bookList;
+    private final LoanList loanList;
+    private final StripedLock isbnLocks;
+    private final Path catalogPath;
+    private final AtomicBoolean catalogChanged;
+
+    /**
+     * Creates a branch
+     * @param id branch id, made of letters, digits, '-' and '_'
+     * @param bookList the branch's catalog
+     * @param catalogPath file the catalog is saved to
+     * @param eventSink receives the changes made to the branch's books and loans
+     */
+    Branch(String id, BookList bookList, Path catalogPath, Consumer<LibraryEvent> eventSink) {
+        if (id == null || !VALID_ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("Invalid branch id: " + id);
+        }
+        this.id = id;
+        this.bookList = bookList;
+        this.loanList = new LoanList();
+        this.isbnLocks = new StripedLock(LOCK_STRIPES);
+        this.catalogPath = catalogPath;
+        this.catalogChanged = new AtomicBoolean();
+        bookList.setEventSink(event -> {
+            catalogChanged.set(true);
+            eventSink.accept(event);
+        });
+        loanList.setEventSink(eventSink);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public BookList getBookList() {
+        return bookList;
+    }
+
+    public LoanList getLoanList() {
+        return loanList;
+    }
+
+    StripedLock getLocks() {
+        return isbnLocks;
+    }
+
+    /**
+     * Gets the lock guarding a book of this branch
+     * @param isbn the book's ISBN
+     * @return the ISBN's lock stripe
+     */
+    ReentrantLock lockFor(String isbn) {
+        return isbnLocks.get(isbn);
+    }
+
+    Path getCatalogPath() {
+        return catalogPath;
+    }
+
+    /**
+     * Clears the unsaved-changes flag
+     * @return whether the catalog changed since it was last saved
+     */
+    boolean takeCatalogChanged() {
+        return catalogChanged.getAndSet(false);
+    }
+
+    @Override
+    public String toString() {
+        return "Branch " + id;
+    }
+}
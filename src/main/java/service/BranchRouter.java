@@ -0,0 +1,249 @@
+package service;
+
+import utils.StripedLock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Routes ISBN-keyed operations to the branch holding the book, and fans catalog-wide
+ * queries out to every branch in parallel.
+ *
+ * A book is owned by the branch whose catalog holds it; books not held anywhere route to the
+ * default branch, the first one. Adding or removing a book takes the ISBN's membership lock
+ * first, so two branches can never come to hold the same ISBN.
+ */
+public class BranchRouter {
+    private static final int MEMBERSHIP_STRIPES = 64;
+
+    private final List<Branch> branches;
+    private final Map<String, Branch> branchesById;
+    private final StripedLock membershipLocks;
+    private final ExecutorService fanOutExecutor;
+
+    /**
+     * Creates a router over a fixed set of branches
+     * @param branches the branches; the first is the default branch
+     * @throws IllegalArgumentException if there are no branches or two share an id
+     */
+    public BranchRouter(List<Branch> branches) {
+        if (branches == null || branches.isEmpty()) {
+            throw new IllegalArgumentException("At least one branch is required.");
+        }
+        this.branches = List.copyOf(branches);
+        this.branchesById = new LinkedHashMap<>();
+        for (Branch branch : branches) {
+            if (branchesById.put(branch.getId(), branch) != null) {
+                throw new IllegalArgumentException("Duplicate branch id: " + branch.getId());
+            }
+        }
+        this.membershipLocks = new StripedLock(MEMBERSHIP_STRIPES);
+        AtomicInteger count = new AtomicInteger();
+        this.fanOutExecutor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "branch-query-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets all branches, default branch first
+     * @return the branches
+     */
+    public List<Branch> getBranches() {
+        return branches;
+    }
+
+    public Branch getDefaultBranch() {
+        return branches.get(0);
+    }
+
+    /**
+     * Gets a branch by id
+     * @param id the branch id
+     * @return the branch
+     * @throws IllegalArgumentException if there is no such branch
+     */
+    public Branch getBranch(String id) {
+        Branch branch = branchesById.get(id);
+        if (branch == null) {
+            throw new IllegalArgumentException("Unknown branch: " + id);
+        }
+        return branch;
+    }
+
+    /**
+     * Finds the branch holding a book
+     * @param isbn the book's ISBN
+     * @return the owning branch, or null if no branch holds the book
+     */
+    public Branch owner(String isbn) {
+        for (Branch branch : branches) {
+            if (branch.getBookList().containsBook(isbn)) {
+                return branch;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the branch an operation on a book should go to
+     * @param isbn the book's ISBN
+     * @return the owning branch, or the default branch if no branch holds the book
+     */
+    public Branch route(String isbn) {
+        Branch owner = owner(isbn);
+        return owner != null ? owner : getDefaultBranch();
+    }
+
+    /**
+     * Routes a set of books, e.g. the books of a batch
+     * @param isbns the ISBNs to route
+     * @return the branch of each ISBN
+     */
+    public Map<String, Branch> route(Collection<String> isbns) {
+        Map<String, Branch> routes = new LinkedHashMap<>();
+        for (String isbn : isbns) {
+            routes.put(isbn, route(isbn));
+        }
+        return routes;
+    }
+
+    /**
+     * Gets the lock taken while a book is added to or removed from a catalog.
+     * Taken before the branch's own stripe.
+     * @param isbn the book's ISBN
+     * @return the ISBN's membership lock
+     */
+    ReentrantLock membershipLock(String isbn) {
+        return membershipLocks.get(isbn);
+    }
+
+    /**
+     * Acquires the stripes of routed books, branch by branch in router order, so callers
+     * locking overlapping sets cannot deadlock each other
+     * @param routes the branch of each ISBN, from {@link #route(Collection)}
+     * @return the acquired stripes, to pass to {@link #unlock(List)}
+     */
+    List<ReentrantLock> lock(Map<String, Branch> routes) {
+        List<ReentrantLock> acquired = new ArrayList<>();
+        try {
+            for (Branch branch : branches) {
+                Set<String> isbns = new HashSet<>();
+                routes.forEach((isbn, route) -> {
+                    if (route == branch) {
+                        isbns.add(isbn);
+                    }
+                });
+                if (!isbns.isEmpty()) {
+                    acquired.addAll(branch.getLocks().lock(isbns));
+                }
+            }
+        } catch (RuntimeException e) {
+            unlock(acquired);
+            throw e;
+        }
+        return acquired;
+    }
+
+    /**
+     * Acquires every stripe of every branch, in router order
+     */
+    void lockAll() {
+        for (Branch branch : branches) {
+            branch.getLocks().lockAll();
+        }
+    }
+
+    /**
+     * Releases the stripes acquired by {@link #lockAll()}
+     */
+    void unlockAll() {
+        for (int i = branches.size() - 1; i >= 0; i--) {
+            branches.get(i).getLocks().unlockAll();
+        }
+    }
+
+    void unlock(List<ReentrantLock> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            acquired.get(i).unlock();
+        }
+    }
+
+    /**
+     * Runs a query against every branch, in parallel when there are several. Interrupting the
+     * calling thread interrupts the queries still running on other branches too.
+     * @param query the query to run on one branch
+     * @return each branch's result, in router order
+     * @throws CancellationException if the calling thread is interrupted while waiting
+     */
+    public <T> List<T> fanOut(Function<Branch, T> query) {
+        if (branches.size() == 1) {
+            return List.of(query.apply(branches.get(0)));
+        }
+        List<Future<T>> pending = new ArrayList<>(branches.size() - 1);
+        for (Branch branch : branches.subList(1, branches.size())) {
+            pending.add(fanOutExecutor.submit(() -> query.apply(branch)));
+        }
+        // The calling thread queries the default branch rather than waiting idle
+        List<T> results = new ArrayList<>(branches.size());
+        try {
+            results.add(query.apply(branches.get(0)));
+            for (Future<T> result : pending) {
+                results.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while querying branches.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } finally {
+            // Stops the other branches' queries when one fails or the caller gives up
+            for (Future<T> result : pending) {
+                result.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Runs a list query against every branch in parallel and concatenates the results
+     * @param query the query to run on one branch
+     * @return all branches' results, in router order
+     */
+    public <T> List<T> collect(Function<Branch, ? extends Collection<T>> query) {
+        List<? extends Collection<T>> parts = fanOut(query);
+        if (parts.size() == 1) {
+            return new ArrayList<>(parts.get(0));
+        }
+        List<T> all = new ArrayList<>(parts.stream().mapToInt(Collection::size).sum());
+        parts.forEach(all::addAll);
+        return all;
+    }
+
+    /**
+     * Gets the ids of all branches
+     * @return branch ids, default branch first
+     */
+    public List<String> getBranchIds() {
+        return Collections.unmodifiableList(new ArrayList<>(branchesById.keySet()));
+    }
+}
@@ -0,0 +1,186 @@
+package service;
+
+import models.FinePolicy;
+import models.Loan;
+import models.LoanList;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Assesses overdue fines and keeps a running fine ledger per borrower.
+ *
+ * Each assessment only charges the fines accrued since the previous one, at the policy in
+ * force when it runs; the amount each overdue loan has accrued so far is kept, so a policy
+ * change never re-prices days already charged. With a capped policy, loans that had already
+ * reached the cap at the previous assessment are skipped, so only loans falling due within
+ * the cap window are visited as days pass.
+ */
+public class FineEngine {
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    private final Map<String, Long> ledger;
+    // Fine charged so far per unreturned overdue loan, keyed by identity
+    private final Map<Loan, Long> accrued;
+    private volatile FinePolicy policy;
+    private volatile boolean policyChanged;
+    private volatile LocalDate lastAssessedDate;
+
+    public FineEngine(FinePolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Fine policy cannot be null.");
+        }
+        this.policy = policy;
+        this.ledger = new ConcurrentHashMap<>();
+        this.accrued = new ConcurrentHashMap<>();
+    }
+
+    public FinePolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Changes the fine policy. Fines already on the ledger are kept;
+     * the new policy applies to the days charged from the next assessment on.
+     * @param policy The new fine policy
+     */
+    public synchronized void setPolicy(FinePolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Fine policy cannot be null.");
+        }
+        this.policy = policy;
+        // A higher cap lets loans that were capped accrue again, so the next assessment visits them all
+        this.policyChanged = true;
+    }
+
+    public LocalDate getLastAssessedDate() {
+        return lastAssessedDate;
+    }
+
+    /**
+     * Charges every overdue active loan the fine it has accrued up to the given date.
+     * Assessing a date that is not after the last assessed date does nothing.
+     * @param date The date to assess fines for
+     * @param loanList The loans to assess
+     * @return Total amount charged by this assessment, in cents
+     */
+    public long assess(LocalDate date, LoanList loanList) {
+        return assess(date, List.of(loanList));
+    }
+
+    /**
+     * Charges every overdue active loan in several loan lists, e.g. those of every branch,
+     * the fine it has accrued up to the given date.
+     * Assessing a date that is not after the last assessed date does nothing.
+     * @param date The date to assess fines for
+     * @param loanLists The loans to assess
+     * @return Total amount charged by this assessment, in cents
+     */
+    public synchronized long assess(LocalDate date, Collection<LoanList> loanLists) {
+        if (lastAssessedDate != null && !date.isAfter(lastAssessedDate)) {
+            return 0;
+        }
+
+        List<Loan> candidates = new ArrayList<>();
+        for (LoanList loanList : loanLists) {
+            if (lastAssessedDate == null || !policy.isCapped() || policyChanged) {
+                candidates.addAll(loanList.getActiveLoansDueBefore(date));
+            } else {
+                // Loans due before this point were already at the cap at the last assessment
+                LocalDate windowStart = lastAssessedDate.minusDays(policy.getDaysToCap());
+                candidates.addAll(loanList.getActiveLoansDueBetween(windowStart, date));
+            }
+        }
+
+        LocalDate previous = lastAssessedDate;
+        Stream<Loan> stream = candidates.size() >= PARALLEL_THRESHOLD
+                ? candidates.parallelStream()
+                : candidates.stream();
+        long total = stream
+                .mapToLong(loan -> charge(loan, previous, date))
+                .sum();
+
+        lastAssessedDate = date;
+        policyChanged = false;
+        return total;
+    }
+
+    /**
+     * Charges a loan that is being returned for the fine accrued since the last assessment.
+     * @param loan The loan being returned
+     * @param returnDate The return date
+     * @return Amount charged, in cents
+     */
+    public long assessReturn(Loan loan, LocalDate returnDate) {
+        if (loan == null || loan.isReturned()) {
+            return 0;
+        }
+        long charged = charge(loan, lastAssessedDate, returnDate);
+        accrued.remove(loan);
+        return charged;
+    }
+
+    /**
+     * Charges a loan for the days it was overdue after one date and up to another
+     */
+    private long charge(Loan loan, LocalDate from, LocalDate to) {
+        long dueDay = loan.getDueDate().toEpochDay();
+        long daysCharged = from == null ? 0 : Math.max(0, from.toEpochDay() - dueDay);
+        long newDays = to.toEpochDay() - dueDay - daysCharged;
+        if (newDays <= 0) {
+            return 0;
+        }
+        FinePolicy current = policy;
+        long before = accrued.getOrDefault(loan, 0L);
+        long after = before + newDays * current.getDailyRate();
+        if (current.isCapped()) {
+            // A lowered cap stops further fines but never refunds what was charged
+            after = Math.min(after, Math.max(current.getCap(), before));
+        }
+        long amount = after - before;
+        if (amount > 0) {
+            accrued.put(loan, after);
+            ledger.merge(loan.getBorrower().getId(), amount, Long::sum);
+        }
+        return amount;
+    }
+
+    /**
+     * Gets the outstanding fine of a borrower.
+     * @param userId The borrower's user id
+     * @return Outstanding fine in cents
+     */
+    public long getFine(String userId) {
+        return ledger.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Gets a copy of the fine ledger.
+     * @return Outstanding fines in cents, keyed by user id
+     */
+    public Map<String, Long> getLedger() {
+        return Collections.unmodifiableMap(new HashMap<>(ledger));
+    }
+
+    /**
+     * Records a payment against a borrower's fine.
+     * @param userId The borrower's user id
+     * @param amount Amount paid, in cents
+     * @throws IllegalArgumentException if the amount is not positive or exceeds the outstanding fine
+     */
+    public void payFine(String userId, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Payment must be positive.");
+        }
+        if (amount > getFine(userId)) {
+            throw new IllegalArgumentException("Payment exceeds the outstanding fine.");
+        }
+        ledger.computeIfPresent(userId, (id, fine) -> fine - amount == 0 ? null : fine - amount);
+    }
+}
@@ -0,0 +1,156 @@
+package service;
+
+import models.BookStatus;
+import models.LibraryEvent;
+import utils.Logger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers library changes to listeners in batches.
+ *
+ * Events published between {@link #beginBatch()} and the matching {@link #endBatch()} on one
+ * thread are held back and delivered together, after book events for the same ISBN have been
+ * coalesced, so a batch of operations causes one delivery. Events published outside a batch
+ * are delivered straight away.
+ */
+public class LibraryEventBus {
+    private static final Logger LOGGER = Logger.getLogger(LibraryEventBus.class);
+
+    private final List<LibraryEventListener> listeners;
+    private final ThreadLocal<PendingBatch> pending;
+
+    private static class PendingBatch {
+        private final List<LibraryEvent> events = new ArrayList<>();
+        private int depth;
+    }
+
+    public LibraryEventBus() {
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.pending = ThreadLocal.withInitial(PendingBatch::new);
+    }
+
+    public void subscribe(LibraryEventListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null.");
+        }
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(LibraryEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Publishes a change, or holds it back if the calling thread is inside a batch
+     * @param event the change
+     */
+    public void publish(LibraryEvent event) {
+        PendingBatch batch = pending.get();
+        if (batch.depth > 0) {
+            batch.events.add(event);
+        } else {
+            deliver(List.of(event));
+        }
+    }
+
+    /**
+     * Starts holding back events published by the calling thread. Batches may nest;
+     * events are delivered when the outermost batch ends.
+     */
+    public void beginBatch() {
+        pending.get().depth++;
+    }
+
+    /**
+     * Ends a batch started by {@link #beginBatch()}, delivering its events if it is the outermost one
+     */
+    public void endBatch() {
+        PendingBatch batch = pending.get();
+        if (batch.depth == 0) {
+            throw new IllegalStateException("No batch in progress.");
+        }
+        if (--batch.depth > 0) {
+            return;
+        }
+        List<LibraryEvent> events = coalesce(batch.events);
+        batch.events.clear();
+        if (!events.isEmpty()) {
+            deliver(events);
+        }
+    }
+
+    private void deliver(List<LibraryEvent> events) {
+        for (LibraryEventListener listener : listeners) {
+            try {
+                listener.onEvents(events);
+            } catch (RuntimeException e) {
+                // One faulty listener must not stop the others or fail the operation
+                LOGGER.error("Event listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * Merges book events for the same ISBN: status changes collapse into one from the first old
+     * status to the last new status (dropped if they cancel out), changes to a book added in the
+     * same batch are folded into the addition, and a book added and removed in the same batch
+     * disappears entirely. Loan events are kept as they are.
+     * @param events events in publication order
+     * @return the coalesced events, in order of first occurrence
+     */
+    static List<LibraryEvent> coalesce(List<LibraryEvent> events) {
+        List<LibraryEvent> result = new ArrayList<>(events.size());
+        Map<String, Integer> lastBookEvent = new HashMap<>();
+        for (LibraryEvent event : events) {
+            if (!event.isBookEvent()) {
+                result.add(event);
+                continue;
+            }
+            Integer index = lastBookEvent.get(event.getIsbn());
+            LibraryEvent previous = index == null ? null : result.get(index);
+            if (previous == null) {
+                lastBookEvent.put(event.getIsbn(), result.size());
+                result.add(event);
+            } else if (event instanceof LibraryEvent.StatusChanged) {
+                mergeStatusChange(result, lastBookEvent, index, previous, (LibraryEvent.StatusChanged) event);
+            } else if (event instanceof LibraryEvent.BookRemoved) {
+                result.set(index, null);
+                if (previous instanceof LibraryEvent.BookAdded) {
+                    lastBookEvent.remove(event.getIsbn());
+                } else {
+                    lastBookEvent.put(event.getIsbn(), result.size());
+                    result.add(event);
+                }
+            } else {
+                lastBookEvent.put(event.getIsbn(), result.size());
+                result.add(event);
+            }
+        }
+        result.removeIf(event -> event == null);
+        return result;
+    }
+
+    private static void mergeStatusChange(List<LibraryEvent> result, Map<String, Integer> lastBookEvent,
+                                          int index, LibraryEvent previous, LibraryEvent.StatusChanged change) {
+        if (previous instanceof LibraryEvent.BookAdded) {
+            // The added Book already carries its latest status
+            return;
+        }
+        if (previous instanceof LibraryEvent.StatusChanged) {
+            BookStatus oldStatus = ((LibraryEvent.StatusChanged) previous).getOldStatus();
+            if (oldStatus == change.getNewStatus()) {
+                result.set(index, null);
+                lastBookEvent.remove(change.getIsbn());
+            } else {
+                result.set(index, new LibraryEvent.StatusChanged(change.getBook(), oldStatus, change.getNewStatus()));
+            }
+            return;
+        }
+        lastBookEvent.put(change.getIsbn(), result.size());
+        result.add(change);
+    }
+}
@@ -0,0 +1,17 @@
+package service;
+
+import models.LibraryEvent;
+import java.util.List;
+
+/**
+ * Receives changes published by {@link LibraryService}.
+ */
+@FunctionalInterface
+public interface LibraryEventListener {
+    /**
+     * Called after an operation completes, with every change it made, already coalesced.
+     * Called on the thread that ran the operation, after its locks are released.
+     * @param events the changes, in the order they happened
+     */
+    void onEvents(List<LibraryEvent> events);
+}
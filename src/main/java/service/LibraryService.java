@@ -1,9 +1,23 @@
 package service;
 
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import metrics.MutationEvent;
+import metrics.Timer;
 import models.*;
 import storage.GeneralStorage;
+import utils.Logger;
+import utils.StripedLock;
+import utils.PagedSource;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Paths;
@@ -12,20 +26,121 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.stream.Collectors;
 
+/**
+ * Entry point for library operations. Safe for concurrent callers: operations on one book
+ * hold that ISBN's lock stripe, so unrelated checkouts run in parallel while the same
+ * book can never be loaned twice. A loan also takes the borrower's stripe, after the book's,
+ * so the borrower's loan limit is checked and used up in one step.
+ *
+ * The service can host several branches, each with its own catalog, loans and lock stripes.
+ * Operations on a book go to the branch holding it; catalog-wide queries run on every branch
+ * in parallel and merge the results. Reservations, fines and loan limits are library-wide.
+ */
 public class LibraryService {
+    private static final Logger LOGGER = Logger.getLogger(LibraryService.class);
+    public static final String DEFAULT_BRANCH = "main";
     private static final String LOCAL_DATABASE_FILE = "bookDatabase_local.txt";
+    private static final String LOCAL_RESERVATIONS_FILE = "reservations_local.txt";
+    private static final int BORROWER_STRIPES = 64;
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    private static final Timer LOAD_TIMER = METRICS.timer("library.load");
+    private static final Timer SAVE_TIMER = METRICS.timer("library.save");
+    private static final Timer LOAN_TIMER = METRICS.timer("library.loan");
+    private static final Counter LOAN_FAILURES = METRICS.counter("library.loan.failures");
+    private static final Timer RETURN_TIMER = METRICS.timer("library.return");
+    private static final Counter RETURN_FAILURES = METRICS.counter("library.return.failures");
+    private static final Timer BATCH_TIMER = METRICS.timer("library.batch");
+    private static final Timer SEARCH_TIMER = METRICS.timer("library.search");
     private final Path localDbPath;
-    private final BookList bookList;
-    private final LoanList loanList;
+    private final Path reservationsPath;
+    private final BranchRouter branches;
+    private final ReservationList reservationList;
+    private final FineEngine fineEngine;
+    private final LibraryEventBus eventBus;
+    private final AtomicBoolean reservationsChanged;
+    // Held while files are written, so concurrent saves never write the same file at once
+    private final ReentrantLock saveLock = new ReentrantLock();
+    // Taken after the book stripes, so a borrower's loans are counted and added one at a time
+    private final StripedLock borrowerLocks = new StripedLock(BORROWER_STRIPES);
+    private volatile LoanLimitPolicy loanLimitPolicy;
+    private volatile LocalDate lastOverdueCheck;
     private UserPreferences userPreferences;
     private static final String USER_PREFS_FILE = "user_preferences.dat";
-    private User currentUser;
+    private volatile User currentUser;
+    // False for a service that neither loads nor saves any file
+    private final boolean persistent;
 
     public LibraryService() {
+        this(List.of(DEFAULT_BRANCH));
+    }
+
+    /**
+     * Create a service hosting several branches
+     * @param branchIds ids of the branches; the first is the default branch, which keeps the
+     *     original catalog file, while each other branch has a catalog file of its own
+     */
+    public LibraryService(List<String> branchIds) {
+        this(branchIds, true);
+    }
+
+    private LibraryService(List<String> branchIds, boolean persistent) {
+        if (branchIds == null || branchIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one branch is required.");
+        }
+        this.persistent = persistent;
         this.localDbPath = resolvePath();
-        this.bookList = loadBookList();
-        this.loanList = new LoanList();
-        this.userPreferences = GeneralStorage.loadUserPreferences(USER_PREFS_FILE);
+        this.reservationsPath = localDbPath.resolveSibling(LOCAL_RESERVATIONS_FILE);
+        this.eventBus = new LibraryEventBus();
+        long loadStart = System.nanoTime();
+        List<Branch> hosted = new ArrayList<>();
+        for (String branchId : branchIds) {
+            if (hosted.isEmpty()) {
+                BookList bookList = persistent ? loadBookList() : new BookList();
+                hosted.add(new Branch(branchId, bookList, localDbPath, eventBus::publish));
+            } else {
+                Path catalogPath = localDbPath.resolveSibling("bookDatabase_" + branchId + "_local.txt");
+                BookList bookList = persistent ? loadBranchBookList(catalogPath) : new BookList();
+                hosted.add(new Branch(branchId, bookList, catalogPath, eventBus::publish));
+            }
+        }
+        this.branches = new BranchRouter(hosted);
+        this.reservationList = persistent ? loadReservations() : new ReservationList();
+        LOAD_TIMER.recordSince(loadStart);
+        this.fineEngine = new FineEngine(FinePolicy.DEFAULT);
+        this.reservationsChanged = new AtomicBoolean();
+        eventBus.subscribe(this::trackUnsavedChanges);
+        this.loanLimitPolicy = LoanLimitPolicy.DEFAULT;
+        this.userPreferences = persistent ? GeneralStorage.loadUserPreferences(USER_PREFS_FILE)
+                : new UserPreferences();
+        registerGauges();
+    }
+
+    /**
+     * Create a service that starts with an empty catalog, no reservations and default
+     * preferences, and never reads or writes a file; its save methods do nothing.
+     * For load tests and tools that must leave the local data alone.
+     * @return the service, hosting only the default branch
+     */
+    public static LibraryService inMemory() {
+        return new LibraryService(List.of(DEFAULT_BRANCH), false);
+    }
+
+    /**
+     * Publishes catalog and loan sizes as gauges. They read counters kept up to date by the
+     * catalogs and loan lists, without taking their locks.
+     */
+    private void registerGauges() {
+        METRICS.gauge("library.books", () -> sum(branch -> branch.getBookList().getBooks().size()));
+        METRICS.gauge("library.loans.active", () -> sum(branch -> branch.getLoanList().getActiveLoanCount()));
+        METRICS.gauge("library.loans.overdue", () -> sum(branch -> branch.getLoanList().getOverdueLoanCount()));
+    }
+
+    private long sum(ToIntFunction<Branch> count) {
+        long total = 0;
+        for (Branch branch : branches.getBranches()) {
+            total += count.applyAsInt(branch);
+        }
+        return total;
     }
 
     private Path resolvePath() {
@@ -52,7 +167,7 @@ public class LibraryService {
             try (InputStream is = LibraryService.class.getResourceAsStream("/bookDatabase.txt")) {
                 bookList = GeneralStorage.loadBookList(is);
             } catch (IOException ioe) {
-                ioe.printStackTrace();
+                LOGGER.error("Error loading bundled book database", ioe);
             }
             // persist a local copy for next time
             if (bookList != null) {
@@ -62,6 +177,16 @@ public class LibraryService {
         return (bookList != null ? bookList : new BookList());
     }
 
+    private BookList loadBranchBookList(Path catalogPath) {
+        BookList bookList = GeneralStorage.loadBookList(catalogPath.toString());
+        return (bookList != null ? bookList : new BookList());
+    }
+
+    private ReservationList loadReservations() {
+        ReservationList reservations = GeneralStorage.loadReservations(reservationsPath.toString());
+        return (reservations != null ? reservations : new ReservationList());
+    }
+
     public void setCurrentUser(User user) {
         this.currentUser = user;
     }
@@ -71,15 +196,118 @@ public class LibraryService {
     }
 
     public void saveData() {
-        GeneralStorage.saveBookList(localDbPath.toString(), bookList);
+        if (!persistent) {
+            return;
+        }
+        long start = System.nanoTime();
+        saveLock.lock();
+        try {
+            reservationsChanged.set(false);
+            for (Branch branch : branches.getBranches()) {
+                branch.takeCatalogChanged();
+                GeneralStorage.saveBookList(branch.getCatalogPath().toString(), branch.getBookList());
+            }
+            GeneralStorage.saveReservations(reservationsPath.toString(), reservationList);
+            for (Branch branch : branches.getBranches()) {
+                branch.getLoanList().archiveReturnedLoans();
+            }
+        } finally {
+            saveLock.unlock();
+            SAVE_TIMER.recordSince(start);
+        }
+    }
+
+    /**
+     * Save only the data that changed since the last save
+     */
+    public void saveChanges() {
+        if (!persistent) {
+            return;
+        }
+        long start = System.nanoTime();
+        saveLock.lock();
+        try {
+            for (Branch branch : branches.getBranches()) {
+                if (branch.takeCatalogChanged()) {
+                    GeneralStorage.saveBookList(branch.getCatalogPath().toString(), branch.getBookList());
+                }
+            }
+            if (reservationsChanged.getAndSet(false)) {
+                GeneralStorage.saveReservations(reservationsPath.toString(), reservationList);
+            }
+        } finally {
+            saveLock.unlock();
+            SAVE_TIMER.recordSince(start);
+        }
+    }
+
+    private void trackUnsavedChanges(List<LibraryEvent> events) {
+        for (LibraryEvent event : events) {
+            if (event.isBookEvent()) {
+                // Holds move together with book status, so reservations may have changed too.
+                // Each branch tracks changes to its own catalog.
+                reservationsChanged.set(true);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Subscribe to changes made through this service, e.g. to update a view in place
+     * @param listener receives the changes of each completed operation
+     */
+    public void addEventListener(LibraryEventListener listener) {
+        eventBus.subscribe(listener);
+    }
+
+    public void removeEventListener(LibraryEventListener listener) {
+        eventBus.unsubscribe(listener);
     }
 
     public void viewAllBooks() {
         System.out.println("\nBooks in Library:");
-        bookList.getBooks().values().forEach(System.out::println);
+        getAllBooks().forEach(System.out::println);
     }
 
+    /**
+     * Get the ids of the hosted branches
+     * @return branch ids, default branch first
+     */
+    public List<String> getBranchIds() {
+        return branches.getBranchIds();
+    }
+
+    /**
+     * Get the branch holding a book
+     * @param isbn the book's ISBN
+     * @return the branch id, or null if no branch holds the book
+     */
+    public String getBranchOf(String isbn) {
+        Branch owner = branches.owner(isbn);
+        return owner == null ? null : owner.getId();
+    }
+
+    /**
+     * Add a book, or replace it, at the branch holding it; new books go to the default branch
+     */
     public void addBook(String isbn, String title, String author) throws IllegalArgumentException {
+        addBook(branches.route(isbn), isbn, title, author);
+    }
+
+    /**
+     * Add a book to a branch's catalog
+     * @param branchId the branch to hold the book
+     * @param isbn the book's ISBN
+     * @param title the book's title
+     * @param author the book's author
+     * @throws IllegalArgumentException if a field is empty, the branch is unknown or another
+     *     branch already holds the book
+     */
+    public void addBook(String branchId, String isbn, String title, String author) throws IllegalArgumentException {
+        addBook(branches.getBranch(branchId), isbn, title, author);
+    }
+
+    private void addBook(Branch branch, String isbn, String title, String author) {
         if (isbn == null || isbn.trim().isEmpty()) {
             throw new IllegalArgumentException("ISBN cannot be empty.");
         }
@@ -91,89 +319,573 @@ public class LibraryService {
         }
 
         Book book = new Book(isbn, title, author);
-        bookList.addBook(book);
-        System.out.println("Book added successfully: " + book.getTitle());
+        MutationEvent event = MutationEvent.start();
+        boolean added = false;
+        eventBus.beginBatch();
+        try {
+            ReentrantLock membership = branches.membershipLock(isbn);
+            membership.lock();
+            try {
+                Branch owner = branches.owner(isbn);
+                if (owner != null && owner != branch) {
+                    throw new IllegalArgumentException("Book " + isbn + " is already held by branch " + owner.getId() + ".");
+                }
+                ReentrantLock lock = branch.lockFor(isbn);
+                lock.lock();
+                try {
+                    branch.getBookList().addBook(book);
+                    added = true;
+                } finally {
+                    lock.unlock();
+                }
+            } finally {
+                membership.unlock();
+            }
+        } finally {
+            eventBus.endBatch();
+            event.complete("add", isbn, null, added ? 1 : 0, added);
+        }
+        LOGGER.info("Book added successfully: " + book.getTitle());
     }
 
     public void removeBook(String isbn) {
+        MutationEvent event = MutationEvent.start();
+        boolean removed = false;
         try {
             if (isbn == null || isbn.trim().isEmpty()) {
                 throw new IllegalArgumentException("ISBN cannot be empty.");
             }
-            
-            Book book = bookList.getBook(isbn);
-            if (book == null) {
-                throw new IllegalArgumentException("Book not found.");
-            }
-            
-            if (book.getStatus() != BookStatus.AVAILABLE) {
-                throw new IllegalStateException("Cannot remove book because it is currently " + 
-                    book.getStatus().toString().toLowerCase() + ".");
+
+            eventBus.beginBatch();
+            try {
+                ReentrantLock membership = branches.membershipLock(isbn);
+                membership.lock();
+                try {
+                    Branch branch = branches.route(isbn);
+                    ReentrantLock lock = branch.lockFor(isbn);
+                    lock.lock();
+                    try {
+                        Book book = branch.getBookList().getBook(isbn);
+                        if (book == null) {
+                            throw new IllegalArgumentException("Book not found.");
+                        }
+
+                        if (book.getStatus() != BookStatus.AVAILABLE) {
+                            throw new IllegalStateException("Cannot remove book because it is currently " +
+                                book.getStatus().toString().toLowerCase() + ".");
+                        }
+
+                        branch.getBookList().removeBook(book);
+                        reservationList.removeBook(isbn);
+                        removed = true;
+                    } finally {
+                        lock.unlock();
+                    }
+                } finally {
+                    membership.unlock();
+                }
+            } finally {
+                eventBus.endBatch();
             }
-            
-            bookList.removeBook(book);
-            System.out.println("Book removed successfully.");
+            LOGGER.info("Book removed successfully.");
         } catch (Exception e) {
-            System.out.println("Error: " + e.getMessage());
+            LOGGER.warn("Error: " + e.getMessage());
             throw e; // Re-throw to let UI handle the error
+        } finally {
+            event.complete("remove", isbn, null, removed ? 1 : 0, removed);
         }
     }
 
     public void loanBook(String isbn) {
+        loanBook(isbn, currentUser);
+    }
+
+    /**
+     * Loan a book to a borrower, e.g. one served at a circulation desk
+     * @param isbn ISBN of the book to loan
+     * @param borrower the borrowing user
+     */
+    public void loanBook(String isbn, User borrower) {
+        long start = System.nanoTime();
+        MutationEvent event = MutationEvent.start();
+        boolean loaned = false;
         try {
-            if (currentUser == null) {
+            if (borrower == null) {
                 throw new IllegalStateException("No user is currently logged in.");
             }
 
             if (isbn == null || isbn.trim().isEmpty()) {
                 throw new IllegalArgumentException("ISBN cannot be empty.");
             }
-            
-            Book book = bookList.getBook(isbn);
-            if (book == null) {
-                throw new IllegalArgumentException("Book not found with ISBN: " + isbn);
-            }
-            
-            if (book.getStatus() != BookStatus.AVAILABLE) {
-                throw new IllegalStateException("Book is not available for loan. Current status: " + book.getStatus());
+
+            // Done before taking the book's stripe, as the daily overdue sweep takes every stripe
+            refreshOverdueLoans();
+
+            eventBus.beginBatch();
+            try {
+                Branch branch = branches.route(isbn);
+                ReentrantLock lock = branch.lockFor(isbn);
+                lock.lock();
+                try {
+                    Book book = branch.getBookList().getBook(isbn);
+                    if (book == null) {
+                        throw new IllegalArgumentException("Book not found with ISBN: " + isbn);
+                    }
+
+                    ReentrantLock borrowerLock = borrowerLocks.get(borrower.getId());
+                    borrowerLock.lock();
+                    try {
+                        // Per-borrower counters are kept by the loan lists, so this does not scan the loan history
+                        loanLimitPolicy.checkCanBorrow(getBorrowerStatistics(borrower.getId()));
+
+                        if (book.getStatus() == BookStatus.ON_HOLD
+                                && !borrower.getId().equals(reservationList.getHolder(isbn))) {
+                            throw new IllegalStateException("Book is on hold for another patron.");
+                        }
+
+                        applyLoan(branch, book, borrower);
+                        loaned = true;
+                    } finally {
+                        borrowerLock.unlock();
+                    }
+                    LOGGER.info("Book loaned successfully: " + book.getTitle());
+                } finally {
+                    lock.unlock();
+                }
+            } finally {
+                eventBus.endBatch();
             }
-            
-            // Create loan record using the current user
-            loanList.createLoan(currentUser, book);
-            
-            // Update book status
-            bookList.loanBook(book);
-            
-            System.out.println("Book loaned successfully: " + book.getTitle());
         } catch (Exception e) {
-            System.out.println("Error: " + e.getMessage());
+            LOAN_FAILURES.increment();
+            LOGGER.warn("Error: " + e.getMessage());
             throw e; // Re-throw to let UI handle the error
+        } finally {
+            LOAN_TIMER.recordSince(start);
+            event.complete("loan", isbn, borrower == null ? null : borrower.getId(), loaned ? 1 : 0, loaned);
         }
     }
 
-    public void returnBook(String isbn) {
-        Book book = bookList.getBook(isbn);
-        if (book != null) {
+    /**
+     * Return a loaned book
+     * @param isbn ISBN of the book to return
+     * @return true if the book was returned, false if it was not found or not on loan
+     */
+    public boolean returnBook(String isbn) {
+        long start = System.nanoTime();
+        MutationEvent event = MutationEvent.start();
+        boolean returned = false;
+        // Done before taking the book's stripe, as the daily overdue sweep takes every stripe
+        refreshOverdueLoans();
+        eventBus.beginBatch();
+        try {
+            Branch branch = branches.route(isbn);
+            ReentrantLock lock = branch.lockFor(isbn);
+            lock.lock();
             try {
-                bookList.returnBook(book);
-                List<Loan> currentLoans = loanList.getCurrentLoans();
-                for (Loan loan : currentLoans) {
-                    if (loan.getBook().getIsbn().equals(isbn)) {
-                        loan.returnBook();
-                        break;
+                Book book = branch.getBookList().getBook(isbn);
+                if (book != null) {
+                    try {
+                        applyReturn(branch, book);
+                        returned = true;
+                        LOGGER.info("Book returned successfully.");
+                        return true;
+                    } catch (IllegalStateException e) {
+                        LOGGER.warn("Error: " + e.getMessage());
                     }
+                } else {
+                    LOGGER.warn("Book not found.");
                 }
-                System.out.println("Book returned successfully.");
-            } catch (IllegalStateException e) {
-                System.out.println("Error: " + e.getMessage());
+                RETURN_FAILURES.increment();
+                return false;
+            } finally {
+                lock.unlock();
             }
+        } finally {
+            eventBus.endBatch();
+            RETURN_TIMER.recordSince(start);
+            event.complete("return", isbn, null, returned ? 1 : 0, returned);
+        }
+    }
+
+    /**
+     * Loans a book whose availability has been checked. Caller holds the book's stripe.
+     */
+    private void applyLoan(Branch branch, Book book, User borrower) {
+        BookList bookList = branch.getBookList();
+        if (book.getStatus() == BookStatus.ON_HOLD) {
+            // The holder is collecting the book
+            reservationList.clearHold(book.getIsbn());
+            bookList.releaseHold(book);
+        }
+
+        long version = book.getVersion();
+        if (book.getStatus() != BookStatus.AVAILABLE) {
+            throw new IllegalStateException("Book is not available for loan. Current status: " + book.getStatus());
+        }
+
+        // Claim the book only if it is unchanged since the check above; doing this before
+        // creating the loan record means a conflicting update leaves nothing behind
+        bookList.loanBook(book, version);
+
+        // Create loan record for the borrower
+        branch.getLoanList().createLoan(borrower, book);
+    }
+
+    /**
+     * Returns a book, handing it to the next patron in its reservation queue if there is one.
+     * Caller holds the book's stripe.
+     */
+    private void applyReturn(Branch branch, Book book) {
+        String isbn = book.getIsbn();
+        if (reservationList.hasReservations(isbn)) {
+            // Hand the book straight to the next patron in the queue
+            branch.getBookList().holdBook(book);
+            reservationList.handOff(isbn);
         } else {
-            System.out.println("Book not found.");
+            branch.getBookList().returnBook(book);
+        }
+        Loan loan = branch.getLoanList().getCurrentLoan(isbn);
+        if (loan != null) {
+            fineEngine.assessReturn(loan, LocalDate.now());
+            loan.returnBook();
+        }
+    }
+
+    /**
+     * Execute a stack of loans and returns as one unit, e.g. a patron checking out several books
+     * at a circulation desk. Every operation is validated against the same state, with all
+     * affected books locked, before any is applied: either all take effect or none do.
+     * Validation checks everything that applying an operation checks, and the locks keep the
+     * books unchanged in between, so applying cannot fail once validation has passed.
+     * The changes are saved, and published to listeners, once for the whole batch.
+     * @param operations the operations, applied in order
+     * @return the number of operations applied
+     * @throws IllegalArgumentException if an operation is malformed or names an unknown book
+     * @throws IllegalStateException if an operation is not allowed, e.g. the book is not available
+     */
+    public int executeBatch(List<Operation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("Batch cannot be empty.");
+        }
+        Set<String> isbns = new HashSet<>();
+        Set<String> borrowerIds = new HashSet<>();
+        for (Operation operation : operations) {
+            if (operation == null || operation.getIsbn() == null || operation.getIsbn().trim().isEmpty()) {
+                throw new IllegalArgumentException("ISBN cannot be empty.");
+            }
+            if (operation.getType() == Operation.Type.LOAN && operation.getBorrower() == null) {
+                throw new IllegalArgumentException("Loan operation must have a borrower.");
+            }
+            isbns.add(operation.getIsbn());
+            if (operation.getType() == Operation.Type.LOAN) {
+                borrowerIds.add(operation.getBorrower().getId());
+            }
+        }
+
+        long start = System.nanoTime();
+        MutationEvent event = MutationEvent.start();
+        boolean applied = false;
+        // Done before taking any stripe, as the daily overdue sweep takes every stripe
+        refreshOverdueLoans();
+
+        eventBus.beginBatch();
+        try {
+            Map<String, Branch> routes = branches.route(isbns);
+            List<ReentrantLock> locks = branches.lock(routes);
+            try {
+                List<ReentrantLock> borrowerStripes = borrowerLocks.lock(borrowerIds);
+                try {
+                    List<Book> books = validateBatch(operations, routes);
+                    for (int i = 0; i < operations.size(); i++) {
+                        Operation operation = operations.get(i);
+                        Branch branch = routes.get(operation.getIsbn());
+                        try {
+                            if (operation.getType() == Operation.Type.LOAN) {
+                                applyLoan(branch, books.get(i), operation.getBorrower());
+                            } else {
+                                applyReturn(branch, books.get(i));
+                            }
+                        } catch (RuntimeException e) {
+                            // Validation let through an operation that cannot be applied: a bug, not a rejected batch
+                            LOGGER.error("Batch failed after validation; " + i + " of " + operations.size()
+                                    + " operations were applied", e);
+                            throw new IllegalStateException(batchError(i, operation,
+                                    "Failed after validation passed: " + e.getMessage()), e);
+                        }
+                    }
+                    applied = true;
+                } finally {
+                    borrowerLocks.unlock(borrowerStripes);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Error: " + e.getMessage());
+                throw e; // Re-throw to let UI handle the error
+            } finally {
+                branches.unlock(locks);
+            }
+        } finally {
+            eventBus.endBatch();
+            BATCH_TIMER.recordSince(start);
+            event.complete("batch", null, null, applied ? operations.size() : 0, applied);
+        }
+
+        saveChanges();
+        LOGGER.info("Batch of " + operations.size() + " operations completed successfully.");
+        return operations.size();
+    }
+
+    /**
+     * Checks a batch against the current state, tracking the effect of earlier operations
+     * in the batch on the ones after them. Caller holds the stripes of every book in the batch,
+     * and of every borrower loaned to.
+     * @param routes the branch of each book in the batch
+     * @return the book of each operation
+     */
+    private List<Book> validateBatch(List<Operation> operations, Map<String, Branch> routes) {
+        Map<String, BookStatus> statuses = new HashMap<>();
+        Map<String, String> holders = new HashMap<>();
+        Map<String, String> borrowers = new HashMap<>();
+        Map<String, Integer> handOffs = new HashMap<>();
+        Map<String, Integer> activeLoanChanges = new HashMap<>();
+
+        List<Book> books = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            String isbn = operation.getIsbn();
+            Book book = routes.get(isbn).getBookList().getBook(isbn);
+            if (book == null) {
+                throw new IllegalArgumentException(batchError(i, operation, "Book not found with ISBN: " + isbn));
+            }
+            BookStatus status = statuses.computeIfAbsent(isbn, key -> book.getStatus());
+
+            if (operation.getType() == Operation.Type.LOAN) {
+                String userId = operation.getBorrower().getId();
+                LoanAggregate counters = getBorrowerStatistics(userId);
+                int activeLoans = counters.getActiveLoans() + activeLoanChanges.getOrDefault(userId, 0);
+                try {
+                    loanLimitPolicy.checkCanBorrow(activeLoans, counters.getOverdueLoans());
+                } catch (IllegalStateException e) {
+                    throw new IllegalStateException(batchError(i, operation, e.getMessage()));
+                }
+                String holder = holders.containsKey(isbn) ? holders.get(isbn) : reservationList.getHolder(isbn);
+                if (status == BookStatus.ON_HOLD && !userId.equals(holder)) {
+                    throw new IllegalStateException(batchError(i, operation, "Book is on hold for another patron."));
+                }
+                if (status != BookStatus.AVAILABLE && status != BookStatus.ON_HOLD) {
+                    throw new IllegalStateException(batchError(i, operation,
+                            "Book is not available for loan. Current status: " + status));
+                }
+                statuses.put(isbn, BookStatus.CHECKED_OUT);
+                holders.put(isbn, null);
+                borrowers.put(isbn, userId);
+                activeLoanChanges.merge(userId, 1, Integer::sum);
+            } else {
+                if (status != BookStatus.CHECKED_OUT && status != BookStatus.OVERDUE) {
+                    throw new IllegalStateException(batchError(i, operation,
+                            "Cannot return a book that is not checked out."));
+                }
+                Loan loan = routes.get(isbn).getLoanList().getCurrentLoan(isbn);
+                String userId = borrowers.containsKey(isbn) ? borrowers.get(isbn)
+                        : loan == null ? null : loan.getBorrower().getId();
+                if (userId != null) {
+                    activeLoanChanges.merge(userId, -1, Integer::sum);
+                }
+                // Each return in the batch hands the book to the next patron still waiting
+                int handedOff = handOffs.getOrDefault(isbn, 0);
+                if (handedOff < reservationList.getQueueLength(isbn)) {
+                    statuses.put(isbn, BookStatus.ON_HOLD);
+                    holders.put(isbn, reservationList.getQueue(isbn).get(handedOff));
+                    handOffs.put(isbn, handedOff + 1);
+                } else {
+                    statuses.put(isbn, BookStatus.AVAILABLE);
+                    holders.put(isbn, null);
+                }
+                borrowers.remove(isbn);
+            }
+            books.add(book);
+        }
+        return books;
+    }
+
+    private static String batchError(int index, Operation operation, String message) {
+        return "Operation " + (index + 1) + " (" + operation + "): " + message;
+    }
+
+    /**
+     * Renew every current loan matching a filter, e.g. all loans of one patron
+     * or every loan during a closure
+     * @param filter selects the loans to renew
+     * @param days number of days to extend each loan by, or 0 for the default renewal period
+     * @return the number of loans renewed
+     */
+    public int renewLoans(Predicate<Loan> filter, int days) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter cannot be null.");
+        }
+        if (days < 0) {
+            throw new IllegalArgumentException("Renewal days cannot be negative.");
+        }
+
+        // A renewal may touch any number of books, so it takes every stripe of one branch at a time
+        MutationEvent event = MutationEvent.start();
+        int renewedCount = 0;
+        boolean completed = false;
+        eventBus.beginBatch();
+        try {
+            for (Branch branch : branches.getBranches()) {
+                branch.getLocks().lockAll();
+                try {
+                    List<Loan> renewed = branch.getLoanList().renewLoans(filter, days);
+                    for (Loan loan : renewed) {
+                        if (!loan.isOverdue() && loan.getBook().getStatus() == BookStatus.OVERDUE) {
+                            branch.getBookList().clearOverdue(loan.getBook());
+                        }
+                    }
+                    renewedCount += renewed.size();
+                } finally {
+                    branch.getLocks().unlockAll();
+                }
+            }
+            completed = true;
+            return renewedCount;
+        } finally {
+            eventBus.endBatch();
+            event.complete("renew", null, null, renewedCount, completed);
+        }
+    }
+
+    /**
+     * Renew all current loans of the current user
+     * @param days number of days to extend each loan by, or 0 for the default renewal period
+     * @return the number of loans renewed
+     */
+    public int renewMyLoans(int days) {
+        if (currentUser == null) {
+            throw new IllegalStateException("No user is currently logged in.");
+        }
+        String userId = currentUser.getId();
+        return renewLoans(loan -> loan.getBorrower().getId().equals(userId), days);
+    }
+
+    /**
+     * Reserve a book that is currently unavailable for the current user
+     * @param isbn ISBN of the book to reserve
+     * @return the user's position in the reservation queue
+     * @throws IllegalStateException if the book is available or out of circulation, or the
+     *         user already has it on loan, on hold or reserved
+     */
+    public int reserveBook(String isbn) {
+        if (currentUser == null) {
+            throw new IllegalStateException("No user is currently logged in.");
+        }
+        if (isbn == null || isbn.trim().isEmpty()) {
+            throw new IllegalArgumentException("ISBN cannot be empty.");
+        }
+
+        MutationEvent event = MutationEvent.start();
+        String userId = currentUser.getId();
+        boolean reserved = false;
+        eventBus.beginBatch();
+        try {
+            Branch branch = branches.route(isbn);
+            ReentrantLock lock = branch.lockFor(isbn);
+            lock.lock();
+            try {
+                Book book = branch.getBookList().getBook(isbn);
+                if (book == null) {
+                    throw new IllegalArgumentException("Book not found with ISBN: " + isbn);
+                }
+                if (book.getStatus() == BookStatus.AVAILABLE) {
+                    throw new IllegalStateException("Book is available, loan it instead.");
+                }
+                if (book.getStatus() == BookStatus.OUT_OF_CIRCULATION) {
+                    throw new IllegalStateException("Book is out of circulation.");
+                }
+                Loan currentLoan = branch.getLoanList().getCurrentLoan(isbn);
+                if (currentLoan != null && userId.equals(currentLoan.getBorrower().getId())) {
+                    throw new IllegalStateException("Book is already on loan to this user.");
+                }
+                if (userId.equals(reservationList.getHolder(isbn))) {
+                    throw new IllegalStateException("Book is already on hold for this user.");
+                }
+
+                int position = reservationList.reserve(isbn, userId);
+                reservationsChanged.set(true);
+                reserved = true;
+                return position;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            eventBus.endBatch();
+            event.complete("reserve", isbn, userId, reserved ? 1 : 0, reserved);
+        }
+    }
+
+    /**
+     * Cancel the current user's reservation or hold on a book.
+     * Cancelling a hold passes the book on to the next patron in the queue.
+     * @param isbn ISBN of the reserved book
+     * @return true if a reservation or hold was cancelled
+     */
+    public boolean cancelReservation(String isbn) {
+        if (currentUser == null) {
+            throw new IllegalStateException("No user is currently logged in.");
+        }
+
+        MutationEvent event = MutationEvent.start();
+        String userId = currentUser.getId();
+        boolean cancelled = false;
+        eventBus.beginBatch();
+        try {
+            Branch branch = branches.route(isbn);
+            ReentrantLock lock = branch.lockFor(isbn);
+            lock.lock();
+            try {
+                Book book = branch.getBookList().getBook(isbn);
+                if (book != null && book.getStatus() == BookStatus.ON_HOLD
+                        && userId.equals(reservationList.getHolder(isbn))) {
+                    if (reservationList.handOff(isbn) == null) {
+                        branch.getBookList().releaseHold(book);
+                    }
+                    reservationsChanged.set(true);
+                    cancelled = true;
+                    return true;
+                }
+                cancelled = reservationList.cancel(isbn, userId);
+                if (cancelled) {
+                    reservationsChanged.set(true);
+                }
+                return cancelled;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            eventBus.endBatch();
+            event.complete("cancel-reservation", isbn, userId, cancelled ? 1 : 0, cancelled);
         }
     }
 
+    /**
+     * Get the number of patrons waiting for a book
+     * @param isbn ISBN of the book
+     * @return length of the book's reservation queue
+     */
+    public int getReservationCount(String isbn) {
+        return reservationList.getQueueLength(isbn);
+    }
+
+    /**
+     * Get the user a book is being held for
+     * @param isbn ISBN of the book
+     * @return user id, or null if the book is not on hold
+     */
+    public String getHoldUser(String isbn) {
+        return reservationList.getHolder(isbn);
+    }
+
     public List<Loan> viewLoans() {
-        return loanList.getCurrentLoans();
+        return branches.collect(branch -> branch.getLoanList().getCurrentLoans());
     }
 
     /**
@@ -185,10 +897,17 @@ public class LibraryService {
             throw new IllegalStateException("No user is currently logged in.");
         }
 
-        // Filter borrowing records and return only the records of the current user
-        return loanList.getAllLoans().stream()
-            .filter(loan -> loan.getBorrower().getId().equals(currentUser.getId()))
-            .collect(Collectors.toList());
+        return getLoansByBorrower(currentUser.getId());
+    }
+
+    /**
+     * Get the borrowing record of a borrower, e.g. one served at a circulation desk
+     * @param userId the borrower's id
+     * @return the borrower's loans at every branch, returned ones included
+     */
+    public List<Loan> getLoansByBorrower(String userId) {
+        // Only the records of this borrower are materialized
+        return branches.collect(branch -> branch.getLoanList().getLoansByBorrower(userId));
     }
 
     /**
@@ -208,77 +927,213 @@ public class LibraryService {
         return myLoans;
     }
 
+    /**
+     * Get a snapshot of the loan statistics
+     * @return the current loan statistics
+     */
+    public LoanStatistics getStatistics() {
+        List<Branch> hosted = branches.getBranches();
+        if (hosted.size() == 1) {
+            return hosted.get(0).getLoanList().getStatistics();
+        }
+        int totalLoans = 0;
+        int activeLoans = 0;
+        int returnedLoans = 0;
+        int overdueLoans = 0;
+        int renewals = 0;
+        int loansToday = 0;
+        Set<String> borrowers = new HashSet<>();
+        for (Branch branch : hosted) {
+            LoanStatistics statistics = branch.getLoanList().getStatistics();
+            totalLoans += statistics.getTotalLoans();
+            activeLoans += statistics.getActiveLoans();
+            returnedLoans += statistics.getReturnedLoans();
+            overdueLoans += statistics.getOverdueLoans();
+            renewals += statistics.getRenewals();
+            loansToday += statistics.getLoansToday();
+            // A patron borrowing at several branches is counted once
+            borrowers.addAll(branch.getLoanList().getBorrowerIds());
+        }
+        return new LoanStatistics(LocalDate.now(), totalLoans, activeLoans, returnedLoans,
+                overdueLoans, renewals, loansToday, borrowers.size());
+    }
+
+    /**
+     * Get the loan counters of one borrower
+     * @param userId the borrower's user id
+     * @return the borrower's loan counters
+     */
+    public LoanAggregate getBorrowerStatistics(String userId) {
+        List<LoanAggregate> parts = new ArrayList<>();
+        for (Branch branch : branches.getBranches()) {
+            parts.add(branch.getLoanList().getBorrowerStatistics(userId));
+        }
+        return parts.size() == 1 ? parts.get(0) : LoanAggregate.sum(parts);
+    }
+
+    /**
+     * Get the loan counters of one book
+     * @param isbn the book's ISBN
+     * @return the book's loan counters
+     */
+    public LoanAggregate getBookStatistics(String isbn) {
+        return branches.route(isbn).getLoanList().getBookStatistics(isbn);
+    }
+
+    /**
+     * Marks loans that are past due today as overdue
+     * @return number of loans newly marked overdue
+     */
+    public int updateOverdueLoans() {
+        // The sweep may touch any number of books, so it takes every stripe of one branch at a time
+        eventBus.beginBatch();
+        try {
+            LocalDate today = LocalDate.now();
+            lastOverdueCheck = today;
+            int marked = 0;
+            for (Branch branch : branches.getBranches()) {
+                branch.getLocks().lockAll();
+                try {
+                    marked += branch.getLoanList().updateOverdueLoans(today, branch.getBookList());
+                } finally {
+                    branch.getLocks().unlockAll();
+                }
+            }
+            return marked;
+        } finally {
+            eventBus.endBatch();
+        }
+    }
+
+    /**
+     * Runs the daily sweep if it has not run yet today: marks past-due loans as overdue and
+     * charges the fines accrued since the last sweep. Callers must not hold any stripe.
+     */
+    private void refreshOverdueLoans() {
+        if (!LocalDate.now().equals(lastOverdueCheck)) {
+            updateOverdueLoans();
+            assessFines();
+        }
+    }
+
+    /**
+     * Get the share of book status changes that were rejected because another caller
+     * changed the same book first
+     * @return conflicts per attempted status change, between 0 and 1
+     */
+    public double getBookContentionRate() {
+        long transitions = 0;
+        long conflicts = 0;
+        for (Branch branch : branches.getBranches()) {
+            transitions += branch.getBookList().getTransitionCount();
+            conflicts += branch.getBookList().getConflictCount();
+        }
+        return transitions == 0 ? 0 : (double) conflicts / transitions;
+    }
+
+    public LoanLimitPolicy getLoanLimitPolicy() {
+        return loanLimitPolicy;
+    }
+
+    /**
+     * Update the per-borrower loan limits
+     * @param policy the new loan limits
+     */
+    public void setLoanLimitPolicy(LoanLimitPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Loan limit policy cannot be null.");
+        }
+        this.loanLimitPolicy = policy;
+    }
+
+    /**
+     * Charges overdue fines accrued up to today to the fine ledger
+     * @return total amount charged, in cents
+     */
+    public long assessFines() {
+        // Returns also charge fines, so no book may be returned at any branch while the ledger catches up
+        eventBus.beginBatch();
+        branches.lockAll();
+        try {
+            List<LoanList> loanLists = new ArrayList<>();
+            for (Branch branch : branches.getBranches()) {
+                loanLists.add(branch.getLoanList());
+            }
+            return fineEngine.assess(LocalDate.now(), loanLists);
+        } finally {
+            branches.unlockAll();
+            eventBus.endBatch();
+        }
+    }
+
+    /**
+     * Get the outstanding fine of a borrower
+     * @param userId the borrower's user id
+     * @return the outstanding fine, in cents
+     */
+    public long getFine(String userId) {
+        refreshOverdueLoans();
+        return fineEngine.getFine(userId);
+    }
+
+    /**
+     * Get the outstanding fines of all borrowers
+     * @return outstanding fines in cents, keyed by user id
+     */
+    public Map<String, Long> getFineLedger() {
+        refreshOverdueLoans();
+        return fineEngine.getLedger();
+    }
+
+    public FinePolicy getFinePolicy() {
+        return fineEngine.getPolicy();
+    }
+
+    /**
+     * Update the fine policy used for future assessments
+     * @param policy the new fine policy
+     */
+    public void setFinePolicy(FinePolicy policy) {
+        fineEngine.setPolicy(policy);
+    }
+
     /**
      * Get all loan records including returned ones
      * @return a list of all loans in the system
      */
     public List<Loan> getAllLoanRecords() {
-        return loanList.getAllLoans();
+        return branches.collect(branch -> branch.getLoanList().getAllLoans());
+    }
+
+    /**
+     * Search the loan history for views that show only the rows on screen. Each branch filters
+     * and sorts its archived loans on the archive's columns; loans are only created, and merged
+     * across branches, as far as the pages fetched.
+     * @param query search query; blank matches every loan
+     * @param searchCriteria fields to search
+     * @param sortCriteria order of the loans
+     * @param ascending whether to sort in ascending order
+     * @return the matching loans, in order, a page at a time
+     */
+    public PagedSource<Loan> pageLoanHistory(String query, LoanSearchCriteria searchCriteria,
+                                             LoanSortCriteria sortCriteria, boolean ascending) {
+        List<PagedSource<Loan>> perBranch = branches.fanOut(branch ->
+                branch.getLoanList().pageLoans(query, searchCriteria, sortCriteria, ascending));
+        if (perBranch.size() == 1) {
+            return perBranch.get(0);
+        }
+        return PagedSource.merge(perBranch, LoanComparators.comparator(sortCriteria, ascending));
     }
 
     public void viewLoansSorted(LoanSortCriteria criteria, boolean ascending, boolean currentOnly) {
         List<Loan> loans;
         if (currentOnly) {
-            loans = loanList.getCurrentLoans();
+            loans = viewLoans();
         } else {
-            loans = loanList.getAllLoans();
-        }
-        
-        Comparator<Loan> comparator;
-        switch (criteria) {
-            case LOAN_DATE:
-                comparator = Comparator.comparing(Loan::getLoanDate);
-                break;
-            case DUE_DATE:
-                comparator = Comparator.comparing(Loan::getDueDate);
-                break;
-            case RETURN_DATE:
-                comparator = (loan1, loan2) -> {
-                    if (loan1.getReturnDate() == null && loan2.getReturnDate() == null) {
-                        return 0;
-                    } else if (loan1.getReturnDate() == null) {
-                        return 1;
-                    } else if (loan2.getReturnDate() == null) {
-                        return -1;
-                    } else {
-                        return loan1.getReturnDate().compareTo(loan2.getReturnDate());
-                    }
-                };
-                break;
-            case BOOK_TITLE:
-                comparator = Comparator.comparing(loan -> loan.getBook().getTitle());
-                break;
-            case BOOK_AUTHOR:
-                comparator = Comparator.comparing(loan -> loan.getBook().getAuthor());
-                break;
-            case BOOK_ISBN:
-                comparator = Comparator.comparing(loan -> loan.getBook().getIsbn());
-                break;
-            case STATUS:
-                comparator = (loan1, loan2) -> {
-                    boolean isOverdue1 = loan1.getReturnDate() == null && 
-                                         loan1.getDueDate().isBefore(LocalDate.now());
-                    boolean isOverdue2 = loan2.getReturnDate() == null && 
-                                         loan2.getDueDate().isBefore(LocalDate.now());
-                    boolean isReturned1 = loan1.getReturnDate() != null;
-                    boolean isReturned2 = loan2.getReturnDate() != null;
-                    
-                    if (isOverdue1 && !isOverdue2) return 1;
-                    if (!isOverdue1 && isOverdue2) return -1;
-                    if (isReturned1 && !isReturned2) return -1;
-                    if (!isReturned1 && isReturned2) return 1;
-                    return 0;
-                };
-                break;
-            default:
-                comparator = Comparator.comparing(Loan::getLoanDate);
+            loans = getAllLoanRecords();
         }
-        
-        if (!ascending) {
-            comparator = comparator.reversed();
-        }
-        
-        loans.sort(comparator);
+
+        loans = LoanComparators.sort(loans, criteria, ascending);
         
         System.out.println("\nLoan Records (Sorted by " + criteria.getDisplayName() + 
                            ", " + (ascending ? "Ascending" : "Descending") + "):");
@@ -309,7 +1164,7 @@ public class LibraryService {
     }
 
     public void viewAllBooksSorted(SortCriteria criteria, boolean ascending) {
-        List<Book> sortedBooks = bookList.getSortedBooks(criteria, ascending);
+        List<Book> sortedBooks = sortBooks(criteria, ascending);
         
         System.out.println("\nLibrary Books (Sorted by " + criteria.getDisplayName() + 
                            ", " + (ascending ? "Ascending" : "Descending") + "):");
@@ -328,15 +1183,107 @@ public class LibraryService {
     }
 
     public List<Book> searchAndSortBooks(String query, SearchCriteria searchCriteria, SortCriteria sortCriteria, boolean ascending) {
-        return bookList.searchAndSortBooks(query, searchCriteria, sortCriteria, ascending);
+        long start = System.nanoTime();
+        try {
+            return mergeSorted(branches.fanOut(branch ->
+                    branch.getBookList().searchAndSortBooks(query, searchCriteria, sortCriteria, ascending)),
+                    sortCriteria, ascending);
+        } finally {
+            SEARCH_TIMER.recordSince(start);
+        }
+    }
+
+    /**
+     * Search the catalog for views that show only the rows on screen. Each branch filters its
+     * catalog, but the results are only sorted, and merged across branches, as far as the
+     * pages fetched.
+     * @param query search query
+     * @param searchCriteria fields to search
+     * @param sortCriteria order of the results
+     * @param ascending whether to sort in ascending order
+     * @return the matching books, in order, a page at a time
+     */
+    public PagedSource<Book> pageSearchResults(String query, SearchCriteria searchCriteria, SortCriteria sortCriteria,
+                                               boolean ascending) {
+        long start = System.nanoTime();
+        try {
+            return mergeLazily(branches.fanOut(branch ->
+                    branch.getBookList().pageSearchResults(query, searchCriteria, sortCriteria, ascending)),
+                    sortCriteria, ascending);
+        } finally {
+            SEARCH_TIMER.recordSince(start);
+        }
+    }
+
+    /**
+     * Search every branch for the books most relevant to a query
+     * @param query search query
+     * @param criteria fields to search
+     * @param limit maximum number of results
+     * @return up to limit books, most relevant first
+     */
+    public List<Book> searchTopBooks(String query, SearchCriteria criteria, int limit) {
+        // Each branch sends only its own top results, so the merge looks at no more than limit per branch
+        List<List<Book>> perBranch = branches.fanOut(branch ->
+                branch.getBookList().searchBooksByRelevance(query, criteria, limit));
+        if (perBranch.size() == 1) {
+            return perBranch.get(0);
+        }
+        List<Book> candidates = new ArrayList<>();
+        perBranch.forEach(candidates::addAll);
+        return BookList.topByRelevance(candidates, query, criteria, limit);
+    }
+
+    private static PagedSource<Book> mergeLazily(List<PagedSource<Book>> sortedParts, SortCriteria criteria,
+                                                 boolean ascending) {
+        if (sortedParts.size() == 1) {
+            return sortedParts.get(0);
+        }
+        return PagedSource.merge(sortedParts, BookList.comparator(criteria, ascending));
+    }
+
+    /**
+     * Merges lists of books that are each already sorted
+     */
+    private static List<Book> mergeSorted(List<List<Book>> sortedParts, SortCriteria criteria, boolean ascending) {
+        if (sortedParts.size() == 1) {
+            return sortedParts.get(0);
+        }
+        List<Book> merged = new ArrayList<>();
+        sortedParts.forEach(merged::addAll);
+        // The list sort finds the sorted runs and merges them rather than sorting from scratch
+        merged.sort(BookList.comparator(criteria, ascending));
+        return merged;
+    }
+
+    /**
+     * Look up a book in the catalog
+     * @param isbn the book's ISBN
+     * @return the book, or null if there is no book with that ISBN
+     */
+    public Book getBook(String isbn) {
+        return branches.route(isbn).getBookList().getBook(isbn);
     }
 
     public List<Book> getAllBooks() {
-        return new ArrayList<>(bookList.getBooks().values());
+        return branches.collect(branch -> branch.getBookList().getBooks().values());
     }
 
     public List<Book> sortBooks(SortCriteria sortCriteria, boolean ascending) {
-        return bookList.getSortedBooks(sortCriteria, ascending);
+        return mergeSorted(branches.fanOut(branch -> branch.getBookList().getSortedBooks(sortCriteria, ascending)),
+                sortCriteria, ascending);
+    }
+
+    /**
+     * Sort the catalog for views that show only the rows on screen. Books are only sorted as far
+     * as the pages fetched.
+     * @param sortCriteria order of the books
+     * @param ascending whether to sort in ascending order
+     * @return every book, in order, a page at a time
+     */
+    public PagedSource<Book> pageSortedBooks(SortCriteria sortCriteria, boolean ascending) {
+        return mergeLazily(branches.fanOut(branch -> branch.getBookList().pageSortedBooks(sortCriteria, ascending)),
+                sortCriteria, ascending);
     }
 
     /**
@@ -347,65 +1294,7 @@ public class LibraryService {
      * @return Sorted loan record list
      */
     public List<Loan> sortLoans(List<Loan> loans, LoanSortCriteria criteria, boolean ascending) {
-        List<Loan> loansCopy = new ArrayList<>(loans);
-        
-        Comparator<Loan> comparator;
-        
-        switch (criteria) {
-            case LOAN_DATE:
-                comparator = Comparator.comparing(Loan::getLoanDate);
-                break;
-            case DUE_DATE:
-                comparator = Comparator.comparing(Loan::getDueDate);
-                break;
-            case RETURN_DATE:
-                comparator = (loan1, loan2) -> {
-                    if (loan1.getReturnDate() == null && loan2.getReturnDate() == null) {
-                        return 0;
-                    } else if (loan1.getReturnDate() == null) {
-                        return 1;
-                    } else if (loan2.getReturnDate() == null) {
-                        return -1;
-                    } else {
-                        return loan1.getReturnDate().compareTo(loan2.getReturnDate());
-                    }
-                };
-                break;
-            case BOOK_TITLE:
-                comparator = Comparator.comparing(loan -> loan.getBook().getTitle());
-                break;
-            case BOOK_AUTHOR:
-                comparator = Comparator.comparing(loan -> loan.getBook().getAuthor());
-                break;
-            case BOOK_ISBN:
-                comparator = Comparator.comparing(loan -> loan.getBook().getIsbn());
-                break;
-            case STATUS:
-                comparator = (loan1, loan2) -> {
-                    boolean isOverdue1 = loan1.getReturnDate() == null && 
-                                        loan1.getDueDate().isBefore(LocalDate.now());
-                    boolean isOverdue2 = loan2.getReturnDate() == null && 
-                                        loan2.getDueDate().isBefore(LocalDate.now());
-                    boolean isReturned1 = loan1.getReturnDate() != null;
-                    boolean isReturned2 = loan2.getReturnDate() != null;
-                    
-                    if (isOverdue1 && !isOverdue2) return 1;
-                    if (!isOverdue1 && isOverdue2) return -1;
-                    if (isReturned1 && !isReturned2) return -1;
-                    if (!isReturned1 && isReturned2) return 1;
-                    return 0;
-                };
-                break;
-            default:
-                comparator = Comparator.comparing(Loan::getLoanDate);
-        }
-        
-        if (!ascending) {
-            comparator = comparator.reversed();
-        }
-        
-        loansCopy.sort(comparator);
-        return loansCopy;
+        return LoanComparators.sort(loans, criteria, ascending);
     }
 
     // Add methods for getting and setting user preferences
@@ -417,7 +1306,7 @@ public class LibraryService {
      * Save user preferences
      */
     public void saveUserPreferences() {
-        if (userPreferences != null) {
+        if (persistent && userPreferences != null) {
             GeneralStorage.saveUserPreferences(USER_PREFS_FILE, userPreferences);
         }
     }
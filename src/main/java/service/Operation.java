@@ -0,0 +1,66 @@
+package service;
+
+import models.User;
+
+/**
+ * One circulation step in a batch passed to {@link LibraryService#executeBatch(java.util.List)}.
+ */
+public final class Operation {
+    /**
+     * Kinds of circulation operation that can be batched
+     */
+    public enum Type {
+        LOAN,
+        RETURN
+    }
+
+    private final Type type;
+    private final String isbn;
+    private final User borrower;
+
+    private Operation(Type type, String isbn, User borrower) {
+        this.type = type;
+        this.isbn = isbn;
+        this.borrower = borrower;
+    }
+
+    /**
+     * Creates an operation that loans a book
+     * @param isbn ISBN of the book to loan
+     * @param borrower the borrowing user
+     * @return the operation
+     */
+    public static Operation loan(String isbn, User borrower) {
+        return new Operation(Type.LOAN, isbn, borrower);
+    }
+
+    /**
+     * Creates an operation that returns a book
+     * @param isbn ISBN of the book to return
+     * @return the operation
+     */
+    public static Operation returnBook(String isbn) {
+        return new Operation(Type.RETURN, isbn, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    /**
+     * Gets the borrowing user of a loan operation
+     * @return the borrower, or null for a return
+     */
+    public User getBorrower() {
+        return borrower;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + isbn + (borrower == null ? "" : " for " + borrower.getId());
+    }
+}
@@ -10,15 +10,35 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import models.ReservationList;
 import models.UserPreferences;
 import java.io.ObjectOutputStream;
 import java.io.FileOutputStream;
 import java.io.ObjectInputStream;
 import java.io.FileInputStream;
 import java.io.File;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import metrics.StorageEvent;
+import metrics.Timer;
+import utils.Logger;
 
 public class GeneralStorage {
+    private static final Logger LOGGER = Logger.getLogger(GeneralStorage.class);
+    private static final Timer LOAD_BOOKS_TIMER = MetricsRegistry.getDefault().timer("storage.books.load");
+    private static final Counter BOOKS_LOADED = MetricsRegistry.getDefault().counter("storage.books.loaded");
+    private static final Timer SAVE_BOOKS_TIMER = MetricsRegistry.getDefault().timer("storage.books.save");
+    private static final Counter BOOKS_SAVED = MetricsRegistry.getDefault().counter("storage.books.saved");
+    private static final Timer SAVE_RESERVATIONS_TIMER = MetricsRegistry.getDefault().timer("storage.reservations.save");
+
     /**
      * Loads the book list from the database.
      * This method reads the book data from a file and populates the BookList object.
@@ -30,7 +50,10 @@ public class GeneralStorage {
             return null;
         }
         
+        long start = System.nanoTime();
+        StorageEvent event = StorageEvent.start();
         BookList bookList = new BookList();
+        List<Book> books = new ArrayList<>();
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             String line;
             while ((line = reader.readLine()) != null) {
@@ -38,12 +61,17 @@ public class GeneralStorage {
                 if (parts.length >= 4) {
                     Book book = new Book(parts[0], parts[1], parts[2]);
                     book.setStatus(BookStatus.valueOf(parts[3]));
-                    bookList.addBook(book);
+                    books.add(book);
                 }
             }
         } catch (IOException e) {
-            System.out.println("Error loading book list: " + e.getMessage());
+            LOGGER.error("Error loading book list: " + e.getMessage());
         }
+        // Add in one step so the catalog is built once rather than once per book
+        bookList.addBooks(books);
+        BOOKS_LOADED.add(books.size());
+        LOAD_BOOKS_TIMER.recordSince(start);
+        event.complete("load", "books", filename, file.length(), books.size());
         return bookList;
     }
 
@@ -55,24 +83,35 @@ public class GeneralStorage {
      */
     public static BookList loadBookList(InputStream inputStream) {
         if (inputStream == null) {
-            System.out.println("InputStream is null. Cannot load book list.");
+            LOGGER.warn("InputStream is null. Cannot load book list.");
             return null;
         }
 
+        long start = System.nanoTime();
+        StorageEvent event = StorageEvent.start();
+        long characters = 0;
         BookList bookList = new BookList();
+        List<Book> books = new ArrayList<>();
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
             String line;
             while ((line = reader.readLine()) != null) {
+                characters += line.length() + 1;
                 String[] parts = line.split(",");
                 if (parts.length >= 4) {
                     Book book = new Book(parts[0], parts[1], parts[2]);
                     book.setStatus(BookStatus.valueOf(parts[3]));
-                    bookList.addBook(book);
+                    books.add(book);
                 }
             }
         } catch (IOException e) {
-            System.out.println("Error loading book list from InputStream: " + e.getMessage());
+            LOGGER.error("Error loading book list from InputStream: " + e.getMessage());
         }
+        // Add in one step so the catalog is built once rather than once per book
+        bookList.addBooks(books);
+        BOOKS_LOADED.add(books.size());
+        LOAD_BOOKS_TIMER.recordSince(start);
+        // The catalog is ASCII, so characters read stand in for bytes
+        event.complete("load", "books", null, characters, books.size());
 
         return bookList;
     }
@@ -83,18 +122,151 @@ public class GeneralStorage {
      * @param bookList The BookList object containing the books to be saved.
      */
     public static void saveBookList(String filename, BookList bookList) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
-            for (Map.Entry<String, Book> entry : bookList.getBooks().entrySet()) {
-                Book book = entry.getValue();
-                writer.write(String.format("%s,%s,%s,%s%n",
-                        book.getIsbn(),
-                        book.getTitle(),
-                        book.getAuthor(),
-                        book.getStatus()));
-            }
+        long start = System.nanoTime();
+        StorageEvent event = StorageEvent.start();
+        Map<String, Book> books = bookList.getBooks();
+        try {
+            writeAtomically(filename, writer -> {
+                for (Map.Entry<String, Book> entry : books.entrySet()) {
+                    Book book = entry.getValue();
+                    writer.write(String.format("%s,%s,%s,%s%n",
+                            book.getIsbn(),
+                            book.getTitle(),
+                            book.getAuthor(),
+                            book.getStatus()));
+                }
+                return books.size();
+            });
+            BOOKS_SAVED.add(books.size());
+        } catch (IOException e) {
+            LOGGER.error("Error saving book list: " + e.getMessage());
+        } finally {
+            SAVE_BOOKS_TIMER.recordSince(start);
+            completeSave(event, "books", filename, books.size());
+        }
+    }
+
+    /**
+     * Saves the reservation queues and holds.
+     * Each line holds an ISBN, the user the book is held for (empty if none),
+     * then the queued user ids in order.
+     * @param filename File path
+     * @param reservationList The reservations to save
+     */
+    public static void saveReservations(String filename, ReservationList reservationList) {
+        long start = System.nanoTime();
+        StorageEvent event = StorageEvent.start();
+        Map<String, List<String>> queues = reservationList.getQueues();
+        Map<String, String> holds = reservationList.getHolds();
+        int records = 0;
+        try {
+            records = writeAtomically(filename, writer -> {
+                int written = 0;
+                for (Map.Entry<String, String> hold : holds.entrySet()) {
+                    List<String> queue = queues.remove(hold.getKey());
+                    writeReservationLine(writer, hold.getKey(), hold.getValue(), queue);
+                    written++;
+                }
+                for (Map.Entry<String, List<String>> queue : queues.entrySet()) {
+                    writeReservationLine(writer, queue.getKey(), "", queue.getValue());
+                    written++;
+                }
+                return written;
+            });
         } catch (IOException e) {
-            System.out.println("Error saving book list: " + e.getMessage());
+            LOGGER.error("Error saving reservations: " + e.getMessage());
+        } finally {
+            SAVE_RESERVATIONS_TIMER.recordSince(start);
+            completeSave(event, "reservations", filename, records);
+        }
+    }
+
+    /**
+     * Writes the records of a file being saved
+     */
+    @FunctionalInterface
+    private interface RecordWriter {
+        /**
+         * @return the number of records written
+         */
+        int write(BufferedWriter writer) throws IOException;
+    }
+
+    /**
+     * Writes a file next to the target and moves it into place, so that readers, and a crash
+     * part way through, see either the old file or the new one and never a partly written one
+     * @return the number of records written
+     */
+    private static int writeAtomically(String filename, RecordWriter records) throws IOException {
+        Path target = Paths.get(filename).toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            int written;
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp.toFile()))) {
+                written = records.write(writer);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return written;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void completeSave(StorageEvent event, String data, String filename, int records) {
+        // Only look up the file size when a recording wants the event
+        if (event.isEnabled()) {
+            event.complete("save", data, filename, new File(filename).length(), records);
+        }
+    }
+
+    private static void writeReservationLine(BufferedWriter writer, String isbn, String holder,
+                                             List<String> queue) throws IOException {
+        StringBuilder line = new StringBuilder(isbn).append(',').append(holder);
+        if (queue != null) {
+            for (String userId : queue) {
+                line.append(',').append(userId);
+            }
+        }
+        writer.write(line.toString());
+        writer.newLine();
+    }
+
+    /**
+     * Loads the reservation queues and holds.
+     * @param filename File path
+     * @return The loaded reservations, or null if the file does not exist
+     */
+    public static ReservationList loadReservations(String filename) {
+        File file = new File(filename);
+        if (!file.exists()) {
+            return null;
+        }
+
+        ReservationList reservationList = new ReservationList();
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",", -1);
+                if (parts.length < 2 || parts[0].isEmpty()) {
+                    continue;
+                }
+                if (!parts[1].isEmpty()) {
+                    reservationList.setHold(parts[0], parts[1]);
+                }
+                for (int i = 2; i < parts.length; i++) {
+                    if (!parts[i].isEmpty()) {
+                        reservationList.reserve(parts[0], parts[i]);
+                    }
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.error("Error loading reservations: " + e.getMessage());
         }
+        return reservationList;
     }
 
     /**
@@ -106,7 +278,7 @@ public class GeneralStorage {
         try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(filename))) {
             out.writeObject(preferences);
         } catch (IOException e) {
-            System.out.println("Error saving user preferences: " + e.getMessage());
+            LOGGER.error("Error saving user preferences: " + e.getMessage());
         }
     }
 
@@ -124,7 +296,7 @@ public class GeneralStorage {
         try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(filename))) {
             return (UserPreferences) in.readObject();
         } catch (IOException | ClassNotFoundException e) {
-            System.out.println("Error loading user preferences: " + e.getMessage());
+            LOGGER.error("Error loading user preferences: " + e.getMessage());
             return new UserPreferences();
         }
     }
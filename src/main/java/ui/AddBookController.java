@@ -5,7 +5,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import service.LibraryService;
 
-public class AddBookController {
+public class AddBookController implements CachedView {
     @FXML private TextField isbnField;
     @FXML private TextField titleField;
     @FXML private TextField authorField;
@@ -38,6 +38,11 @@ public class AddBookController {
         }
     }
     
+    @Override
+    public void onShow() {
+        messageLabel.setText("");
+    }
+
     @FXML
     private void handleClear() {
         clearFields();
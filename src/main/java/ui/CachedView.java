@@ -0,0 +1,23 @@
+package ui;
+
+/**
+ * Controller of a view kept by the {@link ViewCache}, which is loaded once and shown again
+ * each time the user returns to it.
+ */
+public interface CachedView {
+
+    /**
+     * Brings the view up to date as it is shown again. Changes to the library made while it
+     * was hidden reach it through its {@link LiveUpdates} binding, so this only needs to reset
+     * what the user should not find left over, e.g. a message about an earlier action.
+     */
+    default void onShow() {
+    }
+
+    /**
+     * Releases what the view holds, such as its live-update binding, when it is dropped
+     * from the cache
+     */
+    default void dispose() {
+    }
+}
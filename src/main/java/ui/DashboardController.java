@@ -9,6 +9,9 @@ import javafx.scene.layout.VBox;
 import service.LibraryService;
 import models.User;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class DashboardController {
     @FXML private StackPane contentPane;
     @FXML private VBox sidebar;
@@ -38,89 +41,66 @@ public class DashboardController {
                 }
             });
         }
+
+        // Load the views most likely to be opened next while the user looks at the dashboard
+        List<String> likelyViews = new ArrayList<>(List.of(
+                "/fxml/ViewBooks.fxml", "/fxml/SearchBooks.fxml", "/fxml/LoanBook.fxml", "/fxml/ReturnBook.fxml"));
+        if (currentUser.isAdmin()) {
+            likelyViews.addAll(List.of("/fxml/ViewLoans.fxml", "/fxml/AddBook.fxml", "/fxml/RemoveBook.fxml"));
+        }
+        LibraryApp.getViewCache().preload(likelyViews);
     }
 
-    @FXML
-    private void handleViewAllBooks() {
+    /**
+     * Shows a view in the content pane, loading it only the first time
+     */
+    private void showView(String fxml) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/ViewBooks.fxml"));
-            Parent view = loader.load();
-            contentPane.getChildren().setAll(view);
+            contentPane.getChildren().setAll(LibraryApp.getViewCache().show(fxml));
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    @FXML
+    private void handleViewAllBooks() {
+        showView("/fxml/ViewBooks.fxml");
+    }
+
     @FXML
     private void handleLoanBook() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/LoanBook.fxml"));
-            Parent view = loader.load();
-            contentPane.getChildren().setAll(view);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        showView("/fxml/LoanBook.fxml");
     }
 
     @FXML
     private void handleReturnBook() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/ReturnBook.fxml"));
-            Parent view = loader.load();
-            contentPane.getChildren().setAll(view);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        showView("/fxml/ReturnBook.fxml");
     }
 
     @FXML
     private void handleAddBook() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/AddBook.fxml"));
-            Parent view = loader.load();
-            contentPane.getChildren().setAll(view);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        showView("/fxml/AddBook.fxml");
     }
 
     @FXML
     private void handleRemoveBook() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/RemoveBook.fxml"));
-            Parent view = loader.load();
-            contentPane.getChildren().setAll(view);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        showView("/fxml/RemoveBook.fxml");
     }
 
     @FXML
     private void handleViewLoans() {
-        // Implementation for viewing loans
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/ViewLoans.fxml"));
-            Parent view = loader.load();
-            contentPane.getChildren().setAll(view);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        showView("/fxml/ViewLoans.fxml");
     }
 
     @FXML
     private void handleSearchBooks() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/SearchBooks.fxml"));
-            Parent view = loader.load();
-            contentPane.getChildren().setAll(view);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        showView("/fxml/SearchBooks.fxml");
     }
 
     @FXML
     private void handleLogout() {
         // Implementation for logout
+        LibraryApp.getViewCache().clear();
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/Login.fxml"));
             Parent root = loader.load();
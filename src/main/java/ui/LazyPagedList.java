@@ -0,0 +1,149 @@
+package ui;
+
+import javafx.collections.ObservableListBase;
+import utils.PagedSource;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only list for a TableView that fetches rows from a {@link PagedSource} a page at a time
+ * as the table asks for them, instead of copying the whole result up front. The table only
+ * asks for the rows it renders, so a million-row result costs about as much to show as a
+ * fifty-row one.
+ *
+ * On a miss, the pages either side of the one asked for are fetched with it, so scrolling
+ * rarely waits on a fetch; the most recently used pages are kept. Only used on the JavaFX
+ * thread.
+ */
+public class LazyPagedList<T> extends ObservableListBase<T> {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int PREFETCH_PAGES = 1;
+    private static final int MAX_CACHED_PAGES = 32;
+
+    private final int pageSize;
+    private final Map<Integer, List<T>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private PagedSource<T> source;
+    private int size;
+
+    /**
+     * Creates an empty list; rows are shown once a source is set
+     */
+    public LazyPagedList() {
+        this(PagedSource.of(List.of()), DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Creates a list
+     * @param source the rows
+     * @param pageSize number of rows fetched at a time
+     */
+    public LazyPagedList(PagedSource<T> source, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        this.pageSize = pageSize;
+        this.source = source;
+        this.size = source.size();
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        int page = index / pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            fetchAround(page);
+            rows = pages.get(page);
+        }
+        int offset = index % pageSize;
+        // A source whose rows were removed since its size was read returns a short page
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Fetches a page together with the uncached pages around it, in one call to the source
+     */
+    private void fetchAround(int page) {
+        int lastPage = (size - 1) / pageSize;
+        int first = Math.max(0, page - PREFETCH_PAGES);
+        int last = Math.min(lastPage, page + PREFETCH_PAGES);
+        while (first < page && pages.containsKey(first)) {
+            first++;
+        }
+        while (last > page && pages.containsKey(last)) {
+            last--;
+        }
+        List<T> rows = source.fetch(first * pageSize, (last - first + 1) * pageSize);
+        for (int p = first; p <= last; p++) {
+            int from = Math.min((p - first) * pageSize, rows.size());
+            int to = Math.min(from + pageSize, rows.size());
+            pages.put(p, rows.subList(from, to));
+        }
+    }
+
+    /**
+     * Shows other rows, e.g. the results of a new search. The table keeps its scroll position
+     * where the new rows allow.
+     * @param newSource the rows to show
+     */
+    public void setSource(PagedSource<T> newSource) {
+        int oldSize = size;
+        Map<Integer, List<T>> oldPages = new HashMap<>(pages);
+        source = newSource;
+        size = newSource.size();
+        pages.clear();
+
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, removedRows(oldPages, oldSize));
+        }
+        if (size > 0) {
+            nextAdd(0, size);
+        }
+        endChange();
+    }
+
+    /**
+     * Shows the source's rows again after they changed, e.g. when a list it pages through
+     * had rows added
+     */
+    public void refresh() {
+        setSource(source);
+    }
+
+    /**
+     * The rows replaced by a new source. Only the pages that were cached are known; the old
+     * source is never read again, so other rows show as null.
+     */
+    private List<T> removedRows(Map<Integer, List<T>> oldPages, int oldSize) {
+        return new AbstractList<>() {
+            @Override
+            public T get(int index) {
+                List<T> rows = oldPages.get(index / pageSize);
+                int offset = index % pageSize;
+                return rows != null && offset < rows.size() ? rows.get(offset) : null;
+            }
+
+            @Override
+            public int size() {
+                return oldSize;
+            }
+        };
+    }
+}
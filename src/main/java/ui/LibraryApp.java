@@ -6,13 +6,22 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
+import metrics.MetricsReporter;
+import metrics.PrometheusExporter;
 import service.LibraryService;
 import models.User;
+import utils.Logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class LibraryApp extends Application {
-    private static LibraryService libraryService;
+    private static volatile CompletableFuture<LibraryService> libraryServiceLoad;
     private static User currentUser;
     private static Stage primaryStage;
+    private static ViewCache viewCache;
+    private static MetricsReporter metricsReporter;
+    private static PrometheusExporter prometheusExporter;
 
     @Override
     public void start(Stage stage) throws Exception {
@@ -40,15 +49,29 @@ public class LibraryApp extends Application {
         stage.show();
     }
 
+    /**
+     * Gets the library service, waiting for the catalog to finish loading if it has not yet
+     * @return the library service
+     * @throws CompletionException if the catalog could not be loaded
+     */
     public static LibraryService getLibraryService() {
-        if (libraryService == null) {
-            initialize();
-        }
-        return libraryService;
+        return loadLibraryService().join();
+    }
+
+    /**
+     * Gets the catalog load started at startup, without waiting for it
+     * @return completes with the library service once the catalog is loaded
+     */
+    public static CompletableFuture<LibraryService> loadLibraryService() {
+        initialize();
+        return libraryServiceLoad;
     }
 
     public static void setCurrentUser(User user) {
         currentUser = user;
+        // Cached views were set up for the previous user
+        getViewCache().clear();
+        LibraryService libraryService = loadedLibraryService();
         if (libraryService != null) {
             libraryService.setCurrentUser(user);
         }
@@ -62,24 +85,77 @@ public class LibraryApp extends Application {
         return primaryStage;
     }
 
+    /**
+     * Gets the dashboard's views, kept for the current user's session
+     * @return the view cache
+     */
+    public static ViewCache getViewCache() {
+        if (viewCache == null) {
+            viewCache = new ViewCache();
+        }
+        return viewCache;
+    }
+
     public static void main(String[] args) {
         // Suppress JavaFX TSM messages on macOS
         System.setProperty("javafx.macosx.enableDynamicCoreAnimation", "false");
         System.setProperty("apple.awt.UIElement", "true");
+
+        // Keep console logging off the circulation paths unless development mode is requested
+        Logger.configure(System.getProperty(Logger.MODE_PROPERTY, "production"));
+        // Periodic metrics dump, if -Dlibrary.metrics.file is set
+        metricsReporter = MetricsReporter.startFromSystemProperties();
+        // Prometheus scrape endpoint, if -Dlibrary.metrics.port is set
+        prometheusExporter = PrometheusExporter.startFromSystemProperties();
+        // Load the catalog while the toolkit starts and the login screen shows
+        initialize();
         
         launch(args);
     }
 
-    public static void initialize() {
-        if (libraryService == null) {
-            libraryService = new LibraryService();
+    /**
+     * Starts loading the catalog on a background thread, so the login screen shows at once
+     * however large the catalog is
+     */
+    public static synchronized void initialize() {
+        if (libraryServiceLoad == null) {
+            libraryServiceLoad = new CompletableFuture<>();
+            Thread loader = new Thread(() -> {
+                try {
+                    libraryServiceLoad.complete(new LibraryService());
+                } catch (Throwable e) {
+                    libraryServiceLoad.completeExceptionally(e);
+                }
+            }, "catalog-loader");
+            loader.setDaemon(true);
+            loader.start();
         }
     }
 
+    /**
+     * Gets the library service if the catalog has finished loading
+     * @return the library service, or null if it is still loading or failed to load
+     */
+    private static LibraryService loadedLibraryService() {
+        if (libraryServiceLoad == null || libraryServiceLoad.isCompletedExceptionally()) {
+            return null;
+        }
+        return libraryServiceLoad.getNow(null);
+    }
+
     @Override
     public void stop() {
+        // Nothing can have changed in a catalog that never finished loading
+        LibraryService libraryService = loadedLibraryService();
         if (libraryService != null) {
             libraryService.saveData();
         }
+        if (metricsReporter != null) {
+            metricsReporter.close();
+        }
+        if (prometheusExporter != null) {
+            prometheusExporter.close();
+        }
+        Logger.shutdown();
     }
 } 
\ No newline at end of file
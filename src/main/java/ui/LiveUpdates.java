@@ -0,0 +1,140 @@
+package ui;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import models.LibraryEvent;
+import service.LibraryEventListener;
+import service.LibraryService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Connects a view to the library's change feed for as long as the view is on screen,
+ * so the view can apply changes in place instead of reloading its lists.
+ */
+public final class LiveUpdates {
+    // Past this many changes held back for a hidden view, reloading it is cheaper than replaying them
+    private static final int MAX_PENDING = 10_000;
+
+    private LiveUpdates() {
+        // Utility class
+    }
+
+    /**
+     * Calls a handler on the JavaFX thread with each batch of changes, until the node is
+     * removed from its scene (e.g. when the dashboard replaces the view).
+     * @param node a node of the view, typically its table
+     * @param libraryService the service publishing changes
+     * @param handler applies a batch of changes to the view
+     */
+    public static void bind(Node node, LibraryService libraryService, Consumer<List<LibraryEvent>> handler) {
+        LibraryEventListener listener = events -> runOnFxThread(() -> handler.accept(events));
+        libraryService.addEventListener(listener);
+        node.sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                libraryService.removeEventListener(listener);
+            }
+        });
+    }
+
+    /**
+     * Calls a handler on the JavaFX thread with each batch of changes, for a view that is
+     * hidden and shown again, as by the {@link ViewCache}. Changes made while the node is off
+     * screen are held back and handed to the handler as one batch when it is shown again;
+     * if too many pile up, they are dropped and the view is reloaded instead.
+     * @param node a node of the view, typically its table
+     * @param libraryService the service publishing changes
+     * @param handler applies a batch of changes to the view
+     * @param reload reloads the view from the service
+     * @return the binding, to close when the view is discarded
+     */
+    public static Binding bind(Node node, LibraryService libraryService, Consumer<List<LibraryEvent>> handler,
+                               Runnable reload) {
+        Binding binding = new Binding(node, libraryService, handler, reload);
+        libraryService.addEventListener(binding.listener);
+        node.sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (oldScene == null && newScene != null) {
+                binding.shown();
+            }
+        });
+        return binding;
+    }
+
+    private static void runOnFxThread(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
+    }
+
+    /**
+     * A view's subscription to the change feed. Only used on the JavaFX thread.
+     */
+    public static final class Binding {
+        private final Node node;
+        private final LibraryService libraryService;
+        private final Consumer<List<LibraryEvent>> handler;
+        private final Runnable reload;
+        private final LibraryEventListener listener;
+        private final List<LibraryEvent> pending = new ArrayList<>();
+        private boolean subscribed = true;
+        private boolean stale;
+
+        private Binding(Node node, LibraryService libraryService, Consumer<List<LibraryEvent>> handler,
+                        Runnable reload) {
+            this.node = node;
+            this.libraryService = libraryService;
+            this.handler = handler;
+            this.reload = reload;
+            this.listener = events -> runOnFxThread(() -> deliver(events));
+        }
+
+        private void deliver(List<LibraryEvent> events) {
+            if (!subscribed) {
+                return; // Delivered after the binding was closed or went stale
+            }
+            if (node.getScene() != null) {
+                handler.accept(events);
+                return;
+            }
+            pending.addAll(events);
+            if (pending.size() > MAX_PENDING) {
+                pending.clear();
+                stale = true;
+                unsubscribe();
+            }
+        }
+
+        private void shown() {
+            if (stale) {
+                stale = false;
+                subscribed = true;
+                libraryService.addEventListener(listener);
+                reload.run();
+            } else if (subscribed && !pending.isEmpty()) {
+                List<LibraryEvent> missed = new ArrayList<>(pending);
+                pending.clear();
+                handler.accept(missed);
+            }
+        }
+
+        private void unsubscribe() {
+            if (subscribed) {
+                subscribed = false;
+                libraryService.removeEventListener(listener);
+            }
+        }
+
+        /**
+         * Stops delivering changes, e.g. when the view is dropped from its cache
+         */
+        public void close() {
+            stale = false;
+            pending.clear();
+            unsubscribe();
+        }
+    }
+}
@@ -5,7 +5,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import service.LibraryService;
 
-public class LoanBookController {
+public class LoanBookController implements CachedView {
     @FXML private TextField isbnField;
     @FXML private Label messageLabel;
     @FXML private Label userLabel;
@@ -40,6 +40,11 @@ public class LoanBookController {
         }
     }
     
+    @Override
+    public void onShow() {
+        messageLabel.setText("");
+    }
+
     @FXML
     private void handleClear() {
         clearFields();
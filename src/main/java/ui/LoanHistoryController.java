@@ -11,15 +11,13 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.stage.FileChooser;
 import service.LibraryService;
 import models.*;
+import utils.PagedSource;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.stream.Collectors;
 
 public class LoanHistoryController {
     @FXML private TableView<Loan> loansTable;
@@ -32,26 +30,32 @@ public class LoanHistoryController {
     @FXML private TableColumn<Loan, LocalDate> returnDateColumn;
     @FXML private TableColumn<Loan, String> statusColumn;
     @FXML private TextField searchField;
-    @FXML private ComboBox<String> searchTypeComboBox;
+    @FXML private ComboBox<LoanSearchCriteria> searchTypeComboBox;
     @FXML private Label messageLabel;
     @FXML private Label recordCountLabel;
     
-    private LibraryService libraryService;
-    private List<Loan> allLoans;
-    private List<Loan> filteredLoans;
+    // Rows exported per fetch, so an export never holds the whole history
+    private static final int EXPORT_PAGE_SIZE = 1000;
     
-    // Search types for the combo box
-    private final String[] SEARCH_TYPES = {
-        "All Fields", "User ID", "Book Title", "Book ISBN", "Status"
-    };
+    private LibraryService libraryService;
+    // The loans shown, filtered and sorted by the service from the loan archive's columns
+    private PagedSource<Loan> loans = PagedSource.of(List.of());
+    private String query = "";
+    private LoanSearchCriteria searchCriteria = LoanSearchCriteria.ALL;
+    // Default sort is by loan date, newest first
+    private LoanSortCriteria sortCriteria = LoanSortCriteria.LOAN_DATE;
+    private boolean ascending = false;
+    // Rows are fetched as the table shows them, so a long history is not copied into the table
+    private final LazyPagedList<Loan> loansList = new LazyPagedList<>();
     
     @FXML
     public void initialize() {
         libraryService = LibraryApp.getLibraryService();
         
         // Set up search type combo box
-        searchTypeComboBox.setItems(FXCollections.observableArrayList(SEARCH_TYPES));
-        searchTypeComboBox.setValue(SEARCH_TYPES[0]); // Default to "All Fields"
+        searchTypeComboBox.setItems(FXCollections.observableArrayList(LoanSearchCriteria.values()));
+        searchTypeComboBox.setValue(LoanSearchCriteria.ALL);
+        loansTable.setItems(loansList);
         
         // Set up table columns
         isbnColumn.setCellValueFactory(cellData -> 
@@ -70,107 +74,61 @@ public class LoanHistoryController {
             new SimpleObjectProperty<>(cellData.getValue().getReturnDate()));
         
         // Status column shows if book is overdue, currently loaned, or returned
-        statusColumn.setCellValueFactory(cellData -> {
-            Loan loan = cellData.getValue();
-            String status;
-            
-            if (loan.getReturnDate() != null) {
-                status = "Returned";
-            } else if (loan.getDueDate().isBefore(LocalDate.now())) {
-                status = "OVERDUE";
-            } else {
-                status = "Borrowed";
-            }
-            
-            return new SimpleStringProperty(status);
-        });
+        statusColumn.setCellValueFactory(cellData -> 
+            new SimpleStringProperty(getStatusString(cellData.getValue())));
         
         // Load all loans
-        loadAllLoans();
+        if (refreshLoans()) {
+            messageLabel.setText("");
+        }
     }
     
-    private void loadAllLoans() {
+    /**
+     * Fetches the loans matching the current search and sort and shows them
+     * @return false if the loans could not be loaded
+     */
+    private boolean refreshLoans() {
         try {
-            // Get ALL loans from the service (including returned ones)
-            allLoans = new ArrayList<>(libraryService.getAllLoanRecords());
-            filteredLoans = new ArrayList<>(allLoans);
-            
-            // Apply default sort (by loan date, descending)
-            sortLoans(LoanSortCriteria.LOAN_DATE, false);
-            
-            // Update the table
-            updateTable();
-            
-            messageLabel.setText("");
+            loans = libraryService.pageLoanHistory(query, searchCriteria, sortCriteria, ascending);
+            loansList.setSource(loans);
+            recordCountLabel.setText(String.valueOf(loans.size()));
+            return true;
         } catch (Exception e) {
             messageLabel.setText("Error loading loans: " + e.getMessage());
+            return false;
         }
     }
     
-    private void updateTable() {
-        loansTable.setItems(FXCollections.observableArrayList(filteredLoans));
-        recordCountLabel.setText(String.valueOf(filteredLoans.size()));
-    }
-    
     @FXML
     private void handleSearch() {
-        String query = searchField.getText().trim().toLowerCase();
-        String searchType = searchTypeComboBox.getValue();
+        query = searchField.getText().trim().toLowerCase();
+        searchCriteria = searchTypeComboBox.getValue();
         
-        if (query.isEmpty()) {
-            filteredLoans = new ArrayList<>(allLoans);
-            updateTable();
+        if (!refreshLoans() || query.isEmpty()) {
             return;
         }
         
-        // Filter loans based on search criteria
-        filteredLoans = allLoans.stream().filter(loan -> {
-            switch (searchType) {
-                case "User ID":
-                    return loan.getBorrower().getId().toLowerCase().contains(query);
-                case "Book Title":
-                    return loan.getBook().getTitle().toLowerCase().contains(query);
-                case "Book ISBN":
-                    return loan.getBook().getIsbn().toLowerCase().contains(query);
-                case "Status":
-                    String status = getStatusString(loan).toLowerCase();
-                    return status.contains(query);
-                case "All Fields":
-                default:
-                    return loan.getBorrower().getId().toLowerCase().contains(query) ||
-                           loan.getBook().getTitle().toLowerCase().contains(query) ||
-                           loan.getBook().getIsbn().toLowerCase().contains(query) ||
-                           loan.getBook().getAuthor().toLowerCase().contains(query) ||
-                           getStatusString(loan).toLowerCase().contains(query);
-            }
-        }).collect(Collectors.toList());
-        
-        updateTable();
-        
-        if (filteredLoans.isEmpty()) {
+        if (loans.size() == 0) {
             messageLabel.setText("No loans found matching your search criteria.");
         } else {
-            messageLabel.setText("Found " + filteredLoans.size() + " loan(s).");
+            messageLabel.setText("Found " + loans.size() + " loan(s).");
         }
     }
     
     private String getStatusString(Loan loan) {
-        if (loan.getReturnDate() != null) {
-            return "Returned";
-        } else if (loan.getDueDate().isBefore(LocalDate.now())) {
-            return "OVERDUE";
-        } else {
-            return "Borrowed";
-        }
+        return LoanSearchCriteria.statusOf(loan.getReturnDate() != null, loan.getDueDate().toEpochDay(),
+                LocalDate.now().toEpochDay());
     }
     
     @FXML
     private void handleReset() {
         searchField.clear();
-        searchTypeComboBox.setValue(SEARCH_TYPES[0]);
-        filteredLoans = new ArrayList<>(allLoans);
-        updateTable();
-        messageLabel.setText("");
+        searchTypeComboBox.setValue(LoanSearchCriteria.ALL);
+        query = "";
+        searchCriteria = LoanSearchCriteria.ALL;
+        if (refreshLoans()) {
+            messageLabel.setText("");
+        }
     }
     
     @FXML
@@ -183,12 +141,12 @@ public class LoanHistoryController {
         // Create sort criteria choice box
         ChoiceBox<LoanSortCriteria> criteriaChoice = new ChoiceBox<>();
         criteriaChoice.getItems().addAll(LoanSortCriteria.values());
-        criteriaChoice.setValue(LoanSortCriteria.LOAN_DATE);
+        criteriaChoice.setValue(sortCriteria);
 
         // Create sort direction choice box
         ChoiceBox<String> directionChoice = new ChoiceBox<>();
         directionChoice.getItems().addAll("Ascending", "Descending");
-        directionChoice.setValue("Descending");
+        directionChoice.setValue(ascending ? "Ascending" : "Descending");
 
         // Add controls to dialog
         dialog.getDialogPane().setContent(new VBox(10,
@@ -204,75 +162,16 @@ public class LoanHistoryController {
         // Show dialog and handle result
         dialog.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                LoanSortCriteria criteria = criteriaChoice.getValue();
-                boolean ascending = directionChoice.getValue().equals("Ascending");
-                sortLoans(criteria, ascending);
-                updateTable();
+                sortCriteria = criteriaChoice.getValue();
+                ascending = directionChoice.getValue().equals("Ascending");
+                refreshLoans();
             }
         });
     }
     
-    private void sortLoans(LoanSortCriteria criteria, boolean ascending) {
-        Comparator<Loan> comparator;
-        switch (criteria) {
-            case LOAN_DATE:
-                comparator = Comparator.comparing(Loan::getLoanDate);
-                break;
-            case DUE_DATE:
-                comparator = Comparator.comparing(Loan::getDueDate);
-                break;
-            case RETURN_DATE:
-                comparator = (loan1, loan2) -> {
-                    if (loan1.getReturnDate() == null && loan2.getReturnDate() == null) {
-                        return 0;
-                    } else if (loan1.getReturnDate() == null) {
-                        return 1;
-                    } else if (loan2.getReturnDate() == null) {
-                        return -1;
-                    } else {
-                        return loan1.getReturnDate().compareTo(loan2.getReturnDate());
-                    }
-                };
-                break;
-            case BOOK_TITLE:
-                comparator = Comparator.comparing(loan -> loan.getBook().getTitle());
-                break;
-            case BOOK_AUTHOR:
-                comparator = Comparator.comparing(loan -> loan.getBook().getAuthor());
-                break;
-            case BOOK_ISBN:
-                comparator = Comparator.comparing(loan -> loan.getBook().getIsbn());
-                break;
-            case STATUS:
-                comparator = (loan1, loan2) -> {
-                    boolean isOverdue1 = loan1.getReturnDate() == null && 
-                                         loan1.getDueDate().isBefore(LocalDate.now());
-                    boolean isOverdue2 = loan2.getReturnDate() == null && 
-                                         loan2.getDueDate().isBefore(LocalDate.now());
-                    boolean isReturned1 = loan1.getReturnDate() != null;
-                    boolean isReturned2 = loan2.getReturnDate() != null;
-                    
-                    if (isOverdue1 && !isOverdue2) return 1;
-                    if (!isOverdue1 && isOverdue2) return -1;
-                    if (isReturned1 && !isReturned2) return -1;
-                    if (!isReturned1 && isReturned2) return 1;
-                    return 0;
-                };
-                break;
-            default:
-                comparator = Comparator.comparing(Loan::getLoanDate);
-        }
-        
-        if (!ascending) {
-            comparator = comparator.reversed();
-        }
-        
-        filteredLoans.sort(comparator);
-    }
-    
     @FXML
     private void handleExport() {
-        if (filteredLoans.isEmpty()) {
+        if (loans.size() == 0) {
             messageLabel.setText("No data to export.");
             return;
         }
@@ -296,25 +195,31 @@ public class LoanHistoryController {
             
             DateTimeFormatter dateFormatter = DateTimeFormatter.ISO_LOCAL_DATE;
             
-            // Write data
-            for (Loan loan : filteredLoans) {
-                String returnDate = loan.getReturnDate() != null 
-                    ? loan.getReturnDate().format(dateFormatter) 
-                    : "N/A";
-                
-                writer.write(String.format("\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\"\n",
-                    loan.getBorrower().getId(),
-                    loan.getBook().getIsbn(),
-                    loan.getBook().getTitle().replace("\"", "\"\""),
-                    loan.getBook().getAuthor().replace("\"", "\"\""),
-                    loan.getLoanDate().format(dateFormatter),
-                    loan.getDueDate().format(dateFormatter),
-                    returnDate,
-                    getStatusString(loan)
-                ));
-            }
+            // Write data a page at a time
+            int exported = 0;
+            List<Loan> page;
+            do {
+                page = loans.fetch(exported, EXPORT_PAGE_SIZE);
+                for (Loan loan : page) {
+                    String returnDate = loan.getReturnDate() != null 
+                        ? loan.getReturnDate().format(dateFormatter) 
+                        : "N/A";
+                    
+                    writer.write(String.format("\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%s\"\n",
+                        loan.getBorrower().getId(),
+                        loan.getBook().getIsbn(),
+                        loan.getBook().getTitle().replace("\"", "\"\""),
+                        loan.getBook().getAuthor().replace("\"", "\"\""),
+                        loan.getLoanDate().format(dateFormatter),
+                        loan.getDueDate().format(dateFormatter),
+                        returnDate,
+                        getStatusString(loan)
+                    ));
+                }
+                exported += page.size();
+            } while (page.size() == EXPORT_PAGE_SIZE);
             
-            messageLabel.setText("Successfully exported " + filteredLoans.size() + " record(s) to " + file.getName());
+            messageLabel.setText("Successfully exported " + exported + " record(s) to " + file.getName());
         } catch (IOException e) {
             messageLabel.setText("Error exporting data: " + e.getMessage());
         }
@@ -1,25 +1,41 @@
 package ui;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
 import javafx.stage.Stage;
 import models.User;
 import service.LibraryService;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 public class LoginController {
     @FXML private TextField usernameField;
     @FXML private PasswordField passwordField;
     @FXML private CheckBox adminCheckBox;
     @FXML private Label messageLabel;
+    @FXML private Button loginButton;
+    @FXML private HBox loadingBox;
     
-    private LibraryService libraryService;
+    private CompletableFuture<LibraryService> libraryServiceLoad;
     
     @FXML
     public void initialize() {
-        libraryService = LibraryApp.getLibraryService();
+        // The catalog loads in the background; the form can be filled in meanwhile
+        libraryServiceLoad = LibraryApp.loadLibraryService();
+        libraryServiceLoad.whenComplete((service, error) -> Platform.runLater(() -> {
+            loadingBox.setVisible(false);
+            loadingBox.setManaged(false);
+            if (error != null) {
+                showError("Failed to load catalog: " + rootCause(error).getMessage());
+                loginButton.setDisable(true);
+            }
+        }));
     }
 
     @FXML
@@ -29,20 +45,30 @@ public class LoginController {
         boolean isAdmin = adminCheckBox.isSelected();
 
         if (username.isEmpty() || password.isEmpty()) {
-            messageLabel.setText("Please fill in all fields");
+            showError("Please fill in all fields");
             return;
         }
 
+        User user;
         try {
-            // Create user and set it in both LibraryApp and LibraryService
-            User user = new User(username, isAdmin);
-            LibraryApp.setCurrentUser(user);
-            libraryService.setCurrentUser(user);
-
-            loadDashboard();
+            user = new User(username, isAdmin);
         } catch (Exception e) {
-            messageLabel.setText("Error: " + e.getMessage());
+            showError("Error: " + e.getMessage());
+            return;
         }
+
+        // Only the dashboard needs the catalog, so a login during the load waits for it here
+        loginButton.setDisable(true);
+        libraryServiceLoad.whenComplete((service, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                return; // Reported by initialize()
+            }
+            // Set the user in both LibraryApp and LibraryService
+            LibraryApp.setCurrentUser(user);
+            service.setCurrentUser(user);
+            loadDashboard();
+            loginButton.setDisable(false);
+        }));
     }
 
     private void loadDashboard() {
@@ -62,6 +88,10 @@ public class LoginController {
         }
     }
 
+    private static Throwable rootCause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
     private void showError(String message) {
         messageLabel.setText(message);
         messageLabel.setVisible(true);
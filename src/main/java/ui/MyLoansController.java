@@ -13,7 +13,6 @@ import models.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Comparator;
 
 public class MyLoansController {
     @FXML private TableView<Loan> loansTable;
@@ -67,6 +66,28 @@ public class MyLoansController {
         
         // Load loans with user preferences
         refreshMyLoans();
+
+        // Keep the table current as this user borrows and returns books
+        LiveUpdates.bind(loansTable, libraryService, this::applyChanges);
+    }
+
+    private void applyChanges(List<LibraryEvent> events) {
+        boolean returned = false;
+        for (LibraryEvent event : events) {
+            if (event.getType() == LibraryEvent.Type.LOAN_CREATED) {
+                Loan loan = ((LibraryEvent.LoanCreated) event).getLoan();
+                if (currentUser != null && currentUser.getId().equals(loan.getBorrower().getId())) {
+                    loansTable.getItems().add(loan);
+                }
+            } else if (event.getType() == LibraryEvent.Type.LOAN_RETURNED) {
+                returned = true;
+            }
+        }
+        if (returned && !libraryService.getUserPreferences().isShowReturnedLoans()) {
+            loansTable.getItems().removeIf(loan -> loan.getReturnDate() != null);
+        } else if (returned) {
+            loansTable.refresh();
+        }
     }
     
     private void setupActionsColumn() {
@@ -111,15 +132,9 @@ public class MyLoansController {
         confirmDialog.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
                 try {
-                    // Return the book
+                    // Return the book; the row is updated when the service publishes the return
                     libraryService.returnBook(loan.getBook().getIsbn());
                     
-                    // Update the loan object
-                    loan.returnBook();
-                    
-                    // Refresh the table
-                    loansTable.refresh();
-                    
                     // Show success message
                     messageLabel.setText("Book returned successfully: " + loan.getBook().getTitle());
                 } catch (Exception e) {
@@ -140,7 +155,7 @@ public class MyLoansController {
             // Sort by user preference
             LoanSortCriteria sortCriteria = userPrefs.getDefaultLoanSortCriteria();
             boolean ascending = userPrefs.isDefaultSortAscending();
-            sortLoans(myLoans, sortCriteria, ascending);
+            myLoans = libraryService.sortLoans(myLoans, sortCriteria, ascending);
 
             // Update the table
             loansTable.setItems(FXCollections.observableArrayList(myLoans));
@@ -152,64 +167,6 @@ public class MyLoansController {
         }
     }
     
-    private void sortLoans(List<Loan> loans, LoanSortCriteria criteria, boolean ascending) {
-        Comparator<Loan> comparator;
-        switch (criteria) {
-            case LOAN_DATE:
-                comparator = Comparator.comparing(Loan::getLoanDate);
-                break;
-            case DUE_DATE:
-                comparator = Comparator.comparing(Loan::getDueDate);
-                break;
-            case RETURN_DATE:
-                comparator = (loan1, loan2) -> {
-                    if (loan1.getReturnDate() == null && loan2.getReturnDate() == null) {
-                        return 0;
-                    } else if (loan1.getReturnDate() == null) {
-                        return 1;
-                    } else if (loan2.getReturnDate() == null) {
-                        return -1;
-                    } else {
-                        return loan1.getReturnDate().compareTo(loan2.getReturnDate());
-                    }
-                };
-                break;
-            case BOOK_TITLE:
-                comparator = Comparator.comparing(loan -> loan.getBook().getTitle());
-                break;
-            case BOOK_AUTHOR:
-                comparator = Comparator.comparing(loan -> loan.getBook().getAuthor());
-                break;
-            case BOOK_ISBN:
-                comparator = Comparator.comparing(loan -> loan.getBook().getIsbn());
-                break;
-            case STATUS:
-                comparator = (loan1, loan2) -> {
-                    boolean isOverdue1 = loan1.getReturnDate() == null && 
-                                        loan1.getDueDate().isBefore(LocalDate.now());
-                    boolean isOverdue2 = loan2.getReturnDate() == null && 
-                                        loan2.getDueDate().isBefore(LocalDate.now());
-                    boolean isReturned1 = loan1.getReturnDate() != null;
-                    boolean isReturned2 = loan2.getReturnDate() != null;
-                    
-                    if (isOverdue1 && !isOverdue2) return 1;
-                    if (!isOverdue1 && isOverdue2) return -1;
-                    if (isReturned1 && !isReturned2) return -1;
-                    if (!isReturned1 && isReturned2) return 1;
-                    return 0;
-                };
-                break;
-            default:
-                comparator = Comparator.comparing(Loan::getLoanDate);
-        }
-        
-        if (!ascending) {
-            comparator = comparator.reversed();
-        }
-        
-        loans.sort(comparator);
-    }
-    
     @FXML
     private void handleSort() {
         // Create a dialog for sort options
@@ -5,7 +5,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import service.LibraryService;
 
-public class RemoveBookController {
+public class RemoveBookController implements CachedView {
     @FXML private TextField isbnField;
     @FXML private Label messageLabel;
     
@@ -34,6 +34,11 @@ public class RemoveBookController {
         }
     }
     
+    @Override
+    public void onShow() {
+        messageLabel.setText("");
+    }
+
     @FXML
     private void handleClear() {
         clearFields();
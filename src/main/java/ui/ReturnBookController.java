@@ -5,7 +5,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import service.LibraryService;
 
-public class ReturnBookController {
+public class ReturnBookController implements CachedView {
     @FXML private TextField isbnField;
     @FXML private Label messageLabel;
     
@@ -34,6 +34,11 @@ public class ReturnBookController {
         }
     }
     
+    @Override
+    public void onShow() {
+        messageLabel.setText("");
+    }
+
     @FXML
     private void handleClear() {
         clearFields();
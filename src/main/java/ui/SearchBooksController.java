@@ -1,5 +1,6 @@
 package ui;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -7,9 +8,16 @@ import javafx.collections.FXCollections;
 import javafx.scene.layout.HBox;
 import service.LibraryService;
 import models.*;
+import utils.DebouncedExecutor;
+import utils.PagedSource;
+
+import java.time.Duration;
 import java.util.List;
 
-public class SearchBooksController {
+public class SearchBooksController implements CachedView {
+    // Pause in typing after which the search runs
+    private static final Duration TYPE_AHEAD_DELAY = Duration.ofMillis(250);
+
     @FXML private TextField searchField;
     @FXML private ComboBox<SearchCriteria> searchCriteriaComboBox;
     @FXML private ComboBox<SortCriteria> sortCriteriaComboBox;
@@ -24,10 +32,15 @@ public class SearchBooksController {
     @FXML private Label messageLabel;
     
     private LibraryService libraryService;
+    private LiveUpdates.Binding liveUpdates;
+    private DebouncedExecutor searches;
+    private final LazyPagedList<Book> resultRows = new LazyPagedList<>();
     
     @FXML
     public void initialize() {
         libraryService = LibraryApp.getLibraryService();
+        // Searches run off the JavaFX thread, so a large catalog does not freeze the window
+        searches = new DebouncedExecutor("book-search", Platform::runLater);
         
         // Get user preferences
         UserPreferences userPrefs = libraryService.getUserPreferences();
@@ -52,16 +65,19 @@ public class SearchBooksController {
         titleColumn.setCellValueFactory(new PropertyValueFactory<>("title"));
         authorColumn.setCellValueFactory(new PropertyValueFactory<>("author"));
         statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
+        resultsTable.setItems(resultRows);
         
         // Set up actions column
         actionsColumn.setCellFactory(column -> {
             return new TableCell<Book, String>() {
                 private final Button loanButton = new Button("Loan");
+                private final Button reserveButton = new Button("Reserve");
                 private final Button removeButton = new Button("Remove");
                 
                 {
                     // Set the button style
                     loanButton.getStyleClass().add("action-button");
+                    reserveButton.getStyleClass().add("action-button");
                     removeButton.getStyleClass().add("action-button");
 
                     // Set up button event handling
@@ -70,6 +86,11 @@ public class SearchBooksController {
                         handleLoan(book);
                     });
                     
+                    reserveButton.setOnAction(event -> {
+                        Book book = getTableView().getItems().get(getIndex());
+                        handleReserve(book);
+                    });
+                    
                     removeButton.setOnAction(event -> {
                         Book book = getTableView().getItems().get(getIndex());
                         handleRemove(book);
@@ -89,7 +110,7 @@ public class SearchBooksController {
                     Book book = getTableView().getItems().get(getIndex());
 
                     // Set whether the Loan button is available according to the book status
-                    boolean isAvailable = book.getStatus() == BookStatus.AVAILABLE;
+                    boolean isAvailable = isLoanable(book);
                     loanButton.setDisable(!isAvailable);
 
                     // Set the tooltip
@@ -107,6 +128,13 @@ public class SearchBooksController {
                     // Add Loan button (displayed to all users)
                     buttonsBox.getChildren().add(loanButton);
 
+                    // Books that cannot be loaned right now can be reserved
+                    if (!isAvailable && book.getStatus() != BookStatus.OUT_OF_CIRCULATION) {
+                        int queueLength = libraryService.getReservationCount(book.getIsbn());
+                        reserveButton.setTooltip(new Tooltip(queueLength + " patron(s) waiting"));
+                        buttonsBox.getChildren().add(reserveButton);
+                    }
+
                     // If you are an administrator, add a Remove button
                     User currentUser = libraryService.getCurrentUser();
                     if (currentUser != null && currentUser.isAdmin()) {
@@ -118,35 +146,84 @@ public class SearchBooksController {
             };
         });
         
+        // Search as the user types, once typing pauses, and at once when an option changes
+        searchField.textProperty().addListener((observable, oldText, newText) -> runSearch(TYPE_AHEAD_DELAY));
+        searchCriteriaComboBox.valueProperty().addListener((observable, oldValue, newValue) -> runSearch(Duration.ZERO));
+        sortCriteriaComboBox.valueProperty().addListener((observable, oldValue, newValue) -> runSearch(Duration.ZERO));
+        ascendingRadio.selectedProperty().addListener((observable, oldValue, newValue) -> runSearch(Duration.ZERO));
+
         // Show all books initially
-        updateResults(libraryService.getAllBooks());
+        runSearch(Duration.ZERO);
+
+        // Keep the results current as books are removed, loaned and returned
+        liveUpdates = LiveUpdates.bind(resultsTable, libraryService, this::applyChanges, this::handleSearch);
+    }
+
+    @Override
+    public void dispose() {
+        liveUpdates.close();
+        searches.close();
+    }
+
+    private void applyChanges(List<LibraryEvent> events) {
+        boolean catalogChanged = false;
+        boolean statusChanged = false;
+        for (LibraryEvent event : events) {
+            switch (event.getType()) {
+                case BOOK_ADDED, BOOK_REMOVED -> catalogChanged = true;
+                case STATUS_CHANGED -> statusChanged = true;
+                default -> { }
+            }
+        }
+        // Which books match a status search, or a search of all fields, depends on their status
+        SearchCriteria criteria = searchCriteriaComboBox.getValue();
+        boolean matchesChanged = statusChanged && !searchField.getText().trim().isEmpty()
+                && (criteria == SearchCriteria.STATUS || criteria == SearchCriteria.ALL);
+        if (catalogChanged || matchesChanged) {
+            // The results are paged from the service, so the search is run again over the changed catalog
+            runSearch(Duration.ZERO);
+        } else if (statusChanged) {
+            resultsTable.refresh();
+        }
     }
     
     @FXML
     private void handleSearch() {
+        runSearch(Duration.ZERO);
+    }
+
+    /**
+     * Runs the search in the background, replacing any search not yet finished
+     * @param delay time to wait for further typing first
+     */
+    private void runSearch(Duration delay) {
         String query = searchField.getText().trim();
         SearchCriteria searchCriteria = searchCriteriaComboBox.getValue();
         SortCriteria sortCriteria = sortCriteriaComboBox.getValue();
         boolean ascending = ascendingRadio.isSelected();
-        
-        if (query.isEmpty()) {
-            List<Book> sortedBooks = libraryService.sortBooks(sortCriteria, ascending);
-            updateResults(sortedBooks);
-            return;
-        }
-        
-        try {
-            List<Book> results = libraryService.searchAndSortBooks(query, searchCriteria, sortCriteria, ascending);
-            updateResults(results);
-            
-            if (results.isEmpty()) {
-                messageLabel.setText("No books found matching your search criteria.");
-            } else {
-                messageLabel.setText("Found " + results.size() + " book(s).");
-            }
-        } catch (Exception e) {
-            messageLabel.setText("Error: " + e.getMessage());
-        }
+
+        searches.submit(delay, () -> {
+                    PagedSource<Book> results = query.isEmpty()
+                            ? libraryService.pageSortedBooks(sortCriteria, ascending)
+                            : libraryService.pageSearchResults(query, searchCriteria, sortCriteria, ascending);
+                    // Sorts the rows the table shows first here, where a newer search can interrupt it,
+                    // rather than on the JavaFX thread
+                    results.fetch(0, 2 * LazyPagedList.DEFAULT_PAGE_SIZE);
+                    return results;
+                },
+                (results, nanos) -> {
+                    updateResults(results);
+                    String latency = String.format(" (%.1f ms)", nanos / 1_000_000.0);
+                    if (query.isEmpty()) {
+                        messageLabel.setText("Showing all " + results.size() + " book(s)." + latency);
+                    } else if (results.size() == 0) {
+                        messageLabel.setText("No books found matching your search criteria." + latency);
+                    } else {
+                        messageLabel.setText("Found " + results.size() + " book(s)." + latency);
+                    }
+                },
+                e -> messageLabel.setText("Error: " + e.getMessage()));
+        messageLabel.setText("Searching...");
     }
     
     @FXML
@@ -155,23 +232,38 @@ public class SearchBooksController {
         searchCriteriaComboBox.setValue(SearchCriteria.ALL);
         sortCriteriaComboBox.setValue(SortCriteria.TITLE);
         ascendingRadio.setSelected(true);
-        messageLabel.setText("");
-        updateResults(libraryService.getAllBooks());
+        runSearch(Duration.ZERO);
     }
     
     private void handleLoan(Book book) {
         try {
-            // Check the book status, only available books can be borrowed
-            if (book.getStatus() != BookStatus.AVAILABLE) {
+            // Check the book status, only available books or books held for this user can be borrowed
+            if (!isLoanable(book)) {
                 messageLabel.setText("Error: Book is not available for loan. Current status: " + book.getStatus());
                 return;
             }
             
+            // The row is updated by the status change the service publishes
             libraryService.loanBook(book.getIsbn());
             messageLabel.setText("Book loaned successfully!");
-
-            // Update the status of the current row without refreshing the entire list
-            book.setStatus(BookStatus.CHECKED_OUT);
+        } catch (Exception e) {
+            messageLabel.setText("Error: " + e.getMessage());
+        }
+    }
+    
+    private boolean isLoanable(Book book) {
+        if (book.getStatus() == BookStatus.AVAILABLE) {
+            return true;
+        }
+        User currentUser = libraryService.getCurrentUser();
+        return book.getStatus() == BookStatus.ON_HOLD && currentUser != null
+                && currentUser.getId().equals(libraryService.getHoldUser(book.getIsbn()));
+    }
+    
+    private void handleReserve(Book book) {
+        try {
+            int position = libraryService.reserveBook(book.getIsbn());
+            messageLabel.setText("Book reserved. Your position in the queue: " + position);
             resultsTable.refresh();
         } catch (Exception e) {
             messageLabel.setText("Error: " + e.getMessage());
@@ -201,11 +293,9 @@ public class SearchBooksController {
         confirmDialog.showAndWait().ifPresent(response -> {
             if (response == confirmButton) {
                 try {
+                    // The row is removed when the service publishes the removal
                     libraryService.removeBook(book.getIsbn());
                     messageLabel.setText("Book removed successfully!");
-
-                    // Remove the book from the result table
-                    resultsTable.getItems().remove(book);
                 } catch (Exception e) {
                     messageLabel.setText("Error: " + e.getMessage());
                 }
@@ -213,7 +303,7 @@ public class SearchBooksController {
         });
     }
     
-    private void updateResults(List<Book> books) {
-        resultsTable.setItems(FXCollections.observableArrayList(books));
+    private void updateResults(PagedSource<Book> books) {
+        resultRows.setSource(books);
     }
 } 
\ No newline at end of file
@@ -1,7 +1,5 @@
 package ui;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -9,13 +7,14 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
 import models.Book;
+import models.LibraryEvent;
 import service.LibraryService;
 import models.SortCriteria;
 import models.UserPreferences;
 
 import java.util.List;
 
-public class ViewBooksController {
+public class ViewBooksController implements CachedView {
     @FXML private TableView<Book> booksTable;
     @FXML private TableColumn<Book, String> isbnColumn;
     @FXML private TableColumn<Book, String> titleColumn;
@@ -23,7 +22,10 @@ public class ViewBooksController {
     @FXML private TableColumn<Book, String> statusColumn;
     
     private LibraryService libraryService;
-    private ObservableList<Book> booksList;
+    private final LazyPagedList<Book> booksList = new LazyPagedList<>();
+    private SortCriteria sortCriteria;
+    private boolean ascending;
+    private LiveUpdates.Binding liveUpdates;
 
     @FXML
     public void initialize() {
@@ -34,12 +36,40 @@ public class ViewBooksController {
         titleColumn.setCellValueFactory(new PropertyValueFactory<>("title"));
         authorColumn.setCellValueFactory(new PropertyValueFactory<>("author"));
         statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
+        booksTable.setItems(booksList);
 
         // Set the column header sorting function
         setupColumnSorting();
         
         // Load initial data with user preferences
         refreshBooksWithPreferences();
+
+        // Keep the table current as books are added, removed, loaned and returned
+        liveUpdates = LiveUpdates.bind(booksTable, libraryService, this::applyChanges,
+                this::refreshBooksWithPreferences);
+    }
+
+    @Override
+    public void dispose() {
+        liveUpdates.close();
+    }
+
+    private void applyChanges(List<LibraryEvent> events) {
+        boolean catalogChanged = false;
+        boolean statusChanged = false;
+        for (LibraryEvent event : events) {
+            switch (event.getType()) {
+                case BOOK_ADDED, BOOK_REMOVED -> catalogChanged = true;
+                case STATUS_CHANGED -> statusChanged = true;
+                default -> { }
+            }
+        }
+        if (catalogChanged) {
+            // Reloaded rather than patched, so added books appear in their sorted place
+            showBooks();
+        } else if (statusChanged) {
+            booksTable.refresh();
+        }
     }
 
     /**
@@ -57,9 +87,11 @@ public class ViewBooksController {
     }
 
     private void refreshBooks() {
-        List<Book> books = libraryService.getAllBooks();
-        booksList = FXCollections.observableArrayList(books);
-        booksTable.setItems(booksList);
+        showBooks();
+    }
+
+    private void showBooks() {
+        booksList.setSource(libraryService.pageSortedBooks(sortCriteria, ascending));
     }
     
     private void refreshBooksWithPreferences() {
@@ -67,13 +99,11 @@ public class ViewBooksController {
         UserPreferences userPrefs = libraryService.getUserPreferences();
         
         // Apply sort preferences
-        SortCriteria sortCriteria = userPrefs.getDefaultBookSortCriteria();
-        boolean ascending = userPrefs.isDefaultSortAscending();
+        sortCriteria = userPrefs.getDefaultBookSortCriteria();
+        ascending = userPrefs.isDefaultSortAscending();
         
         // Get sorted books according to preferences
-        List<Book> sortedBooks = libraryService.sortBooks(sortCriteria, ascending);
-        booksList = FXCollections.observableArrayList(sortedBooks);
-        booksTable.setItems(booksList);
+        showBooks();
     }
 
     @FXML
@@ -110,11 +140,9 @@ public class ViewBooksController {
         // Show dialog and handle result
         dialog.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                SortCriteria criteria = criteriaChoice.getValue();
-                boolean ascending = directionChoice.getValue().equals("Ascending");
-                List<Book> sortedBooks = libraryService.sortBooks(criteria, ascending);
-                booksList = FXCollections.observableArrayList(sortedBooks);
-                booksTable.setItems(booksList);
+                sortCriteria = criteriaChoice.getValue();
+                ascending = directionChoice.getValue().equals("Ascending");
+                showBooks();
             }
         });
     }
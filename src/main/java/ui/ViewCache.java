@@ -0,0 +1,129 @@
+package ui;
+
+import javafx.animation.PauseTransition;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.util.Duration;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import metrics.Timer;
+import utils.Logger;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dashboard views, each loaded from its FXML once and kept with its controller, so switching
+ * views re-shows them instead of re-parsing the FXML and rebuilding their tables. A view shown
+ * again has its controller's {@link CachedView#onShow()} called.
+ *
+ * Views the user is likely to open next can be preloaded while the application is idle, one
+ * per pause, so input is handled between loads. Only used on the JavaFX thread.
+ */
+public class ViewCache {
+    private static final Logger LOGGER = Logger.getLogger(ViewCache.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    private static final Counter HITS = METRICS.counter("ui.views.hits");
+    private static final Counter MISSES = METRICS.counter("ui.views.misses");
+    private static final Timer LOAD_TIMER = METRICS.timer("ui.views.load");
+    private static final Duration PRELOAD_PAUSE = Duration.millis(150);
+
+    private final Map<String, View> views = new HashMap<>();
+    private final Deque<String> preloads = new ArrayDeque<>();
+    private PauseTransition preloadPause;
+
+    /**
+     * Gets a view, loading it on first use
+     * @param fxml resource path of the view's FXML, e.g. "/fxml/ViewBooks.fxml"
+     * @return the view's root node
+     * @throws IOException if the FXML cannot be loaded
+     */
+    public Parent show(String fxml) throws IOException {
+        View view = views.get(fxml);
+        if (view == null) {
+            MISSES.increment();
+            return load(fxml).root;
+        }
+        HITS.increment();
+        if (view.controller instanceof CachedView cachedView) {
+            cachedView.onShow();
+        }
+        return view.root;
+    }
+
+    /**
+     * Loads views in the background of the JavaFX thread, one at a time with pauses between,
+     * so they show at once when first opened. Views already loaded are skipped.
+     * @param fxmls resource paths of the views, most likely first
+     */
+    public void preload(Collection<String> fxmls) {
+        preloads.addAll(fxmls);
+        if (preloadPause == null) {
+            preloadPause = new PauseTransition(PRELOAD_PAUSE);
+            preloadPause.setOnFinished(event -> preloadNext());
+            preloadPause.play();
+        }
+    }
+
+    private void preloadNext() {
+        String fxml = preloads.poll();
+        while (fxml != null && views.containsKey(fxml)) {
+            fxml = preloads.poll();
+        }
+        if (fxml == null) {
+            preloadPause = null;
+            return;
+        }
+        try {
+            load(fxml);
+        } catch (IOException | RuntimeException e) {
+            // Left to load, and report its error, when the user opens it
+            LOGGER.error("Error preloading " + fxml, e);
+        }
+        preloadPause.playFromStart();
+    }
+
+    private View load(String fxml) throws IOException {
+        long start = System.nanoTime();
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxml));
+            Parent root = loader.load();
+            View view = new View(root, loader.getController());
+            views.put(fxml, view);
+            return view;
+        } finally {
+            LOAD_TIMER.recordSince(start);
+        }
+    }
+
+    /**
+     * Drops every view, e.g. when the user logs out, as views are set up for one user
+     */
+    public void clear() {
+        preloads.clear();
+        if (preloadPause != null) {
+            preloadPause.stop();
+            preloadPause = null;
+        }
+        for (View view : views.values()) {
+            if (view.controller instanceof CachedView cachedView) {
+                cachedView.dispose();
+            }
+        }
+        views.clear();
+    }
+
+    private static final class View {
+        private final Parent root;
+        private final Object controller;
+
+        private View(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+}
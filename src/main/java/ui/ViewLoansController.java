@@ -7,16 +7,17 @@ import javafx.collections.FXCollections;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import service.LibraryService;
+import models.LibraryEvent;
 import models.Loan;
 import models.LoanSortCriteria;
 import models.UserPreferences;
+import utils.PagedSource;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.stream.Collectors;
 
-public class ViewLoansController {
+public class ViewLoansController implements CachedView {
     @FXML private TableView<Loan> loansTable;
     @FXML private TableColumn<Loan, String> isbnColumn;
     @FXML private TableColumn<Loan, String> titleColumn;
@@ -33,6 +34,8 @@ public class ViewLoansController {
     private LibraryService libraryService;
     private List<Loan> allLoans;
     private List<Loan> filteredLoans;
+    private final LazyPagedList<Loan> loansList = new LazyPagedList<>();
+    private LiveUpdates.Binding liveUpdates;
     
     // Search types for the combo box
     private final String[] SEARCH_TYPES = {
@@ -46,6 +49,7 @@ public class ViewLoansController {
         // Set up search type combo box
         searchTypeComboBox.setItems(FXCollections.observableArrayList(SEARCH_TYPES));
         searchTypeComboBox.setValue(SEARCH_TYPES[0]); // Default to "All Fields"
+        loansTable.setItems(loansList);
         
         // Set up table columns
         isbnColumn.setCellValueFactory(cellData -> 
@@ -84,6 +88,37 @@ public class ViewLoansController {
         } catch (Exception e) {
             messageLabel.setText("Error loading loans: " + e.getMessage());
         }
+
+        // Keep the table current as books are loaned and returned
+        liveUpdates = LiveUpdates.bind(loansTable, libraryService, this::applyChanges, this::refreshLoans);
+    }
+
+    @Override
+    public void dispose() {
+        liveUpdates.close();
+    }
+
+    private void applyChanges(List<LibraryEvent> events) {
+        boolean added = false;
+        boolean returned = false;
+        for (LibraryEvent event : events) {
+            if (event.getType() == LibraryEvent.Type.LOAN_CREATED) {
+                Loan loan = ((LibraryEvent.LoanCreated) event).getLoan();
+                allLoans.add(loan);
+                if (matchesSearch(loan)) {
+                    filteredLoans.add(loan);
+                    added = true;
+                }
+            } else if (event.getType() == LibraryEvent.Type.LOAN_RETURNED) {
+                returned = true;
+            }
+        }
+        if (added) {
+            loansList.refresh();
+        } else if (returned) {
+            loansTable.refresh();
+        }
+        recordCountLabel.setText(String.valueOf(filteredLoans.size()));
     }
     
     private void setupActionsColumn() {
@@ -128,15 +163,9 @@ public class ViewLoansController {
         confirmDialog.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
                 try {
-                    // Return the book
+                    // Return the book; the row is updated when the service publishes the return
                     libraryService.returnBook(loan.getBook().getIsbn());
                     
-                    // Update the loan object
-                    loan.returnBook();
-                    
-                    // Refresh the table
-                    loansTable.refresh();
-                    
                     // Show success message
                     messageLabel.setText("Book returned successfully: " + loan.getBook().getTitle());
                 } catch (Exception e) {
@@ -161,7 +190,7 @@ public class ViewLoansController {
     }
     
     private void updateTable() {
-        loansTable.setItems(FXCollections.observableArrayList(filteredLoans));
+        loansList.setSource(PagedSource.of(filteredLoans));
         recordCountLabel.setText(String.valueOf(filteredLoans.size()));
     }
     
@@ -177,7 +206,24 @@ public class ViewLoansController {
         }
         
         // Filter loans based on search criteria
-        filteredLoans = allLoans.stream().filter(loan -> {
+        filteredLoans = allLoans.stream().filter(loan -> matchesSearch(loan, query, searchType))
+                .collect(Collectors.toList());
+        
+        updateTable();
+        
+        if (filteredLoans.isEmpty()) {
+            messageLabel.setText("No loans found matching your search criteria.");
+        } else {
+            messageLabel.setText("Found " + filteredLoans.size() + " loan(s).");
+        }
+    }
+    
+    private boolean matchesSearch(Loan loan) {
+        String query = searchField.getText().trim().toLowerCase();
+        return query.isEmpty() || matchesSearch(loan, query, searchTypeComboBox.getValue());
+    }
+    
+    private boolean matchesSearch(Loan loan, String query, String searchType) {
             switch (searchType) {
                 case "User ID":
                     return loan.getBorrower().getId().toLowerCase().contains(query);
@@ -196,15 +242,6 @@ public class ViewLoansController {
                            loan.getBook().getAuthor().toLowerCase().contains(query) ||
                            getStatusString(loan).toLowerCase().contains(query);
             }
-        }).collect(Collectors.toList());
-        
-        updateTable();
-        
-        if (filteredLoans.isEmpty()) {
-            messageLabel.setText("No loans found matching your search criteria.");
-        } else {
-            messageLabel.setText("Found " + filteredLoans.size() + " loan(s).");
-        }
     }
     
     private String getStatusString(Loan loan) {
@@ -269,61 +306,7 @@ public class ViewLoansController {
     }
     
     private void sortLoans(LoanSortCriteria criteria, boolean ascending) {
-        Comparator<Loan> comparator;
-        switch (criteria) {
-            case LOAN_DATE:
-                comparator = Comparator.comparing(Loan::getLoanDate);
-                break;
-            case DUE_DATE:
-                comparator = Comparator.comparing(Loan::getDueDate);
-                break;
-            case RETURN_DATE:
-                comparator = (loan1, loan2) -> {
-                    if (loan1.getReturnDate() == null && loan2.getReturnDate() == null) {
-                        return 0;
-                    } else if (loan1.getReturnDate() == null) {
-                        return 1;
-                    } else if (loan2.getReturnDate() == null) {
-                        return -1;
-                    } else {
-                        return loan1.getReturnDate().compareTo(loan2.getReturnDate());
-                    }
-                };
-                break;
-            case BOOK_TITLE:
-                comparator = Comparator.comparing(loan -> loan.getBook().getTitle());
-                break;
-            case BOOK_AUTHOR:
-                comparator = Comparator.comparing(loan -> loan.getBook().getAuthor());
-                break;
-            case BOOK_ISBN:
-                comparator = Comparator.comparing(loan -> loan.getBook().getIsbn());
-                break;
-            case STATUS:
-                comparator = (loan1, loan2) -> {
-                    boolean isOverdue1 = loan1.getReturnDate() == null && 
-                                         loan1.getDueDate().isBefore(LocalDate.now());
-                    boolean isOverdue2 = loan2.getReturnDate() == null && 
-                                         loan2.getDueDate().isBefore(LocalDate.now());
-                    boolean isReturned1 = loan1.getReturnDate() != null;
-                    boolean isReturned2 = loan2.getReturnDate() != null;
-                    
-                    if (isOverdue1 && !isOverdue2) return 1;
-                    if (!isOverdue1 && isOverdue2) return -1;
-                    if (isReturned1 && !isReturned2) return -1;
-                    if (!isReturned1 && isReturned2) return 1;
-                    return 0;
-                };
-                break;
-            default:
-                comparator = Comparator.comparing(Loan::getLoanDate);
-        }
-        
-        if (!ascending) {
-            comparator = comparator.reversed();
-        }
-        
-        filteredLoans.sort(comparator);
+        filteredLoans = libraryService.sortLoans(filteredLoans, criteria, ascending);
     }
     
     @FXML
@@ -0,0 +1,152 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands log events to another appender on a background thread.
+ * Events are queued in a fixed-size ring buffer; logging never blocks the caller,
+ * and events arriving while the buffer is full are dropped and counted.
+ *
+ * Events taken from the buffer are counted once the delegate has them, under the appender's
+ * lock. A flush waits for that count to reach the number of events queued before it, so it
+ * also covers an event the worker has taken but not yet written.
+ */
+public class AsyncAppender implements LogAppender {
+    private static final int BATCH_SIZE = 256;
+    // How often a waiting flush checks that the worker is still alive
+    private static final long FLUSH_POLL_MILLIS = 100;
+
+    private final LogAppender delegate;
+    private final BlockingQueue<LogEvent> buffer;
+    private final AtomicLong droppedEvents;
+    private final AtomicLong queuedEvents;
+    // Guarded by this
+    private long writtenEvents;
+    private final Thread worker;
+    private volatile boolean running;
+
+    /**
+     * Creates an asynchronous appender and starts its background thread.
+     * @param delegate The appender that writes the events
+     * @param capacity Number of events the buffer can hold
+     */
+    public AsyncAppender(LogAppender delegate, int capacity) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate appender cannot be null.");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Buffer capacity must be positive.");
+        }
+        this.delegate = delegate;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.droppedEvents = new AtomicLong();
+        this.queuedEvents = new AtomicLong();
+        this.running = true;
+        this.worker = new Thread(this::drainLoop, "async-log-appender");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void append(LogEvent event) {
+        if (!running || !buffer.offer(event)) {
+            droppedEvents.incrementAndGet();
+        } else {
+            queuedEvents.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of events dropped because the buffer was full or the appender was closed.
+     * @return number of dropped events
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Waits until every event queued before the call has been handed to the delegate,
+     * including one the worker is writing.
+     */
+    @Override
+    public void flush() {
+        long queued = queuedEvents.get();
+        synchronized (this) {
+            drainOnce(new ArrayList<>(BATCH_SIZE));
+            // Only an event the worker has taken but not yet written can be left
+            while (writtenEvents < queued && worker.isAlive()) {
+                try {
+                    wait(FLUSH_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        delegate.flush();
+    }
+
+    /**
+     * Stops taking events, waits for the queued ones to be written, then closes the delegate.
+     */
+    @Override
+    public void close() {
+        running = false;
+        flush();
+        worker.interrupt();
+        boolean interrupted = false;
+        while (worker.isAlive()) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        // Events queued by appends that passed the running check just before it changed
+        flush();
+        delegate.close();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        List<LogEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                LogEvent first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                synchronized (this) {
+                    try {
+                        delegate.append(first);
+                    } finally {
+                        writtenEvents++;
+                    }
+                    drainOnce(batch);
+                    notifyAll();
+                }
+            } catch (InterruptedException e) {
+                // close() interrupts the worker once the queue is flushed
+                return;
+            }
+        }
+    }
+
+    private void drainOnce(List<LogEvent> batch) {
+        while (buffer.drainTo(batch, BATCH_SIZE) > 0) {
+            try {
+                batch.forEach(delegate::append);
+            } finally {
+                writtenEvents += batch.size();
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package utils;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Lets long scans stop early when the thread running them is interrupted, e.g. a search
+ * superseded by a newer one. Interrupting a thread that is busy computing does nothing by
+ * itself; the scan has to look at the flag now and then.
+ */
+public final class Cancellation {
+    // Rows scanned between checks; a power of two, so a check costs a mask
+    private static final int CHECK_INTERVAL = 1024;
+
+    private Cancellation() {
+        // Utility class
+    }
+
+    /**
+     * Stops the calling scan if its thread has been interrupted. The interrupt stays set, so
+     * the caller's caller sees it too.
+     * @throws CancellationException if the thread has been interrupted
+     */
+    public static void throwIfInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Interrupted.");
+        }
+    }
+
+    /**
+     * Checks for an interrupt every so many rows, cheap enough to call on every row
+     * @param rowsScanned number of rows scanned so far
+     * @throws CancellationException if the thread has been interrupted
+     */
+    public static void check(int rowsScanned) {
+        if ((rowsScanned & (CHECK_INTERVAL - 1)) == 0) {
+            throwIfInterrupted();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package utils;
+
+/**
+ * Writes log events to standard output as they arrive.
+ */
+public class ConsoleAppender implements LogAppender {
+    @Override
+    public void append(LogEvent event) {
+        // Look up System.out on every call so redirected output is honoured
+        System.out.println(event.format());
+        if (event.getThrowable() != null && event.getLevel() == LogLevel.ERROR) {
+            event.getThrowable().printStackTrace(System.out);
+        }
+    }
+
+    @Override
+    public void flush() {
+        System.out.flush();
+    }
+}
@@ -0,0 +1,118 @@
+package utils;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Runs tasks in the background where only the latest one matters, such as a search re-run as
+ * the user types. Each task waits out a delay first, and a newer task supersedes it: a task
+ * still waiting is dropped, a running one is interrupted, and the result of a superseded task
+ * is never delivered. A task that checks its interrupt, e.g. with {@link Cancellation}, stops
+ * early rather than using the CPU to compute a result nobody will see. Results are handed to a callback executor, e.g. the UI thread.
+ *
+ * Tasks are meant to be submitted from one thread.
+ */
+public class DebouncedExecutor implements AutoCloseable {
+    private final ExecutorService workers;
+    private final Executor callbackExecutor;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<Future<?>> current = new AtomicReference<>();
+
+    /**
+     * Creates an executor
+     * @param threadName name prefix of the worker threads
+     * @param callbackExecutor runs the result and error callbacks
+     */
+    public DebouncedExecutor(String threadName, Executor callbackExecutor) {
+        this.workers = VirtualThreads.newPerTaskExecutor(threadName);
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Runs a task after a delay, superseding any task submitted before
+     * @param delay time to wait for a newer task before running this one; zero to run at once
+     * @param task the task
+     * @param onResult receives the task's result and how long the task ran, in nanoseconds
+     * @param onError receives the exception thrown by the task
+     */
+    public <T> void submit(Duration delay, Callable<T> task, ObjLongConsumer<T> onResult,
+                           Consumer<Exception> onError) {
+        long id = generation.incrementAndGet();
+        Future<?> next = workers.submit(() -> {
+            if (!delay.isZero() && !delay.isNegative()) {
+                try {
+                    Thread.sleep(delay.toMillis());
+                } catch (InterruptedException e) {
+                    return; // Superseded while waiting
+                }
+            }
+            if (!isCurrent(id)) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                T result = task.call();
+                long elapsed = System.nanoTime() - start;
+                deliver(id, () -> onResult.accept(result, elapsed));
+            } catch (CancellationException e) {
+                // Superseded while running; the task noticed the interrupt and stopped early
+            } catch (Exception e) {
+                deliver(id, () -> onError.accept(e));
+            }
+        });
+        cancel(current.getAndSet(next));
+    }
+
+    /**
+     * Drops the latest task, so that it does not run or its result is not delivered
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        cancel(current.getAndSet(null));
+    }
+
+    /**
+     * Checks whether a task is waiting or running
+     * @return true if the latest task has not finished
+     */
+    public boolean isBusy() {
+        Future<?> latest = current.get();
+        return latest != null && !latest.isDone();
+    }
+
+    private boolean isCurrent(long id) {
+        return generation.get() == id;
+    }
+
+    private void deliver(long id, Runnable callback) {
+        // Checked again on the callback thread, as a newer task may be submitted in between
+        callbackExecutor.execute(() -> {
+            if (isCurrent(id)) {
+                callback.run();
+            }
+        });
+    }
+
+    private static void cancel(Future<?> task) {
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * Drops the latest task and stops the worker threads
+     */
+    @Override
+    public void close() {
+        cancel();
+        workers.shutdownNow();
+    }
+}
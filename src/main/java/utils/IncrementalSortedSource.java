@@ -0,0 +1,112 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Rows sorted only as far as they are fetched. Fetching a page partitions the rows around
+ * random pivots, quicksort style, but only recurses into the parts that overlap the page, so
+ * the first page of n rows costs about 2n comparisons rather than the n log n of a full sort.
+ * Later pages reuse the partitioning already done.
+ *
+ * A fetch stops with a CancellationException when its thread is interrupted. Rows are only
+ * ever swapped, so the source can still be fetched from afterwards.
+ */
+final class IncrementalSortedSource<T> implements PagedSource<T> {
+    // Segments no longer than this are sorted outright rather than partitioned further
+    private static final int SORT_THRESHOLD = 64;
+
+    private final T[] rows;
+    private final Comparator<? super T> comparator;
+    // Start of each segment, and whether it is sorted. A segment holds exactly the rows that
+    // belong at its positions, in any order until it is sorted; the last key is the row count.
+    private final TreeMap<Integer, Boolean> segments = new TreeMap<>();
+
+    @SuppressWarnings("unchecked")
+    IncrementalSortedSource(Collection<? extends T> rows, Comparator<? super T> comparator) {
+        this.rows = (T[]) rows.toArray();
+        this.comparator = comparator;
+        segments.put(this.rows.length, true);
+        if (this.rows.length > 0) {
+            segments.put(0, false);
+        }
+    }
+
+    @Override
+    public int size() {
+        return rows.length;
+    }
+
+    @Override
+    public synchronized List<T> fetch(int offset, int limit) {
+        PagedSource.checkRange(offset, limit);
+        int from = Math.min(offset, rows.length);
+        int to = (int) Math.min((long) offset + limit, rows.length);
+        sortRange(from, to);
+        return new ArrayList<>(Arrays.asList(rows).subList(from, to));
+    }
+
+    /**
+     * Puts the rows in [from, to) in their sorted positions
+     */
+    private void sortRange(int from, int to) {
+        int start = segments.floorKey(from);
+        while (start < to) {
+            Map.Entry<Integer, Boolean> next = segments.higherEntry(start);
+            int end = next.getKey();
+            if (end > from && !segments.get(start)) {
+                Cancellation.throwIfInterrupted();
+                if (end - start <= SORT_THRESHOLD || (start >= from && end <= to)) {
+                    Arrays.sort(rows, start, end, comparator);
+                    segments.put(start, true);
+                } else {
+                    partition(start, end);
+                    // The segment at start is now shorter; look at it again
+                    continue;
+                }
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Splits a segment into the rows less than, equal to and greater than a random pivot
+     */
+    private void partition(int start, int end) {
+        T pivot = rows[ThreadLocalRandom.current().nextInt(start, end)];
+        int less = start;
+        int i = start;
+        int greater = end;
+        while (i < greater) {
+            Cancellation.check(i - start);
+            int order = comparator.compare(rows[i], pivot);
+            if (order < 0) {
+                swap(less++, i++);
+            } else if (order > 0) {
+                swap(i, --greater);
+            } else {
+                i++;
+            }
+        }
+        // Rows equal to the pivot are already in sorted order among themselves
+        if (less > start) {
+            segments.put(start, false);
+        }
+        segments.put(less, true);
+        if (greater < end) {
+            segments.put(greater, false);
+        }
+    }
+
+    private void swap(int a, int b) {
+        T row = rows[a];
+        rows[a] = rows[b];
+        rows[b] = row;
+    }
+}
@@ -0,0 +1,26 @@
+package utils;
+
+/**
+ * Destination for log events.
+ */
+public interface LogAppender {
+    /**
+     * Writes or queues a log event.
+     * @param event The event to append
+     */
+    void append(LogEvent event);
+
+    /**
+     * Writes out any queued events.
+     */
+    default void flush() {
+        // Nothing is queued by default
+    }
+
+    /**
+     * Flushes and releases any resources held by the appender.
+     */
+    default void close() {
+        flush();
+    }
+}
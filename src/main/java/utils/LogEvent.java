@@ -0,0 +1,51 @@
+package utils;
+
+/**
+ * A single log message as handed to an appender.
+ * Events are created on the logging thread but formatted by the appender,
+ * so an asynchronous appender keeps formatting off the caller's thread.
+ */
+public class LogEvent {
+    private final long timestamp;
+    private final LogLevel level;
+    private final String loggerName;
+    private final String message;
+    private final Throwable throwable;
+
+    public LogEvent(long timestamp, LogLevel level, String loggerName, String message, Throwable throwable) {
+        this.timestamp = timestamp;
+        this.level = level;
+        this.loggerName = loggerName;
+        this.message = message;
+        this.throwable = throwable;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public String getLoggerName() {
+        return loggerName;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Throwable getThrowable() {
+        return throwable;
+    }
+
+    /**
+     * Formats the event as a single line, without the stack trace.
+     * @return formatted event
+     */
+    public String format() {
+        String line = String.format("[%s] %s - %s", level, loggerName, message);
+        return throwable == null ? line : line + ": " + throwable;
+    }
+}
@@ -0,0 +1,12 @@
+package utils;
+
+/**
+ * Severity levels for log messages, from least to most severe.
+ */
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF
+}
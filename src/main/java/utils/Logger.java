@@ -0,0 +1,125 @@
+package utils;
+
+import java.util.function.Supplier;
+
+/**
+ * Named logger with a process-wide level and appender.
+ *
+ * In development mode messages at INFO and above go straight to the console.
+ * In production mode only warnings and errors are kept, and they are written
+ * by an {@link AsyncAppender}, so callers never wait on console I/O.
+ */
+public class Logger {
+    public static final String MODE_PROPERTY = "library.log.mode";
+    private static final int PRODUCTION_BUFFER_SIZE = 8192;
+
+    private static volatile LogLevel level = LogLevel.INFO;
+    private static volatile LogAppender appender = new ConsoleAppender();
+
+    private final String name;
+
+    private Logger(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets a logger named after a class.
+     * @param type The class doing the logging
+     * @return A logger for the class
+     */
+    public static Logger getLogger(Class<?> type) {
+        return new Logger(type.getSimpleName());
+    }
+
+    public static LogLevel getLevel() {
+        return level;
+    }
+
+    public static void setLevel(LogLevel newLevel) {
+        if (newLevel == null) {
+            throw new IllegalArgumentException("Log level cannot be null.");
+        }
+        level = newLevel;
+    }
+
+    public static LogAppender getAppender() {
+        return appender;
+    }
+
+    /**
+     * Replaces the appender. The previous appender is closed after any queued events are written.
+     * @param newAppender The new appender
+     */
+    public static synchronized void setAppender(LogAppender newAppender) {
+        if (newAppender == null) {
+            throw new IllegalArgumentException("Appender cannot be null.");
+        }
+        LogAppender previous = appender;
+        appender = newAppender;
+        if (previous != newAppender) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Configures logging for a run mode.
+     * @param mode "production" for warnings only through an asynchronous appender;
+     *             anything else for synchronous console logging at INFO
+     */
+    public static void configure(String mode) {
+        if ("production".equalsIgnoreCase(mode)) {
+            setLevel(LogLevel.WARN);
+            setAppender(new AsyncAppender(new ConsoleAppender(), PRODUCTION_BUFFER_SIZE));
+        } else {
+            setLevel(LogLevel.INFO);
+            setAppender(new ConsoleAppender());
+        }
+    }
+
+    /**
+     * Writes out any queued events, e.g. before the application exits.
+     */
+    public static void shutdown() {
+        appender.flush();
+    }
+
+    public boolean isEnabled(LogLevel messageLevel) {
+        return messageLevel != LogLevel.OFF && messageLevel.compareTo(level) >= 0;
+    }
+
+    public void debug(String message) {
+        log(LogLevel.DEBUG, message, null);
+    }
+
+    /**
+     * Logs a debug message that is only built if debug logging is enabled.
+     * @param message Supplies the message
+     */
+    public void debug(Supplier<String> message) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, message.get(), null);
+        }
+    }
+
+    public void info(String message) {
+        log(LogLevel.INFO, message, null);
+    }
+
+    public void warn(String message) {
+        log(LogLevel.WARN, message, null);
+    }
+
+    public void error(String message) {
+        log(LogLevel.ERROR, message, null);
+    }
+
+    public void error(String message, Throwable throwable) {
+        log(LogLevel.ERROR, message, throwable);
+    }
+
+    private void log(LogLevel messageLevel, String message, Throwable throwable) {
+        if (isEnabled(messageLevel)) {
+            appender.append(new LogEvent(System.currentTimeMillis(), messageLevel, name, message, throwable));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorted sources merged into one sorted result on demand: the merged prefix grows only as far
+ * as the furthest row fetched, and each source is read a chunk at a time only as far as the
+ * merge needs, so the first page costs about a page of rows from each source however long
+ * the sources are.
+ *
+ * A fetch stops with a CancellationException when its thread is interrupted, after which the
+ * source should be dropped.
+ */
+final class MergedPagedSource<T> implements PagedSource<T> {
+    // Rows read from a source at a time
+    private static final int CHUNK_SIZE = 128;
+
+    private final List<PagedSource<T>> parts;
+    private final int[] positions;
+    private final List<List<T>> chunks;
+    private final int[] chunkStarts;
+    private final PriorityQueue<Integer> heads;
+    private final List<T> merged = new ArrayList<>();
+    private final int size;
+
+    MergedPagedSource(List<? extends PagedSource<T>> sortedParts, Comparator<? super T> comparator) {
+        this.parts = List.copyOf(sortedParts);
+        this.positions = new int[parts.size()];
+        this.chunks = new ArrayList<>(parts.size());
+        this.chunkStarts = new int[parts.size()];
+        // Ties go to the earlier source, which keeps the merge stable
+        this.heads = new PriorityQueue<>(Math.max(1, parts.size()), (a, b) -> {
+            int order = comparator.compare(head(a), head(b));
+            return order != 0 ? order : Integer.compare(a, b);
+        });
+        long total = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            chunks.add(List.of());
+            total += parts.get(i).size();
+            if (parts.get(i).size() > 0) {
+                heads.add(i);
+            }
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many rows to page through.");
+        }
+        this.size = (int) total;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized List<T> fetch(int offset, int limit) {
+        PagedSource.checkRange(offset, limit);
+        int from = Math.min(offset, size);
+        int to = (int) Math.min((long) offset + limit, size);
+        while (merged.size() < to) {
+            Cancellation.check(merged.size());
+            int part = heads.poll();
+            merged.add(head(part));
+            positions[part]++;
+            if (positions[part] < parts.get(part).size()) {
+                heads.add(part);
+            }
+        }
+        return new ArrayList<>(merged.subList(from, to));
+    }
+
+    /**
+     * Gets the next unmerged row of a source, reading the source's next chunk if needed
+     */
+    private T head(int part) {
+        int index = positions[part] - chunkStarts[part];
+        if (index >= chunks.get(part).size()) {
+            chunkStarts[part] = positions[part];
+            chunks.set(part, parts.get(part).fetch(positions[part], CHUNK_SIZE));
+            index = 0;
+        }
+        return chunks.get(part).get(index);
+    }
+}
@@ -0,0 +1,88 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Rows of a result read a page at a time, so a view showing a few rows of a huge result
+ * fetches only those rows.
+ * @param <T> type of the rows
+ */
+public interface PagedSource<T> {
+
+    /**
+     * Gets the number of rows
+     * @return the number of rows
+     */
+    int size();
+
+    /**
+     * Gets consecutive rows
+     * @param offset index of the first row
+     * @param limit maximum number of rows
+     * @return the rows from offset, fewer than limit at the end of the result
+     * @throws IllegalArgumentException if offset or limit is negative
+     */
+    List<T> fetch(int offset, int limit);
+
+    /**
+     * Pages through a list without copying it. Changes to the list show in later fetches.
+     * @param list the rows
+     * @return the source
+     */
+    static <T> PagedSource<T> of(List<T> list) {
+        return new PagedSource<>() {
+            @Override
+            public int size() {
+                return list.size();
+            }
+
+            @Override
+            public List<T> fetch(int offset, int limit) {
+                checkRange(offset, limit);
+                int from = Math.min(offset, list.size());
+                int to = (int) Math.min((long) offset + limit, list.size());
+                return new ArrayList<>(list.subList(from, to));
+            }
+        };
+    }
+
+    /**
+     * Pages through rows in sorted order, sorting only as far as the rows fetched. Rows that
+     * compare equal may come in any order. A fetch stops with a CancellationException if its
+     * thread is interrupted.
+     * @param rows the rows, copied
+     * @param comparator the order to page through them in
+     * @return the source
+     */
+    static <T> PagedSource<T> sorted(Collection<? extends T> rows, Comparator<? super T> comparator) {
+        return new IncrementalSortedSource<>(rows, comparator);
+    }
+
+    /**
+     * Pages through several sorted sources as one sorted result, merging only as far as the rows
+     * fetched. Rows that compare equal keep the order of the sources, as if the sources were
+     * concatenated and stably sorted. A fetch stops with a CancellationException if its thread
+     * is interrupted, after which the merged source should be dropped.
+     * @param sortedParts sources each sorted by the comparator, not changed afterwards
+     * @param comparator the sources' order
+     * @return the source
+     */
+    static <T> PagedSource<T> merge(List<? extends PagedSource<T>> sortedParts, Comparator<? super T> comparator) {
+        return new MergedPagedSource<>(sortedParts, comparator);
+    }
+
+    /**
+     * Checks the arguments of {@link #fetch(int, int)}
+     */
+    static void checkRange(int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative.");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative.");
+        }
+    }
+}
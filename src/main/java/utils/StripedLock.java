@@ -0,0 +1,104 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared out by key hash.
+ * Operations on the same key always use the same lock, while operations on unrelated keys
+ * usually use different ones and can run in parallel. Memory stays constant however many
+ * keys are seen.
+ */
+public class StripedLock {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * Creates a striped lock
+     * @param stripeCount number of stripes, rounded up to a power of two
+     */
+    public StripedLock(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive.");
+        }
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Gets the lock guarding a key
+     * @param key the key, e.g. an ISBN; null keys share one stripe
+     * @return the key's lock
+     */
+    public ReentrantLock get(Object key) {
+        return stripes[indexFor(key)];
+    }
+
+    /**
+     * Acquires every stripe, in a fixed order so two callers cannot deadlock each other.
+     * Used by operations that touch many keys at once. Callers must not already hold a stripe.
+     */
+    public void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    /**
+     * Releases every stripe acquired by {@link #lockAll()}
+     */
+    public void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    /**
+     * Acquires the stripes guarding a set of keys, each once and in a fixed order, so callers
+     * locking overlapping sets cannot deadlock each other. Callers must not already hold a stripe.
+     * @param keys the keys to lock
+     * @return the acquired stripes, to pass to {@link #unlock(List)}
+     */
+    public List<ReentrantLock> lock(Collection<?> keys) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Object key : keys) {
+            indexes.add(indexFor(key));
+        }
+        List<ReentrantLock> acquired = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            stripes[index].lock();
+            acquired.add(stripes[index]);
+        }
+        return acquired;
+    }
+
+    /**
+     * Releases stripes acquired by {@link #lock(Collection)}
+     * @param acquired the acquired stripes
+     */
+    public void unlock(List<ReentrantLock> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            acquired.get(i).unlock();
+        }
+    }
+
+    int indexFor(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        // Spread the high bits down, as HashMap does, so similar keys do not cluster
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,37 @@
+package utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks on virtual threads where the JDK has them, so thousands of tasks blocked on
+ * locks or I/O do not each hold an operating system thread.
+ */
+public final class VirtualThreads {
+    private static final Logger LOGGER = Logger.getLogger(VirtualThreads.class);
+
+    private VirtualThreads() {
+        // Utility class
+    }
+
+    /**
+     * Creates an executor running each task on its own virtual thread. Falls back to a pool of
+     * daemon platform threads on a JDK without virtual threads.
+     * @param threadName name prefix of the fallback pool's threads
+     * @return the executor
+     */
+    public static ExecutorService newPerTaskExecutor(String threadName) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.info("Virtual threads are not available, running " + threadName + " tasks on a thread pool.");
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, threadName + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
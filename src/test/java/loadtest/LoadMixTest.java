@@ -0,0 +1,50 @@
+package loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadMixTest {
+
+    @Test
+    public void testParse() {
+        LoadMix mix = LoadMix.parse("search=70, loan=10,return=10,MY_LOANS=10");
+        assertEquals(70, mix.getWeight(LoadOperation.SEARCH));
+        assertEquals(10, mix.getWeight(LoadOperation.MY_LOANS));
+        assertEquals("search=70,loan=10,return=10,my-loans=10", mix.toString());
+    }
+
+    @Test
+    public void testPickFollowsWeights() {
+        LoadMix mix = LoadMix.parse("search=3,loan=1,return=0");
+        Map<LoadOperation, Integer> picks = new EnumMap<>(LoadOperation.class);
+        Random random = new Random(1);
+        for (int i = 0; i < 40_000; i++) {
+            picks.merge(mix.pick(random), 1, Integer::sum);
+        }
+        assertNull(picks.get(LoadOperation.RETURN));
+        assertNull(picks.get(LoadOperation.MY_LOANS));
+        assertEquals(30_000, picks.get(LoadOperation.SEARCH), 600);
+        assertEquals(10_000, picks.get(LoadOperation.LOAN), 600);
+    }
+
+    @Test
+    public void testInvalidMixes() {
+        assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("search"));
+        assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("browse=1"));
+        assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("search=many"));
+        assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("search=-1,loan=2"));
+        assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("search=0"));
+    }
+
+    @Test
+    public void testFromLabel() {
+        assertEquals(LoadOperation.MY_LOANS, LoadOperation.fromLabel("my-loans"));
+        assertEquals(LoadOperation.MY_LOANS, LoadOperation.fromLabel("myloans"));
+        assertEquals(LoadOperation.RETURN, LoadOperation.fromLabel("Return"));
+    }
+}
@@ -0,0 +1,85 @@
+package loadtest;
+
+import models.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import service.LibraryService;
+import storage.DatasetGenerator;
+import storage.GeneralStorage;
+import utils.LogLevel;
+import utils.Logger;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadTestTest {
+    private MockedStatic<GeneralStorage> generalStorageMock;
+    private LogLevel originalLevel;
+    private LibraryService libraryService;
+    private List<Book> catalog;
+
+    @BeforeEach
+    void setUp() {
+        generalStorageMock = Mockito.mockStatic(GeneralStorage.class);
+        originalLevel = Logger.getLevel();
+        Logger.setLevel(LogLevel.ERROR);
+
+        libraryService = LibraryService.inMemory();
+        catalog = new DatasetGenerator(7).generateCatalog(200);
+        for (Book book : catalog) {
+            libraryService.addBook(book.getIsbn(), book.getTitle(), book.getAuthor());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        Logger.setLevel(originalLevel);
+        generalStorageMock.close();
+    }
+
+    @Test
+    void testRunKeepsInvariants() throws InterruptedException {
+        LoadTest loadTest = new LoadTest(libraryService, catalog, LoadMix.DEFAULT, 16, 1, Duration.ZERO);
+        LoadReport report = loadTest.run(Duration.ofMillis(100), Duration.ofMillis(500));
+
+        assertFalse(report.hasViolations(), report.format());
+        for (LoadOperation operation : LoadOperation.values()) {
+            assertTrue(report.getCount(operation) > 0, operation.getLabel());
+            assertEquals(0, report.getFailed(operation), operation.getLabel());
+        }
+        assertTrue(report.getThroughput(LoadOperation.SEARCH) > 0);
+
+        // The in-memory service touches no file, even when asked to save
+        libraryService.saveData();
+        libraryService.saveChanges();
+        libraryService.saveUserPreferences();
+        generalStorageMock.verifyNoInteractions();
+        assertTrue(report.getLatency(LoadOperation.LOAN).getValueAtPercentile(99) > 0);
+        assertTrue(report.format().contains("Invariant violations: none"));
+    }
+
+    @Test
+    void testContendedBooksAreRejectedNotDoubleLoaned() throws InterruptedException {
+        // A tiny catalog: most loans find the book already out
+        List<Book> smallCatalog = catalog.subList(0, 3);
+        LoadMix mix = LoadMix.parse("loan=1,return=1");
+        LoadTest loadTest = new LoadTest(libraryService, smallCatalog, mix, 12, 2, Duration.ZERO);
+        LoadReport report = loadTest.run(Duration.ZERO, Duration.ofMillis(300));
+
+        assertFalse(report.hasViolations(), report.format());
+        assertTrue(report.getRejected(LoadOperation.LOAN) > 0);
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new LoadTest(libraryService, List.of(), LoadMix.DEFAULT, 1, 1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+                () -> new LoadTest(libraryService, catalog, LoadMix.DEFAULT, 0, 1, Duration.ZERO));
+    }
+}
@@ -0,0 +1,112 @@
+package metrics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import models.Book;
+import models.BookList;
+import models.SearchCriteria;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import storage.GeneralStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightRecorderEventsTest {
+
+    @TempDir
+    Path dir;
+
+    private List<RecordedEvent> record(String eventName, boolean enabled, Runnable action) throws IOException {
+        try (Recording recording = new Recording()) {
+            if (enabled) {
+                recording.enable(eventName);
+            } else {
+                recording.disable(eventName);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            Path file = dir.resolve("recording.jfr");
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        }
+    }
+
+    private static BookList catalog() {
+        BookList bookList = new BookList();
+        bookList.addBook(new Book("111", "Dune", "Frank Herbert"));
+        bookList.addBook(new Book("222", "Dune Messiah", "Frank Herbert"));
+        bookList.addBook(new Book("333", "Emma", "Jane Austen"));
+        return bookList;
+    }
+
+    @Test
+    public void testSearchEvents() throws IOException {
+        BookList bookList = catalog();
+        List<RecordedEvent> events = record("library.Search", true, () -> {
+            bookList.searchBooks("dune", SearchCriteria.TITLE);
+            bookList.searchBooksByRelevance("emma", SearchCriteria.ALL);
+            bookList.searchBooksByRelevance("frank", SearchCriteria.AUTHOR, 1);
+        });
+
+        assertEquals(3, events.size());
+        RecordedEvent filter = events.get(0);
+        assertEquals("filter", filter.getString("kind"));
+        assertEquals("dune", filter.getString("query"));
+        assertEquals("TITLE", filter.getString("criteria"));
+        assertEquals(2, filter.getInt("results"));
+        assertEquals("relevance", events.get(1).getString("kind"));
+        assertEquals(1, events.get(1).getInt("results"));
+        assertEquals("top", events.get(2).getString("kind"));
+        assertEquals(1, events.get(2).getInt("results"));
+    }
+
+    @Test
+    public void testStorageEvents() throws IOException {
+        BookList bookList = catalog();
+        Path file = dir.resolve("books.txt");
+        List<RecordedEvent> events = record("library.Storage", true, () -> {
+            GeneralStorage.saveBookList(file.toString(), bookList);
+            GeneralStorage.loadBookList(file.toString());
+        });
+
+        assertEquals(2, events.size());
+        RecordedEvent save = events.get(0);
+        assertEquals("save", save.getString("operation"));
+        assertEquals("books", save.getString("data"));
+        assertEquals(file.toString(), save.getString("path"));
+        assertEquals(Files.size(file), save.getLong("bytes"));
+        assertEquals(3, save.getInt("records"));
+        RecordedEvent load = events.get(1);
+        assertEquals("load", load.getString("operation"));
+        assertEquals(Files.size(file), load.getLong("bytes"));
+        assertEquals(3, load.getInt("records"));
+    }
+
+    @Test
+    public void testNothingRecordedWhenDisabled() throws IOException {
+        BookList bookList = catalog();
+        List<RecordedEvent> events = record("library.Search", false, () -> bookList.searchBooks("dune", SearchCriteria.ALL));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testMutationEvent() throws IOException {
+        List<RecordedEvent> events = record("library.Mutation", true, () -> {
+            MutationEvent event = MutationEvent.start();
+            event.complete("loan", "111", "alice", 1, true);
+        });
+
+        assertEquals(1, events.size());
+        assertEquals("loan", events.get(0).getString("operation"));
+        assertEquals("111", events.get(0).getString("isbn"));
+        assertEquals("alice", events.get(0).getString("user"));
+        assertTrue(events.get(0).getBoolean("succeeded"));
+    }
+}
@@ -0,0 +1,83 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testCounters() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("loans").increment();
+        registry.counter("loans").add(4);
+        assertSame(registry.counter("loans"), registry.counter("loans"));
+        assertEquals(5, registry.snapshot().getCounter("loans"));
+        assertEquals(0, registry.snapshot().getCounter("missing"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("loans").add(-1));
+    }
+
+    @Test
+    public void testTimers() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Timer timer = registry.timer("search");
+        for (int i = 1; i <= 100; i++) {
+            timer.record(i * 1_000L);
+        }
+        timer.record(-5);
+        MetricsSnapshot.TimerValues values = registry.snapshot().getTimer("search");
+        assertEquals(101, values.getCount());
+        assertEquals(100_000, values.getMax());
+        assertTrue(values.getP50() >= 49_000 && values.getP50() <= 51_000, "p50 " + values.getP50());
+        assertTrue(values.getP99() >= 98_000 && values.getP99() <= 100_000, "p99 " + values.getP99());
+        assertNull(registry.snapshot().getTimer("missing"));
+    }
+
+    @Test
+    public void testRecordSince() {
+        Timer timer = new Timer();
+        timer.recordSince(System.nanoTime());
+        assertEquals(1, timer.getHistogram().getCount());
+    }
+
+    @Test
+    public void testGaugesAreReadAtSnapshot() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicInteger size = new AtomicInteger(3);
+        registry.gauge("books", size::get);
+        assertEquals(3.0, registry.snapshot().getGauges().get("books"));
+        size.set(7);
+        assertEquals(7.0, registry.snapshot().getGauges().get("books"));
+
+        registry.removeGauge("books", () -> 0);
+        assertTrue(registry.snapshot().getGauges().containsKey("books"));
+    }
+
+    @Test
+    public void testFormat() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("library.loan.failures").add(2);
+        registry.gauge("library.books", () -> 42);
+        registry.timer("library.loan").record(1_500_000);
+        String text = registry.snapshot().format();
+        assertTrue(text.contains("counter library.loan.failures 2"), text);
+        assertTrue(text.contains("gauge   library.books 42"), text);
+        assertTrue(text.contains("timer   library.loan count=1"), text);
+        assertTrue(text.contains("max=1.500"), text);
+    }
+
+    @Test
+    public void testInvalidNames() {
+        MetricsRegistry registry = new MetricsRegistry();
+        assertThrows(IllegalArgumentException.class, () -> registry.counter(""));
+        assertThrows(IllegalArgumentException.class, () -> registry.timer(null));
+        assertThrows(IllegalArgumentException.class, () -> registry.gauge("books", null));
+    }
+
+    @Test
+    public void testDefaultRegistry() {
+        assertSame(MetricsRegistry.getDefault(), MetricsRegistry.getDefault());
+    }
+}
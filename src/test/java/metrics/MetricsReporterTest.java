@@ -0,0 +1,69 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsReporterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testReportReplacesFile() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("loans").increment();
+        Path file = dir.resolve("metrics.txt");
+        try (MetricsReporter reporter = new MetricsReporter(registry, file, Duration.ofHours(1))) {
+            reporter.report();
+            assertTrue(Files.readString(file).contains("counter loans 1"));
+
+            registry.counter("loans").increment();
+            reporter.report();
+            assertTrue(Files.readString(file).contains("counter loans 2"));
+        }
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testCloseWritesFinalReport() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        Path file = dir.resolve("final.txt");
+        MetricsReporter reporter = new MetricsReporter(registry, file, Duration.ofHours(1));
+        registry.counter("saves").add(3);
+        reporter.close();
+        assertTrue(Files.readString(file).contains("counter saves 3"));
+    }
+
+    @Test
+    public void testPeriodicReports() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        Path file = dir.resolve("periodic.txt");
+        try (MetricsReporter reporter = new MetricsReporter(registry, file, Duration.ofMillis(20))) {
+            for (int i = 0; i < 100 && !Files.exists(file); i++) {
+                Thread.sleep(20);
+            }
+            assertTrue(Files.exists(file));
+        }
+    }
+
+    @Test
+    public void testInvalidPeriod() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MetricsReporter(new MetricsRegistry(), dir.resolve("x.txt"), Duration.ZERO));
+    }
+
+    @Test
+    public void testNotStartedWithoutFileProperty() {
+        System.clearProperty(MetricsReporter.FILE_PROPERTY);
+        assertNull(MetricsReporter.startFromSystemProperties());
+    }
+}
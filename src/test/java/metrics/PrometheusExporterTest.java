@@ -0,0 +1,91 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrometheusExporterTest {
+
+    @Test
+    public void testMetricName() {
+        assertEquals("library_loans_active", PrometheusExporter.metricName("library.loans.active"));
+        assertEquals("storage_books_save", PrometheusExporter.metricName("storage.books-save"));
+        assertEquals("_2nd_shelf", PrometheusExporter.metricName("2nd.shelf"));
+    }
+
+    @Test
+    public void testFormatValue() {
+        assertEquals("3", PrometheusExporter.formatValue(3));
+        assertEquals("0.25", PrometheusExporter.formatValue(0.25));
+        assertEquals("NaN", PrometheusExporter.formatValue(Double.NaN));
+        assertEquals("+Inf", PrometheusExporter.formatValue(Double.POSITIVE_INFINITY));
+        assertEquals("-Inf", PrometheusExporter.formatValue(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public void testFormatCountersAndGauges() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("library.loan.failures").add(2);
+        registry.gauge("library.books", () -> 37);
+
+        String text = PrometheusExporter.format(registry.snapshot());
+        assertTrue(text.contains("# TYPE library_loan_failures_total counter\nlibrary_loan_failures_total 2\n"));
+        assertTrue(text.contains("# TYPE library_books gauge\nlibrary_books 37\n"));
+    }
+
+    @Test
+    public void testFormatTimerAsSummaryInSeconds() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.timer("library.search").record(2_000_000);
+        registry.timer("library.search").record(2_000_000);
+
+        String text = PrometheusExporter.format(registry.snapshot());
+        assertTrue(text.contains("# TYPE library_search_seconds summary\n"));
+        assertTrue(text.contains("library_search_seconds{quantile=\"0.5\"} 0.002\n"));
+        assertTrue(text.contains("library_search_seconds{quantile=\"0.999\"} 0.002\n"));
+        assertTrue(text.contains("library_search_seconds_sum 0.004\n"));
+        assertTrue(text.contains("library_search_seconds_count 2\n"));
+    }
+
+    @Test
+    public void testHitRatioFromHitAndMissCounters() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("ui.views.hits").add(3);
+        registry.counter("ui.views.misses").add(1);
+        registry.counter("other.hits").increment();
+
+        String text = PrometheusExporter.format(registry.snapshot());
+        assertTrue(text.contains("# TYPE ui_views_hit_ratio gauge\nui_views_hit_ratio 0.75\n"));
+        assertFalse(text.contains("other_hit_ratio"));
+    }
+
+    @Test
+    public void testScrape() throws IOException, InterruptedException {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("library.loan.failures").increment();
+        try (PrometheusExporter exporter = new PrometheusExporter(registry, 0)) {
+            HttpClient client = HttpClient.newHttpClient();
+            URI uri = URI.create("http://localhost:" + exporter.getPort() + "/metrics");
+
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            assertEquals(PrometheusExporter.CONTENT_TYPE, response.headers().firstValue("Content-Type").orElse(null));
+            assertTrue(response.body().contains("library_loan_failures_total 1\n"));
+
+            registry.counter("library.loan.failures").increment();
+            response = client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+            assertTrue(response.body().contains("library_loan_failures_total 2\n"));
+
+            response = client.send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(405, response.statusCode());
+        }
+    }
+}
@@ -5,6 +5,9 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
 
 public class BookListTest {
 
@@ -147,6 +150,25 @@ public class BookListTest {
         assertEquals(BookStatus.OVERDUE, sortedStatusDesc.get(0).getStatus());
     }
 
+    @Test
+    public void testSortBreaksTiesByIsbn() {
+        for (int i = 99; i >= 0; i--) {
+            bookList.addBook(new Book(String.format("ISBN%03d", i), "Same Title", "Author" + (i % 3)));
+        }
+
+        List<Book> sorted = bookList.getSortedBooks(SortCriteria.TITLE, false);
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(String.format("ISBN%03d", i), sorted.get(i).getIsbn());
+        }
+        // Paging sorts around random pivots, yet gives the same order on every run
+        for (int run = 0; run < 5; run++) {
+            var paged = bookList.pageSortedBooks(SortCriteria.AUTHOR, true);
+            assertEquals(bookList.getSortedBooks(SortCriteria.AUTHOR, true), paged.fetch(0, 100));
+            assertEquals(bookList.getSortedBooks(SortCriteria.AUTHOR, true).subList(40, 50),
+                    bookList.pageSortedBooks(SortCriteria.AUTHOR, true).fetch(40, 10));
+        }
+    }
+
     @Test
     public void testSearchBooks() {
         bookList.addBook(book1);
@@ -223,4 +245,196 @@ public class BookListTest {
         Book retrievedBook = bookList.getBook("ISBN001");
         assertNotNull(retrievedBook);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testHoldAndReleaseBook() {
+        bookList.addBook(book1);
+        bookList.loanBook(book1);
+        bookList.holdBook(book1);
+        assertEquals(BookStatus.ON_HOLD, book1.getStatus());
+        bookList.releaseHold(book1);
+        assertEquals(BookStatus.AVAILABLE, book1.getStatus());
+    }
+
+    @Test
+    public void testHoldBookInvalid() {
+        bookList.addBook(book2);
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            bookList.holdBook(book2);
+        });
+        assertEquals("Cannot hold a book that is not checked out.", exception.getMessage());
+        assertThrows(IllegalStateException.class, () -> bookList.releaseHold(book2));
+    }
+
+    @Test
+    public void testLoanBookWithStaleVersion() {
+        bookList.addBook(book1);
+        long version = book1.getVersion();
+        // Another desk loans and returns the book after this caller checked it
+        bookList.loanBook(book1);
+        bookList.returnBook(book1);
+
+        BookConflictException exception = assertThrows(BookConflictException.class,
+                () -> bookList.loanBook(book1, version));
+        assertEquals("ISBN001", exception.getIsbn());
+        assertEquals(version + 2, exception.getActualVersion());
+        assertEquals(BookStatus.AVAILABLE, book1.getStatus());
+
+        bookList.loanBook(book1, book1.getVersion());
+        assertEquals(BookStatus.CHECKED_OUT, book1.getStatus());
+    }
+
+    @Test
+    public void testContentionRate() {
+        assertEquals(0.0, bookList.getContentionRate());
+        bookList.addBook(book1);
+        long version = book1.getVersion();
+        bookList.loanBook(book1, version);
+        assertThrows(BookConflictException.class, () -> bookList.loanBook(book1, version));
+        bookList.returnBook(book1);
+        bookList.loanBook(book1);
+
+        assertEquals(4, bookList.getTransitionCount());
+        assertEquals(1, bookList.getConflictCount());
+        assertEquals(0.25, bookList.getContentionRate());
+    }
+
+    @Test
+    public void testEventSink() {
+        java.util.List<LibraryEvent> events = new java.util.ArrayList<>();
+        bookList.setEventSink(events::add);
+        bookList.addBook(book1);
+        bookList.loanBook(book1);
+        bookList.returnBook(book1);
+        bookList.removeBook(book1);
+
+        assertEquals(4, events.size());
+        assertEquals(LibraryEvent.Type.BOOK_ADDED, events.get(0).getType());
+        LibraryEvent.StatusChanged change = (LibraryEvent.StatusChanged) events.get(1);
+        assertEquals(BookStatus.AVAILABLE, change.getOldStatus());
+        assertEquals(BookStatus.CHECKED_OUT, change.getNewStatus());
+        assertEquals(LibraryEvent.Type.BOOK_REMOVED, events.get(3).getType());
+    }
+
+    @Test
+    public void testGetBooksIsStableSnapshot() {
+        bookList.addBook(book1);
+        bookList.addBook(book2);
+        java.util.Map<String, Book> snapshot = bookList.getBooks();
+
+        bookList.addBook(book3);
+        bookList.removeBook(book1);
+
+        assertEquals(2, snapshot.size());
+        assertSame(book1, snapshot.get("ISBN001"));
+        assertNull(snapshot.get("ISBN003"));
+        assertEquals(2, bookList.getBooks().size());
+        assertFalse(bookList.containsBook("ISBN001"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove("ISBN002"));
+    }
+
+    @Test
+    public void testAddBooks() {
+        java.util.List<Book> books = new java.util.ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            books.add(new Book("ISBN" + i, "Title " + i, "Author"));
+        }
+        bookList.addBooks(books);
+
+        assertEquals(500, bookList.getBooks().size());
+        assertEquals(500, bookList.getSortedBooks(SortCriteria.ISBN).size());
+        assertEquals(BookStatus.AVAILABLE, bookList.getBook("ISBN42").getStatus());
+        assertEquals(11, bookList.searchBooks("title 42", SearchCriteria.TITLE).size());
+
+        books.add(null);
+        assertThrows(IllegalArgumentException.class, () -> bookList.addBooks(books));
+        assertEquals(500, bookList.getBooks().size());
+    }
+
+    @Test
+    public void testSearchBooksByRelevanceWithLimit() {
+        bookList.addBook(new Book("ISBN010", "Dune", "Frank Herbert"));
+        bookList.addBook(new Book("ISBN011", "Dune Messiah", "Frank Herbert"));
+        bookList.addBook(new Book("ISBN012", "Children of Dune", "Frank Herbert"));
+        bookList.addBook(book1);
+
+        java.util.List<Book> top = bookList.searchBooksByRelevance("dune", SearchCriteria.TITLE, 2);
+        assertEquals(2, top.size());
+        assertEquals("ISBN010", top.get(0).getIsbn());
+        assertEquals("ISBN011", top.get(1).getIsbn());
+        assertEquals(3, bookList.searchBooksByRelevance("dune", SearchCriteria.TITLE, 10).size());
+        assertThrows(IllegalArgumentException.class, () -> bookList.searchBooksByRelevance("dune", SearchCriteria.TITLE, 0));
+    }
+
+    @Test
+    public void testTopByRelevanceMergesCatalogs() {
+        BookList other = new BookList();
+        other.addBook(new Book("ISBN020", "Dune", "Frank Herbert"));
+        bookList.addBook(new Book("ISBN010", "Dune Messiah", "Frank Herbert"));
+        bookList.addBook(new Book("ISBN011", "Children of Dune", "Frank Herbert"));
+
+        java.util.List<Book> candidates = new java.util.ArrayList<>(bookList.searchBooksByRelevance("dune", SearchCriteria.TITLE, 2));
+        candidates.addAll(other.searchBooksByRelevance("dune", SearchCriteria.TITLE, 2));
+        java.util.List<Book> merged = BookList.topByRelevance(candidates, "dune", SearchCriteria.TITLE, 2);
+        assertEquals("ISBN020", merged.get(0).getIsbn());
+        assertEquals("ISBN010", merged.get(1).getIsbn());
+    }
+
+    @Test
+    public void testSnapshotsMatchMapUnderRandomChanges() {
+        java.util.Random random = new java.util.Random(2103);
+        java.util.Map<String, Book> expected = new java.util.HashMap<>();
+        java.util.List<java.util.Map<String, Book>> oldSnapshots = new java.util.ArrayList<>();
+        java.util.List<java.util.Map<String, Book>> oldExpected = new java.util.ArrayList<>();
+        // "Aa" and "BB" have the same hash code, so these ISBNs all collide
+        String[] colliding = {"AaAa", "AaBB", "BBAa", "BBBB"};
+        for (int round = 0; round < 3000; round++) {
+            String isbn = random.nextInt(4) == 0 ? colliding[random.nextInt(colliding.length)]
+                    : "ISBN" + random.nextInt(1500);
+            Book current = bookList.getBook(isbn);
+            if (current != null && random.nextBoolean()) {
+                bookList.removeBook(current);
+                expected.remove(isbn);
+            } else if (current == null) {
+                Book book = new Book(isbn, "Title", "Author");
+                bookList.addBook(book);
+                expected.put(isbn, book);
+            }
+            if (round % 500 == 0) {
+                oldSnapshots.add(bookList.getBooks());
+                oldExpected.add(new java.util.HashMap<>(expected));
+            }
+        }
+
+        assertEquals(expected, bookList.getBooks());
+        assertEquals(expected.size(), bookList.getBooks().entrySet().stream().count());
+        for (String isbn : colliding) {
+            assertSame(expected.get(isbn), bookList.getBook(isbn));
+        }
+        // Earlier snapshots are unaffected by later changes
+        for (int i = 0; i < oldSnapshots.size(); i++) {
+            assertEquals(oldExpected.get(i), oldSnapshots.get(i));
+        }
+    }
+
+    @Test
+    public void testSearchStopsWhenInterrupted() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            books.add(new Book("ISBN" + i, "Title " + i, "Author"));
+        }
+        bookList.addBooks(books);
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class, () -> bookList.searchBooks("title", SearchCriteria.TITLE));
+            assertThrows(CancellationException.class,
+                    () -> bookList.searchBooksByRelevance("title", SearchCriteria.TITLE, 10));
+            // The interrupt is left for the caller to see
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(5000, bookList.searchBooks("title", SearchCriteria.TITLE).size());
+    }
+}
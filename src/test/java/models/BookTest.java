@@ -35,4 +35,47 @@ public class BookTest {
                                         "1234567890", "Test Title", "Test Author", BookStatus.AVAILABLE);
         assertEquals(expected, book.toString());
     }
+
+    @Test
+    public void testVersionedStatusChange() {
+        Book book = new Book("1234567890", "Test Title", "Test Author");
+        assertEquals(0, book.getVersion());
+        book.setStatus(BookStatus.CHECKED_OUT);
+        assertEquals(1, book.getVersion());
+
+        assertTrue(book.compareAndSetStatus(1, BookStatus.CHECKED_OUT, BookStatus.AVAILABLE));
+        assertEquals(BookStatus.AVAILABLE, book.getStatus());
+        assertEquals(2, book.getVersion());
+
+        // A stale version or status leaves the book unchanged
+        assertFalse(book.compareAndSetStatus(1, BookStatus.AVAILABLE, BookStatus.ON_HOLD));
+        assertFalse(book.compareAndSetStatus(2, BookStatus.CHECKED_OUT, BookStatus.ON_HOLD));
+        assertEquals(BookStatus.AVAILABLE, book.getStatus());
+        assertEquals(2, book.getVersion());
+    }
+
+    @Test
+    public void testSerializedFormKeepsStatusField() throws Exception {
+        Book book = new Book("1234567890", "Test Title", "Test Author");
+        book.setStatus(BookStatus.CHECKED_OUT);
+
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes)) {
+            out.writeObject(book);
+        }
+        Book copy;
+        try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                new java.io.ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (Book) in.readObject();
+        }
+        assertEquals("1234567890", copy.getIsbn());
+        assertEquals(BookStatus.CHECKED_OUT, copy.getStatus());
+        assertTrue(copy.compareAndSetStatus(copy.getVersion(), BookStatus.CHECKED_OUT, BookStatus.AVAILABLE));
+
+        // Same class version and fields as books serialized before status changes were versioned
+        java.io.ObjectStreamClass form = java.io.ObjectStreamClass.lookup(Book.class);
+        assertEquals(1858811817006952107L, form.getSerialVersionUID());
+        assertNotNull(form.getField("status"));
+        assertNull(form.getField("stamp"));
+    }
 }
@@ -0,0 +1,82 @@
+package models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoanComparatorsTest {
+
+    private User user;
+    private Loan returned;
+    private Loan current;
+    private Loan overdue;
+    private List<Loan> loans;
+
+    @BeforeEach
+    public void setUp() {
+        user = new User("user", false);
+        LocalDate today = LocalDate.now();
+        returned = new Loan(user, new Book("111", "Charlie", "Zed"), today.minusDays(30), today.minusDays(9),
+                today.minusDays(10));
+        current = new Loan(user, new Book("222", "Alpha", "Young"), today.minusDays(2), today.plusDays(19), null);
+        overdue = new Loan(user, new Book("333", "Bravo", "Xavier"), today.minusDays(40), today.minusDays(5), null);
+        loans = List.of(current, overdue, returned);
+    }
+
+    @Test
+    public void testSortByDates() {
+        assertEquals(List.of(overdue, returned, current),
+                LoanComparators.sort(loans, LoanSortCriteria.LOAN_DATE, true));
+        assertEquals(List.of(current, overdue, returned),
+                LoanComparators.sort(loans, LoanSortCriteria.DUE_DATE, false));
+        // Loans that have not been returned sort after returned ones
+        assertEquals(returned, LoanComparators.sort(loans, LoanSortCriteria.RETURN_DATE, true).get(0));
+        assertEquals(returned, LoanComparators.sort(loans, LoanSortCriteria.RETURN_DATE, false).get(2));
+    }
+
+    @Test
+    public void testSortByStatus() {
+        assertEquals(List.of(returned, current, overdue),
+                LoanComparators.sort(loans, LoanSortCriteria.STATUS, true));
+        assertEquals(List.of(overdue, current, returned),
+                LoanComparators.sort(loans, LoanSortCriteria.STATUS, false));
+    }
+
+    @Test
+    public void testSortByBookFields() {
+        assertEquals(List.of(current, overdue, returned),
+                LoanComparators.sort(loans, LoanSortCriteria.BOOK_TITLE, true));
+        assertEquals(List.of(overdue, current, returned),
+                LoanComparators.sort(loans, LoanSortCriteria.BOOK_AUTHOR, true));
+        assertEquals(List.of(overdue, current, returned),
+                LoanComparators.sort(loans, LoanSortCriteria.BOOK_ISBN, false));
+    }
+
+    @Test
+    public void testSortIsStable() {
+        LocalDate due = LocalDate.now().plusDays(7);
+        List<Loan> sameDue = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sameDue.add(new Loan(user, new Book("isbn" + i, "Title", "Author"), due.minusDays(21), due, null));
+        }
+        assertEquals(sameDue, LoanComparators.sort(sameDue, LoanSortCriteria.DUE_DATE, true));
+        assertEquals(sameDue, LoanComparators.sort(sameDue, LoanSortCriteria.DUE_DATE, false));
+        assertEquals(sameDue, LoanComparators.sort(sameDue, LoanSortCriteria.BOOK_TITLE, false));
+    }
+
+    @Test
+    public void testComparatorMatchesSort() {
+        for (LoanSortCriteria criteria : LoanSortCriteria.values()) {
+            for (boolean ascending : new boolean[] {true, false}) {
+                List<Loan> expected = new ArrayList<>(loans);
+                expected.sort(LoanComparators.comparator(criteria, ascending));
+                assertEquals(expected, LoanComparators.sort(loans, criteria, ascending));
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+public class LoanLimitPolicyTest {
+
+    @Test
+    public void testInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new LoanLimitPolicy(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new LoanLimitPolicy(1, -1));
+    }
+
+    @Test
+    public void testActiveLoanLimit() {
+        LoanLimitPolicy policy = new LoanLimitPolicy(1, 0);
+        LoanList loanList = new LoanList();
+        User user = new User("1", false);
+
+        policy.checkCanBorrow(loanList.getBorrowerStatistics("1"));
+        loanList.createLoan(user, new Book("123", "Title", "Author"));
+        assertThrows(IllegalStateException.class, () -> policy.checkCanBorrow(loanList.getBorrowerStatistics("1")));
+    }
+
+    @Test
+    public void testOverdueLoanLimit() {
+        LoanLimitPolicy policy = new LoanLimitPolicy(10, 0);
+        LoanList loanList = new LoanList();
+        BookList bookList = new BookList();
+        Book book = new Book("123", "Title", "Author");
+        bookList.addBook(book);
+        bookList.loanBook(book);
+        loanList.createLoan(new User("1", false), book);
+
+        policy.checkCanBorrow(loanList.getBorrowerStatistics("1"));
+        loanList.updateOverdueLoans(LocalDate.now().plusDays(30), bookList);
+        Exception exception = assertThrows(IllegalStateException.class, () ->
+                policy.checkCanBorrow(loanList.getBorrowerStatistics("1")));
+        assertTrue(exception.getMessage().contains("overdue"));
+    }
+}
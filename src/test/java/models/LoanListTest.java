@@ -5,6 +5,7 @@ import static org.mockito.Mockito.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import utils.PagedSource;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -178,4 +179,73 @@ public class LoanListTest {
         assertEquals(currentLoan, sortedLoans.get(1));
         assertEquals(overdueLoan, sortedLoans.get(2));
     }
+
+    @Test
+    public void testArchiveReturnedLoans() {
+        User user = new User("1", false);
+        Book returnedBook = new Book("123", "Returned", "Author A");
+        Book currentBook = new Book("456", "Current", "Author B");
+        Loan returnedLoan = loanList.createLoan(user, returnedBook);
+        Loan currentLoan = loanList.createLoan(user, currentBook);
+        returnedLoan.returnBook();
+
+        assertEquals(1, loanList.archiveReturnedLoans());
+        assertEquals(2, loanList.size());
+        assertEquals(2, loanList.getAllLoans().size());
+        assertSame(currentLoan, loanList.getCurrentLoans().get(0));
+
+        List<Loan> returnedLoans = loanList.getReturnedLoans();
+        assertEquals(1, returnedLoans.size());
+        assertEquals(returnedLoan.getLoanId(), returnedLoans.get(0).getLoanId());
+        assertEquals(2, loanList.getLoansByBorrower("1").size());
+    }
+
+    @Test
+    public void testRenewLoans() {
+        User alice = new User("alice", false);
+        User bob = new User("bob", false);
+        Loan aliceLoan = loanList.createLoan(alice, new Book("123", "Title", "Author"));
+        Loan bobLoan = loanList.createLoan(bob, new Book("456", "Title", "Author"));
+        LocalDate originalDueDate = aliceLoan.getDueDate();
+
+        List<Loan> renewed = loanList.renewLoans(loan -> loan.getBorrower() == alice, 7);
+        assertEquals(1, renewed.size());
+        assertSame(aliceLoan, renewed.get(0));
+        assertEquals(originalDueDate.plusDays(7), aliceLoan.getDueDate());
+        assertEquals(originalDueDate, bobLoan.getDueDate());
+        assertEquals(1, loanList.getStatistics().getRenewals());
+
+        // The renewed loan is indexed under its new due date
+        assertEquals(1, loanList.getActiveLoansDueBefore(originalDueDate.plusDays(1)).size());
+        assertEquals(2, loanList.getActiveLoansDueBefore(originalDueDate.plusDays(8)).size());
+    }
+
+    @Test
+    public void testPageLoans() {
+        User alice = new User("alice", false);
+        User bob = new User("bob", false);
+        Loan archived = loanList.createLoan(alice, new Book("123", "Archived", "Author A"));
+        archived.returnBook();
+        loanList.archiveReturnedLoans();
+        loanList.addReturnedLoan(bob, new Book("456", "Imported", "Author B"), LocalDate.now().minusDays(40),
+                LocalDate.now().minusDays(19), LocalDate.now().minusDays(20));
+        Loan current = loanList.createLoan(alice, new Book("789", "Current", "Author C"));
+
+        PagedSource<Loan> all = loanList.pageLoans("", LoanSearchCriteria.ALL, LoanSortCriteria.BOOK_TITLE, true);
+        assertEquals(3, all.size());
+        List<Loan> page = all.fetch(0, 10);
+        assertEquals("Archived", page.get(0).getBook().getTitle());
+        assertSame(current, page.get(1));
+        assertEquals("Imported", page.get(2).getBook().getTitle());
+        assertEquals(1, all.fetch(2, 10).size());
+
+        PagedSource<Loan> aliceLoans = loanList.pageLoans(" ALICE ", LoanSearchCriteria.USER_ID,
+                LoanSortCriteria.STATUS, false);
+        assertEquals(2, aliceLoans.size());
+        assertSame(current, aliceLoans.fetch(0, 1).get(0));
+        assertEquals(archived.getLoanId(), aliceLoans.fetch(1, 1).get(0).getLoanId());
+
+        assertEquals(0, loanList.pageLoans("imported", LoanSearchCriteria.USER_ID,
+                LoanSortCriteria.LOAN_DATE, true).size());
+    }
 }
@@ -0,0 +1,181 @@
+package models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoanStatisticsTest {
+
+    private LoanList loanList;
+    private BookList bookList;
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    public void setUp() {
+        loanList = new LoanList();
+        bookList = new BookList();
+        alice = new User("alice", false);
+        bob = new User("bob", false);
+    }
+
+    private Book addBook(String isbn) {
+        Book book = new Book(isbn, "Title " + isbn, "Author");
+        bookList.addBook(book);
+        bookList.loanBook(book);
+        return book;
+    }
+
+    @Test
+    public void testCountersFollowLoanLifecycle() {
+        Loan first = loanList.createLoan(alice, addBook("1"));
+        loanList.createLoan(alice, addBook("2"));
+        loanList.createLoan(bob, addBook("3"));
+
+        LoanStatistics stats = loanList.getStatistics();
+        assertEquals(3, stats.getTotalLoans());
+        assertEquals(3, stats.getActiveLoans());
+        assertEquals(0, stats.getReturnedLoans());
+        assertEquals(3, stats.getLoansToday());
+        assertEquals(2, stats.getBorrowerCount());
+
+        first.returnBook();
+        stats = loanList.getStatistics();
+        assertEquals(2, stats.getActiveLoans());
+        assertEquals(1, stats.getReturnedLoans());
+        assertEquals(1, loanList.getBorrowerStatistics("alice").getActiveLoans());
+        assertEquals(2, loanList.getBorrowerStatistics("alice").getTotalLoans());
+        assertEquals(0, loanList.getBookStatistics("1").getActiveLoans());
+        assertEquals(1, loanList.getBookStatistics("1").getTotalLoans());
+    }
+
+    @Test
+    public void testOverdueTransition() {
+        Book book = addBook("1");
+        Loan loan = loanList.createLoan(alice, book);
+        loanList.createLoan(bob, addBook("2"));
+
+        // Due dates are 21 days out, so nothing is overdue yet
+        assertEquals(0, loanList.updateOverdueLoans(LocalDate.now(), bookList));
+
+        LocalDate later = LocalDate.now().plusDays(30);
+        assertEquals(2, loanList.updateOverdueLoans(later, bookList));
+        assertEquals(0, loanList.updateOverdueLoans(later, bookList));
+        assertEquals(2, loanList.getStatistics().getOverdueLoans());
+        assertEquals(1, loanList.getBorrowerStatistics("alice").getOverdueLoans());
+        assertEquals(BookStatus.OVERDUE, book.getStatus());
+        assertTrue(loan.isOverdue());
+
+        loan.returnBook();
+        assertEquals(1, loanList.getStatistics().getOverdueLoans());
+        assertEquals(0, loanList.getBorrowerStatistics("alice").getOverdueLoans());
+    }
+
+    @Test
+    public void testRenewalRekeysDueDate() {
+        Loan loan = loanList.createLoan(alice, addBook("1"));
+        loan.renewLoan(30);
+
+        assertEquals(1, loanList.getStatistics().getRenewals());
+        assertEquals(1, loanList.getBorrowerStatistics("alice").getRenewals());
+        // Originally due in 21 days, now due in 51
+        assertEquals(0, loanList.updateOverdueLoans(LocalDate.now().plusDays(30), bookList));
+        assertEquals(1, loanList.updateOverdueLoans(LocalDate.now().plusDays(60), bookList));
+    }
+
+    @Test
+    public void testRenewingReturnedLoanIsRejected() {
+        Loan loan = loanList.createLoan(alice, addBook("1"));
+        loan.returnBook();
+
+        assertThrows(IllegalStateException.class, () -> loan.renewLoan(30));
+        LoanStatistics stats = loanList.getStatistics();
+        assertEquals(0, stats.getActiveLoans());
+        assertEquals(1, stats.getReturnedLoans());
+        assertEquals(0, stats.getRenewals());
+        assertEquals(0, loanList.getBorrowerStatistics("alice").getRenewals());
+        assertEquals(0, loanList.getBookStatistics("1").getRenewals());
+        // The returned loan stays out of the due date index, so it is never marked overdue
+        assertTrue(loanList.getActiveLoansDueBefore(LocalDate.now().plusDays(100)).isEmpty());
+        assertEquals(0, loanList.updateOverdueLoans(LocalDate.now().plusDays(100), bookList));
+        assertEquals(0, loanList.getStatistics().getOverdueLoans());
+    }
+
+    @Test
+    public void testArchivingKeepsCounters() {
+        Loan loan = loanList.createLoan(alice, addBook("1"));
+        loan.returnBook();
+        loanList.archiveReturnedLoans();
+
+        LoanStatistics stats = loanList.getStatistics();
+        assertEquals(1, stats.getTotalLoans());
+        assertEquals(1, stats.getReturnedLoans());
+        assertEquals(0, stats.getActiveLoans());
+    }
+
+    @Test
+    public void testUnknownBorrower() {
+        LoanAggregate aggregate = loanList.getBorrowerStatistics("nobody");
+        assertEquals(0, aggregate.getTotalLoans());
+        assertEquals(0, aggregate.getActiveLoans());
+    }
+
+    @Test
+    public void testReturnedLoansAreArchivedAsTheyPileUp() {
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            loans.add(loanList.createLoan(i % 3 == 0 ? alice : bob, addBook(String.valueOf(i))));
+        }
+        for (int i = 0; i < 2500; i++) {
+            loans.get(i).returnBook();
+        }
+
+        // Most returned loans were archived without an explicit call
+        assertTrue(loanList.archiveReturnedLoans() < 1024);
+        LoanStatistics stats = loanList.getStatistics();
+        assertEquals(3000, stats.getTotalLoans());
+        assertEquals(500, stats.getActiveLoans());
+        assertEquals(2500, stats.getReturnedLoans());
+        assertEquals(3000, stats.getLoansToday());
+        assertEquals(500, loanList.getCurrentLoans().size());
+        assertEquals(1000, loanList.getLoansByBorrower("alice").size());
+        assertEquals(2000, loanList.getLoansByBorrower("bob").size());
+        assertEquals(loans.get(2999).getLoanId(), loanList.getLoansByBorrower("bob").get(1999).getLoanId());
+    }
+
+    @Test
+    public void testOnlyTodaysLoansAreCountedForToday() {
+        LocalDate today = LocalDate.now();
+        loanList.addLoan(new Loan(alice, addBook("1"), today.minusDays(3), today.plusDays(18)));
+        loanList.addLoan(new Loan(bob, addBook("2"), today.minusDays(1), today.plusDays(20)));
+        loanList.createLoan(alice, addBook("3"));
+
+        LoanStatistics stats = loanList.getStatistics();
+        assertEquals(3, stats.getTotalLoans());
+        assertEquals(1, stats.getLoansToday());
+    }
+
+    @Test
+    public void testReturnedLoansFromHistoryAreCounted() {
+        LocalDate loanDate = LocalDate.now().minusDays(30);
+        Book book = new Book("1", "Title 1", "Author");
+        loanList.addReturnedLoan(alice, book, loanDate, loanDate.plusDays(14), loanDate.plusDays(10));
+        loanList.createLoan(alice, addBook("2"));
+
+        LoanStatistics stats = loanList.getStatistics();
+        assertEquals(2, stats.getTotalLoans());
+        assertEquals(1, stats.getReturnedLoans());
+        assertEquals(1, stats.getActiveLoans());
+        assertEquals(2, loanList.getBorrowerStatistics("alice").getTotalLoans());
+        List<Loan> aliceLoans = loanList.getLoansByBorrower("alice");
+        assertEquals(loanDate.plusDays(10), aliceLoans.get(0).getReturnDate());
+        assertNull(loanList.getCurrentLoan("1"));
+        assertThrows(IllegalArgumentException.class,
+                () -> loanList.addReturnedLoan(alice, book, loanDate, loanDate.plusDays(14), null));
+    }
+}
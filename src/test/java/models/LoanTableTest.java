@@ -0,0 +1,171 @@
+package models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoanTableTest {
+
+    private LoanTable loanTable;
+    private User alice;
+    private User bob;
+    private Book book;
+
+    @BeforeEach
+    public void setUp() {
+        loanTable = new LoanTable();
+        alice = new User("alice", false);
+        bob = new User("bob", false);
+        book = new Book("123", "Test Book", "Author A");
+    }
+
+    @Test
+    public void testAddAndGetLoan() {
+        Loan loan = new Loan(alice, book, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 22));
+        loan.returnBook();
+        int row = loanTable.addLoan(loan);
+
+        Loan view = loanTable.getLoan(row);
+        assertEquals(1, loanTable.size());
+        assertEquals(loan.getLoanId(), view.getLoanId());
+        assertEquals(loan.getLoanDate(), view.getLoanDate());
+        assertEquals(loan.getDueDate(), view.getDueDate());
+        assertEquals(loan.getReturnDate(), view.getReturnDate());
+        assertTrue(view.isReturned());
+        assertSame(alice, view.getBorrower());
+        assertSame(book, view.getBook());
+    }
+
+    @Test
+    public void testUnreturnedLoanHasNoReturnDate() {
+        Loan loan = new Loan(alice, book, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 22));
+        int row = loanTable.addLoan(loan);
+        assertEquals(Integer.MIN_VALUE, loanTable.getReturnEpochDay(row));
+        assertNull(loanTable.getLoan(row).getReturnDate());
+        assertFalse(loanTable.getLoan(row).isReturned());
+    }
+
+    @Test
+    public void testSharedDictionaries() {
+        for (int i = 0; i < 100; i++) {
+            LocalDate loanDate = LocalDate.of(2023, 1, 1).plusDays(i);
+            loanTable.addLoan(new Loan(i % 2 == 0 ? alice : bob, book, loanDate, loanDate.plusDays(21)));
+        }
+        assertEquals(100, loanTable.size());
+        assertEquals(loanTable.getBookOrdinal(0), loanTable.getBookOrdinal(99));
+        assertNotEquals(loanTable.getUserOrdinal(0), loanTable.getUserOrdinal(1));
+        assertEquals((int) LocalDate.of(2023, 1, 1).plusDays(99).toEpochDay(), loanTable.getLoanEpochDay(99));
+    }
+
+    @Test
+    public void testGetLoansByBorrower() {
+        loanTable.addLoan(new Loan(alice, book, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 22)));
+        loanTable.addLoan(new Loan(bob, book, LocalDate.of(2023, 2, 1), LocalDate.of(2023, 2, 22)));
+        loanTable.addLoan(new Loan(alice, book, LocalDate.of(2023, 3, 1), LocalDate.of(2023, 3, 22)));
+
+        List<Loan> aliceLoans = loanTable.getLoansByBorrower("alice");
+        assertEquals(2, aliceLoans.size());
+        assertEquals(LocalDate.of(2023, 3, 1), aliceLoans.get(1).getLoanDate());
+        assertTrue(loanTable.getLoansByBorrower("nobody").isEmpty());
+    }
+
+    @Test
+    public void testAddInvalidLoan() {
+        assertThrows(IllegalArgumentException.class, () -> loanTable.addLoan(null));
+        assertThrows(IndexOutOfBoundsException.class, () -> loanTable.getLoan(0));
+    }
+
+    @Test
+    public void testGetLoansByBorrowerAmongManyBorrowers() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            users.add(new User("user" + i, false));
+        }
+        for (int round = 0; round < 3; round++) {
+            for (User user : users) {
+                LocalDate loanDate = LocalDate.of(2023, 1, 1).plusDays(round);
+                loanTable.addLoan(new Loan(user, book, loanDate, loanDate.plusDays(21)));
+            }
+        }
+
+        List<Loan> loans = loanTable.getLoansByBorrower("user150");
+        assertEquals(3, loans.size());
+        for (int round = 0; round < 3; round++) {
+            assertEquals("user150", loans.get(round).getBorrower().getId());
+            assertEquals(LocalDate.of(2023, 1, 1).plusDays(round), loans.get(round).getLoanDate());
+        }
+
+        loanTable.clear();
+        assertTrue(loanTable.getLoansByBorrower("user150").isEmpty());
+        loanTable.addLoan(new Loan(users.get(150), book, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 22)));
+        assertEquals(1, loanTable.getLoansByBorrower("user150").size());
+    }
+
+    @Test
+    public void testSelectRowsFiltersAndSorts() {
+        Book other = new Book("456", "Other Book", "Author B");
+        LocalDate today = LocalDate.now();
+        Loan returned = new Loan(alice, book, today.minusDays(30), today.minusDays(9));
+        returned.returnBook();
+        loanTable.addLoan(returned);
+        loanTable.addLoan(new Loan(bob, other, today.minusDays(25), today.minusDays(4)));
+        loanTable.addLoan(new Loan(alice, other, today.minusDays(1), today.plusDays(20)));
+        long epochDay = today.toEpochDay();
+
+        assertArrayEquals(new int[] {2, 1, 0},
+                loanTable.selectRows("", LoanSearchCriteria.ALL, LoanSortCriteria.LOAN_DATE, false, epochDay));
+        assertArrayEquals(new int[] {0, 2},
+                loanTable.selectRows("alice", LoanSearchCriteria.USER_ID, LoanSortCriteria.LOAN_DATE, true, epochDay));
+        assertArrayEquals(new int[] {1},
+                loanTable.selectRows("overdue", LoanSearchCriteria.STATUS, LoanSortCriteria.LOAN_DATE, true, epochDay));
+        assertArrayEquals(new int[] {2, 1},
+                loanTable.selectRows("other", LoanSearchCriteria.BOOK_TITLE, LoanSortCriteria.STATUS, true, epochDay));
+        assertEquals(0, loanTable.selectRows("alice", LoanSearchCriteria.BOOK_ISBN, LoanSortCriteria.LOAN_DATE,
+                true, epochDay).length);
+    }
+
+    @Test
+    public void testSelectRowsOrdersLikeLoanComparators() {
+        List<User> users = List.of(alice, bob, new User("carol", false));
+        List<Book> books = List.of(book, new Book("456", "Test Book", "Author B"),
+                new Book("789", "Another Book", "Author A"));
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 60; i++) {
+            LocalDate loanDate = today.minusDays(i % 7 * 5);
+            Loan loan = new Loan(users.get(i % 3), books.get(i % 5 % 3), loanDate, loanDate.plusDays(21));
+            if (i % 4 == 0) {
+                loan.returnBook();
+            }
+            loanTable.addLoan(loan);
+        }
+        List<Loan> loans = loanTable.getLoans();
+        long epochDay = today.toEpochDay();
+
+        for (LoanSearchCriteria criteria : LoanSearchCriteria.values()) {
+            for (String query : List.of("", "a", "test", "borrowed")) {
+                for (LoanSortCriteria sortCriteria : LoanSortCriteria.values()) {
+                    for (boolean ascending : new boolean[] {true, false}) {
+                        List<Integer> expected = new ArrayList<>();
+                        for (int row = 0; row < loans.size(); row++) {
+                            if (query.isEmpty() || criteria.matches(loans.get(row), query, epochDay)) {
+                                expected.add(row);
+                            }
+                        }
+                        expected.sort((a, b) -> LoanComparators.comparator(sortCriteria, ascending)
+                                .compare(loans.get(a), loans.get(b)));
+
+                        int[] rows = loanTable.selectRows(query, criteria, sortCriteria, ascending, epochDay);
+                        assertEquals(expected.toString(), Arrays.toString(rows),
+                                criteria + " \"" + query + "\" by " + sortCriteria + (ascending ? " asc" : " desc"));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ReservationListTest {
+
+    private ReservationList reservationList;
+
+    @BeforeEach
+    public void setUp() {
+        reservationList = new ReservationList();
+    }
+
+    @Test
+    public void testReserveQueuesInOrder() {
+        assertEquals(1, reservationList.reserve("123", "alice"));
+        assertEquals(2, reservationList.reserve("123", "bob"));
+        assertEquals(2, reservationList.getQueueLength("123"));
+        assertEquals(List.of("alice", "bob"), reservationList.getQueues().get("123"));
+        assertEquals(0, reservationList.getQueueLength("456"));
+    }
+
+    @Test
+    public void testReserveTwiceFails() {
+        reservationList.reserve("123", "alice");
+        assertThrows(IllegalStateException.class, () -> reservationList.reserve("123", "alice"));
+    }
+
+    @Test
+    public void testHandOff() {
+        reservationList.reserve("123", "alice");
+        reservationList.reserve("123", "bob");
+
+        assertEquals("alice", reservationList.handOff("123"));
+        assertEquals("alice", reservationList.getHolder("123"));
+        assertEquals(1, reservationList.getQueueLength("123"));
+        assertThrows(IllegalStateException.class, () -> reservationList.reserve("123", "alice"));
+
+        assertEquals("bob", reservationList.handOff("123"));
+        assertFalse(reservationList.hasReservations("123"));
+        assertNull(reservationList.handOff("123"));
+        assertNull(reservationList.getHolder("123"));
+    }
+
+    @Test
+    public void testCancel() {
+        reservationList.reserve("123", "alice");
+        reservationList.reserve("123", "bob");
+        assertTrue(reservationList.cancel("123", "alice"));
+        assertFalse(reservationList.cancel("123", "alice"));
+        assertEquals("bob", reservationList.handOff("123"));
+    }
+
+    @Test
+    public void testRemoveBook() {
+        reservationList.reserve("123", "alice");
+        reservationList.setHold("123", "bob");
+        reservationList.removeBook("123");
+        assertEquals(0, reservationList.getQueueLength("123"));
+        assertNull(reservationList.getHolder("123"));
+    }
+
+    @Test
+    public void testGetQueue() {
+        reservationList.reserve("123", "alice");
+        reservationList.reserve("123", "bob");
+        assertEquals(List.of("alice", "bob"), reservationList.getQueue("123"));
+        assertTrue(reservationList.getQueue("456").isEmpty());
+    }
+}
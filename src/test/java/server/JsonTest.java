@@ -0,0 +1,41 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import models.Book;
+import models.BookStatus;
+import org.junit.jupiter.api.Test;
+
+public class JsonTest {
+
+    @Test
+    public void testFieldTypes() {
+        String json = new Json()
+                .field("name", "Dune")
+                .field("count", 3)
+                .field("rate", 0.5)
+                .field("open", true)
+                .field("status", BookStatus.AVAILABLE)
+                .field("missing", null)
+                .rawField("list", "[]")
+                .build();
+        assertEquals("{\"name\":\"Dune\",\"count\":3,\"rate\":0.5,\"open\":true,"
+                + "\"status\":\"AVAILABLE\",\"missing\":null,\"list\":[]}", json);
+    }
+
+    @Test
+    public void testQuoteEscapes() {
+        assertEquals("\"say \\\"hi\\\"\\n\\\\ \\u0001\"", Json.quote("say \"hi\"\n\\ \u0001"));
+    }
+
+    @Test
+    public void testBooks() {
+        Book book = new Book("123", "Dune", "Frank Herbert");
+        book.setStatus(BookStatus.CHECKED_OUT);
+        assertEquals("[{\"isbn\":\"123\",\"title\":\"Dune\",\"author\":\"Frank Herbert\",\"status\":\"CHECKED_OUT\"}]",
+                Json.books(List.of(book)));
+        assertEquals("[]", Json.books(List.of()));
+    }
+}
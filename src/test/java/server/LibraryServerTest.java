@@ -0,0 +1,150 @@
+package server;
+
+import models.BookList;
+import models.UserPreferences;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import service.LibraryService;
+import storage.GeneralStorage;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LibraryServerTest {
+    private MockedStatic<GeneralStorage> generalStorageMock;
+    private LibraryService libraryService;
+    private LibraryServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        generalStorageMock = Mockito.mockStatic(GeneralStorage.class);
+        generalStorageMock.when(() -> GeneralStorage.loadBookList(Mockito.anyString())).thenReturn(new BookList());
+        generalStorageMock.when(() -> GeneralStorage.loadUserPreferences(Mockito.anyString()))
+                .thenReturn(new UserPreferences());
+
+        libraryService = new LibraryService();
+        libraryService.addBook("111", "Dune", "Frank Herbert");
+        libraryService.addBook("222", "Emma", "Jane Austen");
+
+        server = new LibraryServer(libraryService, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+        generalStorageMock.close();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String form) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testListAndSearchBooks() throws Exception {
+        HttpResponse<String> response = get("/books?sort=title&order=desc");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+        assertTrue(response.body().indexOf("Emma") < response.body().indexOf("Dune"));
+
+        response = get("/books/search?q=austen&by=author");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"isbn\":\"222\""));
+        assertFalse(response.body().contains("\"isbn\":\"111\""));
+
+        assertEquals(400, get("/books/search").statusCode());
+        assertEquals(400, get("/books?sort=colour").statusCode());
+    }
+
+    @Test
+    void testGetBook() throws Exception {
+        HttpResponse<String> response = get("/books/111");
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"isbn\":\"111\",\"title\":\"Dune\",\"author\":\"Frank Herbert\",\"status\":\"AVAILABLE\"}",
+                response.body());
+        assertEquals(404, get("/books/999").statusCode());
+    }
+
+    @Test
+    void testLoanAndReturn() throws Exception {
+        HttpResponse<String> response = post("/loans", "isbn=111&user=alice");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("CHECKED_OUT"));
+
+        assertEquals(409, post("/loans", "isbn=111&user=bob").statusCode());
+        assertEquals(400, post("/loans", "isbn=111").statusCode());
+        assertEquals(404, post("/loans", "isbn=999&user=bob").statusCode());
+        assertEquals(405, get("/loans?isbn=222&user=bob").statusCode());
+
+        response = post("/returns?isbn=111", "");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("AVAILABLE"));
+        assertEquals(409, post("/returns?isbn=111", "").statusCode());
+        assertEquals(404, post("/returns?isbn=999", "").statusCode());
+    }
+
+    @Test
+    void testStats() throws Exception {
+        post("/loans", "isbn=111&user=alice");
+        HttpResponse<String> response = get("/stats");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"books\":2"));
+        assertTrue(response.body().contains("\"activeLoans\":1"));
+    }
+
+    @Test
+    void testConcurrentLoansShareOneService() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> loans = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String user = "user" + i;
+                loans.add(() -> post("/loans", "isbn=111&user=" + user).statusCode());
+            }
+            Map<Integer, Integer> statusCounts = new HashMap<>();
+            for (Future<Integer> status : pool.invokeAll(loans)) {
+                statusCounts.merge(status.get(), 1, Integer::sum);
+            }
+            assertEquals(1, statusCounts.get(200));
+            assertEquals(7, statusCounts.get(409));
+            assertEquals(1, libraryService.getStatistics().getActiveLoans());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testParseQuery() {
+        Map<String, String> params = new HashMap<>();
+        LibraryServer.parseQuery("q=jane+austen&flag&isbn=%39%37%38", params);
+        assertEquals("jane austen", params.get("q"));
+        assertEquals("", params.get("flag"));
+        assertEquals("978", params.get("isbn"));
+    }
+}
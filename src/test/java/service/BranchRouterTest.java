@@ -0,0 +1,118 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import models.Book;
+import models.BookList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BranchRouterTest {
+
+    private Branch main;
+    private Branch north;
+    private BranchRouter router;
+
+    @BeforeEach
+    public void setUp() {
+        main = new Branch("main", new BookList(), Paths.get("main.txt"), event -> { });
+        north = new Branch("north", new BookList(), Paths.get("north.txt"), event -> { });
+        router = new BranchRouter(List.of(main, north));
+        main.getBookList().addBook(new Book("111", "Dune", "Frank Herbert"));
+        north.getBookList().addBook(new Book("222", "Emma", "Jane Austen"));
+    }
+
+    @Test
+    public void testInvalidBranches() {
+        assertThrows(IllegalArgumentException.class, () -> new BranchRouter(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new BranchRouter(List.of(main, main)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Branch("no spaces", new BookList(), Paths.get("x.txt"), event -> { }));
+    }
+
+    @Test
+    public void testRoute() {
+        assertSame(main, router.route("111"));
+        assertSame(north, router.route("222"));
+        assertSame(north, router.owner("222"));
+        assertNull(router.owner("999"));
+        assertSame(main, router.route("999"));
+        assertSame(main, router.route((String) null));
+        assertSame(north, router.getBranch("north"));
+        assertThrows(IllegalArgumentException.class, () -> router.getBranch("south"));
+        assertEquals(List.of("main", "north"), router.getBranchIds());
+    }
+
+    @Test
+    public void testFanOut() {
+        List<String> sizes = router.fanOut(branch -> branch.getId() + ":" + branch.getBookList().getBooks().size());
+        assertEquals(List.of("main:1", "north:1"), sizes);
+
+        List<Book> books = router.collect(branch -> branch.getBookList().getBooks().values());
+        assertEquals(2, books.size());
+
+        assertThrows(IllegalStateException.class, () -> router.fanOut(branch -> {
+            if (branch == north) {
+                throw new IllegalStateException("north is offline");
+            }
+            return branch.getId();
+        }));
+    }
+
+    @Test
+    public void testLockRoutedBooks() {
+        Map<String, Branch> routes = router.route(List.of("111", "222"));
+        List<ReentrantLock> locks = router.lock(routes);
+        assertEquals(2, locks.size());
+        assertTrue(main.lockFor("111").isHeldByCurrentThread());
+        assertTrue(north.lockFor("222").isHeldByCurrentThread());
+        router.unlock(locks);
+        assertFalse(main.lockFor("111").isLocked());
+        assertFalse(north.lockFor("222").isLocked());
+    }
+
+    @Test
+    public void testCatalogChangesTracked() {
+        assertTrue(main.takeCatalogChanged());
+        assertTrue(north.takeCatalogChanged());
+        assertFalse(main.takeCatalogChanged());
+
+        main.getBookList().loanBook(main.getBookList().getBook("111"));
+        assertTrue(main.takeCatalogChanged());
+        assertFalse(north.takeCatalogChanged());
+    }
+
+    @Test
+    public void testInterruptedFanOutStopsOtherBranches() throws InterruptedException {
+        CountDownLatch northStarted = new CountDownLatch(1);
+        CountDownLatch northStopped = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        assertThrows(CancellationException.class, () -> router.fanOut(branch -> {
+            if (branch == north) {
+                northStarted.countDown();
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.onSpinWait();
+                }
+                northStopped.countDown();
+            } else {
+                try {
+                    northStarted.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                caller.interrupt();
+            }
+            return branch.getId();
+        }));
+        assertTrue(Thread.interrupted());
+        assertTrue(northStopped.await(5, TimeUnit.SECONDS));
+    }
+}
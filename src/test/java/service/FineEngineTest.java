@@ -0,0 +1,140 @@
+package service;
+
+import models.*;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FineEngineTest {
+    private FineEngine fineEngine;
+    private LoanList loanList;
+    private User alice;
+    private User bob;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        // 10 per day, capped at 50 (reached after 5 days)
+        fineEngine = new FineEngine(new FinePolicy(10, 50));
+        loanList = new LoanList();
+        alice = new User("alice", false);
+        bob = new User("bob", false);
+        today = LocalDate.of(2024, 1, 31);
+    }
+
+    private Loan addLoan(User user, String isbn, LocalDate dueDate) {
+        Loan loan = new Loan(user, new Book(isbn, "Title", "Author"), dueDate.minusDays(21), dueDate);
+        loanList.addLoan(loan);
+        return loan;
+    }
+
+    @Test
+    void testInitialAssessment() {
+        addLoan(alice, "1", today.minusDays(2));
+        addLoan(alice, "2", today.minusDays(10));
+        addLoan(bob, "3", today.plusDays(3));
+
+        long charged = fineEngine.assess(today, loanList);
+        assertEquals(20 + 50, charged);
+        assertEquals(70, fineEngine.getFine("alice"));
+        assertEquals(0, fineEngine.getFine("bob"));
+    }
+
+    @Test
+    void testIncrementalAssessmentMatchesFullRecompute() {
+        addLoan(alice, "1", today.minusDays(2));
+        addLoan(alice, "2", today.minusDays(10));
+        addLoan(bob, "3", today.plusDays(1));
+
+        fineEngine.assess(today, loanList);
+        fineEngine.assess(today.plusDays(1), loanList);
+        fineEngine.assess(today.plusDays(4), loanList);
+
+        FineEngine fresh = new FineEngine(new FinePolicy(10, 50));
+        fresh.assess(today.plusDays(4), loanList);
+        assertEquals(fresh.getLedger(), fineEngine.getLedger());
+        assertEquals(100, fineEngine.getFine("alice"));
+        assertEquals(30, fineEngine.getFine("bob"));
+    }
+
+    @Test
+    void testAssessingSameDayTwiceChargesOnce() {
+        addLoan(alice, "1", today.minusDays(2));
+        fineEngine.assess(today, loanList);
+        assertEquals(0, fineEngine.assess(today, loanList));
+        assertEquals(20, fineEngine.getFine("alice"));
+    }
+
+    @Test
+    void testUncappedPolicy() {
+        fineEngine.setPolicy(new FinePolicy(10, 0));
+        addLoan(alice, "1", today.minusDays(100));
+        fineEngine.assess(today, loanList);
+        fineEngine.assess(today.plusDays(10), loanList);
+        assertEquals(1100, fineEngine.getFine("alice"));
+    }
+
+    @Test
+    void testAssessReturnChargesAccruedDays() {
+        Loan loan = addLoan(alice, "1", today.minusDays(1));
+        fineEngine.assess(today, loanList);
+        assertEquals(20, fineEngine.assessReturn(loan, today.plusDays(2)));
+        assertEquals(30, fineEngine.getFine("alice"));
+    }
+
+    @Test
+    void testParallelAssessment() {
+        for (int i = 0; i < 20_000; i++) {
+            addLoan(i % 2 == 0 ? alice : bob, String.valueOf(i), today.minusDays(1 + i % 3));
+        }
+        fineEngine.assess(today, loanList);
+        Map<String, Long> ledger = fineEngine.getLedger();
+        long expected = 0;
+        for (int i = 0; i < 20_000; i += 2) {
+            expected += 10 * (1 + i % 3);
+        }
+        assertEquals(expected, ledger.get("alice").longValue());
+    }
+
+    @Test
+    void testPolicyChangeAppliesOnlyToLaterDays() {
+        // Reaches the cap of 50 at the first assessment
+        addLoan(alice, "1", today.minusDays(10));
+        addLoan(bob, "2", today.minusDays(2));
+        fineEngine.assess(today, loanList);
+        assertEquals(50, fineEngine.getFine("alice"));
+        assertEquals(20, fineEngine.getFine("bob"));
+
+        // Days already charged keep their old rate; the capped loan accrues again up to the new cap
+        fineEngine.setPolicy(new FinePolicy(30, 100));
+        assertEquals(30 + 30, fineEngine.assess(today.plusDays(1), loanList));
+        assertEquals(80, fineEngine.getFine("alice"));
+        assertEquals(50, fineEngine.getFine("bob"));
+
+        // A lower cap stops further fines without refunding any
+        fineEngine.setPolicy(new FinePolicy(30, 60));
+        assertEquals(10, fineEngine.assess(today.plusDays(2), loanList));
+        assertEquals(80, fineEngine.getFine("alice"));
+        assertEquals(60, fineEngine.getFine("bob"));
+    }
+
+    @Test
+    void testPayFine() {
+        addLoan(alice, "1", today.minusDays(3));
+        fineEngine.assess(today, loanList);
+        fineEngine.payFine("alice", 10);
+        assertEquals(20, fineEngine.getFine("alice"));
+        assertThrows(IllegalArgumentException.class, () -> fineEngine.payFine("alice", 100));
+        fineEngine.payFine("alice", 20);
+        assertEquals(0, fineEngine.getFine("alice"));
+    }
+
+    @Test
+    void testInvalidPolicy() {
+        assertThrows(IllegalArgumentException.class, () -> new FinePolicy(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new FineEngine(null));
+    }
+}
@@ -0,0 +1,96 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import models.Book;
+import models.BookStatus;
+import models.LibraryEvent;
+import models.Loan;
+import models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LibraryEventBusTest {
+
+    private LibraryEventBus eventBus;
+    private List<List<LibraryEvent>> deliveries;
+    private Book book;
+
+    @BeforeEach
+    public void setUp() {
+        eventBus = new LibraryEventBus();
+        deliveries = new ArrayList<>();
+        eventBus.subscribe(deliveries::add);
+        book = new Book("123", "Title", "Author");
+    }
+
+    @Test
+    public void testPublishOutsideBatchDeliversImmediately() {
+        eventBus.publish(new LibraryEvent.BookAdded(book));
+        assertEquals(1, deliveries.size());
+        assertEquals(LibraryEvent.Type.BOOK_ADDED, deliveries.get(0).get(0).getType());
+    }
+
+    @Test
+    public void testBatchDeliversOnceWhenOutermostBatchEnds() {
+        eventBus.beginBatch();
+        eventBus.publish(new LibraryEvent.StatusChanged(book, BookStatus.AVAILABLE, BookStatus.CHECKED_OUT));
+        eventBus.beginBatch();
+        eventBus.publish(new LibraryEvent.LoanCreated(
+                new Loan(new User("alice", false), book, LocalDate.now(), LocalDate.now().plusDays(21))));
+        eventBus.endBatch();
+        assertTrue(deliveries.isEmpty());
+        eventBus.endBatch();
+
+        assertEquals(1, deliveries.size());
+        assertEquals(2, deliveries.get(0).size());
+        assertThrows(IllegalStateException.class, () -> eventBus.endBatch());
+    }
+
+    @Test
+    public void testStatusChangesCoalesce() {
+        List<LibraryEvent> events = LibraryEventBus.coalesce(List.of(
+                new LibraryEvent.StatusChanged(book, BookStatus.AVAILABLE, BookStatus.CHECKED_OUT),
+                new LibraryEvent.StatusChanged(book, BookStatus.CHECKED_OUT, BookStatus.ON_HOLD)));
+        assertEquals(1, events.size());
+        LibraryEvent.StatusChanged change = (LibraryEvent.StatusChanged) events.get(0);
+        assertEquals(BookStatus.AVAILABLE, change.getOldStatus());
+        assertEquals(BookStatus.ON_HOLD, change.getNewStatus());
+
+        // A change that is undone in the same batch disappears
+        assertTrue(LibraryEventBus.coalesce(List.of(
+                new LibraryEvent.StatusChanged(book, BookStatus.AVAILABLE, BookStatus.CHECKED_OUT),
+                new LibraryEvent.StatusChanged(book, BookStatus.CHECKED_OUT, BookStatus.AVAILABLE))).isEmpty());
+    }
+
+    @Test
+    public void testAddedBookCoalesces() {
+        Book other = new Book("456", "Other", "Author");
+        List<LibraryEvent> events = LibraryEventBus.coalesce(List.of(
+                new LibraryEvent.BookAdded(book),
+                new LibraryEvent.BookAdded(other),
+                new LibraryEvent.StatusChanged(book, BookStatus.AVAILABLE, BookStatus.CHECKED_OUT),
+                new LibraryEvent.StatusChanged(other, BookStatus.AVAILABLE, BookStatus.CHECKED_OUT),
+                new LibraryEvent.StatusChanged(other, BookStatus.CHECKED_OUT, BookStatus.AVAILABLE),
+                new LibraryEvent.BookRemoved(other)));
+        assertEquals(1, events.size());
+        assertEquals(LibraryEvent.Type.BOOK_ADDED, events.get(0).getType());
+        assertEquals("123", events.get(0).getIsbn());
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStopOthers() {
+        eventBus.subscribe(events -> {
+            throw new IllegalStateException("broken view");
+        });
+        List<List<LibraryEvent>> later = new ArrayList<>();
+        eventBus.subscribe(later::add);
+        eventBus.publish(new LibraryEvent.BookAdded(book));
+        assertEquals(1, deliveries.size());
+        assertEquals(1, later.size());
+    }
+}
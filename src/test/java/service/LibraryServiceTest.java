@@ -1,15 +1,29 @@
 package service;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import metrics.MetricsRegistry;
 import models.*;
 import storage.GeneralStorage;
+import utils.PagedSource;
 import org.junit.jupiter.api.*;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -172,6 +186,64 @@ class LibraryServiceTest {
         assertEquals("123", myLoans.get(0).getBook().getIsbn());
     }
 
+    @Test
+    void testGetLoansByBorrower() {
+        libraryService.addBook("123", "Test Book", "Author A");
+        libraryService.addBook("456", "Other Book", "Author B");
+        libraryService.loanBook("123", new User("desk-1", false));
+        libraryService.loanBook("456", new User("desk-2", false));
+
+        List<Loan> loans = libraryService.getLoansByBorrower("desk-1");
+        assertEquals(1, loans.size());
+        assertEquals("123", loans.get(0).getBook().getIsbn());
+        assertTrue(libraryService.getLoansByBorrower("nobody").isEmpty());
+    }
+
+    @Test
+    void testOperationsAreTimed() {
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        long loans = metrics.timer("library.loan").getHistogram().getCount();
+        long loanFailures = metrics.counter("library.loan.failures").get();
+        long returns = metrics.timer("library.return").getHistogram().getCount();
+
+        libraryService.addBook("123", "Test Book", "Author A");
+        libraryService.loanBook("123", new User("desk-1", false));
+        assertThrows(IllegalStateException.class, () -> libraryService.loanBook("123", new User("desk-2", false)));
+        libraryService.returnBook("123");
+
+        assertEquals(loans + 2, metrics.timer("library.loan").getHistogram().getCount());
+        assertEquals(loanFailures + 1, metrics.counter("library.loan.failures").get());
+        assertEquals(returns + 1, metrics.timer("library.return").getHistogram().getCount());
+        assertEquals(1.0, metrics.snapshot().getGauges().get("library.books"));
+        assertEquals(0.0, metrics.snapshot().getGauges().get("library.loans.active"));
+    }
+
+    @Test
+    void testMutationsAreRecordedByFlightRecorder() throws Exception {
+        libraryService.addBook("123", "Test Book", "Author A");
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("library.Mutation");
+            recording.start();
+            libraryService.loanBook("123", new User("desk-1", false));
+            assertThrows(IllegalStateException.class, () -> libraryService.loanBook("123", new User("desk-2", false)));
+            libraryService.returnBook("123");
+            recording.stop();
+            Path file = Files.createTempFile("mutations", ".jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+            Files.delete(file);
+        }
+
+        assertEquals(3, events.size());
+        assertEquals("loan", events.get(0).getString("operation"));
+        assertEquals("desk-1", events.get(0).getString("user"));
+        assertTrue(events.get(0).getBoolean("succeeded"));
+        assertFalse(events.get(1).getBoolean("succeeded"));
+        assertEquals("return", events.get(2).getString("operation"));
+        assertEquals("123", events.get(2).getString("isbn"));
+    }
+
     @Test
     void testViewLoansSorted() {
         User user = new User("1", false);
@@ -405,6 +477,22 @@ class LibraryServiceTest {
         assertEquals("Zebra", sortedByTitleDesc.get(0).getTitle());
         assertEquals("Apple", sortedByTitleDesc.get(1).getTitle());
     }
+
+    @Test
+    void testPagedBooksMatchSortedBooks() {
+        libraryService.addBook("123", "Zebra", "Author Z");
+        libraryService.addBook("456", "Apple", "Author A");
+        libraryService.addBook("789", "Java Basics", "Author J");
+
+        PagedSource<Book> sorted = libraryService.pageSortedBooks(SortCriteria.TITLE, true);
+        assertEquals(3, sorted.size());
+        assertEquals(libraryService.sortBooks(SortCriteria.TITLE, true), sorted.fetch(0, 10));
+        assertEquals("Zebra", sorted.fetch(2, 1).get(0).getTitle());
+
+        PagedSource<Book> results = libraryService.pageSearchResults("a", SearchCriteria.TITLE, SortCriteria.TITLE, false);
+        assertEquals(libraryService.searchAndSortBooks("a", SearchCriteria.TITLE, SortCriteria.TITLE, false),
+                results.fetch(0, 10));
+    }
     
     @Test
     void testSortLoans() {
@@ -514,4 +602,368 @@ class LibraryServiceTest {
         libraryService.returnBook("nonexistent");
         assertTrue(outContent.toString().contains("Book not found"));
     }
+
+    @Test
+    void testGetStatistics() {
+        User user = new User("1", false);
+        libraryService.setCurrentUser(user);
+        libraryService.addBook("123", "Book 1", "Author 1");
+        libraryService.addBook("456", "Book 2", "Author 2");
+        libraryService.loanBook("123");
+        libraryService.loanBook("456");
+        libraryService.returnBook("123");
+
+        LoanStatistics stats = libraryService.getStatistics();
+        assertEquals(2, stats.getTotalLoans());
+        assertEquals(1, stats.getActiveLoans());
+        assertEquals(1, stats.getReturnedLoans());
+        assertEquals(1, libraryService.getBorrowerStatistics("1").getActiveLoans());
+        assertEquals(1, libraryService.getBookStatistics("123").getTotalLoans());
+    }
+
+    @Test
+    void testReturnHandsBookToReservationQueue() {
+        libraryService.addBook("123", "Book 1", "Author 1");
+        libraryService.setCurrentUser(new User("1", false));
+        libraryService.loanBook("123");
+
+        libraryService.setCurrentUser(new User("2", false));
+        assertEquals(1, libraryService.reserveBook("123"));
+        assertEquals(1, libraryService.getReservationCount("123"));
+
+        libraryService.returnBook("123");
+        Book book = dummyBookList.getBook("123");
+        assertEquals(BookStatus.ON_HOLD, book.getStatus());
+        assertEquals("2", libraryService.getHoldUser("123"));
+        assertEquals(0, libraryService.getReservationCount("123"));
+
+        libraryService.setCurrentUser(new User("3", false));
+        Exception exception = assertThrows(IllegalStateException.class, () ->
+                libraryService.loanBook("123")
+        );
+        assertTrue(exception.getMessage().contains("on hold"));
+
+        libraryService.setCurrentUser(new User("2", false));
+        libraryService.loanBook("123");
+        assertEquals(BookStatus.CHECKED_OUT, book.getStatus());
+        assertNull(libraryService.getHoldUser("123"));
+    }
+
+    @Test
+    void testReserveOwnLoanFails() {
+        libraryService.addBook("123", "Book 1", "Author 1");
+        libraryService.setCurrentUser(new User("1", false));
+        libraryService.loanBook("123");
+
+        Exception exception = assertThrows(IllegalStateException.class, () -> libraryService.reserveBook("123"));
+        assertTrue(exception.getMessage().contains("on loan"));
+        assertEquals(0, libraryService.getReservationCount("123"));
+    }
+
+    @Test
+    void testReserveOwnHoldFails() {
+        libraryService.addBook("123", "Book 1", "Author 1");
+        libraryService.setCurrentUser(new User("1", false));
+        libraryService.loanBook("123");
+        libraryService.setCurrentUser(new User("2", false));
+        libraryService.reserveBook("123");
+        libraryService.returnBook("123");
+        assertEquals("2", libraryService.getHoldUser("123"));
+
+        Exception exception = assertThrows(IllegalStateException.class, () -> libraryService.reserveBook("123"));
+        assertTrue(exception.getMessage().contains("on hold"));
+        assertEquals(0, libraryService.getReservationCount("123"));
+    }
+
+    @Test
+    void testCancelMissingReservationSavesNothing() {
+        libraryService.addBook("123", "Book 1", "Author 1");
+        libraryService.setCurrentUser(new User("1", false));
+        libraryService.loanBook("123");
+        libraryService.saveChanges();
+        generalStorageMock.clearInvocations();
+
+        libraryService.setCurrentUser(new User("2", false));
+        assertFalse(libraryService.cancelReservation("123"));
+        libraryService.saveChanges();
+        generalStorageMock.verify(() -> GeneralStorage.saveReservations(Mockito.anyString(), Mockito.any()),
+                Mockito.never());
+    }
+
+    @Test
+    void testReserveAvailableBookFails() {
+        libraryService.setCurrentUser(new User("1", false));
+        libraryService.addBook("123", "Book 1", "Author 1");
+        assertThrows(IllegalStateException.class, () -> libraryService.reserveBook("123"));
+    }
+
+    @Test
+    void testLoanLimitEnforced() {
+        libraryService.setCurrentUser(new User("1", false));
+        libraryService.setLoanLimitPolicy(new LoanLimitPolicy(2, 0));
+        libraryService.addBook("123", "Book 1", "Author 1");
+        libraryService.addBook("456", "Book 2", "Author 2");
+        libraryService.addBook("789", "Book 3", "Author 3");
+        libraryService.loanBook("123");
+        libraryService.loanBook("456");
+
+        Exception exception = assertThrows(IllegalStateException.class, () ->
+                libraryService.loanBook("789")
+        );
+        assertTrue(exception.getMessage().contains("Loan limit reached"));
+
+        // Returning a book frees up a slot
+        libraryService.returnBook("123");
+        libraryService.loanBook("789");
+        assertEquals(BookStatus.CHECKED_OUT, dummyBookList.getBook("789").getStatus());
+    }
+
+    @Test
+    void testRenewLoans() {
+        libraryService.setCurrentUser(new User("1", false));
+        libraryService.addBook("123", "Book 1", "Author 1");
+        libraryService.addBook("456", "Book 2", "Author 2");
+        libraryService.loanBook("123");
+        libraryService.loanBook("456");
+        libraryService.setCurrentUser(new User("2", false));
+        libraryService.addBook("789", "Book 3", "Author 3");
+        libraryService.loanBook("789");
+
+        libraryService.setCurrentUser(new User("1", false));
+        assertEquals(2, libraryService.renewMyLoans(7));
+        assertEquals(3, libraryService.renewLoans(loan -> true, 0));
+
+        for (Loan loan : libraryService.getAllLoanRecords()) {
+            int expectedDays = loan.getBorrower().getId().equals("1") ? 21 + 7 + 14 : 21 + 14;
+            assertEquals(loan.getLoanDate().plusDays(expectedDays), loan.getDueDate());
+        }
+        assertEquals(5, libraryService.getStatistics().getRenewals());
+    }
+
+    @Test
+    void testConcurrentLoansOfSameBook() throws Exception {
+        libraryService.addBook("123", "Book 1", "Author 1");
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger loaned = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            User user = new User(String.valueOf(i), false);
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    libraryService.loanBook("123", user);
+                    loaned.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    // Another desk got the book first
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, loaned.get());
+        assertEquals(1, libraryService.viewLoans().size());
+        assertEquals(BookStatus.CHECKED_OUT, dummyBookList.getBook("123").getStatus());
+    }
+
+    @Test
+    void testConcurrentLoansOfDifferentBooks() throws Exception {
+        int threads = 8;
+        for (int i = 0; i < threads; i++) {
+            libraryService.addBook("isbn" + i, "Book " + i, "Author");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String isbn = "isbn" + i;
+            User user = new User(String.valueOf(i), false);
+            futures.add(executor.submit(() -> libraryService.loanBook(isbn, user)));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(threads, libraryService.viewLoans().size());
+        assertEquals(threads, libraryService.getStatistics().getBorrowerCount());
+    }
+
+    @Test
+    void testConcurrentLoansToSameBorrowerRespectLimit() throws Exception {
+        libraryService.setLoanLimitPolicy(new LoanLimitPolicy(1, 0));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int trial = 0; trial < 500; trial++) {
+                User user = new User("patron" + trial, false);
+                String first = "a" + trial;
+                String second = "b" + trial;
+                libraryService.addBook(first, "Book A", "Author");
+                libraryService.addBook(second, "Book B", "Author");
+                boolean batch = trial % 2 == 1;
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> desk1 = executor.submit(() -> {
+                    start.await();
+                    try {
+                        libraryService.loanBook(first, user);
+                    } catch (IllegalStateException e) {
+                        // The other desk used up the patron's limit first
+                    }
+                    return null;
+                });
+                Future<?> desk2 = executor.submit(() -> {
+                    start.await();
+                    try {
+                        if (batch) {
+                            libraryService.executeBatch(List.of(Operation.loan(second, user)));
+                        } else {
+                            libraryService.loanBook(second, user);
+                        }
+                    } catch (IllegalStateException e) {
+                        // The other desk used up the patron's limit first
+                    }
+                    return null;
+                });
+                start.countDown();
+                desk1.get(10, TimeUnit.SECONDS);
+                desk2.get(10, TimeUnit.SECONDS);
+
+                assertEquals(1, libraryService.getBorrowerStatistics(user.getId()).getActiveLoans(),
+                        "Trial " + trial);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testExecuteBatch() {
+        User user = new User("1", false);
+        libraryService.addBook("123", "Book 1", "Author 1");
+        libraryService.addBook("456", "Book 2", "Author 2");
+        libraryService.addBook("789", "Book 3", "Author 3");
+
+        int applied = libraryService.executeBatch(List.of(
+                Operation.loan("123", user),
+                Operation.loan("456", user),
+                Operation.loan("789", user)));
+
+        assertEquals(3, applied);
+        assertEquals(3, libraryService.getBorrowerStatistics("1").getActiveLoans());
+        assertEquals(BookStatus.CHECKED_OUT, dummyBookList.getBook("789").getStatus());
+        generalStorageMock.verify(() -> GeneralStorage.saveBookList(Mockito.anyString(), Mockito.any()),
+                Mockito.times(1));
+    }
+
+    @Test
+    void testExecuteBatchIsAllOrNothing() {
+        User user = new User("1", false);
+        libraryService.addBook("123", "Book 1", "Author 1");
+        libraryService.addBook("456", "Book 2", "Author 2");
+        libraryService.loanBook("456", new User("2", false));
+
+        Exception exception = assertThrows(IllegalStateException.class, () -> libraryService.executeBatch(List.of(
+                Operation.loan("123", user),
+                Operation.loan("456", user))));
+
+        assertTrue(exception.getMessage().startsWith("Operation 2"));
+        assertEquals(BookStatus.AVAILABLE, dummyBookList.getBook("123").getStatus());
+        assertEquals(0, libraryService.getBorrowerStatistics("1").getTotalLoans());
+        assertThrows(IllegalArgumentException.class, () -> libraryService.executeBatch(List.of(
+                Operation.loan("123", user),
+                Operation.loan("missing", user))));
+        assertEquals(BookStatus.AVAILABLE, dummyBookList.getBook("123").getStatus());
+    }
+
+    @Test
+    void testExecuteBatchSeesEarlierOperations() {
+        User alice = new User("alice", false);
+        User bob = new User("bob", false);
+        libraryService.addBook("123", "Book 1", "Author 1");
+        libraryService.loanBook("123", alice);
+        libraryService.setCurrentUser(bob);
+        libraryService.reserveBook("123");
+
+        // Alice returns the book, it goes on hold for Bob, and Bob collects it
+        libraryService.executeBatch(List.of(Operation.returnBook("123"), Operation.loan("123", bob)));
+
+        assertEquals(BookStatus.CHECKED_OUT, dummyBookList.getBook("123").getStatus());
+        assertEquals(1, libraryService.getBorrowerStatistics("bob").getActiveLoans());
+        assertNull(libraryService.getHoldUser("123"));
+
+        // Loaning the same book twice in one batch is rejected up front
+        libraryService.addBook("456", "Book 2", "Author 2");
+        assertThrows(IllegalStateException.class, () -> libraryService.executeBatch(List.of(
+                Operation.loan("456", alice), Operation.loan("456", bob))));
+        assertEquals(BookStatus.AVAILABLE, dummyBookList.getBook("456").getStatus());
+    }
+
+    @Test
+    void testEventsPublishedPerOperation() {
+        List<List<LibraryEvent>> deliveries = new ArrayList<>();
+        libraryService.addEventListener(deliveries::add);
+        User user = new User("1", false);
+
+        libraryService.addBook("123", "Book 1", "Author 1");
+        libraryService.addBook("456", "Book 2", "Author 2");
+        libraryService.executeBatch(List.of(Operation.loan("123", user), Operation.loan("456", user)));
+        libraryService.returnBook("123");
+
+        assertEquals(4, deliveries.size());
+        List<LibraryEvent> batch = deliveries.get(2);
+        assertEquals(4, batch.size());
+        assertEquals(2, batch.stream().filter(e -> e.getType() == LibraryEvent.Type.LOAN_CREATED).count());
+        List<LibraryEvent> returned = deliveries.get(3);
+        assertTrue(returned.stream().anyMatch(e -> e.getType() == LibraryEvent.Type.LOAN_RETURNED));
+        LibraryEvent.StatusChanged change = (LibraryEvent.StatusChanged) returned.stream()
+                .filter(e -> e.getType() == LibraryEvent.Type.STATUS_CHANGED).findFirst().orElseThrow();
+        assertEquals(BookStatus.AVAILABLE, change.getNewStatus());
+    }
+
+    @Test
+    void testBranchesHoldSeparateCatalogs() {
+        BookList northBooks = new BookList();
+        generalStorageMock.when(() -> GeneralStorage.loadBookList(Mockito.contains("north"))).thenReturn(northBooks);
+        LibraryService service = new LibraryService(List.of("main", "north"));
+        User user = new User("1", false);
+
+        service.addBook("123", "Dune", "Frank Herbert");
+        service.addBook("north", "456", "Dune Messiah", "Frank Herbert");
+        assertEquals(List.of("main", "north"), service.getBranchIds());
+        assertEquals("main", service.getBranchOf("123"));
+        assertEquals("north", service.getBranchOf("456"));
+        assertNotNull(northBooks.getBook("456"));
+        assertNull(dummyBookList.getBook("456"));
+        assertThrows(IllegalArgumentException.class, () -> service.addBook("north", "123", "Dune", "Frank Herbert"));
+        assertThrows(IllegalArgumentException.class, () -> service.addBook("south", "789", "Emma", "Jane Austen"));
+
+        // Operations on a book go to the branch holding it
+        service.executeBatch(List.of(Operation.loan("123", user), Operation.loan("456", user)));
+        assertEquals(BookStatus.CHECKED_OUT, northBooks.getBook("456").getStatus());
+        assertEquals(2, service.getBorrowerStatistics("1").getActiveLoans());
+        assertEquals(2, service.viewLoans().size());
+        assertEquals(1, service.getStatistics().getBorrowerCount());
+        assertTrue(service.returnBook("456"));
+
+        // Catalog-wide queries merge every branch
+        assertEquals(2, service.getAllBooks().size());
+        List<Book> byTitle = service.sortBooks(SortCriteria.TITLE, false);
+        assertEquals("456", byTitle.get(0).getIsbn());
+        assertEquals(2, service.searchAndSortBooks("dune", SearchCriteria.TITLE, SortCriteria.TITLE, true).size());
+        List<Book> top = service.searchTopBooks("dune", SearchCriteria.TITLE, 1);
+        assertEquals(1, top.size());
+        assertEquals("123", top.get(0).getIsbn());
+        PagedSource<Loan> history = service.pageLoanHistory("dune", LoanSearchCriteria.BOOK_TITLE,
+                LoanSortCriteria.BOOK_TITLE, false);
+        assertEquals(2, history.size());
+        assertEquals("456", history.fetch(0, 1).get(0).getBook().getIsbn());
+
+        service.saveData();
+        generalStorageMock.verify(() -> GeneralStorage.saveBookList(Mockito.contains("north"), Mockito.eq(northBooks)));
+    }
 }
@@ -0,0 +1,27 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import models.User;
+import org.junit.jupiter.api.Test;
+
+public class OperationTest {
+
+    @Test
+    public void testLoanOperation() {
+        User user = new User("alice", false);
+        Operation operation = Operation.loan("123", user);
+        assertEquals(Operation.Type.LOAN, operation.getType());
+        assertEquals("123", operation.getIsbn());
+        assertSame(user, operation.getBorrower());
+        assertEquals("LOAN 123 for alice", operation.toString());
+    }
+
+    @Test
+    public void testReturnOperation() {
+        Operation operation = Operation.returnBook("123");
+        assertEquals(Operation.Type.RETURN, operation.getType());
+        assertNull(operation.getBorrower());
+        assertEquals("RETURN 123", operation.toString());
+    }
+}
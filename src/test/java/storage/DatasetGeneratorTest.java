@@ -0,0 +1,185 @@
+package storage;
+
+import models.Book;
+import models.BookStatus;
+import storage.DatasetGenerator.LoanRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetGeneratorTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 30);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testSameSeedSameDataset() {
+        List<Book> first = new DatasetGenerator(42, TODAY).generateCatalog(500);
+        List<Book> second = new DatasetGenerator(42, TODAY).generateCatalog(500);
+        List<Book> other = new DatasetGenerator(43, TODAY).generateCatalog(500);
+        assertEquals(first.size(), second.size());
+        boolean differs = false;
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getIsbn(), second.get(i).getIsbn());
+            assertEquals(first.get(i).getTitle(), second.get(i).getTitle());
+            assertEquals(first.get(i).getAuthor(), second.get(i).getAuthor());
+            differs |= !first.get(i).getTitle().equals(other.get(i).getTitle());
+        }
+        assertTrue(differs);
+
+        assertEquals(loanRows(first), loanRows(second));
+    }
+
+    @Test
+    public void testCatalogFitsStorageFormat() {
+        List<Book> books = new DatasetGenerator(1, TODAY).generateCatalog(2000);
+        Set<String> isbns = new HashSet<>();
+        for (Book book : books) {
+            assertTrue(isbns.add(book.getIsbn()));
+            assertTrue(isValidIsbn13(book.getIsbn()), book.getIsbn());
+            assertFalse(book.getTitle().isEmpty());
+            assertFalse(book.getTitle().contains(","));
+            assertFalse(book.getAuthor().contains(","));
+            assertEquals(BookStatus.AVAILABLE, book.getStatus());
+        }
+    }
+
+    @Test
+    public void testIsbnCheckDigit() {
+        assertEquals("9780000000002", DatasetGenerator.isbn(0));
+        assertEquals("9780000000422", DatasetGenerator.isbn(42));
+    }
+
+    @Test
+    public void testAuthorsAreSkewed() {
+        List<Book> books = new DatasetGenerator(5, TODAY).generateCatalog(10_000);
+        Map<String, Integer> booksByAuthor = new HashMap<>();
+        for (Book book : books) {
+            booksByAuthor.merge(book.getAuthor(), 1, Integer::sum);
+        }
+        int most = booksByAuthor.values().stream().max(Integer::compare).orElse(0);
+        // About ten books per author on average, but the most prolific writes many more
+        assertTrue(most > 100, "Most prolific author wrote " + most);
+        assertTrue(booksByAuthor.size() > 100);
+    }
+
+    @Test
+    public void testAuthorNamesAreDistinct() {
+        Set<String> names = new HashSet<>();
+        for (int author = 0; author < 50_000; author++) {
+            assertTrue(names.add(DatasetGenerator.authorName(author)), DatasetGenerator.authorName(author));
+        }
+    }
+
+    @Test
+    public void testLoansNeverOverlapAndMatchBookStatus() {
+        DatasetGenerator generator = new DatasetGenerator(9, TODAY);
+        List<Book> books = generator.generateCatalog(300);
+        List<LoanRecord> loans = new ArrayList<>();
+        generator.generateLoans(books, 3000, 180, loans::add);
+        assertEquals(3000, loans.size());
+
+        Map<String, LocalDate> backOnShelf = new HashMap<>();
+        Set<String> onLoan = new HashSet<>();
+        LocalDate previous = TODAY.minusDays(180);
+        int late = 0;
+        for (LoanRecord loan : loans) {
+            String isbn = loan.getBook().getIsbn();
+            assertFalse(loan.getLoanDate().isBefore(previous));
+            assertFalse(loan.getLoanDate().isAfter(TODAY));
+            previous = loan.getLoanDate();
+            assertEquals(loan.getLoanDate().plusDays(DatasetGenerator.LOAN_DAYS), loan.getDueDate());
+
+            LocalDate free = backOnShelf.get(isbn);
+            assertTrue(free == null || loan.getLoanDate().isAfter(free), "Overlapping loans of " + isbn);
+            assertFalse(onLoan.contains(isbn));
+            if (loan.getReturnDate() == null) {
+                onLoan.add(isbn);
+            } else {
+                assertFalse(loan.getReturnDate().isAfter(TODAY));
+                backOnShelf.put(isbn, loan.getReturnDate());
+                if (loan.getReturnDate().isAfter(loan.getDueDate())) {
+                    late++;
+                }
+            }
+        }
+        assertTrue(late > 0 && late < loans.size() / 2);
+        assertFalse(onLoan.isEmpty());
+
+        for (Book book : books) {
+            if (!onLoan.contains(book.getIsbn())) {
+                assertEquals(BookStatus.AVAILABLE, book.getStatus());
+            }
+        }
+        for (LoanRecord loan : loans) {
+            if (loan.getReturnDate() == null) {
+                BookStatus expected = loan.getDueDate().isBefore(TODAY) ? BookStatus.OVERDUE : BookStatus.CHECKED_OUT;
+                assertEquals(expected, loan.getBook().getStatus());
+            }
+        }
+    }
+
+    @Test
+    public void testCatalogTooSmall() {
+        DatasetGenerator generator = new DatasetGenerator(3, TODAY);
+        List<Book> books = generator.generateCatalog(5);
+        assertThrows(IllegalArgumentException.class, () -> generator.generateLoans(books, 1000, 10, loan -> { }));
+    }
+
+    @Test
+    public void testGenerateLoanList() {
+        DatasetGenerator generator = new DatasetGenerator(11, TODAY);
+        List<Book> books = generator.generateCatalog(200);
+        assertEquals(1000, generator.generateLoanList(books, 1000, 365).getAllLoans().size());
+    }
+
+    @Test
+    public void testWriteLoans() throws IOException {
+        DatasetGenerator generator = new DatasetGenerator(13, TODAY);
+        List<Book> books = generator.generateCatalog(100);
+        Path file = dir.resolve("loans.csv");
+        generator.writeLoans(books, 400, 120, file);
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(400, lines.size());
+        for (String line : lines) {
+            String[] fields = line.split(",", -1);
+            assertEquals(5, fields.length, line);
+            assertTrue(isValidIsbn13(fields[0]));
+            assertTrue(fields[1].startsWith("user"));
+            assertEquals(LocalDate.parse(fields[2]).plusDays(DatasetGenerator.LOAN_DAYS), LocalDate.parse(fields[3]));
+        }
+        assertTrue(lines.stream().anyMatch(line -> line.endsWith(",")));
+    }
+
+    private static List<String> loanRows(List<Book> catalog) {
+        List<String> rows = new ArrayList<>();
+        new DatasetGenerator(42, TODAY).generateLoans(catalog, 500, 90, loan -> rows.add(
+                loan.getBook().getIsbn() + loan.getBorrower().getId() + loan.getLoanDate() + loan.getReturnDate()));
+        return rows;
+    }
+
+    private static boolean isValidIsbn13(String isbn) {
+        if (!isbn.matches("\\d{13}")) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            sum += (isbn.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return sum % 10 == 0;
+    }
+}
@@ -3,6 +3,7 @@ package storage;
 import models.Book;
 import models.BookList;
 import models.BookStatus;
+import models.ReservationList;
 import models.UserPreferences;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -124,4 +125,51 @@ public class GeneralStorageTest {
             assertTrue(line.contains(BookStatus.CHECKED_OUT.toString()));
         }
     }
+
+    @Test
+    public void testSaveAndLoadReservations() {
+        File reservationsFile = tempDir.resolve("reservationsTest.txt").toFile();
+        ReservationList reservations = new ReservationList();
+        reservations.reserve("123", "alice");
+        reservations.reserve("123", "bob");
+        reservations.setHold("123", "carol");
+        reservations.reserve("456", "dave");
+
+        GeneralStorage.saveReservations(reservationsFile.getAbsolutePath(), reservations);
+        ReservationList loaded = GeneralStorage.loadReservations(reservationsFile.getAbsolutePath());
+
+        assertNotNull(loaded);
+        assertEquals("carol", loaded.getHolder("123"));
+        assertEquals(java.util.List.of("alice", "bob"), loaded.getQueues().get("123"));
+        assertEquals(1, loaded.getQueueLength("456"));
+        assertNull(GeneralStorage.loadReservations("nonexistentReservations.txt"));
+    }
+
+    @Test
+    public void testConcurrentSavesNeverInterleave() throws Exception {
+        BookList small = new BookList();
+        BookList large = new BookList();
+        for (int i = 0; i < 2000; i++) {
+            large.addBook(new Book("L" + i, "Large " + i, "Author"));
+            if (i < 10) {
+                small.addBook(new Book("S" + i, "Small " + i, "Author"));
+            }
+        }
+        String filename = bookFile.getAbsolutePath();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 20; i++) {
+                GeneralStorage.saveBookList(filename, large);
+            }
+        });
+        writer.start();
+        for (int i = 0; i < 20; i++) {
+            GeneralStorage.saveBookList(filename, small);
+        }
+        writer.join();
+
+        // Whichever save finished last, the file holds one whole catalog and no temp files are left
+        int size = GeneralStorage.loadBookList(filename).getBooks().size();
+        assertTrue(size == 10 || size == 2000, "Unexpected catalog size " + size);
+        assertEquals(1, tempDir.toFile().list().length);
+    }
 }
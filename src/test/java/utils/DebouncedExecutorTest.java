@@ -0,0 +1,111 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DebouncedExecutorTest {
+
+    @Test
+    public void testDeliversResult() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        List<String> results = new CopyOnWriteArrayList<>();
+        try (DebouncedExecutor executor = new DebouncedExecutor("test", Runnable::run)) {
+            executor.submit(Duration.ZERO, () -> "found", (result, nanos) -> {
+                assertTrue(nanos >= 0);
+                results.add(result);
+                done.countDown();
+            }, e -> fail(e));
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of("found"), results);
+    }
+
+    @Test
+    public void testOnlyLatestOfQuickSubmissionsRuns() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        List<String> results = new CopyOnWriteArrayList<>();
+        try (DebouncedExecutor executor = new DebouncedExecutor("test", Runnable::run)) {
+            for (String query : List.of("h", "ha", "har", "harr")) {
+                executor.submit(Duration.ofMillis(200), () -> {
+                    runs.incrementAndGet();
+                    return query;
+                }, (result, nanos) -> {
+                    results.add(result);
+                    done.countDown();
+                }, e -> fail(e));
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, runs.get());
+        assertEquals(List.of("harr"), results);
+    }
+
+    @Test
+    public void testSupersededRunningTaskIsInterruptedAndDropped() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        List<String> results = new CopyOnWriteArrayList<>();
+        try (DebouncedExecutor executor = new DebouncedExecutor("test", Runnable::run)) {
+            executor.submit(Duration.ZERO, () -> {
+                started.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+                return "slow";
+            }, (result, nanos) -> results.add(result), e -> fail(e));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            executor.submit(Duration.ZERO, () -> "fast", (result, nanos) -> {
+                results.add(result);
+                done.countDown();
+            }, e -> fail(e));
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+        }
+        assertTrue(interrupted.get());
+        assertEquals(List.of("fast"), results);
+    }
+
+    @Test
+    public void testDeliversError() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        List<Exception> errors = new CopyOnWriteArrayList<>();
+        try (DebouncedExecutor executor = new DebouncedExecutor("test", Runnable::run)) {
+            executor.submit(Duration.ZERO, () -> {
+                throw new IllegalArgumentException("Bad query");
+            }, (result, nanos) -> fail("No result expected"), e -> {
+                errors.add(e);
+                done.countDown();
+            });
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, errors.size());
+        assertEquals("Bad query", errors.get(0).getMessage());
+    }
+
+    @Test
+    public void testCancelDropsPendingTask() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        try (DebouncedExecutor executor = new DebouncedExecutor("test", Runnable::run)) {
+            executor.submit(Duration.ofMillis(100), runs::incrementAndGet, (result, nanos) -> { }, e -> { });
+            assertTrue(executor.isBusy());
+            executor.cancel();
+            Thread.sleep(300);
+            assertFalse(executor.isBusy());
+        }
+        assertEquals(0, runs.get());
+    }
+}
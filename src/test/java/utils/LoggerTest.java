@@ -0,0 +1,113 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoggerTest {
+    private final Logger logger = Logger.getLogger(LoggerTest.class);
+    private List<LogEvent> events;
+
+    private class CapturingAppender implements LogAppender {
+        @Override
+        public void append(LogEvent event) {
+            events.add(event);
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        events = Collections.synchronizedList(new ArrayList<>());
+        Logger.setAppender(new CapturingAppender());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Logger.configure("development");
+    }
+
+    @Test
+    public void testLevelFiltering() {
+        Logger.setLevel(LogLevel.WARN);
+        logger.debug("debug");
+        logger.info("info");
+        logger.warn("warn");
+        logger.error("error");
+
+        assertEquals(2, events.size());
+        assertEquals(LogLevel.WARN, events.get(0).getLevel());
+        assertEquals("LoggerTest", events.get(0).getLoggerName());
+        assertTrue(events.get(1).format().contains("[ERROR] LoggerTest - error"));
+    }
+
+    @Test
+    public void testDebugSupplierNotCalledWhenDisabled() {
+        Logger.setLevel(LogLevel.INFO);
+        logger.debug(() -> {
+            throw new AssertionError("Message should not be built");
+        });
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testAsyncAppenderDeliversEvents() {
+        Logger.setLevel(LogLevel.DEBUG);
+        AsyncAppender asyncAppender = new AsyncAppender(new CapturingAppender(), 1024);
+        Logger.setAppender(asyncAppender);
+        for (int i = 0; i < 100; i++) {
+            logger.info("message " + i);
+        }
+        asyncAppender.flush();
+
+        assertEquals(100, events.size());
+        assertEquals("message 0", events.get(0).getMessage());
+        assertEquals("message 99", events.get(99).getMessage());
+        assertEquals(0, asyncAppender.getDroppedEvents());
+    }
+
+    @Test
+    public void testAsyncAppenderDropsWhenClosed() {
+        AsyncAppender asyncAppender = new AsyncAppender(new CapturingAppender(), 4);
+        asyncAppender.close();
+        asyncAppender.append(new LogEvent(0, LogLevel.INFO, "test", "late", null));
+        assertEquals(1, asyncAppender.getDroppedEvents());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testAsyncFlushCoversEventBeingWritten() {
+        AsyncAppender asyncAppender = new AsyncAppender(new CapturingAppender(), 16);
+        try {
+            // The worker often takes the single event just before flush runs
+            for (int i = 1; i <= 2000; i++) {
+                asyncAppender.append(new LogEvent(0, LogLevel.INFO, "test", "message " + i, null));
+                asyncAppender.flush();
+                assertEquals(i, events.size());
+            }
+        } finally {
+            asyncAppender.close();
+        }
+    }
+
+    @Test
+    public void testAsyncFlushWaitsForEventTakenByWorker() throws InterruptedException {
+        AsyncAppender asyncAppender = new AsyncAppender(new CapturingAppender(), 16);
+        try {
+            // Holding the appender's lock stops the worker between taking the event and writing it
+            synchronized (asyncAppender) {
+                asyncAppender.append(new LogEvent(0, LogLevel.INFO, "test", "taken", null));
+                Thread.sleep(300);
+                asyncAppender.flush();
+            }
+            assertEquals(1, events.size());
+        } finally {
+            asyncAppender.close();
+        }
+    }
+}
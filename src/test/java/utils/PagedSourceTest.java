@@ -0,0 +1,172 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PagedSourceTest {
+
+    @Test
+    public void testListPages() {
+        List<Integer> rows = new ArrayList<>(List.of(1, 2, 3, 4, 5));
+        PagedSource<Integer> source = PagedSource.of(rows);
+        assertEquals(5, source.size());
+        assertEquals(List.of(1, 2), source.fetch(0, 2));
+        assertEquals(List.of(5), source.fetch(4, 2));
+        assertEquals(List.of(), source.fetch(7, 2));
+
+        rows.add(6);
+        assertEquals(6, source.size());
+        assertEquals(List.of(5, 6), source.fetch(4, 2));
+    }
+
+    @Test
+    public void testInvalidRange() {
+        PagedSource<Integer> source = PagedSource.of(List.of(1, 2, 3));
+        assertThrows(IllegalArgumentException.class, () -> source.fetch(-1, 2));
+        assertThrows(IllegalArgumentException.class, () -> source.fetch(0, -2));
+        assertThrows(IllegalArgumentException.class,
+                () -> PagedSource.merge(List.of(PagedSource.of(List.of(1))), Comparator.<Integer>naturalOrder()).fetch(-1, 1));
+    }
+
+    @Test
+    public void testMergeMatchesSortedConcatenation() {
+        Random random = new Random(2103);
+        List<PagedSource<Integer>> parts = new ArrayList<>();
+        List<Integer> all = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            List<Integer> part = new ArrayList<>();
+            for (int i = 0; i < 250 + p; i++) {
+                part.add(random.nextInt(100));
+            }
+            part.sort(null);
+            parts.add(PagedSource.of(part));
+            all.addAll(part);
+        }
+        all.sort(null);
+
+        PagedSource<Integer> source = PagedSource.merge(parts, Comparator.naturalOrder());
+        assertEquals(all.size(), source.size());
+        // Pages fetched out of order still line up with the full sort
+        assertEquals(all.subList(500, 550), source.fetch(500, 50));
+        assertEquals(all.subList(0, 50), source.fetch(0, 50));
+        assertEquals(all.subList(950, all.size()), source.fetch(950, 100));
+    }
+
+    @Test
+    public void testMergeIsStable() {
+        // Sorted by length only; equal lengths keep the order of the lists
+        List<PagedSource<String>> parts = List.of(PagedSource.of(List.of("b1", "ccc1")),
+                PagedSource.of(List.of("a2", "b2", "dd2")), PagedSource.of(List.<String>of()), PagedSource.of(List.of("e3")));
+        PagedSource<String> source = PagedSource.merge(parts, Comparator.comparingInt(String::length));
+        assertEquals(List.of("b1", "a2", "b2", "e3", "dd2", "ccc1"), source.fetch(0, 10));
+    }
+
+    @Test
+    public void testMergeOfNothing() {
+        PagedSource<Integer> source = PagedSource.merge(List.<PagedSource<Integer>>of(), Comparator.naturalOrder());
+        assertEquals(0, source.size());
+        assertEquals(List.of(), source.fetch(0, 10));
+    }
+
+    @Test
+    public void testSortedPagesMatchFullSort() {
+        Random random = new Random(2103);
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            // Few distinct values, so many rows compare equal
+            rows.add(random.nextInt(i % 2 == 0 ? 50 : 100_000));
+        }
+        List<Integer> all = new ArrayList<>(rows);
+        all.sort(Comparator.reverseOrder());
+
+        PagedSource<Integer> source = PagedSource.sorted(rows, Comparator.reverseOrder());
+        assertEquals(all.size(), source.size());
+        assertEquals(all.subList(2500, 2600), source.fetch(2500, 100));
+        assertEquals(all.subList(0, 100), source.fetch(0, 100));
+        assertEquals(all.subList(4950, 5000), source.fetch(4950, 100));
+        assertEquals(all.subList(2550, 2650), source.fetch(2550, 100));
+        assertEquals(all, source.fetch(0, 5000));
+        assertEquals(List.of(), PagedSource.sorted(List.<Integer>of(), Comparator.naturalOrder()).fetch(0, 10));
+    }
+
+    @Test
+    public void testFirstPageDoesNotSortEverything() {
+        Random random = new Random(2103);
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            rows.add(random.nextInt());
+        }
+        AtomicLong comparisons = new AtomicLong();
+        Comparator<Integer> counting = (a, b) -> {
+            comparisons.incrementAndGet();
+            return Integer.compare(a, b);
+        };
+
+        PagedSource<Integer> source = PagedSource.sorted(rows, counting);
+        List<Integer> expected = new ArrayList<>(rows);
+        expected.sort(null);
+        assertEquals(expected.subList(0, 100), source.fetch(0, 100));
+        // A full sort takes well over a million comparisons; partitioning towards the page about 2n
+        assertTrue(comparisons.get() < 600_000, "Comparisons: " + comparisons.get());
+    }
+
+    @Test
+    public void testMergeReadsSourcesOnlyAsFarAsNeeded() {
+        List<Integer> fetchedUpTo = new ArrayList<>(List.of(0, 0));
+        List<PagedSource<Integer>> parts = new ArrayList<>();
+        for (int p = 0; p < 2; p++) {
+            int part = p;
+            List<Integer> rows = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                rows.add(i * 2 + part);
+            }
+            PagedSource<Integer> list = PagedSource.of(rows);
+            parts.add(new PagedSource<>() {
+                @Override
+                public int size() {
+                    return list.size();
+                }
+
+                @Override
+                public List<Integer> fetch(int offset, int limit) {
+                    fetchedUpTo.set(part, Math.max(fetchedUpTo.get(part), offset + limit));
+                    return list.fetch(offset, limit);
+                }
+            });
+        }
+        PagedSource<Integer> merged = PagedSource.merge(parts, Comparator.naturalOrder());
+        assertEquals(List.of(0, 1, 2, 3), merged.fetch(0, 4));
+        assertTrue(fetchedUpTo.get(0) < 1000 && fetchedUpTo.get(1) < 1000);
+    }
+
+    @Test
+    public void testFetchStopsWhenInterruptedAndCanResume() {
+        Random random = new Random(2103);
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            rows.add(random.nextInt());
+        }
+        List<Integer> expected = new ArrayList<>(rows);
+        expected.sort(null);
+        PagedSource<Integer> sorted = PagedSource.sorted(rows, Comparator.naturalOrder());
+        PagedSource<Integer> merged = PagedSource.merge(List.of(PagedSource.of(expected)), Comparator.naturalOrder());
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class, () -> sorted.fetch(0, 100));
+            assertThrows(CancellationException.class, () -> merged.fetch(0, 100));
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(expected.subList(0, 100), sorted.fetch(0, 100));
+        assertEquals(expected, sorted.fetch(0, rows.size()));
+    }
+}
@@ -0,0 +1,61 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.jupiter.api.Test;
+
+public class StripedLockTest {
+
+    @Test
+    public void testStripeCountRoundedToPowerOfTwo() {
+        assertEquals(1, new StripedLock(1).getStripeCount());
+        assertEquals(64, new StripedLock(64).getStripeCount());
+        assertEquals(128, new StripedLock(65).getStripeCount());
+        assertThrows(IllegalArgumentException.class, () -> new StripedLock(0));
+    }
+
+    @Test
+    public void testSameKeySameLock() {
+        StripedLock locks = new StripedLock(16);
+        assertSame(locks.get("9780131103627"), locks.get(new String("9780131103627")));
+        assertSame(locks.get(null), locks.get(null));
+    }
+
+    @Test
+    public void testKeysSpreadOverStripes() {
+        StripedLock locks = new StripedLock(16);
+        boolean[] used = new boolean[16];
+        for (int i = 0; i < 1000; i++) {
+            used[locks.indexFor("isbn" + i)] = true;
+        }
+        for (boolean stripeUsed : used) {
+            assertTrue(stripeUsed);
+        }
+    }
+
+    @Test
+    public void testLockAll() {
+        StripedLock locks = new StripedLock(4);
+        locks.lockAll();
+        ReentrantLock lock = locks.get("123");
+        assertTrue(lock.isHeldByCurrentThread());
+        locks.unlockAll();
+        assertFalse(lock.isLocked());
+    }
+
+    @Test
+    public void testLockKeys() {
+        StripedLock locks = new StripedLock(4);
+        List<ReentrantLock> acquired = locks.lock(List.of("123", "456", "123"));
+        assertTrue(acquired.size() <= 2);
+        assertTrue(locks.get("123").isHeldByCurrentThread());
+        assertTrue(locks.get("456").isHeldByCurrentThread());
+        assertEquals(1, locks.get("123").getHoldCount());
+        locks.unlock(acquired);
+        assertFalse(locks.get("123").isLocked());
+        assertFalse(locks.get("456").isLocked());
+    }
+}
@@ -0,0 +1,70 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipfDistributionTest {
+
+    @Test
+    public void testProbabilitiesFallWithRank() {
+        ZipfDistribution zipf = new ZipfDistribution(100, 1.0);
+        double total = 0;
+        for (int rank = 0; rank < 100; rank++) {
+            total += zipf.probability(rank);
+            if (rank > 0) {
+                assertTrue(zipf.probability(rank) < zipf.probability(rank - 1));
+            }
+        }
+        assertEquals(1.0, total, 1e-9);
+        assertEquals(2.0, zipf.probability(0) / zipf.probability(1), 1e-9);
+    }
+
+    @Test
+    public void testZeroExponentIsUniform() {
+        ZipfDistribution zipf = new ZipfDistribution(4, 0);
+        for (int rank = 0; rank < 4; rank++) {
+            assertEquals(0.25, zipf.probability(rank), 1e-9);
+        }
+    }
+
+    @Test
+    public void testSamplesStayInRangeAndFavorLowRanks() {
+        ZipfDistribution zipf = new ZipfDistribution(50, 1.0);
+        Random random = new Random(1);
+        int[] counts = new int[50];
+        for (int i = 0; i < 100_000; i++) {
+            int rank = zipf.sample(random);
+            assertTrue(rank >= 0 && rank < 50);
+            counts[rank]++;
+        }
+        assertTrue(counts[0] > counts[1]);
+        assertTrue(counts[1] > counts[10]);
+        assertEquals(zipf.probability(0), counts[0] / 100_000.0, 0.01);
+    }
+
+    @Test
+    public void testSameSeedSameSamples() {
+        ZipfDistribution zipf = new ZipfDistribution(1000, 1.2);
+        Random first = new Random(7);
+        Random second = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(zipf.sample(first), zipf.sample(second));
+        }
+    }
+
+    @Test
+    public void testSingleRank() {
+        ZipfDistribution zipf = new ZipfDistribution(1, 1.0);
+        assertEquals(1, zipf.getSize());
+        assertEquals(0, zipf.sample(new Random()));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfDistribution(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfDistribution(10, -1.0));
+    }
+}